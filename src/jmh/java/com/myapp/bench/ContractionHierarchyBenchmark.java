@@ -0,0 +1,149 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.routing.ContractionHierarchy;
+import com.myapp.routing.LocalRoutingEngine;
+import com.myapp.routing.RoadClass;
+import com.myapp.routing.RoadGraph;
+
+/**
+ * Motor de rotas local sobre uma grelha sintética de {@code gridSize²} nós
+ * (ruas residenciais, avenidas a cada 10 linhas e vias rápidas a cada 50),
+ * com e sem hierarquia de contração.
+ *
+ * O setup imprime o tempo de pré-processamento e o tamanho do ficheiro
+ * {@code .ch}; os benchmarks medem a latência de rotas entre pares
+ * aleatórios de nós ({@code getRoute}, incluindo a associação ao nó mais
+ * próximo e a geometria) em modo {@code SampleTime}, que reporta os
+ * percentis p50/p90/p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractionHierarchyBenchmark {
+    private static final int QUERY_PAIRS = 1024;
+
+    @Param({ "100", "300" })
+    public int gridSize;
+
+    private Path dir;
+    private LocalRoutingEngine hierarchy;
+    private LocalRoutingEngine astar;
+    private LocalRoutingEngine dijkstra;
+    private Point[] origins;
+    private Point[] destinations;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        RoadGraph graph = syntheticGrid(gridSize, 42L);
+
+        long start = System.nanoTime();
+        ContractionHierarchy built = ContractionHierarchy.build(graph, TransportMode.CAR);
+        long preprocessMs = (System.nanoTime() - start) / 1_000_000;
+
+        dir = Files.createTempDirectory("ch-bench");
+        Path file = dir.resolve("grid.car.ch");
+        built.write(file);
+        ContractionHierarchy mapped = ContractionHierarchy.map(file, graph);
+        System.out.printf("%n[CH] %d nós, %d arestas no grafo, %d na hierarquia: pré-processamento %d ms,"
+                + " ficheiro %d KB%n", graph.getNodeCount(), graph.getEdgeCount(TransportMode.CAR),
+                mapped.getEdgeCount(), preprocessMs, Files.size(file) / 1024);
+
+        hierarchy = new LocalRoutingEngine(graph, Map.of(TransportMode.CAR, mapped));
+        astar = new LocalRoutingEngine(graph, LocalRoutingEngine.Algorithm.BIDIRECTIONAL_ASTAR);
+        dijkstra = new LocalRoutingEngine(graph, LocalRoutingEngine.Algorithm.DIJKSTRA);
+
+        Random random = new Random(7);
+        origins = new Point[QUERY_PAIRS];
+        destinations = new Point[QUERY_PAIRS];
+        for (int i = 0; i < QUERY_PAIRS; i++) {
+            origins[i] = nodePoint(graph, random.nextInt(graph.getNodeCount()));
+            destinations[i] = nodePoint(graph, random.nextInt(graph.getNodeCount()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("grid.car.ch"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public Route contractionHierarchy() {
+        int i = next++ & (QUERY_PAIRS - 1);
+        return hierarchy.getRoute(origins[i], destinations[i], TransportMode.CAR);
+    }
+
+    @Benchmark
+    public Route bidirectionalAstar() {
+        int i = next++ & (QUERY_PAIRS - 1);
+        return astar.getRoute(origins[i], destinations[i], TransportMode.CAR);
+    }
+
+    @Benchmark
+    public Route dijkstra() {
+        int i = next++ & (QUERY_PAIRS - 1);
+        return dijkstra.getRoute(origins[i], destinations[i], TransportMode.CAR);
+    }
+
+    private static Point nodePoint(RoadGraph graph, int node) {
+        return new Point(graph.getLatitude(node), graph.getLongitude(node), null);
+    }
+
+    // Grelha com ~100 m entre nós e hierarquia de vias como numa cidade
+    static RoadGraph syntheticGrid(int n, long seed) {
+        Random random = new Random(seed);
+        RoadGraph.Builder builder = RoadGraph.builder();
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                builder.addNode(38.5 + r * 0.0009 + random.nextDouble() * 0.0002,
+                        -9.3 + c * 0.0011 + random.nextDouble() * 0.0002);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = r * n + c;
+                if (c + 1 < n) {
+                    builder.addEdge(v, v + 1, roadClass(r), random.nextInt(10) == 0, Double.NaN);
+                }
+                if (r + 1 < n) {
+                    builder.addEdge(v, v + n, roadClass(c), random.nextInt(10) == 0, Double.NaN);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static RoadClass roadClass(int line) {
+        if (line % 50 == 0) {
+            return RoadClass.MOTORWAY;
+        }
+        return line % 10 == 0 ? RoadClass.PRIMARY : RoadClass.RESIDENTIAL;
+    }
+}
@@ -0,0 +1,110 @@
+package com.myapp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.model.ElevationProfile;
+
+/**
+ * Construção de um {@link ElevationProfile} com {@code samples} amostras, como
+ * no fim de {@code Service.getElevationProfile}.
+ *
+ * - {@code boxedLists}: a forma anterior, duas {@code List<Double>} e uma
+ * segunda passagem para as estatísticas (com {@code -prof gc} vê-se a
+ * alocação por amostra).
+ * - {@code builder}: {@link ElevationProfile.Builder}, estatísticas ao
+ * acrescentar.
+ * - {@code ascentWithHysteresis} e {@code smooth}: pós-processamento do
+ * perfil já construído.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElevationProfileBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int samples;
+
+    private double[] elevations;
+    private double[] distances;
+    private ElevationProfile profile;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(3L);
+        elevations = new double[samples];
+        distances = new double[samples];
+        double h = 100;
+        for (int i = 0; i < samples; i++) {
+            h += random.nextGaussian() * 2;
+            elevations[i] = h;
+            distances[i] = i * 0.03;
+        }
+        profile = builder();
+    }
+
+    @Benchmark
+    public double[] boxedLists() {
+        List<Double> values = new ArrayList<>(samples);
+        List<Double> km = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            values.add(elevations[i]);
+            km.add(distances[i]);
+        }
+        // Estatísticas como no construtor anterior
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        double ascent = 0;
+        double descent = 0;
+        for (int i = 0; i < values.size(); i++) {
+            double elev = values.get(i);
+            max = Math.max(max, elev);
+            min = Math.min(min, elev);
+            if (i > 0) {
+                double diff = elev - values.get(i - 1);
+                if (diff > 0) {
+                    ascent += diff;
+                } else {
+                    descent += Math.abs(diff);
+                }
+            }
+        }
+        return new double[] { max, min, ascent, descent, km.size() };
+    }
+
+    @Benchmark
+    public ElevationProfile builder() {
+        ElevationProfile.Builder builder = ElevationProfile.builder(samples);
+        for (int i = 0; i < samples; i++) {
+            builder.add(elevations[i], distances[i]);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public double ascentWithHysteresis() {
+        return profile.getTotalAscent(3.0);
+    }
+
+    @Benchmark
+    public ElevationProfile smooth() {
+        return profile.smooth(5);
+    }
+}
@@ -0,0 +1,128 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.POI;
+import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
+import com.myapp.model.TransportMode;
+import com.myapp.service.OsrmRoutingBackend;
+import com.myapp.service.Service;
+import com.myapp.utils.RouteExporter;
+
+/**
+ * Exportação de rotas com {@link RouteExporter} (JSON e GPX, com e sem gzip)
+ * para um ficheiro temporário. A rota é a da fixture OSRM do tamanho indicado,
+ * com os POIs da fixture Overpass correspondente; {@code 100k} é uma rota
+ * sintética com 100 000 pontos e sem POIs.
+ *
+ * Com {@code -prof gc}, {@code gc.alloc.rate.norm} mostra os bytes alocados
+ * por exportação (devem ser independentes do número de pontos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+    private static final MethodHandle PARSE_ROUTE = Fixtures.privateMethod(OsrmRoutingBackend.class, "parseRoute",
+            MethodType.methodType(Route.class, String.class, TransportMode.class), false);
+    private static final int SYNTHETIC_POINTS = 100_000;
+    private static final MethodHandle PARSE_OVERPASS = Fixtures.privateMethod(Service.class, "parseOverpassPOIs",
+            MethodType.methodType(List.class, String.class), false);
+
+    @Param({ "small", "medium", "large", "100k" })
+    public String size;
+
+    private Path dir;
+    private String jsonFile;
+    private String gpxFile;
+    private String jsonGzFile;
+    private String gpxGzFile;
+    private Route route;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Throwable {
+        if ("100k".equals(size)) {
+            route = syntheticRoute(SYNTHETIC_POINTS);
+        } else {
+            OsrmRoutingBackend osrmBackend = new OsrmRoutingBackend(new OSRMClient());
+            Service service = new Service(osrmBackend, new OverpassClient(), new NominatimClient(),
+                    new ElevationClient());
+            route = (Route) PARSE_ROUTE.invoke(osrmBackend, Fixtures.load("osrm", size), TransportMode.CAR);
+            route.getPois().addAll((List<POI>) PARSE_OVERPASS.invoke(service, Fixtures.load("overpass", size)));
+        }
+
+        dir = Files.createTempDirectory("export-bench");
+        jsonFile = dir.resolve("route.json").toString();
+        gpxFile = dir.resolve("route.gpx").toString();
+        jsonGzFile = jsonFile + ".gz";
+        gpxGzFile = gpxFile + ".gz";
+    }
+
+    // Linha em ziguezague a partir de Lisboa, com passos de ~10 m
+    private static Route syntheticRoute(int points) {
+        double[] latLon = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            latLon[2 * i] = 38.7223 + i * 0.00009;
+            latLon[2 * i + 1] = -9.1393 + (i % 2 == 0 ? 0.0 : 0.000137);
+        }
+        return new Route(RouteGeometry.ofInterleaved(latLon, points), points * 0.01, points, TransportMode.CAR,
+                new ArrayList<>());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(jsonFile));
+        Files.deleteIfExists(Path.of(gpxFile));
+        Files.deleteIfExists(Path.of(jsonGzFile));
+        Files.deleteIfExists(Path.of(gpxGzFile));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void exportToJson() throws IOException {
+        RouteExporter.exportToJson(route, jsonFile);
+    }
+
+    @Benchmark
+    public void exportToGPX() throws IOException {
+        RouteExporter.exportToGPX(route, gpxFile);
+    }
+
+    @Benchmark
+    public void exportToJsonGzip() throws IOException {
+        RouteExporter.exportToJson(route, jsonGzFile);
+    }
+
+    @Benchmark
+    public void exportToGPXGzip() throws IOException {
+        RouteExporter.exportToGPX(route, gpxGzFile);
+    }
+}
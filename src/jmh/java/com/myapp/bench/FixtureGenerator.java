@@ -0,0 +1,302 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myapp.service.PolylineCodec;
+import com.myapp.utils.GeoMath;
+
+/**
+ * Gera as fixtures sintéticas dos benchmarks ({@code src/jmh/resources/fixtures}).
+ *
+ * As respostas não foram gravadas das APIs: são construídas com a forma das
+ * respostas reais a partir da rota Lisboa-Paris de {@code route.json} e das
+ * entradas de {@code history.json}, com um {@link Random} de semente fixa, para
+ * que as mesmas fixtures possam ser reproduzidas byte a byte. Para as
+ * redimensionar, alterar os tamanhos abaixo e voltar a correr:
+ *
+ * <pre>
+ * java -cp &lt;classpath do perfil benchmark&gt; com.myapp.bench.FixtureGenerator [diretório]
+ * </pre>
+ *
+ * a partir da raiz do projeto (por omissão escreve em
+ * {@code src/jmh/resources/fixtures}).
+ */
+public final class FixtureGenerator {
+    private static final String[] SIZES = {"small", "medium", "large"};
+    private static final int[] OSRM_POINTS = {150, 3000, Integer.MAX_VALUE};
+    private static final int[] OVERPASS_ELEMENTS = {25, 500, 5000};
+    private static final int[] OVERPASS_STEP = {5, 90, 9};
+    private static final int[] NOMINATIM_RESULTS = {1, 10, 50};
+    private static final int[] ELEVATION_POINTS = {10, 100, 1000};
+    private static final int[] HISTORY_ENTRIES = {10, 100, 1000};
+
+    private static final long SEED = 7L;
+    private static final double REPEATED_FRACTION = 0.2;
+    private static final int RECENT_WINDOW = 50;
+    private static final double CAR_SPEED_MPS = 22.0;
+
+    private static final String[][] AMENITIES = {
+            {"amenity", "restaurant"}, {"amenity", "cafe"}, {"amenity", "fuel"}, {"amenity", "pharmacy"},
+            {"amenity", "bank"}, {"tourism", "hotel"}, {"tourism", "museum"}, {"shop", "supermarket"}};
+    private static final String[] NAMES = {
+            "Central", "do Largo", "São João", "Avenida", "da Estação", "Lusitano", "Europa", "Dom Pedro",
+            "Jardim", "Nova"};
+    private static final String[][] PLACES = {
+            {"Lisboa", "city"}, {"Porto", "city"}, {"Coimbra", "city"}, {"Braga", "city"}, {"Faro", "city"},
+            {"Aveiro", "city"}, {"Évora", "town"}, {"Setúbal", "city"}, {"Viseu", "city"}, {"Leiria", "city"}};
+
+    private static final Gson COMPACT = new GsonBuilder().disableHtmlEscaping().create();
+    private static final Gson PRETTY = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+    private final Path dir;
+    private final double[] route;
+    private final int count;
+    private final Random random = new Random(SEED);
+
+    private FixtureGenerator(Path dir, double[] route) {
+        this.dir = dir;
+        this.route = route;
+        this.count = route.length / 2;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Path.of(args.length > 0 ? args[0] : "src/jmh/resources/fixtures");
+        Files.createDirectories(dir);
+        FixtureGenerator generator = new FixtureGenerator(dir, readRoute(Path.of("route.json")));
+        JsonArray history = readHistory(Path.of("history.json"));
+        for (int s = 0; s < SIZES.length; s++) {
+            generator.write("osrm", s, generator.osrm(Math.min(OSRM_POINTS[s], generator.count)), COMPACT);
+            generator.write("overpass", s, generator.overpass(OVERPASS_ELEMENTS[s], OVERPASS_STEP[s]), COMPACT);
+            generator.write("nominatim", s, generator.nominatim(NOMINATIM_RESULTS[s]), COMPACT);
+            generator.write("elevation", s, generator.elevation(ELEVATION_POINTS[s]), COMPACT);
+            generator.write("history", s, repeat(history, HISTORY_ENTRIES[s]), PRETTY);
+        }
+        System.out.println("[FixtureGenerator] Fixtures escritas em " + dir.toAbsolutePath());
+    }
+
+    private void write(String api, int size, JsonElement json, Gson gson) throws IOException {
+        Files.writeString(dir.resolve(api + "-" + SIZES[size] + ".json"), gson.toJson(json), StandardCharsets.UTF_8);
+    }
+
+    /** Rota com {@code geometries=polyline6} sobre os primeiros {@code points} vértices. */
+    private JsonObject osrm(int points) {
+        double meters = 0;
+        for (int i = 1; i < points; i++) {
+            meters += GeoMath.haversineMeters(lat(i - 1), lon(i - 1), lat(i), lon(i));
+        }
+        double distance = round(meters, 1);
+        double duration = round(meters / CAR_SPEED_MPS, 1);
+        double weight = round(meters / CAR_SPEED_MPS * 1.1, 1);
+
+        JsonObject leg = new JsonObject();
+        leg.add("steps", new JsonArray());
+        leg.addProperty("summary", "");
+        leg.addProperty("weight", weight);
+        leg.addProperty("duration", duration);
+        leg.addProperty("distance", distance);
+        JsonArray legs = new JsonArray();
+        legs.add(leg);
+
+        JsonObject route = new JsonObject();
+        route.addProperty("geometry", PolylineCodec.encode(this.route, points, 6));
+        route.add("legs", legs);
+        route.addProperty("weight_name", "routability");
+        route.addProperty("weight", weight);
+        route.addProperty("duration", duration);
+        route.addProperty("distance", distance);
+        JsonArray routes = new JsonArray();
+        routes.add(route);
+
+        JsonArray waypoints = new JsonArray();
+        waypoints.add(waypoint(0));
+        waypoints.add(waypoint(points - 1));
+
+        JsonObject json = new JsonObject();
+        json.addProperty("code", "Ok");
+        json.add("routes", routes);
+        json.add("waypoints", waypoints);
+        return json;
+    }
+
+    private JsonObject waypoint(int i) {
+        JsonArray location = new JsonArray();
+        location.add(lon(i));
+        location.add(lat(i));
+        JsonObject waypoint = new JsonObject();
+        waypoint.addProperty("name", "");
+        waypoint.add("location", location);
+        return waypoint;
+    }
+
+    /**
+     * Nós e ways (com {@code center}) ao longo da rota; uma fração é repetida
+     * como acontece quando as áreas de checkpoints consecutivos se sobrepõem.
+     */
+    private JsonObject overpass(int n, int step) {
+        JsonArray elements = new JsonArray();
+        List<JsonObject> recent = new ArrayList<>();
+        long id = 3_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            if (!recent.isEmpty() && random.nextDouble() < REPEATED_FRACTION) {
+                elements.add(recent.get(random.nextInt(recent.size())));
+                continue;
+            }
+            int p = (int) ((long) i * step % count);
+            double lat = round(lat(p) + uniform(-0.004, 0.004), 7);
+            double lon = round(lon(p) + uniform(-0.004, 0.004), 7);
+            String[] amenity = AMENITIES[random.nextInt(AMENITIES.length)];
+            JsonObject tags = new JsonObject();
+            tags.addProperty(amenity[0], amenity[1]);
+            tags.addProperty("name", Character.toUpperCase(amenity[1].charAt(0)) + amenity[1].substring(1)
+                    + " " + NAMES[random.nextInt(NAMES.length)]);
+            if (random.nextDouble() < 0.3) {
+                tags.addProperty("opening_hours", "Mo-Su 08:00-22:00");
+            }
+            id += 1 + random.nextInt(5000);
+
+            JsonObject element = new JsonObject();
+            if (random.nextDouble() < 0.75) {
+                element.addProperty("type", "node");
+                element.addProperty("id", id);
+                element.addProperty("lat", lat);
+                element.addProperty("lon", lon);
+            } else {
+                JsonObject center = new JsonObject();
+                center.addProperty("lat", lat);
+                center.addProperty("lon", lon);
+                JsonArray nodes = new JsonArray();
+                for (int j = 0; j < 5; j++) {
+                    nodes.add(id + j);
+                }
+                element.addProperty("type", "way");
+                element.addProperty("id", id / 10);
+                element.add("center", center);
+                element.add("nodes", nodes);
+            }
+            element.add("tags", tags);
+            elements.add(element);
+            recent.add(element);
+            if (recent.size() > RECENT_WINDOW) {
+                recent.remove(0);
+            }
+        }
+        JsonObject json = new JsonObject();
+        json.addProperty("version", 0.6);
+        json.addProperty("generator", FixtureGenerator.class.getSimpleName());
+        json.add("elements", elements);
+        return json;
+    }
+
+    private JsonArray nominatim(int n) {
+        JsonArray results = new JsonArray();
+        for (int i = 0; i < n; i++) {
+            String[] place = PLACES[i % PLACES.length];
+            int p = (int) ((long) i * 997 % count);
+            double lat = lat(p);
+            double lon = lon(p);
+            JsonArray box = new JsonArray();
+            box.add(coordinate(lat - 0.05));
+            box.add(coordinate(lat + 0.05));
+            box.add(coordinate(lon - 0.07));
+            box.add(coordinate(lon + 0.07));
+
+            JsonObject result = new JsonObject();
+            result.addProperty("place_id", 200_000_000L + i);
+            result.addProperty("osm_type", "relation");
+            result.addProperty("osm_id", 5_400_000L + i);
+            result.addProperty("lat", coordinate(lat));
+            result.addProperty("lon", coordinate(lon));
+            result.addProperty("class", "boundary");
+            result.addProperty("type", "administrative");
+            result.addProperty("place_rank", 16);
+            result.addProperty("importance", round(0.75 - i * 0.01, 6));
+            result.addProperty("addresstype", place[1]);
+            result.addProperty("name", place[0]);
+            result.addProperty("display_name", place[0] + ", " + place[0] + " (distrito), Portugal");
+            result.add("boundingbox", box);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /** Pontos igualmente espaçados na rota com uma altitude em passeio aleatório. */
+    private JsonObject elevation(int n) {
+        JsonArray results = new JsonArray();
+        double elevation = 40.0;
+        for (int i = 0; i < n; i++) {
+            int p = (int) ((long) i * (count - 1) / Math.max(1, n - 1));
+            elevation = Math.max(0.0, elevation + uniform(-25, 25));
+            JsonObject result = new JsonObject();
+            result.addProperty("latitude", lat(p));
+            result.addProperty("longitude", lon(p));
+            result.addProperty("elevation", round(elevation, 1));
+            results.add(result);
+        }
+        JsonObject json = new JsonObject();
+        json.add("results", results);
+        return json;
+    }
+
+    private static JsonArray repeat(JsonArray entries, int n) {
+        JsonArray out = new JsonArray(n);
+        for (int i = 0; i < n; i++) {
+            out.add(entries.get(i % entries.size()));
+        }
+        return out;
+    }
+
+    private static double[] readRoute(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonArray points = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("route_points");
+            double[] latLon = new double[2 * points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                JsonObject p = points.get(i).getAsJsonObject();
+                latLon[2 * i] = p.get("lat").getAsDouble();
+                latLon[2 * i + 1] = p.get("lon").getAsDouble();
+            }
+            return latLon;
+        }
+    }
+
+    // history.json foi gravado em ISO-8859-1 por versões antigas do HistoryManager.
+    private static JsonArray readHistory(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            return JsonParser.parseReader(reader).getAsJsonArray();
+        }
+    }
+
+    private double lat(int i) {
+        return route[2 * i];
+    }
+
+    private double lon(int i) {
+        return route[2 * i + 1];
+    }
+
+    private double uniform(double min, double max) {
+        return min + (max - min) * random.nextDouble();
+    }
+
+    private static double round(double value, int decimals) {
+        double factor = Math.pow(10, decimals);
+        return Math.round(value * factor) / factor;
+    }
+
+    private static String coordinate(double value) {
+        return String.format(Locale.ROOT, "%.7f", value);
+    }
+}
@@ -0,0 +1,73 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Respostas sintéticas usadas pelos benchmarks ({@code src/jmh/resources/fixtures}).
+ *
+ * Não são respostas gravadas das APIs: têm a forma das respostas reais mas são
+ * geradas, de forma reprodutível, por {@link FixtureGenerator} a partir de
+ * {@code route.json} e {@code history.json}; para mudar os tamanhos, alterar o
+ * gerador e voltar a corrê-lo.
+ *
+ * Cada API tem três tamanhos ({@code small}, {@code medium}, {@code large}):
+ * - {@code osrm-*}: rota {@code geometries=polyline6} com 150, 3000 e 49512
+ * vértices (a rota Lisboa-Paris de {@code route.json});
+ * - {@code overpass-*}: 25, 500 e 5000 elementos (nós e ways com
+ * {@code center}, ~20% repetidos como em checkpoints sobrepostos);
+ * - {@code nominatim-*}: 1, 10 e 50 resultados ({@code limit} máximo);
+ * - {@code elevation-*}: 10, 100 e 1000 pontos no formato da Open-Elevation;
+ * - {@code history-*}: 10, 100 e 1000 entradas no formato do
+ * {@link com.myapp.utils.HistoryManager}.
+ */
+final class Fixtures {
+    private static final String DIR = "/fixtures/";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Lê uma fixture do classpath.
+     *
+     * @param api  prefixo da fixture (ex.: {@code osrm})
+     * @param size {@code small}, {@code medium} ou {@code large}
+     * @return conteúdo em UTF-8
+     */
+    static String load(String api, String size) {
+        String name = DIR + api + "-" + size + ".json";
+        try (InputStream in = Fixtures.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture inexistente: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtém um método privado para ser medido sem alterar a sua visibilidade
+     * (o mesmo que os testes fazem por reflexão, mas sem o custo de
+     * {@code Method.invoke} por chamada).
+     *
+     * @param owner    classe que declara o método
+     * @param name     nome do método
+     * @param type     tipo do método (sem o recetor)
+     * @param isStatic {@code true} se o método for estático
+     * @return handle para o método
+     */
+    static MethodHandle privateMethod(Class<?> owner, String name, MethodType type, boolean isStatic) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            return isStatic ? lookup.findStatic(owner, name, type) : lookup.findVirtual(owner, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Método não encontrado: " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.myapp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.model.Point;
+import com.myapp.utils.GeoMath;
+
+/**
+ * Distâncias acumuladas ao longo de uma rota de {@code points} vértices.
+ *
+ * - {@code pointPairs}: a forma anterior, Haversine por par de {@link Point}
+ * (dois cossenos por troço).
+ * - {@code geoMathScalar}: {@link GeoMath#cumulativeMeters} sem Vector API.
+ * - {@code geoMathVector}: o mesmo com {@code jdk.incubator.vector}; requer as
+ * classes compiladas com o perfil {@code vector} (sem elas, mede a versão
+ * escalar).
+ *
+ * {@code step} é o deslocamento máximo entre vértices, em graus: 0.0005
+ * (~50 m, troços de rota reais, caminho equirectangular) ou 0.2 (~10 km,
+ * quase todos os troços passam pela Haversine).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoMathBenchmark {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    @Param({ "100000" })
+    public int points;
+
+    @Param({ "0.0005", "0.2" })
+    public double step;
+
+    private List<Point> pointList;
+    private double[] lat;
+    private double[] lon;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5L);
+        pointList = new ArrayList<>(points);
+        lat = new double[points];
+        lon = new double[points];
+        double la = 38.7223;
+        double lo = -9.1393;
+        for (int i = 0; i < points; i++) {
+            pointList.add(new Point(la, lo, null));
+            lat[i] = la;
+            lon[i] = lo;
+            la += (random.nextDouble() - 0.5) * step;
+            lo += (random.nextDouble() - 0.5) * step;
+        }
+        System.out.println("[GeoMath] Vector API: " + GeoMath.isVectorized());
+    }
+
+    @Benchmark
+    public double[] pointPairs() {
+        double[] cumulative = new double[points];
+        for (int i = 1; i < points; i++) {
+            cumulative[i] = cumulative[i - 1] + haversineKm(pointList.get(i - 1), pointList.get(i)) * 1000.0;
+        }
+        return cumulative;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dgeomath.vector=false")
+    public double[] geoMathScalar() {
+        return GeoMath.cumulativeMeters(lat, lon, points);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+    public double[] geoMathVector() {
+        return GeoMath.cumulativeMeters(lat, lon, points);
+    }
+
+    // Service.calculateDistance antes de GeoMath
+    private static double haversineKm(Point p1, Point p2) {
+        double lat1 = Math.toRadians(p1.getLatitude());
+        double lat2 = Math.toRadians(p2.getLatitude());
+        double dLat = Math.toRadians(p2.getLatitude() - p1.getLatitude());
+        double dLon = Math.toRadians(p2.getLongitude() - p1.getLongitude());
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
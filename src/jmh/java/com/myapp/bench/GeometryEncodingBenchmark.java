@@ -0,0 +1,83 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.service.OsrmResponseParser;
+import com.myapp.service.PolylineCodec;
+
+/**
+ * Compara os três formatos de geometria da OSRM ({@code geojson},
+ * {@code polyline}, {@code polyline6}) na mesma rota: o setup imprime o
+ * tamanho de cada resposta e os benchmarks medem o parsing com
+ * {@link OsrmResponseParser}.
+ *
+ * Correr com {@code -prof gc} para ver também a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeometryEncodingBenchmark {
+    private static final String GEOMETRY_START = "\"geometry\":";
+    private static final String GEOMETRY_END = ",\"legs\"";
+
+    @Param({ "1000", "10000", "50000" })
+    public int vertices;
+
+    private String geojson;
+    private String polyline;
+    private String polyline6;
+
+    @Setup
+    public void setup() throws IOException {
+        geojson = OsrmParsingBenchmark.syntheticOsrmResponse(vertices, 42L);
+        OsrmResponseParser.ParsedRoute route = OsrmResponseParser.parse(geojson);
+        polyline = withPolyline(geojson, PolylineCodec.encode(route.getCoordinates(), route.getPointCount(), 5));
+        polyline6 = withPolyline(geojson, PolylineCodec.encode(route.getCoordinates(), route.getPointCount(), 6));
+
+        System.out.printf("%n[GeometryEncoding] %d vértices: geojson %d B, polyline %d B, polyline6 %d B%n",
+                vertices, bytes(geojson), bytes(polyline), bytes(polyline6));
+    }
+
+    @Benchmark
+    public OsrmResponseParser.ParsedRoute geojson() throws IOException {
+        return OsrmResponseParser.parse(geojson);
+    }
+
+    @Benchmark
+    public OsrmResponseParser.ParsedRoute polyline() throws IOException {
+        return OsrmResponseParser.parse(polyline, 5);
+    }
+
+    @Benchmark
+    public OsrmResponseParser.ParsedRoute polyline6() throws IOException {
+        return OsrmResponseParser.parse(polyline6, 6);
+    }
+
+    // Substitui o objeto GeoJSON da geometria pela string codificada.
+    private static String withPolyline(String json, String encoded) {
+        int start = json.indexOf(GEOMETRY_START) + GEOMETRY_START.length();
+        int end = json.indexOf(GEOMETRY_END, start);
+        return json.substring(0, start) + '"' + encoded.replace("\\", "\\\\") + '"' + json.substring(end);
+    }
+
+    private static int bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,116 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.model.HistoryEntry;
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.HistoryManager;
+
+/**
+ * Carregamento e gravação do histórico com {@link HistoryManager}, a partir
+ * das fixtures {@code history-*} (10, 100 e 1000 entradas).
+ *
+ * As fixtures estão no formato antigo (array JSON): o primeiro {@code load}
+ * converte o ficheiro para o diário e os seguintes medem o arranque a partir
+ * do índice, sem ler as entradas. {@code loadFirstPage} inclui a leitura da
+ * primeira página (o que o diálogo do histórico mostra ao abrir) e
+ * {@code searchPrefix} uma pesquisa por prefixo com leitura da página.
+ *
+ * {@code save} mede um {@code addEntry} na thread do chamador (a escrita é
+ * feita em segundo plano); {@code saveDurable} inclui também o
+ * {@code flush()} até a linha estar no disco. A retenção mantém o número de
+ * entradas constante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryManagerBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    private Path dir;
+    private String loadFile;
+    private HistoryManager saving;
+    private HistoryManager searching;
+    private HistoryEntry entry;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("history-bench");
+        String json = Fixtures.load("history", size);
+        loadFile = Files.writeString(dir.resolve("load.json"), json, StandardCharsets.UTF_8).toString();
+        String saveFile = Files.writeString(dir.resolve("save.json"), json, StandardCharsets.UTF_8).toString();
+        saving = new HistoryManager(saveFile);
+        searching = new HistoryManager(loadFile);
+
+        Point lisboa = new Point(38.7223, -9.1393, "Lisboa");
+        Point porto = new Point(41.1579, -8.6291, "Porto");
+        entry = new HistoryEntry(lisboa, porto, List.of(porto), TransportMode.CAR);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        saving.close();
+        searching.close();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public List<HistoryEntry> load() {
+        try (HistoryManager manager = new HistoryManager(loadFile)) {
+            return manager.getHistory();
+        }
+    }
+
+    @Benchmark
+    public HistoryManager.Page loadFirstPage() {
+        try (HistoryManager manager = new HistoryManager(loadFile)) {
+            return manager.search(HistoryManager.Query.all(), 0, PAGE_SIZE);
+        }
+    }
+
+    @Benchmark
+    public HistoryManager.Page searchPrefix() {
+        return searching.search(new HistoryManager.Query("lis", null, null, null), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void save() {
+        saving.addEntry(entry);
+    }
+
+    @Benchmark
+    public void saveDurable() {
+        saving.addEntry(entry);
+        saving.flush();
+    }
+}
@@ -0,0 +1,107 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myapp.model.Point;
+import com.myapp.service.OsrmResponseParser;
+
+/**
+ * Compara o parsing de respostas OSRM ({@code overview=full},
+ * {@code geometries=geojson}) pela árvore DOM do Gson, usado anteriormente
+ * pelo Service, com o parser em streaming {@link OsrmResponseParser}.
+ *
+ * Correr com {@code -prof gc} para ver também a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OsrmParsingBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int vertices;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = syntheticOsrmResponse(vertices, 42L);
+    }
+
+    /** Caminho anterior: JsonParser.parseString + JsonArray por vértice + Point. */
+    @Benchmark
+    public List<Point> domTree() {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        JsonObject firstRoute = root.getAsJsonArray("routes").get(0).getAsJsonObject();
+        double distance = firstRoute.get("distance").getAsDouble();
+        JsonArray coordsArray = firstRoute.getAsJsonObject("geometry").getAsJsonArray("coordinates");
+        List<Point> path = new ArrayList<>();
+        for (JsonElement el : coordsArray) {
+            JsonArray coord = el.getAsJsonArray();
+            path.add(new Point(coord.get(1).getAsDouble(), coord.get(0).getAsDouble(), null));
+        }
+        return distance > 0 ? path : null;
+    }
+
+    /** Parser em streaming diretamente para double[]. */
+    @Benchmark
+    public OsrmResponseParser.ParsedRoute streaming() throws IOException {
+        return OsrmResponseParser.parse(json);
+    }
+
+    /**
+     * Gera uma resposta OSRM realista: passeio aleatório a partir de Lisboa com
+     * 6 casas decimais, {@code legs}, {@code waypoints} e uma rota alternativa.
+     *
+     * @param vertices número de vértices da geometria
+     * @param seed     semente (determinística entre execuções)
+     * @return corpo JSON
+     */
+    static String syntheticOsrmResponse(int vertices, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(vertices * 24 + 512);
+        sb.append("{\"code\":\"Ok\",\"routes\":[{\"geometry\":{\"coordinates\":[");
+        double lat = 38.7223;
+        double lon = -9.1393;
+        for (int i = 0; i < vertices; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(String.format(Locale.US, "[%.6f,%.6f]", lon, lat));
+            lat += (random.nextDouble() - 0.3) * 0.001;
+            lon += (random.nextDouble() - 0.3) * 0.001;
+        }
+        sb.append("],\"type\":\"LineString\"},\"legs\":[{\"steps\":[],\"summary\":\"\",\"weight\":1.0,")
+                .append("\"duration\":1.0,\"distance\":1.0}],\"weight_name\":\"routability\",")
+                .append("\"weight\":").append(vertices).append(',')
+                .append("\"duration\":").append(vertices * 1.7).append(',')
+                .append("\"distance\":").append(vertices * 35.2).append("}],")
+                .append("\"waypoints\":[{\"hint\":\"abc\",\"distance\":1.2,\"name\":\"Rua A\",")
+                .append("\"location\":[-9.1393,38.7223]},{\"hint\":\"def\",\"distance\":0.4,\"name\":\"Rua B\",")
+                .append("\"location\":[").append(lon).append(',').append(lat).append("]}]}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.api.CachingOSRMClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.DiskResponseCache;
+import com.myapp.utils.LruCache;
+
+/**
+ * Latência de uma rota repetida com a cache quente: acerto em memória vs
+ * acerto no disco (cache em memória com uma só entrada, sempre ocupada por
+ * outra rota). Sem cache, o mesmo pedido custa centenas de milissegundos de
+ * rede.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteCacheBenchmark {
+
+    @Param({ "1000", "50000" })
+    public int vertices;
+
+    private static final Point ORIGIN = new Point(38.7223, -9.1393, null);
+    private static final Point DESTINATION = new Point(41.1579, -8.6291, null);
+    private static final Point OTHER = new Point(40.2033, -8.4103, null);
+
+    private Path dir;
+    private DiskResponseCache disk;
+    private CachingOSRMClient memoryTier;
+    private CachingOSRMClient diskTier;
+
+    @Setup
+    public void setup() throws Exception {
+        String json = OsrmParsingBenchmark.syntheticOsrmResponse(vertices, 42L);
+        OSRMClient network = new OSRMClient() {
+            @Override
+            public String getRouteJson(Point o, Point d, TransportMode m) {
+                return json;
+            }
+
+            @Override
+            public String getRouteJsonWithWaypoints(Point o, List<Point> w, TransportMode m) {
+                return json;
+            }
+        };
+        dir = Files.createTempDirectory("route-cache-bench");
+        disk = new DiskResponseCache(dir.resolve("osrm.cache"), Duration.ofHours(1), 256L * 1024 * 1024);
+
+        memoryTier = new CachingOSRMClient(network, new LruCache<>(16, Duration.ofHours(1)), null, 5);
+        memoryTier.getRouteJson(ORIGIN, DESTINATION, TransportMode.CAR);
+
+        diskTier = new CachingOSRMClient(network, new LruCache<>(1, Duration.ofHours(1)), disk, 5);
+        diskTier.getRouteJson(ORIGIN, DESTINATION, TransportMode.CAR);
+        diskTier.getRouteJson(ORIGIN, OTHER, TransportMode.CAR);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        disk.close();
+        Files.deleteIfExists(dir.resolve("osrm.cache"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public String memoryHit() throws Exception {
+        return memoryTier.getRouteJson(ORIGIN, DESTINATION, TransportMode.CAR);
+    }
+
+    /** Alterna duas rotas para que cada consulta venha do disco. */
+    @Benchmark
+    public String diskHit() throws Exception {
+        diskTier.getRouteJson(ORIGIN, OTHER, TransportMode.CAR);
+        return diskTier.getRouteJson(ORIGIN, DESTINATION, TransportMode.CAR);
+    }
+}
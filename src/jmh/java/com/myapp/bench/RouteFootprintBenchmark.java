@@ -0,0 +1,110 @@
+package com.myapp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.model.Point;
+import com.myapp.model.RouteGeometry;
+
+/**
+ * Memória e localidade da geometria de uma rota longa.
+ *
+ * Os benchmarks {@code footprint*} constroem apenas a estrutura final (sem
+ * lixo intermédio), pelo que {@code gc.alloc.rate.norm} (com {@code -prof gc})
+ * corresponde à memória ocupada por rota: {@code List<Point>} vs
+ * {@link RouteGeometry} em {@code double} vs ponto fixo. Os benchmarks
+ * {@code walk*} percorrem a geometria como fazem os exportadores e a UI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteFootprintBenchmark {
+
+    @Param({ "50000" })
+    public int vertices;
+
+    private double[] source;
+    private List<Point> pointList;
+    private RouteGeometry packed;
+    private RouteGeometry fixedPoint;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7L);
+        source = new double[2 * vertices];
+        double lat = 38.7223;
+        double lon = -9.1393;
+        for (int i = 0; i < vertices; i++) {
+            source[2 * i] = lat;
+            source[2 * i + 1] = lon;
+            lat += (random.nextDouble() - 0.3) * 0.001;
+            lon += (random.nextDouble() - 0.3) * 0.001;
+        }
+        pointList = footprintPointList();
+        packed = footprintPacked();
+        fixedPoint = packed.toFixedPoint();
+    }
+
+    @Benchmark
+    public List<Point> footprintPointList() {
+        List<Point> points = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            points.add(new Point(source[2 * i], source[2 * i + 1], null));
+        }
+        return points;
+    }
+
+    @Benchmark
+    public RouteGeometry footprintPacked() {
+        return RouteGeometry.ofInterleaved(source, vertices);
+    }
+
+    @Benchmark
+    public RouteGeometry footprintFixedPoint() {
+        return packed.toFixedPoint();
+    }
+
+    @Benchmark
+    public double walkPointList() {
+        double sum = 0;
+        for (Point p : pointList) {
+            sum += p.getLatitude() + p.getLongitude();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double walkPacked() {
+        return walk(packed);
+    }
+
+    @Benchmark
+    public double walkFixedPoint() {
+        return walk(fixedPoint);
+    }
+
+    private static double walk(RouteGeometry geometry) {
+        double sum = 0;
+        for (int i = 0; i < geometry.size(); i++) {
+            sum += geometry.getLatitude(i) + geometry.getLongitude(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,138 @@
+package com.myapp.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.ElevationProfile;
+import com.myapp.model.POI;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.service.OsrmRoutingBackend;
+import com.myapp.service.Service;
+
+/**
+ * Parsing das respostas das APIs pelo {@link Service} e pelo
+ * {@link OsrmRoutingBackend}, sobre as respostas sintéticas de {@link Fixtures}:
+ * rota OSRM, POIs da Overpass, perfil da Open-Elevation, resultados do
+ * Nominatim e a remoção de POIs duplicados.
+ *
+ * Os métodos medidos são privados e são chamados por {@link MethodHandle}.
+ * Reporta throughput; correr com {@code -prof gc} (ativo por omissão no perfil
+ * {@code benchmark}) para a taxa de alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceParsingBenchmark {
+    private static final MethodHandle PARSE_ROUTE = Fixtures.privateMethod(OsrmRoutingBackend.class, "parseRoute",
+            MethodType.methodType(Route.class, String.class, TransportMode.class), false);
+    private static final MethodHandle PARSE_OVERPASS = Fixtures.privateMethod(Service.class, "parseOverpassPOIs",
+            MethodType.methodType(List.class, String.class), false);
+    private static final MethodHandle PARSE_ELEVATION = Fixtures.privateMethod(Service.class,
+            "parseElevationProfile", MethodType.methodType(ElevationProfile.class, String.class, List.class), false);
+    private static final MethodHandle PARSE_LOCATIONS = Fixtures.privateMethod(Service.class, "parseLocationsInto",
+            MethodType.methodType(void.class, String.class, List.class), true);
+    private static final MethodHandle DEDUPLICATE = Fixtures.privateMethod(Service.class, "deduplicatePOIs",
+            MethodType.methodType(List.class, List.class), false);
+
+    @Param({ "small", "medium", "large" })
+    public String size;
+
+    private Service service;
+    private OsrmRoutingBackend osrmBackend;
+    private String osrm;
+    private String overpass;
+    private String elevation;
+    private String nominatim;
+    private List<Point> elevationPoints;
+    private List<POI> rawPois;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        osrmBackend = new OsrmRoutingBackend(new OSRMClient());
+        service = new Service(osrmBackend, new OverpassClient(), new NominatimClient(), new ElevationClient());
+        // Sem limite final, para a remoção de duplicados percorrer todos os POIs
+        service.setPoiLimits(2, Integer.MAX_VALUE);
+        osrm = Fixtures.load("osrm", size);
+        overpass = Fixtures.load("overpass", size);
+        elevation = Fixtures.load("elevation", size);
+        nominatim = Fixtures.load("nominatim", size);
+
+        // Os pontos do pedido são os mesmos que a Open-Elevation devolve
+        elevationPoints = new ArrayList<>();
+        for (JsonElement el : JsonParser.parseString(elevation).getAsJsonObject().getAsJsonArray("results")) {
+            JsonObject r = el.getAsJsonObject();
+            elevationPoints.add(new Point(r.get("latitude").getAsDouble(), r.get("longitude").getAsDouble(), null));
+        }
+        @SuppressWarnings("unchecked")
+        List<POI> pois = (List<POI>) PARSE_OVERPASS.invoke(service, overpass);
+        rawPois = pois;
+
+        // deduplicatePOIs escreve uma linha por chamada
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public Route parseRoute() throws Throwable {
+        return (Route) PARSE_ROUTE.invoke(osrmBackend, osrm, TransportMode.CAR);
+    }
+
+    @Benchmark
+    public Object parseOverpassPOIs() throws Throwable {
+        return PARSE_OVERPASS.invoke(service, overpass);
+    }
+
+    @Benchmark
+    public ElevationProfile parseElevationProfile() throws Throwable {
+        return (ElevationProfile) PARSE_ELEVATION.invoke(service, elevation, elevationPoints);
+    }
+
+    @Benchmark
+    public List<Point> parseNominatim() throws Throwable {
+        List<Point> results = new ArrayList<>();
+        PARSE_LOCATIONS.invoke(nominatim, results);
+        return results;
+    }
+
+    @Benchmark
+    public Object deduplicatePOIs() throws Throwable {
+        return DEDUPLICATE.invoke(service, rawPois);
+    }
+}
@@ -0,0 +1,92 @@
+package com.myapp.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.myapp.elevation.SrtmElevationProvider;
+import com.myapp.model.Point;
+
+/**
+ * Consulta de elevações em tiles SRTM locais ({@link SrtmElevationProvider}).
+ *
+ * São gerados quatro tiles SRTM3 (1201 x 1201) com relevo aleatório à volta
+ * de Lisboa; a rota é um passeio aleatório de {@code points} pontos que
+ * atravessa os tiles. O resultado é o tempo por consulta completa, pelo que
+ * pontos por milissegundo = {@code points / score}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SrtmElevationBenchmark {
+    private static final int TILE_SIZE = 1201;
+
+    @Param({ "1000", "10000" })
+    public int points;
+
+    private Path dir;
+    private SrtmElevationProvider provider;
+    private List<Point> route;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("srtm-bench");
+        Random random = new Random(11L);
+        for (int south = 38; south <= 39; south++) {
+            for (int west = -10; west <= -9; west++) {
+                ByteBuffer tile = ByteBuffer.allocate(2 * TILE_SIZE * TILE_SIZE);
+                for (int i = 0; i < TILE_SIZE * TILE_SIZE; i++) {
+                    tile.putShort((short) random.nextInt(1000));
+                }
+                Files.write(dir.resolve(String.format("N%02dW%03d.hgt", south, -west)), tile.array());
+            }
+        }
+        provider = new SrtmElevationProvider(dir);
+
+        route = new ArrayList<>(points);
+        double lat = 38.7;
+        double lon = -9.4;
+        double step = 1.0 / points;
+        for (int i = 0; i < points; i++) {
+            route.add(new Point(lat, lon, null));
+            lat += (random.nextDouble() - 0.3) * step;
+            lon += (random.nextDouble() - 0.3) * step;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public double[] lookupRoute() throws IOException {
+        return provider.getElevations(route);
+    }
+}
@@ -0,0 +1,221 @@
+package com.myapp.api;
+
+import com.myapp.utils.LruCache;
+import com.myapp.utils.TokenBucketRateLimiter;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente Nominatim com cache, agregação de pedidos concorrentes e limite de
+ * taxa.
+ *
+ * Papel na arquitetura MVC:
+ * - Camada API (infra): decorador de {@link NominatimClient} com a mesma
+ * interface; o Service usa-o sem alterações nos chamadores.
+ *
+ * Funcionamento:
+ * - A pesquisa é normalizada (Unicode NFC, espaços colapsados, minúsculas),
+ * pelo que "Lisboa", " lisboa " e "LISBOA" partilham a mesma entrada.
+ * - Respostas válidas ficam numa {@link LruCache} com TTL.
+ * - Pedidos idênticos em simultâneo (ex.: autocomplete e seleção do mesmo
+ * texto) partilham um único pedido HTTP em curso.
+ * - Os pedidos de rede respeitam a política do Nominatim de no máximo 1
+ * pedido por segundo; acertos na cache não consomem fichas.
+ */
+public class CachingNominatimClient extends NominatimClient {
+    private static final int DEFAULT_CAPACITY = 512;
+    private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    private static final double NOMINATIM_PERMITS_PER_SECOND = 1.0;
+    private static final int NOMINATIM_BURST = 1;
+    private static final String EMPTY_RESULT = "[]";
+
+    private final NominatimClient delegate;
+    private final LruCache<String, String> cache;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Cria o cliente com a cache e o limite por omissão (512 pesquisas, 24 h,
+     * 1 pedido/s).
+     *
+     * @param delegate cliente que faz os pedidos reais ao Nominatim
+     */
+    public CachingNominatimClient(NominatimClient delegate) {
+        this(delegate, new LruCache<>(DEFAULT_CAPACITY, DEFAULT_TTL),
+                new TokenBucketRateLimiter(NOMINATIM_PERMITS_PER_SECOND, NOMINATIM_BURST));
+    }
+
+    /**
+     * Cria o cliente com cache e limitador injetados (útil para testes).
+     *
+     * @param delegate    cliente que faz os pedidos reais ao Nominatim
+     * @param cache       cache de respostas por pesquisa normalizada
+     * @param rateLimiter limitador aplicado aos pedidos de rede
+     */
+    public CachingNominatimClient(NominatimClient delegate, LruCache<String, String> cache,
+            TokenBucketRateLimiter rateLimiter) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.cache = Objects.requireNonNull(cache);
+        this.rateLimiter = Objects.requireNonNull(rateLimiter);
+    }
+
+    @Override
+    public String searchJson(String query) throws IOException, InterruptedException {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return EMPTY_RESULT;
+        }
+        String cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            // Outro pedido pode ter terminado entre a consulta e o registo
+            String body = cache.get(key);
+            if (body != null) {
+                hits.incrementAndGet();
+                mine.complete(body);
+                return body;
+            }
+            misses.incrementAndGet();
+            rateLimiter.acquire();
+            body = delegate.searchJson(query);
+            if (isResultArray(body)) {
+                cache.put(key, body);
+            }
+            mine.complete(body);
+            return body;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Versão assíncrona de {@link #searchJson(String)}, com a mesma cache e a
+     * mesma agregação (partilha o pedido em curso com chamadas síncronas). A
+     * espera pelo limite de taxa não ocupa nenhuma thread.
+     */
+    @Override
+    public CompletableFuture<String> searchJsonAsync(String query) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return CompletableFuture.completedFuture(EMPTY_RESULT);
+        }
+        String cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            // Cópia: cancelar o futuro devolvido não afeta os outros interessados
+            return running.copy();
+        }
+
+        String body = cache.get(key);
+        if (body != null) {
+            hits.incrementAndGet();
+            inFlight.remove(key, mine);
+            mine.complete(body);
+            return mine.copy();
+        }
+        misses.incrementAndGet();
+        rateLimiter.acquireAsync()
+                .thenCompose(ignored -> delegate.searchJsonAsync(query))
+                .whenComplete((result, error) -> {
+                    if (error == null && isResultArray(result)) {
+                        cache.put(key, result);
+                    }
+                    inFlight.remove(key, mine);
+                    if (error != null) {
+                        mine.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error);
+                    } else {
+                        mine.complete(result);
+                    }
+                });
+        return mine.copy();
+    }
+
+    /** @return pesquisas servidas pela cache */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return pesquisas que originaram um pedido HTTP */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return pesquisas que aguardaram um pedido idêntico já em curso */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Normaliza uma pesquisa para uso como chave.
+     *
+     * @param query texto introduzido pelo utilizador
+     * @return texto em NFC, minúsculas e com espaços colapsados
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String nfc = Normalizer.normalize(query, Normalizer.Form.NFC);
+        return nfc.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String await(CompletableFuture<String> running) throws IOException, InterruptedException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException) {
+                // Foi a thread que fez o pedido a ser interrompida, não esta
+                throw new IOException("Pesquisa partilhada interrompida", cause);
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Só arrays JSON são resultados válidos; erros/HTML de limite não são guardados.
+    private static boolean isResultArray(String body) {
+        return body != null && body.stripLeading().startsWith("[");
+    }
+}
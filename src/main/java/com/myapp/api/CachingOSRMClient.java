@@ -0,0 +1,246 @@
+package com.myapp.api;
+
+import com.google.gson.stream.JsonReader;
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.DiskResponseCache;
+import com.myapp.utils.Futures;
+import com.myapp.utils.LruCache;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente OSRM com cache de respostas em dois níveis.
+ *
+ * Papel na arquitetura MVC:
+ * - Camada API (infra): decorador de {@link OSRMClient} com a mesma interface,
+ * pelo que o Service o usa sem alterações nos chamadores.
+ *
+ * Funcionamento:
+ * - A chave é o formato da geometria e o perfil OSRM mais as coordenadas
+ * quantizadas a {@code precision} casas decimais (5 por omissão, ~1 m), pela
+ * ordem do percurso (respostas em polyline e polyline6 não são
+ * intercambiáveis); pedidos com coordenadas praticamente iguais partilham a
+ * resposta.
+ * - Primeiro nível: {@link LruCache} em memória (consulta em microssegundos).
+ * - Segundo nível (opcional): {@link DiskResponseCache}, que sobrevive entre
+ * execuções; um acerto no disco é promovido para a memória.
+ * - Só respostas com {@code "code":"Ok"} são guardadas; erros e respostas sem
+ * rota voltam sempre a ser pedidos à OSRM.
+ * - Pedidos {@code /table} (matrizes de distâncias) não são guardados e
+ * seguem diretamente para o cliente decorado.
+ */
+public class CachingOSRMClient extends OSRMClient {
+    private static final int DEFAULT_PRECISION = 5;
+    private static final int DEFAULT_MEMORY_ENTRIES = 256;
+    private static final Duration DEFAULT_TTL = Duration.ofDays(7);
+    private static final long DEFAULT_DISK_MAX_BYTES = 64L * 1024 * 1024;
+    private static final String CACHE_DIR = ".osrm-route-planner";
+    private static final String CACHE_FILE = "osrm-routes.cache";
+    private static final String KEY_VERSION = "route-v1";
+    private static final String CODE_OK = "Ok";
+
+    private final OSRMClient delegate;
+    private final LruCache<String, String> memory;
+    private final DiskResponseCache disk;
+    private final double scale;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Cria o cliente com as caches indicadas.
+     *
+     * @param delegate  cliente que faz os pedidos reais à OSRM
+     * @param memory    cache em memória
+     * @param disk      cache em disco, ou {@code null} para usar só memória
+     * @param precision casas decimais usadas na quantização das coordenadas
+     *                  (0 a 7)
+     */
+    public CachingOSRMClient(OSRMClient delegate, LruCache<String, String> memory,
+            DiskResponseCache disk, int precision) {
+        super(Objects.requireNonNull(delegate).getGeometryEncoding());
+        if (precision < 0 || precision > 7) {
+            throw new IllegalArgumentException("precision deve estar entre 0 e 7");
+        }
+        this.delegate = delegate;
+        this.memory = Objects.requireNonNull(memory);
+        this.disk = disk;
+        this.scale = Math.pow(10, precision);
+    }
+
+    /**
+     * Cria o cliente usado pela aplicação: pedidos reais à OSRM, 256 entradas
+     * em memória e cache em disco em {@code ~/.osrm-route-planner}, ambas com
+     * validade de 7 dias. Se o ficheiro não puder ser aberto, usa só memória.
+     *
+     * @return cliente com cache
+     */
+    public static CachingOSRMClient createDefault() {
+        LruCache<String, String> memory = new LruCache<>(DEFAULT_MEMORY_ENTRIES, DEFAULT_TTL);
+        DiskResponseCache disk = null;
+        Path file = Paths.get(System.getProperty("user.home"), CACHE_DIR, CACHE_FILE);
+        try {
+            disk = new DiskResponseCache(file, DEFAULT_TTL, DEFAULT_DISK_MAX_BYTES);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[OSRMCache] Cache em disco indisponível (" + file + "): " + e.getMessage());
+        }
+        return new CachingOSRMClient(new OSRMClient(), memory, disk, DEFAULT_PRECISION);
+    }
+
+    @Override
+    public String getRouteJson(Point origin, Point destination, TransportMode mode)
+            throws IOException, InterruptedException {
+        String key = cacheKey(mode, origin, destination, List.of());
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, delegate.getRouteJson(origin, destination, mode));
+    }
+
+    @Override
+    public String getRouteJsonWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode)
+            throws IOException, InterruptedException {
+        String key = cacheKey(mode, origin, null, waypoints);
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, delegate.getRouteJsonWithWaypoints(origin, waypoints, mode));
+    }
+
+    @Override
+    public CompletableFuture<String> getRouteJsonAsync(Point origin, Point destination, TransportMode mode) {
+        String key = cacheKey(mode, origin, destination, List.of());
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<String> response = delegate.getRouteJsonAsync(origin, destination, mode);
+        return Futures.propagateCancel(response.thenApply(body -> store(key, body)), response);
+    }
+
+    @Override
+    public CompletableFuture<String> getRouteJsonWithWaypointsAsync(Point origin, List<Point> waypoints,
+            TransportMode mode) {
+        String key = cacheKey(mode, origin, null, waypoints);
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<String> response = delegate.getRouteJsonWithWaypointsAsync(origin, waypoints, mode);
+        return Futures.propagateCancel(response.thenApply(body -> store(key, body)), response);
+    }
+
+    // Matrizes /table não passam pela cache, mas vão sempre ao delegate
+    @Override
+    public String getTableJson(List<Point> sources, List<Point> destinations, TransportMode mode)
+            throws IOException, InterruptedException {
+        return delegate.getTableJson(sources, destinations, mode);
+    }
+
+    @Override
+    public CompletableFuture<String> getTableJsonAsync(List<Point> sources, List<Point> destinations,
+            TransportMode mode) {
+        return delegate.getTableJsonAsync(sources, destinations, mode);
+    }
+
+    @Override
+    public String getTableJson(List<Point> points, TransportMode mode) throws IOException, InterruptedException {
+        return delegate.getTableJson(points, mode);
+    }
+
+    @Override
+    public CompletableFuture<String> getTableJsonAsync(List<Point> points, TransportMode mode) {
+        return delegate.getTableJsonAsync(points, mode);
+    }
+
+    /** @return respostas servidas pela cache em memória */
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /** @return respostas servidas pela cache em disco */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /** @return pedidos que tiveram de ir à OSRM */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private String lookup(String key) {
+        String body = memory.get(key);
+        if (body != null) {
+            memoryHits.incrementAndGet();
+            return body;
+        }
+        if (disk != null) {
+            DiskResponseCache.CachedResponse hit = disk.get(key);
+            if (hit != null) {
+                memory.putUntil(key, hit.body(), hit.expiresAtMillis());
+                diskHits.incrementAndGet();
+                return hit.body();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private String store(String key, String body) {
+        if (body != null && isOk(body)) {
+            memory.put(key, body);
+            if (disk != null) {
+                disk.put(key, body);
+            }
+        }
+        return body;
+    }
+
+    // Ex.: route-v1|polyline6|driving|3872230,-913930;4115790,-862910
+    String cacheKey(TransportMode mode, Point origin, Point destination, List<Point> waypoints) {
+        StringBuilder key = new StringBuilder(64).append(KEY_VERSION).append('|')
+                .append(getGeometryEncoding().getQueryValue()).append('|')
+                .append(profileFor(mode)).append('|');
+        appendQuantized(key, origin);
+        if (destination != null) {
+            appendQuantized(key.append(';'), destination);
+        }
+        for (Point wp : waypoints) {
+            appendQuantized(key.append(';'), wp);
+        }
+        return key.toString();
+    }
+
+    private void appendQuantized(StringBuilder key, Point p) {
+        key.append(Math.round(p.getLatitude() * scale)).append(',')
+                .append(Math.round(p.getLongitude() * scale));
+    }
+
+    // Lê apenas o campo "code" de topo; respostas ilegíveis não são guardadas.
+    private static boolean isOk(String body) {
+        try (JsonReader reader = new JsonReader(new StringReader(body))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("code".equals(reader.nextName())) {
+                    return CODE_OK.equals(reader.nextString());
+                }
+                reader.skipValue();
+            }
+            return false;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+}
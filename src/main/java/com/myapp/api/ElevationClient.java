@@ -8,6 +8,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.myapp.model.Point;
 
 /**
  * Cliente para a API Open-Elevation.
@@ -22,6 +26,9 @@ public class ElevationClient {
 
     private static final String HEADER_USER_AGENT = "User-Agent";
     private static final String USER_AGENT_VALUE = "ProjetoADS/1.0";
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final String HEADER_ACCEPT = "Accept";
     private static final String QUERY_PARAM_LOCATIONS_PREFIX = "?locations=";
     private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
 
@@ -30,12 +37,15 @@ public class ElevationClient {
             .build();
 
     /**
-     * Endpoint utilizado:
+     * Endpoints utilizados:
      * - GET {@code /api/v1/lookup?locations=lat,lon|lat,lon|...}
+     * - POST {@code /api/v1/lookup} com corpo
+     *   {@code {"locations":[{"latitude":..,"longitude":..},...]}}, sem o
+     *   limite de tamanho do URL; os resultados vêm pela ordem do pedido.
      *   Referência: https://open-elevation.com/
      */
     /**
-     * Obtém elevações para múltiplos pontos.
+     * Obtém elevações para múltiplos pontos (GET, para poucos pontos).
      *
      * @param locations string no formato {@code lat1,lon1|lat2,lon2|...}
      * @return resposta JSON da Open-Elevation
@@ -43,18 +53,79 @@ public class ElevationClient {
      * @throws InterruptedException se a thread for interrompida
      */
     public String getElevations(String locations) throws IOException, InterruptedException {
+        HttpResponse<String> response = CLIENT.send(buildLookupRequest(locations), HttpResponse.BodyHandlers.ofString());
+        return response.body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #getElevations(String)} (usa {@code sendAsync}).
+     *
+     * @param locations string no formato {@code lat1,lon1|lat2,lon2|...}
+     * @return futuro com a resposta JSON da Open-Elevation
+     */
+    public CompletableFuture<String> getElevationsAsync(String locations) {
+        return CLIENT.sendAsync(buildLookupRequest(locations), HttpResponse.BodyHandlers.ofString())
+                .thenApply(HttpResponse::body);
+    }
+
+    /**
+     * Obtém elevações para os pontos indicados num único pedido POST.
+     *
+     * @param points pontos a consultar
+     * @return resposta JSON da Open-Elevation (resultados pela ordem dos pontos)
+     * @throws IOException erro de I/O ao comunicar
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public String getElevations(List<Point> points) throws IOException, InterruptedException {
+        HttpResponse<String> response = CLIENT.send(buildPostLookupRequest(points),
+                HttpResponse.BodyHandlers.ofString());
+        return response.body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #getElevations(List)} (usa {@code sendAsync}).
+     *
+     * @param points pontos a consultar
+     * @return futuro com a resposta JSON da Open-Elevation
+     */
+    public CompletableFuture<String> getElevationsAsync(List<Point> points) {
+        return CLIENT.sendAsync(buildPostLookupRequest(points), HttpResponse.BodyHandlers.ofString())
+                .thenApply(HttpResponse::body);
+    }
+
+    private static HttpRequest buildLookupRequest(String locations) {
         // URL encode do parâmetro locations
         String encodedLocations = URLEncoder.encode(locations, StandardCharsets.UTF_8);
         String url = BASE_URL + QUERY_PARAM_LOCATIONS_PREFIX + encodedLocations;
         
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
             .timeout(DEFAULT_TIMEOUT)
             .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
                 .GET()
                 .build();
-        
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.body();
     }
-}
\ No newline at end of file
+
+    private static HttpRequest buildPostLookupRequest(List<Point> points) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL))
+                .timeout(DEFAULT_TIMEOUT)
+                .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
+                .header(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON)
+                .header(HEADER_ACCEPT, CONTENT_TYPE_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(buildLocationsBody(points), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    // {"locations":[{"latitude":lat,"longitude":lon},...]}
+    static String buildLocationsBody(List<Point> points) {
+        StringBuilder body = new StringBuilder(16 + points.size() * 48).append("{\"locations\":[");
+        for (int i = 0; i < points.size(); i++) {
+            Point p = points.get(i);
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"latitude\":").append(p.getLatitude())
+                    .append(",\"longitude\":").append(p.getLongitude()).append('}');
+        }
+        return body.append("]}").toString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.myapp.api;
+
+/**
+ * Formato da geometria pedido à OSRM (parâmetro {@code geometries}).
+ *
+ * - {@link #GEOJSON}: cada vértice é um array JSON {@code [lon, lat]} com as
+ * coordenadas em texto decimal; é o formato mais verboso.
+ * - {@link #POLYLINE}: Encoded Polyline Algorithm da Google com precisão de
+ * 1e-5 graus (~1 m); a geometria inteira é uma única string.
+ * - {@link #POLYLINE6}: o mesmo algoritmo com precisão de 1e-6 graus (~11 cm),
+ * igual à do ponto fixo de {@link com.myapp.model.RouteGeometry}.
+ *
+ * Referência: https://project-osrm.org/docs/v5.27.0/api/#route-service
+ */
+public enum GeometryEncoding {
+    GEOJSON("geojson", 0),
+    POLYLINE("polyline", 5),
+    POLYLINE6("polyline6", 6);
+
+    private final String queryValue;
+    private final int precision;
+
+    GeometryEncoding(String queryValue, int precision) {
+        this.queryValue = queryValue;
+        this.precision = precision;
+    }
+
+    /** @return valor do parâmetro {@code geometries} na OSRM */
+    public String getQueryValue() {
+        return queryValue;
+    }
+
+    /** @return casas decimais codificadas na polyline (0 para GeoJSON) */
+    public int getPrecision() {
+        return precision;
+    }
+}
@@ -8,6 +8,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -47,16 +48,30 @@ public class NominatimClient {
      * @throws InterruptedException se a thread for interrompida
      */
     public String searchJson(String query) throws IOException, InterruptedException {
+        HttpResponse<String> response = CLIENT.send(buildSearchRequest(query), HttpResponse.BodyHandlers.ofString());
+        return response.body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #searchJson(String)} (usa {@code sendAsync}).
+     *
+     * @param query termo a pesquisar (endereço, localidade, ponto de interesse)
+     * @return futuro com a resposta JSON devolvida pelo Nominatim
+     */
+    public CompletableFuture<String> searchJsonAsync(String query) {
+        return CLIENT.sendAsync(buildSearchRequest(query), HttpResponse.BodyHandlers.ofString())
+                .thenApply(HttpResponse::body);
+    }
+
+    private static HttpRequest buildSearchRequest(String query) {
         String encoded = URLEncoder.encode(query, StandardCharsets.UTF_8);
         String url = BASE_SEARCH_URL + "?q=" + encoded + QUERY_FORMAT_JSON_LIMIT_1;
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
             .timeout(DEFAULT_TIMEOUT)
             .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
             .header(HEADER_ACCEPT_LANGUAGE, ACCEPT_LANGUAGE_PT_PT)
                 .GET()
                 .build();
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.body();
     }
 }
@@ -2,6 +2,7 @@ package com.myapp.api;
 
 import com.myapp.model.Point;
 import com.myapp.model.TransportMode;
+import com.myapp.utils.Futures;
 
 import java.io.IOException;
 import java.net.URI;
@@ -13,6 +14,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -24,17 +27,28 @@ import java.util.Locale;
  * - Model representa entidades como `Route` e `Point`; UI consome via Service.
  *
  * Endpoints utilizados:
- * - GET {@code /route/v1/{profile}/{coordinates}} com parâmetros {@code overview=full} e {@code geometries=geojson}.
+ * - GET {@code /route/v1/{profile}/{coordinates}} com parâmetros {@code overview=full} e
+ *   {@code geometries=polyline6} (ou o formato indicado no construtor, ver {@link GeometryEncoding}).
  *   Referência: https://project-osrm.org/docs/v5.27.0/api/#route-service
+ * - GET {@code /table/v1/{profile}/{coordinates}} com {@code sources}, {@code destinations} e
+ *   {@code annotations=duration,distance}, para matrizes de distâncias. Matrizes quadradas (todos
+ *   os pontos entre si) omitem {@code sources} e {@code destinations} e enviam cada ponto uma vez.
+ *   Referência: https://project-osrm.org/docs/v5.27.0/api/#table-service
  */
 public class OSRMClient {
     private static final String BASE_URL = "https://router.project-osrm.org/route/v1/";
+    private static final String TABLE_URL = "https://router.project-osrm.org/table/v1/";
+    private static final String TABLE_ANNOTATIONS = "annotations=duration,distance";
+
+    /** Número máximo de coordenadas (origens + destinos) por pedido ao servidor público. */
+    public static final int MAX_TABLE_COORDINATES = 100;
 
     private static final String PROFILE_DRIVING = "driving";
     private static final String PROFILE_CYCLING = "cycling";
     private static final String PROFILE_WALKING = "walking";
 
-    private static final String QUERY_PARAMS = "?overview=full&geometries=geojson";
+    private static final String QUERY_PARAMS = "?overview=full&geometries=";
+    private static final GeometryEncoding DEFAULT_ENCODING = GeometryEncoding.POLYLINE6;
     private static final String HEADER_USER_AGENT = "User-Agent";
     private static final String USER_AGENT_VALUE = "ProjetoADS/1.0";
     private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
@@ -43,11 +57,56 @@ public class OSRMClient {
             .connectTimeout(DEFAULT_TIMEOUT)
             .build();
 
+    private final GeometryEncoding geometryEncoding;
+
+    /**
+     * Cria o cliente com a geometria em {@code polyline6}: uma única string por
+     * rota em vez de um array JSON por vértice (várias vezes menos bytes e
+     * parsing mais rápido em rotas longas).
+     */
+    public OSRMClient() {
+        this(DEFAULT_ENCODING);
+    }
+
+    /**
+     * Cria o cliente com o formato de geometria indicado.
+     *
+     * @param geometryEncoding formato pedido no parâmetro {@code geometries}
+     */
+    public OSRMClient(GeometryEncoding geometryEncoding) {
+        this.geometryEncoding = Objects.requireNonNull(geometryEncoding);
+    }
+
+    /**
+     * Formato da geometria nas respostas deste cliente; o Service usa-o para
+     * saber a precisão das polylines.
+     *
+     * @return formato pedido à OSRM
+     */
+    public GeometryEncoding getGeometryEncoding() {
+        return geometryEncoding;
+    }
+
+    /**
+     * Converte o modo de transporte no perfil OSRM correspondente.
+     *
+     * @param mode modo de transporte
+     * @return perfil OSRM (driving/cycling/walking)
+     */
+    static String profileFor(TransportMode mode) {
+        return switch (mode) {
+            case CAR -> PROFILE_DRIVING;
+            case BIKE -> PROFILE_CYCLING;
+            case FOOT -> PROFILE_WALKING;
+            default -> PROFILE_DRIVING;
+        };
+    }
+
     /**
      * Obtém uma rota simples entre origem e destino no formato JSON da OSRM.
      *
      * Mapeamento para OSRM: GET
-     * {@code /route/v1/{profile}/{lon,lat;lon,lat}?overview=full&geometries=geojson}
+     * {@code /route/v1/{profile}/{lon,lat;lon,lat}?overview=full&geometries={encoding}}
      *
      * @param origin      ponto de origem
      * @param destination ponto de destino
@@ -57,35 +116,33 @@ public class OSRMClient {
      * @throws InterruptedException   se a thread for interrompida durante o pedido
      */
     public String getRouteJson(Point origin, Point destination, TransportMode mode) throws IOException, InterruptedException {
-        String profile = switch (mode) {
-            case CAR -> PROFILE_DRIVING;
-            case BIKE -> PROFILE_CYCLING;
-            case FOOT -> PROFILE_WALKING;
-            default -> PROFILE_DRIVING;
-        };
-
-        String coords = String.format(Locale.US, "%f,%f;%f,%f",
-                origin.getLongitude(), origin.getLatitude(),
-                destination.getLongitude(), destination.getLatitude());
-
-        String url = BASE_URL + profile + "/" + URLEncoder.encode(coords, StandardCharsets.UTF_8)
-            + QUERY_PARAMS;
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-            .timeout(DEFAULT_TIMEOUT)
-            .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
-                .GET()
-                .build();
-
+        HttpRequest request = buildRouteRequest(origin, destination, mode);
         HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         return response.body(); 
     }
 
+    /**
+     * Versão assíncrona de {@link #getRouteJson(Point, Point, TransportMode)}:
+     * o pedido é feito com {@code sendAsync}, sem bloquear nenhuma thread
+     * enquanto a resposta não chega.
+     *
+     * @param origin      ponto de origem
+     * @param destination ponto de destino
+     * @param mode        modo de transporte (perfil OSRM)
+     * @return futuro com a resposta JSON devolvida pela OSRM
+     */
+    public CompletableFuture<String> getRouteJsonAsync(Point origin, Point destination, TransportMode mode) {
+        HttpRequest request = buildRouteRequest(origin, destination, mode);
+        CompletableFuture<HttpResponse<String>> response =
+                CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        return Futures.propagateCancel(response.thenApply(HttpResponse::body), response);
+    }
+
     /**
      * Obtém uma rota com pontos intermédios (waypoints) no formato JSON da OSRM.
      *
      * Mapeamento para OSRM: GET
-     * {@code /route/v1/{profile}/{lon,lat;lon,lat;...}?overview=full&geometries=geojson}
+     * {@code /route/v1/{profile}/{lon,lat;lon,lat;...}?overview=full&geometries={encoding}}
      *
      * @param origin    ponto de origem
      * @param waypoints lista de pontos intermédios na ordem desejada
@@ -97,12 +154,197 @@ public class OSRMClient {
     public String getRouteJsonWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode)
         throws IOException, InterruptedException {
 
-        String profile = switch (mode) {
-            case CAR -> PROFILE_DRIVING;
-            case BIKE -> PROFILE_CYCLING;
-            case FOOT -> PROFILE_WALKING;
-            default -> PROFILE_DRIVING;
-        };
+        HttpRequest request = buildWaypointsRequest(origin, waypoints, mode);
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+
+        return response.body();
+    }
+
+    /**
+     * Versão assíncrona de
+     * {@link #getRouteJsonWithWaypoints(Point, List, TransportMode)}.
+     *
+     * @param origin    ponto de origem
+     * @param waypoints lista de pontos intermédios na ordem desejada
+     * @param mode      modo de transporte (perfil OSRM)
+     * @return futuro com a resposta JSON devolvida pela OSRM
+     */
+    public CompletableFuture<String> getRouteJsonWithWaypointsAsync(Point origin, List<Point> waypoints,
+            TransportMode mode) {
+        HttpRequest request = buildWaypointsRequest(origin, waypoints, mode);
+        CompletableFuture<HttpResponse<String>> response =
+                CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        return Futures.propagateCancel(response.thenApply(HttpResponse::body), response);
+    }
+
+    /**
+     * Obtém a matriz de durações e distâncias entre origens e destinos no
+     * formato JSON da OSRM.
+     *
+     * Mapeamento para OSRM: GET
+     * {@code /table/v1/{profile}/{origens;destinos}?sources=0;..&destinations=..&annotations=duration,distance}
+     *
+     * @param sources      origens (linhas da matriz)
+     * @param destinations destinos (colunas da matriz)
+     * @param mode         modo de transporte (perfil OSRM)
+     * @return resposta JSON devolvida pela OSRM
+     * @throws IOException          erro de I/O ao comunicar
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public String getTableJson(List<Point> sources, List<Point> destinations, TransportMode mode)
+            throws IOException, InterruptedException {
+        HttpRequest request = buildTableRequest(sources, destinations, mode);
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #getTableJson(List, List, TransportMode)}.
+     *
+     * @param sources      origens (linhas da matriz)
+     * @param destinations destinos (colunas da matriz)
+     * @param mode         modo de transporte (perfil OSRM)
+     * @return futuro com a resposta JSON devolvida pela OSRM
+     */
+    public CompletableFuture<String> getTableJsonAsync(List<Point> sources, List<Point> destinations,
+            TransportMode mode) {
+        HttpRequest request = buildTableRequest(sources, destinations, mode);
+        CompletableFuture<HttpResponse<String>> response =
+                CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        return Futures.propagateCancel(response.thenApply(HttpResponse::body), response);
+    }
+
+    /**
+     * Obtém a matriz quadrada de durações e distâncias entre todos os pontos
+     * (cada ponto é origem e destino), enviando cada coordenada uma só vez.
+     *
+     * Mapeamento para OSRM: GET
+     * {@code /table/v1/{profile}/{pontos}?annotations=duration,distance}
+     *
+     * @param points pontos (linhas e colunas da matriz, pela mesma ordem)
+     * @param mode   modo de transporte (perfil OSRM)
+     * @return resposta JSON devolvida pela OSRM
+     * @throws IOException          erro de I/O ao comunicar
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public String getTableJson(List<Point> points, TransportMode mode) throws IOException, InterruptedException {
+        HttpRequest request = buildTableRequest(points, mode);
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #getTableJson(List, TransportMode)}.
+     *
+     * @param points pontos (linhas e colunas da matriz, pela mesma ordem)
+     * @param mode   modo de transporte (perfil OSRM)
+     * @return futuro com a resposta JSON devolvida pela OSRM
+     */
+    public CompletableFuture<String> getTableJsonAsync(List<Point> points, TransportMode mode) {
+        HttpRequest request = buildTableRequest(points, mode);
+        CompletableFuture<HttpResponse<String>> response =
+                CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        return Futures.propagateCancel(response.thenApply(HttpResponse::body), response);
+    }
+
+    /**
+     * Constrói o URL do serviço {@code /table}: as coordenadas são as origens
+     * seguidas dos destinos.
+     *
+     * @param sources      origens
+     * @param destinations destinos
+     * @param mode         modo de transporte
+     * @return URL completo
+     */
+    static String buildTableUrl(List<Point> sources, List<Point> destinations, TransportMode mode) {
+        StringBuilder url = new StringBuilder(TABLE_URL).append(profileFor(mode)).append('/');
+        StringBuilder sourceIdx = new StringBuilder();
+        StringBuilder destinationIdx = new StringBuilder();
+        int index = 0;
+        for (Point p : sources) {
+            appendCoordinate(url, p, index);
+            sourceIdx.append(index == 0 ? "" : ";").append(index);
+            index++;
+        }
+        for (Point p : destinations) {
+            appendCoordinate(url, p, index);
+            destinationIdx.append(index == sources.size() ? "" : ";").append(index);
+            index++;
+        }
+        return url.append("?sources=").append(sourceIdx)
+                .append("&destinations=").append(destinationIdx)
+                .append('&').append(TABLE_ANNOTATIONS)
+                .toString();
+    }
+
+    /**
+     * Constrói o URL do serviço {@code /table} para uma matriz quadrada: sem
+     * {@code sources} nem {@code destinations}, a OSRM usa todos os pontos
+     * como origens e como destinos.
+     *
+     * @param points pontos
+     * @param mode   modo de transporte
+     * @return URL completo
+     */
+    static String buildTableUrl(List<Point> points, TransportMode mode) {
+        StringBuilder url = new StringBuilder(TABLE_URL).append(profileFor(mode)).append('/');
+        for (int i = 0; i < points.size(); i++) {
+            appendCoordinate(url, points.get(i), i);
+        }
+        return url.append('?').append(TABLE_ANNOTATIONS).toString();
+    }
+
+    private static void appendCoordinate(StringBuilder url, Point p, int index) {
+        if (index > 0) {
+            url.append(';');
+        }
+        url.append(String.format(Locale.US, "%.6f,%.6f", p.getLongitude(), p.getLatitude()));
+    }
+
+    private HttpRequest buildTableRequest(List<Point> sources, List<Point> destinations, TransportMode mode) {
+        if (sources.isEmpty() || destinations.isEmpty()
+                || sources.size() + destinations.size() > MAX_TABLE_COORDINATES) {
+            throw new IllegalArgumentException("Pedido table deve ter entre 2 e " + MAX_TABLE_COORDINATES
+                    + " coordenadas");
+        }
+        return HttpRequest.newBuilder()
+                .uri(URI.create(buildTableUrl(sources, destinations, mode)))
+                .timeout(DEFAULT_TIMEOUT)
+                .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest buildTableRequest(List<Point> points, TransportMode mode) {
+        if (points.size() < 2 || points.size() > MAX_TABLE_COORDINATES) {
+            throw new IllegalArgumentException("Pedido table deve ter entre 2 e " + MAX_TABLE_COORDINATES
+                    + " coordenadas");
+        }
+        return HttpRequest.newBuilder()
+                .uri(URI.create(buildTableUrl(points, mode)))
+                .timeout(DEFAULT_TIMEOUT)
+                .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest buildRouteRequest(Point origin, Point destination, TransportMode mode) {
+        String profile = profileFor(mode);
+
+        String coords = String.format(Locale.US, "%f,%f;%f,%f",
+                origin.getLongitude(), origin.getLatitude(),
+                destination.getLongitude(), destination.getLatitude());
+
+        String url = BASE_URL + profile + "/" + URLEncoder.encode(coords, StandardCharsets.UTF_8)
+            + QUERY_PARAMS + geometryEncoding.getQueryValue();
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+            .timeout(DEFAULT_TIMEOUT)
+            .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest buildWaypointsRequest(Point origin, List<Point> waypoints, TransportMode mode) {
+        String profile = profileFor(mode);
 
         StringBuilder url = new StringBuilder(BASE_URL);
         url.append(profile).append("/");
@@ -119,17 +361,13 @@ public class OSRMClient {
         }
 
         // Full geometry and overview
-        url.append(QUERY_PARAMS);
+        url.append(QUERY_PARAMS).append(geometryEncoding.getQueryValue());
 
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
             .uri(URI.create(url.toString()))
             .timeout(DEFAULT_TIMEOUT)
             .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
             .GET()
             .build();
-
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-
-        return response.body();
-    }   
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Cliente para a API Overpass (consulta de dados OSM via OverpassQL).
@@ -49,14 +50,28 @@ public class OverpassClient {
      * @throws InterruptedException se a thread for interrompida
      */
     public String postOverpass(String overpassQL) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpResponse<String> response = CLIENT.send(buildRequest(overpassQL), HttpResponse.BodyHandlers.ofString());
+        return response.body();
+    }
+
+    /**
+     * Versão assíncrona de {@link #postOverpass(String)} (usa {@code sendAsync}).
+     *
+     * @param overpassQL consulta OverpassQL (string)
+     * @return futuro com a resposta da API Overpass
+     */
+    public CompletableFuture<String> postOverpassAsync(String overpassQL) {
+        return CLIENT.sendAsync(buildRequest(overpassQL), HttpResponse.BodyHandlers.ofString())
+                .thenApply(HttpResponse::body);
+    }
+
+    private static HttpRequest buildRequest(String overpassQL) {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(BASE_URL))
                 .timeout(DEFAULT_TIMEOUT)
                 .header(HEADER_USER_AGENT, USER_AGENT_VALUE)
                 .header(HEADER_CONTENT_TYPE, CONTENT_TYPE_FORM)
                 .POST(HttpRequest.BodyPublishers.ofString(FORM_DATA_PREFIX + overpassQL))
                 .build();
-        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-        return response.body();
     }
 }
\ No newline at end of file
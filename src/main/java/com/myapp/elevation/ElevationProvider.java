@@ -0,0 +1,51 @@
+package com.myapp.elevation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.myapp.model.Point;
+
+/**
+ * Origem das elevações usadas nos perfis de elevação.
+ *
+ * Papel na arquitetura MVC:
+ * - Fronteira entre o Service (Controller) e a origem dos dados: a API
+ * Open-Elevation ({@code com.myapp.service.OpenElevationProvider}) ou tiles
+ * de um modelo digital de terreno em disco ({@link SrtmElevationProvider}).
+ *
+ * Convenção: um valor {@link Double#NaN} indica que não há dados para esse
+ * ponto (ex.: fora dos tiles disponíveis); erros de comunicação ou de dados
+ * são lançados como {@link IOException}.
+ */
+public interface ElevationProvider {
+
+    /**
+     * Obtém a elevação de cada ponto.
+     *
+     * @param points pontos a consultar
+     * @return elevações em metros, pela ordem dos pontos ({@code NaN} sem dados)
+     * @throws IOException          erro ao obter ou interpretar os dados
+     * @throws InterruptedException se a thread for interrompida
+     */
+    double[] getElevations(List<Point> points) throws IOException, InterruptedException;
+
+    /**
+     * Versão assíncrona de {@link #getElevations(List)}. Por omissão corre a
+     * versão síncrona no pool comum; origens com I/O assíncrono devem
+     * redefini-la.
+     *
+     * @param points pontos a consultar
+     * @return futuro com as elevações
+     */
+    default CompletableFuture<double[]> getElevationsAsync(List<Point> points) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getElevations(points);
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+}
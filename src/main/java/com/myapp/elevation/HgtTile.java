@@ -0,0 +1,103 @@
+package com.myapp.elevation;
+
+import java.io.IOException;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Um tile SRTM ({@code .hgt}) mapeado em memória.
+ *
+ * O ficheiro cobre 1° × 1° a partir do canto sudoeste indicado no nome
+ * (ex.: {@code N38W010.hgt} cobre 38..39 N, 10..9 W) e contém {@code n × n}
+ * inteiros de 16 bits com sinal, big-endian, por linhas de norte para sul e
+ * colunas de oeste para leste. As linhas e colunas dos bordos repetem as dos
+ * tiles vizinhos. {@code n} vem do tamanho do ficheiro (1201 no SRTM3, 3601
+ * no SRTM1, ou outro qualquer). O valor {@value #VOID} marca falta de dados.
+ */
+final class HgtTile {
+    static final short VOID = -32768;
+
+    private final ShortBuffer samples;
+    private final int size;
+    private final int south;
+    private final int west;
+
+    private HgtTile(ShortBuffer samples, int size, int south, int west) {
+        this.samples = samples;
+        this.size = size;
+        this.south = south;
+        this.west = west;
+    }
+
+    /**
+     * Mapeia o ficheiro em memória (só leitura). O canal é fechado logo a
+     * seguir; o mapeamento mantém-se enquanto o tile for usado.
+     *
+     * @param file  ficheiro {@code .hgt}
+     * @param south latitude do canto sudoeste
+     * @param west  longitude do canto sudoeste
+     * @return tile pronto a consultar
+     * @throws IOException se o ficheiro não puder ser lido ou não tiver
+     *                     {@code n × n} amostras
+     */
+    static HgtTile open(Path file, int south, int west) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            int size = (int) Math.round(Math.sqrt(bytes / 2.0));
+            if (size < 2 || 2L * size * size != bytes) {
+                throw new IOException("Tile SRTM inválido (" + bytes + " bytes): " + file);
+            }
+            ShortBuffer samples = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes).asShortBuffer();
+            return new HgtTile(samples, size, south, west);
+        }
+    }
+
+    /**
+     * Elevação por interpolação bilinear das quatro amostras em volta do
+     * ponto. Amostras sem dados são ignoradas (os pesos das restantes são
+     * renormalizados).
+     *
+     * @param lat latitude (dentro do tile)
+     * @param lon longitude (dentro do tile)
+     * @return elevação em metros, ou {@code NaN} se as quatro amostras
+     *         estiverem sem dados
+     */
+    double elevation(double lat, double lon) {
+        int last = size - 1;
+        double y = (south + 1 - lat) * last;
+        double x = (lon - west) * last;
+        int row = Math.min(Math.max((int) y, 0), last - 1);
+        int col = Math.min(Math.max((int) x, 0), last - 1);
+        double fy = Math.min(Math.max(y - row, 0.0), 1.0);
+        double fx = Math.min(Math.max(x - col, 0.0), 1.0);
+
+        int index = row * size + col;
+        short nw = samples.get(index);
+        short ne = samples.get(index + 1);
+        short sw = samples.get(index + size);
+        short se = samples.get(index + size + 1);
+        if (nw != VOID && ne != VOID && sw != VOID && se != VOID) {
+            double north = nw + (ne - nw) * fx;
+            double southValue = sw + (se - sw) * fx;
+            return north + (southValue - north) * fy;
+        }
+
+        double sum = 0.0;
+        double weights = 0.0;
+        double[] w = { (1 - fx) * (1 - fy), fx * (1 - fy), (1 - fx) * fy, fx * fy };
+        short[] v = { nw, ne, sw, se };
+        for (int i = 0; i < 4; i++) {
+            if (v[i] != VOID && w[i] > 0) {
+                sum += v[i] * w[i];
+                weights += w[i];
+            }
+        }
+        return weights > 0 ? sum / weights : Double.NaN;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,161 @@
+package com.myapp.elevation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import com.myapp.model.Point;
+
+/**
+ * Elevações a partir de tiles SRTM ({@code .hgt}) numa pasta local, sem rede.
+ *
+ * Papel na arquitetura MVC:
+ * - Alternativa à Open-Elevation atrás de {@link ElevationProvider}: o
+ * Service usa-o quando a propriedade de sistema {@code elevation.dem} indica
+ * a pasta dos tiles.
+ *
+ * Funcionamento:
+ * - Cada tile é mapeado em memória ({@link HgtTile}) na primeira consulta e
+ * fica numa cache LRU de no máximo {@code maxOpenTiles} tiles; tiles em
+ * falta também ficam registados, para não voltar a procurar o ficheiro.
+ * - A elevação é a interpolação bilinear das quatro amostras em volta do
+ * ponto. Pontos sem tile ou sem dados dão {@code NaN}.
+ * - Pontos seguidos no mesmo tile (o caso normal ao longo de uma rota) não
+ * passam pela cache.
+ *
+ * Os tiles são os ficheiros {@code .hgt} descomprimidos, com o nome do canto
+ * sudoeste ({@code N38W010.hgt}); ficheiros GeoTIFF não são suportados.
+ * Pode ser usado a partir de várias threads.
+ */
+public class SrtmElevationProvider implements ElevationProvider {
+    public static final int DEFAULT_MAX_OPEN_TILES = 16;
+
+    private static final String TILE_EXTENSION = ".hgt";
+    private static final int LON_RANGE = 360;
+    // Marca de tile inexistente na cache
+    private static final HgtTile MISSING = null;
+
+    private final Path directory;
+    private final int maxOpenTiles;
+    private final Map<Integer, HgtTile> tiles;
+
+    /**
+     * Cria um fornecedor sobre a pasta indicada, com a cache por omissão
+     * ({@value #DEFAULT_MAX_OPEN_TILES} tiles).
+     *
+     * @param directory pasta com os ficheiros {@code .hgt}
+     * @throws IOException se a pasta não existir
+     */
+    public SrtmElevationProvider(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_OPEN_TILES);
+    }
+
+    /**
+     * Cria um fornecedor sobre a pasta indicada.
+     *
+     * @param directory    pasta com os ficheiros {@code .hgt}
+     * @param maxOpenTiles número máximo de tiles mapeados ao mesmo tempo
+     * @throws IOException se a pasta não existir
+     */
+    public SrtmElevationProvider(Path directory, int maxOpenTiles) throws IOException {
+        if (maxOpenTiles < 1) {
+            throw new IllegalArgumentException("maxOpenTiles deve ser >= 1");
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new NoSuchFileException(directory.toString(), null, "Pasta de tiles SRTM não encontrada");
+        }
+        this.directory = Objects.requireNonNull(directory);
+        this.maxOpenTiles = maxOpenTiles;
+        this.tiles = new LinkedHashMap<>(maxOpenTiles * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, HgtTile> eldest) {
+                return size() > SrtmElevationProvider.this.maxOpenTiles;
+            }
+        };
+    }
+
+    @Override
+    public double[] getElevations(List<Point> points) throws IOException {
+        double[] elevations = new double[points.size()];
+        int currentKey = Integer.MIN_VALUE;
+        HgtTile current = MISSING;
+        for (int i = 0; i < elevations.length; i++) {
+            Point p = points.get(i);
+            double lat = p.getLatitude();
+            double lon = p.getLongitude();
+            if (!(Math.abs(lat) < 90) || !(Math.abs(lon) <= 180)) {
+                elevations[i] = Double.NaN;
+                continue;
+            }
+            int south = (int) Math.floor(lat);
+            int west = (int) Math.floor(lon);
+            if (west == 180) {
+                // 180° E é o bordo oeste do tile W180 (x = 0 nesse tile)
+                west = -180;
+                lon -= 360;
+            }
+            int key = tileKey(south, west);
+            if (key != currentKey) {
+                current = tile(key, south, west);
+                currentKey = key;
+            }
+            elevations[i] = current != MISSING ? current.elevation(lat, lon) : Double.NaN;
+        }
+        return elevations;
+    }
+
+    /**
+     * Elevação de um único ponto.
+     *
+     * @param latitude  latitude
+     * @param longitude longitude
+     * @return elevação em metros, ou {@code NaN} sem dados
+     * @throws IOException se um tile existir mas não puder ser lido
+     */
+    public double getElevation(double latitude, double longitude) throws IOException {
+        return getElevations(List.of(new Point(latitude, longitude, null)))[0];
+    }
+
+    // Tile da cache, mapeado se ainda não estiver; MISSING se não houver ficheiro
+    private synchronized HgtTile tile(int key, int south, int west) throws IOException {
+        if (tiles.containsKey(key)) {
+            return tiles.get(key);
+        }
+        Path file = directory.resolve(tileName(south, west));
+        HgtTile tile = Files.exists(file) ? HgtTile.open(file, south, west) : MISSING;
+        tiles.put(key, tile);
+        return tile;
+    }
+
+    synchronized int openTiles() {
+        int open = 0;
+        for (HgtTile tile : tiles.values()) {
+            if (tile != MISSING) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private static int tileKey(int south, int west) {
+        return (south + 90) * LON_RANGE + (west + 180);
+    }
+
+    /**
+     * Nome do ficheiro do tile com o canto sudoeste indicado.
+     *
+     * @param south latitude do canto sudoeste
+     * @param west  longitude do canto sudoeste
+     * @return nome, ex.: {@code N38W010.hgt}
+     */
+    static String tileName(int south, int west) {
+        return String.format(Locale.ROOT, "%s%02d%s%03d%s", south < 0 ? "S" : "N", Math.abs(south),
+                west < 0 ? "W" : "E", Math.abs(west), TILE_EXTENSION);
+    }
+}
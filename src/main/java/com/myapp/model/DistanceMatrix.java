@@ -0,0 +1,114 @@
+package com.myapp.model;
+
+import java.util.Arrays;
+
+/**
+ * Matriz de distâncias e durações entre um conjunto de origens (linhas) e um
+ * conjunto de destinos (colunas).
+ *
+ * Papel na arquitetura MVC:
+ * - Model: resultado de {@code Service.getDistanceMatrix}, usado para
+ * comparar paragens candidatas e otimizar a ordem dos waypoints sem calcular
+ * uma rota por par.
+ *
+ * Os valores ficam em arrays primitivos ({@code double[][]} em km e
+ * {@code long[][]} em segundos), expostos diretamente para leitura em ciclos
+ * apertados. Pares sem rota têm distância {@code NaN} e duração
+ * {@link #UNREACHABLE}.
+ *
+ * Não é thread-safe para escrita; o preenchimento em paralelo só é seguro se
+ * cada thread escrever células diferentes e a leitura esperar por todas.
+ */
+public final class DistanceMatrix {
+    /** Duração dos pares sem rota. */
+    public static final long UNREACHABLE = -1L;
+
+    private final double[][] distancesKm;
+    private final long[][] durationsSec;
+
+    /**
+     * Cria uma matriz com todos os pares sem rota.
+     *
+     * @param rows    número de origens
+     * @param columns número de destinos
+     */
+    public DistanceMatrix(int rows, int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Dimensões inválidas: " + rows + "x" + columns);
+        }
+        distancesKm = new double[rows][columns];
+        durationsSec = new long[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            Arrays.fill(distancesKm[i], Double.NaN);
+            Arrays.fill(durationsSec[i], UNREACHABLE);
+        }
+    }
+
+    /** @return número de origens (linhas) */
+    public int getRowCount() {
+        return distancesKm.length;
+    }
+
+    /** @return número de destinos (colunas) */
+    public int getColumnCount() {
+        return distancesKm.length == 0 ? 0 : distancesKm[0].length;
+    }
+
+    /**
+     * @param row    índice da origem
+     * @param column índice do destino
+     * @return distância em km, ou {@code NaN} se não houver rota
+     */
+    public double getDistanceKm(int row, int column) {
+        return distancesKm[row][column];
+    }
+
+    /**
+     * @param row    índice da origem
+     * @param column índice do destino
+     * @return duração em segundos, ou {@link #UNREACHABLE}
+     */
+    public long getDurationSec(int row, int column) {
+        return durationsSec[row][column];
+    }
+
+    /**
+     * @param row    índice da origem
+     * @param column índice do destino
+     * @return {@code true} se existir rota entre o par
+     */
+    public boolean isReachable(int row, int column) {
+        return durationsSec[row][column] != UNREACHABLE;
+    }
+
+    /**
+     * Define os valores de um par.
+     *
+     * @param row         índice da origem
+     * @param column      índice do destino
+     * @param distanceKm  distância em km
+     * @param durationSec duração em segundos
+     */
+    public void set(int row, int column, double distanceKm, long durationSec) {
+        distancesKm[row][column] = distanceKm;
+        durationsSec[row][column] = durationSec;
+    }
+
+    /**
+     * Acesso direto às distâncias (sem cópia).
+     *
+     * @return distâncias em km por {@code [origem][destino]}
+     */
+    public double[][] getDistancesKm() {
+        return distancesKm;
+    }
+
+    /**
+     * Acesso direto às durações (sem cópia).
+     *
+     * @return durações em segundos por {@code [origem][destino]}
+     */
+    public long[][] getDurationsSec() {
+        return durationsSec;
+    }
+}
@@ -1,6 +1,9 @@
 package com.myapp.model;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Representa o perfil de elevação ao longo de uma rota, incluindo amostras de
@@ -9,21 +12,31 @@ import java.util.List;
  *
  * Papel na arquitetura MVC:
  * - Model: agrega dados de elevação processados pelo Service (Controller).
- * - Service obtém dados da ElevationClient API e constrói este modelo.
+ * - Service obtém as elevações do ElevationProvider e constrói este modelo
+ * com um {@link Builder}, amostra a amostra.
  * - UI (View) renderiza gráficos e estatísticas; este modelo encapsula
  * cálculos.
- * 
+ *
+ * As amostras são guardadas em arrays {@code double[]}: as estatísticas são
+ * atualizadas à medida que o {@link Builder} recebe amostras, e as listas
+ * devolvidas por {@link #getElevations()} e {@link #getDistances()} são vistas
+ * preguiçosas (quem percorre o perfil deve preferir os acessores por índice).
+ *
+ * Para dados com ruído (DEM amostrado a poucas dezenas de metros), há
+ * {@link #smooth(int)} (média móvel) e {@link #getTotalAscent(double)} /
+ * {@link #getTotalDescent(double)} (só contam variações acima de um limiar).
+ *
  * As unidades são: elevação em metros (m) e distância acumulada em quilómetros
  * (km).
  */
 public class ElevationProfile {
-    // Lista de elevações em metros (m) para cada amostra do percurso.
-    private final List<Double> elevations;
-    // Lista de distâncias acumuladas em quilómetros (km) para cada amostra.
-    private final List<Double> distances;
-    // Maior valor de elevação observado.
+    // Elevações em metros (m) para cada amostra do percurso.
+    private final double[] elevations;
+    // Distâncias acumuladas em quilómetros (km) para cada amostra.
+    private final double[] distances;
+    // Maior valor de elevação observado (NaN sem amostras).
     private final double maxElevation;
-    // Menor valor de elevação observado.
+    // Menor valor de elevação observado (NaN sem amostras).
     private final double minElevation;
     // Subida total ao longo do percurso, em metros (m).
     private final double totalAscent;
@@ -32,65 +45,182 @@ public class ElevationProfile {
 
     /**
      * Cria um novo {@link ElevationProfile} e calcula estatísticas com base nas
-     * listas fornecidas.
+     * listas fornecidas (os valores são copiados).
      *
      * @param elevations lista de elevações em metros
      * @param distances  lista de distâncias acumuladas em quilómetros (mesmo
      *                   tamanho que {@code elevations})
      */
     public ElevationProfile(List<Double> elevations, List<Double> distances) {
-        this.elevations = elevations;
-        this.distances = distances;
+        this(fromLists(elevations, distances));
+    }
 
-        // Calcular estatísticas
-        double max = Double.MIN_VALUE;
-        double min = Double.MAX_VALUE;
-        double ascent = 0;
-        double descent = 0;
+    private ElevationProfile(Builder builder) {
+        // Buffers já do tamanho exato são partilhados: o construtor copia-os
+        // antes de voltar a escrever (add só cresce por cópia)
+        int count = builder.count;
+        this.elevations = count == builder.elevations.length ? builder.elevations
+                : Arrays.copyOf(builder.elevations, count);
+        this.distances = count == builder.distances.length ? builder.distances
+                : Arrays.copyOf(builder.distances, count);
+        this.maxElevation = count > 0 ? builder.max : Double.NaN;
+        this.minElevation = count > 0 ? builder.min : Double.NaN;
+        this.totalAscent = builder.ascent;
+        this.totalDescent = builder.descent;
+    }
 
+    private static Builder fromLists(List<Double> elevations, List<Double> distances) {
+        if (elevations.size() != distances.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "%d elevações para %d distâncias", elevations.size(), distances.size()));
+        }
+        Builder builder = new Builder(elevations.size());
         for (int i = 0; i < elevations.size(); i++) {
-            double elev = elevations.get(i);
-            max = Math.max(max, elev);
-            min = Math.min(min, elev);
+            builder.add(elevations.get(i), distances.get(i));
+        }
+        return builder;
+    }
+
+    /**
+     * Cria um construtor incremental de perfis.
+     *
+     * @param expectedSize número de amostras esperado (apenas dimensionamento
+     *                     inicial)
+     * @return novo construtor
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
 
-            if (i > 0) {
-                double diff = elev - elevations.get(i - 1);
+    /**
+     * Construtor incremental: acumula as amostras em buffers {@code double[]}
+     * que crescem por duplicação e atualiza máximo, mínimo, subida e descida a
+     * cada amostra, sem segunda passagem.
+     */
+    public static final class Builder {
+        private double[] elevations;
+        private double[] distances;
+        private int count;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double min = Double.POSITIVE_INFINITY;
+        private double ascent;
+        private double descent;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(1, expectedSize);
+            this.elevations = new double[capacity];
+            this.distances = new double[capacity];
+        }
+
+        /**
+         * Acrescenta uma amostra.
+         *
+         * @param elevation  elevação em metros
+         * @param distanceKm distância acumulada em quilómetros
+         * @return este construtor
+         */
+        public Builder add(double elevation, double distanceKm) {
+            if (count == elevations.length) {
+                elevations = Arrays.copyOf(elevations, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            if (count > 0) {
+                double diff = elevation - elevations[count - 1];
                 if (diff > 0) {
                     ascent += diff;
                 } else {
-                    descent += Math.abs(diff);
+                    descent -= diff;
                 }
             }
+            max = Math.max(max, elevation);
+            min = Math.min(min, elevation);
+            elevations[count] = elevation;
+            distances[count] = distanceKm;
+            count++;
+            return this;
+        }
+
+        /**
+         * Devolve o número de amostras acumuladas.
+         *
+         * @return número de amostras
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Constrói o perfil.
+         *
+         * @return novo perfil
+         */
+        public ElevationProfile build() {
+            return new ElevationProfile(this);
         }
+    }
+
+    /**
+     * Devolve o número de amostras.
+     *
+     * @return número de amostras
+     */
+    public int size() {
+        return elevations.length;
+    }
+
+    /**
+     * Indica se o perfil não tem amostras.
+     *
+     * @return {@code true} se {@code size() == 0}
+     */
+    public boolean isEmpty() {
+        return elevations.length == 0;
+    }
 
-        this.maxElevation = max;
-        this.minElevation = min;
-        this.totalAscent = ascent;
-        this.totalDescent = descent;
+    /**
+     * Devolve a elevação da amostra indicada.
+     *
+     * @param index índice da amostra ({@code 0 <= index < size()})
+     * @return elevação em metros
+     */
+    public double getElevation(int index) {
+        return elevations[index];
+    }
+
+    /**
+     * Devolve a distância acumulada da amostra indicada.
+     *
+     * @param index índice da amostra ({@code 0 <= index < size()})
+     * @return distância em quilómetros
+     */
+    public double getDistance(int index) {
+        return distances[index];
     }
 
     /**
-     * Devolve a lista de elevações (m).
+     * Devolve as elevações (m) como vista só de leitura; os valores são
+     * convertidos para {@link Double} a pedido.
      *
      * @return lista de elevações em metros
      */
     public List<Double> getElevations() {
-        return elevations;
+        return new DoubleListView(elevations);
     }
 
     /**
-     * Devolve a lista de distâncias acumuladas (km).
+     * Devolve as distâncias acumuladas (km) como vista só de leitura; os
+     * valores são convertidos para {@link Double} a pedido.
      *
      * @return lista de distâncias em quilómetros
      */
     public List<Double> getDistances() {
-        return distances;
+        return new DoubleListView(distances);
     }
 
     /**
      * Devolve a elevação máxima observada.
      *
-     * @return elevação máxima em metros
+     * @return elevação máxima em metros ({@code NaN} se o perfil estiver vazio)
      */
     public double getMaxElevation() {
         return maxElevation;
@@ -99,7 +229,7 @@ public class ElevationProfile {
     /**
      * Devolve a elevação mínima observada.
      *
-     * @return elevação mínima em metros
+     * @return elevação mínima em metros ({@code NaN} se o perfil estiver vazio)
      */
     public double getMinElevation() {
         return minElevation;
@@ -122,4 +252,119 @@ public class ElevationProfile {
     public double getTotalDescent() {
         return totalDescent;
     }
-}
\ No newline at end of file
+
+    /**
+     * Subida total com histerese: a elevação de referência só muda quando a
+     * amostra se afasta dela pelo menos {@code noiseThreshold} metros, pelo que
+     * oscilações menores (ruído do DEM) não contam.
+     *
+     * @param noiseThreshold limiar em metros ({@code 0} equivale a
+     *                       {@link #getTotalAscent()})
+     * @return subida total em metros
+     */
+    public double getTotalAscent(double noiseThreshold) {
+        return climb(noiseThreshold)[0];
+    }
+
+    /**
+     * Descida total com histerese (ver {@link #getTotalAscent(double)}).
+     *
+     * @param noiseThreshold limiar em metros
+     * @return descida total em metros
+     */
+    public double getTotalDescent(double noiseThreshold) {
+        return climb(noiseThreshold)[1];
+    }
+
+    // { subida, descida } contando apenas variações de pelo menos noiseThreshold
+    private double[] climb(double noiseThreshold) {
+        if (noiseThreshold < 0) {
+            throw new IllegalArgumentException("noiseThreshold deve ser >= 0");
+        }
+        double ascent = 0;
+        double descent = 0;
+        if (elevations.length > 0) {
+            double reference = elevations[0];
+            for (int i = 1; i < elevations.length; i++) {
+                double diff = elevations[i] - reference;
+                if (diff > 0 && diff >= noiseThreshold) {
+                    ascent += diff;
+                    reference = elevations[i];
+                } else if (diff < 0 && -diff >= noiseThreshold) {
+                    descent -= diff;
+                    reference = elevations[i];
+                }
+            }
+        }
+        return new double[] { ascent, descent };
+    }
+
+    /**
+     * Declive de cada troço entre amostras consecutivas: {@code grades[i]} é a
+     * variação de elevação entre as amostras {@code i} e {@code i + 1} a
+     * dividir pela distância percorrida (0.05 = 5 %). Troços de distância nula
+     * têm declive 0.
+     *
+     * @return array novo com {@code size() - 1} declives (vazio se houver menos
+     *         de duas amostras)
+     */
+    public double[] getGrades() {
+        double[] grades = new double[Math.max(0, elevations.length - 1)];
+        for (int i = 0; i < grades.length; i++) {
+            double run = (distances[i + 1] - distances[i]) * 1000.0;
+            grades[i] = run > 0 ? (elevations[i + 1] - elevations[i]) / run : 0.0;
+        }
+        return grades;
+    }
+
+    /**
+     * Perfil suavizado por média móvel centrada de {@code window} amostras
+     * (truncada nos extremos); as distâncias mantêm-se. Custo O(n),
+     * independente da janela.
+     *
+     * @param window número de amostras da janela (ímpar, {@code >= 1})
+     * @return novo perfil, com as estatísticas recalculadas
+     */
+    public ElevationProfile smooth(int window) {
+        if (window < 1 || window % 2 == 0) {
+            throw new IllegalArgumentException("A janela deve ser ímpar e >= 1: " + window);
+        }
+        int n = elevations.length;
+        int half = window / 2;
+        Builder builder = new Builder(n);
+        double sum = 0;
+        int from = 0;
+        int to = 0; // janela atual: [from, to)
+        for (int i = 0; i < n; i++) {
+            int wantTo = Math.min(n, i + half + 1);
+            int wantFrom = Math.max(0, i - half);
+            while (to < wantTo) {
+                sum += elevations[to++];
+            }
+            while (from < wantFrom) {
+                sum -= elevations[from++];
+            }
+            builder.add(sum / (to - from), distances[i]);
+        }
+        return builder.build();
+    }
+
+    // Vista List<Double> sobre um double[] (valores convertidos a pedido).
+    private static final class DoubleListView extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+
+        DoubleListView(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
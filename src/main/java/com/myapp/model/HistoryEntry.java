@@ -37,6 +37,7 @@ public class HistoryEntry {
     public Point getDestination() { return destination; }
     public List<Point> getWaypoints() { return waypoints; }
     public TransportMode getMode() { return mode; }
+    public String getTimestamp() { return timestamp; } // "dd/MM/yyyy HH:mm"
     
     @Override
     public String toString() {
@@ -14,11 +14,13 @@ import java.util.List;
  * enriquecer dados.
  * 
  * Os pontos da rota estão em ordem sequencial, descrevendo o caminho desde a
- * origem até ao destino.
+ * origem até ao destino. São guardados numa {@link RouteGeometry} compacta
+ * (arrays primitivos); {@link #getRoutePoints()} devolve uma vista preguiçosa
+ * para compatibilidade, e os acessores por índice evitam criar objetos.
  */
 public class Route {
-    // Lista sequencial dos pontos que compõem a rota.
-    private final List<Point> routePoints;
+    // Geometria sequencial dos pontos que compõem a rota.
+    private final RouteGeometry geometry;
     // Distância total da rota em quilómetros.
     private final double distanceKm;
     // Duração estimada da rota em segundos.
@@ -38,7 +40,20 @@ public class Route {
      * @param pois        lista de pontos de interesse associados (pode ser vazia)
      */
     public Route(List<Point> routePoints, double distanceKm, long durationSec, TransportMode mode, List<POI> pois) {
-        this.routePoints = routePoints;
+        this(RouteGeometry.fromPoints(routePoints), distanceKm, durationSec, mode, pois);
+    }
+
+    /**
+     * Cria uma nova {@link Route} a partir de uma geometria compacta.
+     *
+     * @param geometry    geometria do trajeto, em ordem
+     * @param distanceKm  distância total em quilómetros
+     * @param durationSec duração estimada em segundos
+     * @param mode        modo de transporte
+     * @param pois        lista de pontos de interesse associados (pode ser vazia)
+     */
+    public Route(RouteGeometry geometry, double distanceKm, long durationSec, TransportMode mode, List<POI> pois) {
+        this.geometry = geometry;
         this.distanceKm = distanceKm;
         this.durationSec = durationSec;
         this.mode = mode;
@@ -46,12 +61,51 @@ public class Route {
     }
 
     /**
-     * Devolve a lista sequencial dos pontos da rota.
+     * Devolve a lista sequencial dos pontos da rota, como vista só de leitura
+     * sobre a geometria (os {@link Point} são criados a pedido).
      *
      * @return lista de {@link Point}
      */
     public List<Point> getRoutePoints() {
-        return routePoints;
+        return geometry.asPointList();
+    }
+
+    /**
+     * Devolve a geometria compacta da rota.
+     *
+     * @return geometria da rota
+     */
+    public RouteGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Devolve o número de pontos da rota.
+     *
+     * @return número de pontos
+     */
+    public int getPointCount() {
+        return geometry.size();
+    }
+
+    /**
+     * Devolve a latitude do ponto indicado.
+     *
+     * @param index índice do ponto
+     * @return latitude em graus decimais
+     */
+    public double getLatitude(int index) {
+        return geometry.getLatitude(index);
+    }
+
+    /**
+     * Devolve a longitude do ponto indicado.
+     *
+     * @param index índice do ponto
+     * @return longitude em graus decimais
+     */
+    public double getLongitude(int index) {
+        return geometry.getLongitude(index);
     }
 
     /**
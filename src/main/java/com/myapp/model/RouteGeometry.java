@@ -0,0 +1,322 @@
+package com.myapp.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Geometria compacta de uma rota: sequência de coordenadas guardada em arrays
+ * primitivos em vez de uma lista de objetos {@link Point}.
+ *
+ * Papel na arquitetura MVC:
+ * - Model: estrutura de dados imutável usada internamente por {@link Route}.
+ * - Service constrói a geometria diretamente a partir das respostas das APIs.
+ * - UI e exportadores percorrem-na por índice, sem criar objetos por vértice.
+ *
+ * Existem duas representações:
+ * - coordenadas {@code double} intercaladas ({@code lat0, lon0, lat1, ...}),
+ * 16 bytes por vértice;
+ * - ponto fixo {@code int} com precisão de 1e-6 graus (~11 cm), 8 bytes por
+ * vértice, obtida com {@link #toFixedPoint()}.
+ *
+ * Uma {@code List<Point>} com o mesmo conteúdo custa cerca de 40 bytes por
+ * vértice (objeto {@link Point} + referência na lista), além de dispersar os
+ * dados pela heap.
+ */
+public abstract class RouteGeometry {
+    /** Fator de escala da representação em ponto fixo (1e-6 graus). */
+    public static final double FIXED_POINT_SCALE = 1e6;
+
+    private static final RouteGeometry EMPTY = new DoubleGeometry(new double[0], 0);
+
+    RouteGeometry() {
+    }
+
+    /**
+     * Devolve o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public abstract int size();
+
+    /**
+     * Devolve a latitude do vértice indicado.
+     *
+     * @param index índice do vértice ({@code 0 <= index < size()})
+     * @return latitude em graus decimais
+     */
+    public abstract double getLatitude(int index);
+
+    /**
+     * Devolve a longitude do vértice indicado.
+     *
+     * @param index índice do vértice ({@code 0 <= index < size()})
+     * @return longitude em graus decimais
+     */
+    public abstract double getLongitude(int index);
+
+    /**
+     * Indica se a geometria está em ponto fixo (1e-6 graus).
+     *
+     * @return {@code true} se usa a representação {@code int[]}
+     */
+    public abstract boolean isFixedPoint();
+
+    /**
+     * Indica se a geometria não tem vértices.
+     *
+     * @return {@code true} se {@code size() == 0}
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Cria um {@link Point} (sem nome) para o vértice indicado.
+     *
+     * @param index índice do vértice
+     * @return novo ponto com as coordenadas do vértice
+     */
+    public Point getPoint(int index) {
+        return new Point(getLatitude(index), getLongitude(index), null);
+    }
+
+    /**
+     * Devolve uma vista {@code List<Point>} só de leitura. Os pontos são criados
+     * a pedido em cada {@code get}, pelo que a vista não ocupa memória por
+     * vértice; quem percorre rotas longas deve preferir os acessores por índice.
+     *
+     * @return vista preguiçosa da geometria
+     */
+    public List<Point> asPointList() {
+        return new PointListView(this);
+    }
+
+    /**
+     * Converte para a representação em ponto fixo (metade da memória).
+     *
+     * @return geometria em ponto fixo (a própria, se já o for)
+     */
+    public RouteGeometry toFixedPoint() {
+        if (isFixedPoint()) {
+            return this;
+        }
+        int n = size();
+        int[] packed = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            packed[2 * i] = toFixed(getLatitude(i));
+            packed[2 * i + 1] = toFixed(getLongitude(i));
+        }
+        return new FixedPointGeometry(packed, n);
+    }
+
+    /**
+     * Devolve uma geometria vazia.
+     *
+     * @return geometria sem vértices
+     */
+    public static RouteGeometry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Cria uma geometria a partir de coordenadas intercaladas
+     * ({@code lat, lon, lat, lon, ...}). O array é copiado.
+     *
+     * @param latLon coordenadas intercaladas
+     * @param count  número de vértices a usar ({@code 2 * count <= latLon.length})
+     * @return nova geometria
+     */
+    public static RouteGeometry ofInterleaved(double[] latLon, int count) {
+        if (count < 0 || 2 * count > latLon.length) {
+            throw new IllegalArgumentException("count inválido: " + count);
+        }
+        return new DoubleGeometry(Arrays.copyOf(latLon, 2 * count), count);
+    }
+
+    /**
+     * Cria uma geometria a partir de uma lista de pontos (os nomes não são
+     * preservados).
+     *
+     * @param points pontos pela ordem do percurso ({@code null} equivale a vazia)
+     * @return nova geometria
+     */
+    public static RouteGeometry fromPoints(List<Point> points) {
+        if (points == null || points.isEmpty()) {
+            return EMPTY;
+        }
+        if (points instanceof PointListView view) {
+            return view.geometry;
+        }
+        Builder builder = new Builder(points.size());
+        for (Point p : points) {
+            builder.add(p.getLatitude(), p.getLongitude());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Cria um construtor incremental de geometrias.
+     *
+     * @param expectedSize número de vértices esperado (apenas dimensionamento
+     *                     inicial)
+     * @return novo construtor
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    static int toFixed(double degrees) {
+        return (int) Math.round(degrees * FIXED_POINT_SCALE);
+    }
+
+    /**
+     * Construtor incremental: acumula coordenadas num buffer {@code double[]}
+     * que cresce por duplicação, sem criar objetos por vértice.
+     */
+    public static final class Builder {
+        private double[] buffer;
+        private int count;
+
+        private Builder(int expectedSize) {
+            this.buffer = new double[Math.max(2, 2 * expectedSize)];
+        }
+
+        /**
+         * Acrescenta um vértice.
+         *
+         * @param latitude  latitude em graus decimais
+         * @param longitude longitude em graus decimais
+         * @return este construtor
+         */
+        public Builder add(double latitude, double longitude) {
+            if (2 * count + 2 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[2 * count] = latitude;
+            buffer[2 * count + 1] = longitude;
+            count++;
+            return this;
+        }
+
+        /**
+         * Devolve o número de vértices acumulados.
+         *
+         * @return número de vértices
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Constrói a geometria em {@code double}.
+         *
+         * @return nova geometria
+         */
+        public RouteGeometry build() {
+            return new DoubleGeometry(Arrays.copyOf(buffer, 2 * count), count);
+        }
+
+        /**
+         * Constrói a geometria em ponto fixo (1e-6 graus).
+         *
+         * @return nova geometria em ponto fixo
+         */
+        public RouteGeometry buildFixedPoint() {
+            int[] packed = new int[2 * count];
+            for (int i = 0; i < 2 * count; i++) {
+                packed[i] = toFixed(buffer[i]);
+            }
+            return new FixedPointGeometry(packed, count);
+        }
+    }
+
+    // Coordenadas double intercaladas.
+    private static final class DoubleGeometry extends RouteGeometry {
+        private final double[] latLon;
+        private final int count;
+
+        DoubleGeometry(double[] latLon, int count) {
+            this.latLon = latLon;
+            this.count = count;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public double getLatitude(int index) {
+            return latLon[2 * checkIndex(index, count)];
+        }
+
+        @Override
+        public double getLongitude(int index) {
+            return latLon[2 * checkIndex(index, count) + 1];
+        }
+
+        @Override
+        public boolean isFixedPoint() {
+            return false;
+        }
+    }
+
+    // Coordenadas int intercaladas em unidades de 1e-6 graus.
+    private static final class FixedPointGeometry extends RouteGeometry {
+        private final int[] latLon;
+        private final int count;
+
+        FixedPointGeometry(int[] latLon, int count) {
+            this.latLon = latLon;
+            this.count = count;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public double getLatitude(int index) {
+            return latLon[2 * checkIndex(index, count)] / FIXED_POINT_SCALE;
+        }
+
+        @Override
+        public double getLongitude(int index) {
+            return latLon[2 * checkIndex(index, count) + 1] / FIXED_POINT_SCALE;
+        }
+
+        @Override
+        public boolean isFixedPoint() {
+            return true;
+        }
+    }
+
+    // Vista List<Point> criada a pedido.
+    private static final class PointListView extends AbstractList<Point> implements RandomAccess {
+        private final RouteGeometry geometry;
+
+        PointListView(RouteGeometry geometry) {
+            this.geometry = geometry;
+        }
+
+        @Override
+        public Point get(int index) {
+            return geometry.getPoint(index);
+        }
+
+        @Override
+        public int size() {
+            return geometry.size();
+        }
+    }
+
+    private static int checkIndex(int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fora de [0, " + count + ")");
+        }
+        return index;
+    }
+}
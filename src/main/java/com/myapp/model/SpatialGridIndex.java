@@ -0,0 +1,161 @@
+package com.myapp.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Índice espacial em grelha para encontrar elementos próximos de uma
+ * coordenada em tempo constante esperado.
+ *
+ * Papel na arquitetura MVC:
+ * - Model: estrutura de dados reutilizável para {@link POI}, {@link Point} ou
+ * qualquer objeto com latitude e longitude; o Service usa-o para remover POIs
+ * duplicados.
+ *
+ * Funcionamento: o plano latitude/longitude é dividido em células quadradas
+ * de lado {@code epsilon} graus. Dois elementos são "próximos" quando
+ * {@code |Δlat| < epsilon} e {@code |Δlon| < epsilon}; por isso basta examinar
+ * a célula da coordenada e as 8 vizinhas. As células são guardadas num
+ * {@link HashMap}, pelo que só ocupam memória as que têm elementos.
+ *
+ * Não é thread-safe.
+ *
+ * @param <T> tipo dos elementos indexados
+ */
+public final class SpatialGridIndex<T> {
+    private final double epsilon;
+    private final ToDoubleFunction<? super T> latitude;
+    private final ToDoubleFunction<? super T> longitude;
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private int size;
+
+    /**
+     * Cria um índice vazio.
+     *
+     * @param epsilon   distância máxima, em graus, para dois elementos serem
+     *                  considerados próximos (por eixo)
+     * @param latitude  função que obtém a latitude de um elemento
+     * @param longitude função que obtém a longitude de um elemento
+     */
+    public SpatialGridIndex(double epsilon, ToDoubleFunction<? super T> latitude,
+            ToDoubleFunction<? super T> longitude) {
+        if (!(epsilon > 0) || Double.isInfinite(epsilon)) {
+            throw new IllegalArgumentException("epsilon deve ser positivo e finito");
+        }
+        this.epsilon = epsilon;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Cria um índice de pontos.
+     *
+     * @param epsilon distância máxima em graus (por eixo)
+     * @return índice vazio
+     */
+    public static SpatialGridIndex<Point> forPoints(double epsilon) {
+        return new SpatialGridIndex<>(epsilon, Point::getLatitude, Point::getLongitude);
+    }
+
+    /**
+     * Cria um índice de POIs (pelas coordenadas de {@link POI#getCoordinate()}).
+     *
+     * @param epsilon distância máxima em graus (por eixo)
+     * @return índice vazio
+     */
+    public static SpatialGridIndex<POI> forPois(double epsilon) {
+        return new SpatialGridIndex<>(epsilon, p -> p.getCoordinate().getLatitude(),
+                p -> p.getCoordinate().getLongitude());
+    }
+
+    /**
+     * Acrescenta um elemento, mesmo que já exista outro próximo.
+     *
+     * @param item elemento a indexar
+     */
+    public void add(T item) {
+        double lat = latitude.applyAsDouble(item);
+        double lon = longitude.applyAsDouble(item);
+        cells.computeIfAbsent(key(cell(lat), cell(lon)), k -> new ArrayList<>(2)).add(item);
+        size++;
+    }
+
+    /**
+     * Acrescenta um elemento apenas se não existir nenhum próximo.
+     *
+     * @param item elemento a indexar
+     * @return {@code true} se foi acrescentado; {@code false} se era duplicado
+     */
+    public boolean addIfAbsent(T item) {
+        double lat = latitude.applyAsDouble(item);
+        double lon = longitude.applyAsDouble(item);
+        if (findNear(lat, lon) != null) {
+            return false;
+        }
+        cells.computeIfAbsent(key(cell(lat), cell(lon)), k -> new ArrayList<>(2)).add(item);
+        size++;
+        return true;
+    }
+
+    /**
+     * Procura um elemento próximo da coordenada.
+     *
+     * @param lat latitude em graus
+     * @param lon longitude em graus
+     * @return um elemento com {@code |Δlat| < epsilon} e
+     *         {@code |Δlon| < epsilon}, ou {@code null} se não houver
+     */
+    public T findNear(double lat, double lon) {
+        long cy = cell(lat);
+        long cx = cell(lon);
+        for (long dy = -1; dy <= 1; dy++) {
+            for (long dx = -1; dx <= 1; dx++) {
+                List<T> bucket = cells.get(key(cy + dy, cx + dx));
+                if (bucket == null) {
+                    continue;
+                }
+                // Chaves diferentes podem colidir: a verificação exata decide
+                for (T candidate : bucket) {
+                    if (Math.abs(latitude.applyAsDouble(candidate) - lat) < epsilon
+                            && Math.abs(longitude.applyAsDouble(candidate) - lon) < epsilon) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica se existe algum elemento próximo da coordenada.
+     *
+     * @param lat latitude em graus
+     * @param lon longitude em graus
+     * @return {@code true} se {@link #findNear(double, double)} encontrar um
+     *         elemento
+     */
+    public boolean containsNear(double lat, double lon) {
+        return findNear(lat, lon) != null;
+    }
+
+    /** @return número de elementos indexados */
+    public int size() {
+        return size;
+    }
+
+    /** @return distância máxima usada, em graus */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    private long cell(double degrees) {
+        return (long) Math.floor(degrees / epsilon);
+    }
+
+    private static long key(long cy, long cx) {
+        return cy * 0x9E3779B97F4A7C15L ^ cx;
+    }
+}
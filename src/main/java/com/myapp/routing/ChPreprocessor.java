@@ -0,0 +1,75 @@
+package com.myapp.routing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.myapp.model.TransportMode;
+
+/**
+ * Ferramenta de linha de comandos que gera as hierarquias de contração de um
+ * grafo, uma por modo de transporte, ao lado do ficheiro do grafo.
+ *
+ * Papel na arquitetura MVC:
+ * - Utilitário offline do motor local: corre uma vez por versão do grafo; o
+ * {@link LocalRoutingEngine} mapeia depois os ficheiros gerados.
+ *
+ * Uso: {@code ChPreprocessor <grafo> [car|bike|foot ...]} (sem modos, gera
+ * os três).
+ */
+public final class ChPreprocessor {
+
+    private ChPreprocessor() {
+    }
+
+    /**
+     * Método principal.
+     *
+     * @param args ficheiro do grafo e, opcionalmente, os modos a processar
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: ChPreprocessor <grafo> [car|bike|foot ...]");
+            System.exit(2);
+        }
+        try {
+            List<TransportMode> modes = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                modes.add(TransportMode.valueOf(args[i].toUpperCase(Locale.ROOT)));
+            }
+            preprocess(Paths.get(args[0]), modes.isEmpty() ? List.of(TransportMode.values()) : modes);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[CH] Erro: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Gera e grava as hierarquias dos modos indicados.
+     *
+     * @param graphFile ficheiro do grafo ({@link EdgeListLoader})
+     * @param modes     modos a processar
+     * @return ficheiros escritos
+     * @throws IOException se o grafo não puder ser lido ou a escrita falhar
+     */
+    public static List<Path> preprocess(Path graphFile, List<TransportMode> modes) throws IOException {
+        RoadGraph graph = EdgeListLoader.load(graphFile);
+        List<Path> written = new ArrayList<>();
+        for (TransportMode mode : modes) {
+            long start = System.nanoTime();
+            ContractionHierarchy ch = ContractionHierarchy.build(graph, mode);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            Path file = ContractionHierarchy.fileFor(graphFile, mode);
+            ch.write(file);
+            written.add(file);
+            System.out.printf("[CH] %s: %d nós, %d arestas (%d no grafo), %d KB, %d ms%n", mode,
+                    graph.getNodeCount(), ch.getEdgeCount(), graph.getEdgeCount(mode), ch.getSizeBytes() / 1024,
+                    elapsedMs);
+        }
+        return written;
+    }
+}
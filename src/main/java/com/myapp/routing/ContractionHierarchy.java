@@ -0,0 +1,338 @@
+package com.myapp.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.myapp.model.TransportMode;
+
+/**
+ * Hierarquia de contração (Contraction Hierarchies) de um {@link RoadGraph}
+ * para um modo de transporte.
+ *
+ * Papel na arquitetura MVC:
+ * - Model do motor local: gerada offline por {@link ChPreprocessor} e usada
+ * pelo {@link LocalRoutingEngine} para responder a pedidos em
+ * microssegundos em vez de pesquisar o grafo completo.
+ *
+ * Ideia: os nós são "contraídos" um a um por ordem de importância; ao
+ * contrair {@code v}, cada caminho {@code u -> v -> w} sem alternativa igual
+ * ou mais curta é substituído por um atalho {@code u -> w}. Uma pesquisa
+ * bidirecional que só sobe na hierarquia (para nós contraídos mais tarde)
+ * encontra o caminho ótimo visitando poucas centenas de nós. Cada atalho
+ * guarda o nó do meio, para ser desdobrado nas arestas originais.
+ *
+ * Formato binário (little-endian, pensado para {@link FileChannel#map}):
+ *
+ * <pre>
+ * magic:int, versão:int, modo:int, nós:int, arestasSobe:int, arestasDesce:int,
+ * impressãoDigital:long
+ * subir:   offsets[nós + 1]:int, alvos:int[], meio:int[], segundos:float[], metros:float[]
+ * descer:  offsets[nós + 1]:int, origens:int[], meio:int[], segundos:float[], metros:float[]
+ * </pre>
+ *
+ * As arestas "subir" do nó {@code u} são {@code u -> x} com {@code x} mais
+ * importante; as arestas "descer" do nó {@code y} são {@code x -> y} com
+ * {@code x} mais importante (percorridas ao contrário pela pesquisa a partir
+ * do destino). Meio {@code -1} indica uma aresta original.
+ *
+ * Os dados são lidos diretamente do buffer (heap ou ficheiro mapeado) com
+ * leituras absolutas, pelo que a instância é thread-safe. Limite: 2 GB por
+ * ficheiro.
+ */
+public final class ContractionHierarchy {
+    private static final int MAGIC = 0x48435052; // "RPCH"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final String FILE_SUFFIX = ".ch";
+
+    private final ByteBuffer data;
+    private final TransportMode mode;
+    private final int nodeCount;
+    private final long fingerprint;
+    private final Side up;
+    private final Side down;
+
+    /**
+     * Vista de um dos dois grafos de pesquisa (subir ou descer) no buffer.
+     */
+    static final class Side {
+        private final ByteBuffer data;
+        private final int offsetsAt;
+        private final int nodesAt;
+        private final int middleAt;
+        private final int secondsAt;
+        private final int metersAt;
+        private final int edgeCount;
+
+        private Side(ByteBuffer data, int start, int nodeCount, int edgeCount) {
+            this.data = data;
+            this.edgeCount = edgeCount;
+            offsetsAt = start;
+            nodesAt = offsetsAt + 4 * (nodeCount + 1);
+            middleAt = nodesAt + 4 * edgeCount;
+            secondsAt = middleAt + 4 * edgeCount;
+            metersAt = secondsAt + 4 * edgeCount;
+        }
+
+        private int end() {
+            return metersAt + 4 * edgeCount;
+        }
+
+        int first(int node) {
+            return data.getInt(offsetsAt + 4 * node);
+        }
+
+        int last(int node) {
+            return data.getInt(offsetsAt + 4 * (node + 1));
+        }
+
+        int node(int edge) {
+            return data.getInt(nodesAt + 4 * edge);
+        }
+
+        int middle(int edge) {
+            return data.getInt(middleAt + 4 * edge);
+        }
+
+        float seconds(int edge) {
+            return data.getFloat(secondsAt + 4 * edge);
+        }
+
+        float meters(int edge) {
+            return data.getFloat(metersAt + 4 * edge);
+        }
+
+        // Aresta de node com a outra ponta em other (única após o pré-processamento)
+        int find(int node, int other) {
+            for (int e = first(node); e < last(node); e++) {
+                if (node(e) == other) {
+                    return e;
+                }
+            }
+            throw new IllegalStateException("Atalho sem aresta " + node + " - " + other);
+        }
+    }
+
+    private ContractionHierarchy(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Não é um ficheiro de hierarquia de contração");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Versão de hierarquia não suportada: " + data.getInt(4));
+        }
+        int modeIndex = data.getInt(8);
+        if (modeIndex < 0 || modeIndex >= TransportMode.values().length) {
+            throw new IOException("Modo de transporte inválido: " + modeIndex);
+        }
+        mode = TransportMode.values()[modeIndex];
+        nodeCount = data.getInt(12);
+        int upEdges = data.getInt(16);
+        int downEdges = data.getInt(20);
+        fingerprint = data.getLong(24);
+
+        long expected = HEADER_BYTES + 2L * 4 * (nodeCount + 1) + 16L * upEdges + 16L * downEdges;
+        if (nodeCount < 0 || upEdges < 0 || downEdges < 0 || expected != data.capacity()) {
+            throw new IOException("Hierarquia truncada ou corrompida");
+        }
+        up = new Side(data, HEADER_BYTES, nodeCount, upEdges);
+        down = new Side(data, up.end(), nodeCount, downEdges);
+    }
+
+    /**
+     * Pré-processa o grafo para um modo (pode demorar: segundos a minutos em
+     * grafos grandes).
+     *
+     * @param graph grafo de estradas
+     * @param mode  modo de transporte
+     * @return hierarquia em memória
+     */
+    public static ContractionHierarchy build(RoadGraph graph, TransportMode mode) {
+        try {
+            return new ContractionHierarchy(new ContractionHierarchyBuilder(graph, mode).build());
+        } catch (IOException e) {
+            throw new IllegalStateException("Hierarquia gerada é inválida", e);
+        }
+    }
+
+    /**
+     * Mapeia um ficheiro gerado por {@link #write(Path)} sem o copiar para o
+     * heap.
+     *
+     * @param file  ficheiro da hierarquia
+     * @param graph grafo a que a hierarquia tem de corresponder
+     * @return hierarquia mapeada
+     * @throws IOException se o ficheiro for inválido ou tiver sido gerado para
+     *                     outro grafo
+     */
+    public static ContractionHierarchy map(Path file, RoadGraph graph) throws IOException {
+        ContractionHierarchy ch;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Hierarquia demasiado grande: " + channel.size() + " bytes");
+            }
+            ch = new ContractionHierarchy(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        if (ch.nodeCount != graph.getNodeCount() || ch.fingerprint != graph.fingerprint(ch.mode)) {
+            throw new IOException("Hierarquia " + file.getFileName() + " não corresponde ao grafo (desatualizada?)");
+        }
+        return ch;
+    }
+
+    /**
+     * Ficheiro onde se guarda a hierarquia de um modo, ao lado do grafo (ex.:
+     * {@code lisboa.txt} e {@code lisboa.txt.car.ch}).
+     *
+     * @param graphFile ficheiro do grafo
+     * @param mode      modo de transporte
+     * @return caminho do ficheiro da hierarquia
+     */
+    public static Path fileFor(Path graphFile, TransportMode mode) {
+        return graphFile.resolveSibling(graphFile.getFileName() + "." + mode.name().toLowerCase(Locale.ROOT)
+                + FILE_SUFFIX);
+    }
+
+    /**
+     * Escreve a hierarquia (via ficheiro temporário e troca atómica).
+     *
+     * @param file ficheiro de destino
+     * @throws IOException se a escrita falhar
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer view = data.duplicate();
+            view.clear();
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** @return modo de transporte da hierarquia */
+    public TransportMode getMode() {
+        return mode;
+    }
+
+    /** @return número de nós */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return número total de arestas (originais e atalhos) */
+    public int getEdgeCount() {
+        return up.edgeCount + down.edgeCount;
+    }
+
+    /** @return tamanho da representação binária em bytes */
+    public long getSizeBytes() {
+        return data.capacity();
+    }
+
+    Side up() {
+        return up;
+    }
+
+    Side down() {
+        return down;
+    }
+
+    /**
+     * Desdobra uma aresta da hierarquia nas arestas originais, acrescentando
+     * os nós a seguir a {@code from} (até {@code to}, inclusive).
+     *
+     * @param from   nó inicial da aresta
+     * @param to     nó final da aresta
+     * @param middle nó do meio ({@code -1} se for original)
+     * @param out    nós do caminho
+     * @param size   número de nós já em {@code out}
+     * @return buffer com os nós acrescentados (pode ter sido realocado) e o
+     *         novo tamanho
+     */
+    Unpacked unpack(int from, int to, int middle, int[] out, int size) {
+        // Pilha explícita de arestas por desdobrar: (from, to, middle)
+        int[] stack = new int[48];
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to;
+        stack[top++] = middle;
+        while (top > 0) {
+            int m = stack[--top];
+            int b = stack[--top];
+            int a = stack[--top];
+            if (m < 0) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, size * 2);
+                }
+                out[size++] = b;
+                continue;
+            }
+            // a -> m é uma aresta "descer" de m; m -> b é uma aresta "subir" de m
+            int first = down.find(m, a);
+            int second = up.find(m, b);
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = m;
+            stack[top++] = b;
+            stack[top++] = up.middle(second);
+            stack[top++] = a;
+            stack[top++] = m;
+            stack[top++] = down.middle(first);
+        }
+        return new Unpacked(out, size);
+    }
+
+    /**
+     * Resultado de {@link #unpack}: buffer de nós e número de posições usadas.
+     *
+     * @param nodes buffer (possivelmente realocado)
+     * @param size  número de nós válidos
+     */
+    record Unpacked(int[] nodes, int size) {
+    }
+
+    /**
+     * Escreve o cabeçalho e as duas vistas num buffer no formato do ficheiro.
+     */
+    static ByteBuffer encode(TransportMode mode, int nodeCount, long fingerprint, int[] upOffsets, int[] upNodes,
+            int[] upMiddle, float[] upSeconds, float[] upMeters, int[] downOffsets, int[] downNodes,
+            int[] downMiddle, float[] downSeconds, float[] downMeters) {
+        long bytes = HEADER_BYTES + 2L * 4 * (nodeCount + 1) + 16L * upNodes.length + 16L * downNodes.length;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Hierarquia excede 2 GB");
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(mode.ordinal()).putInt(nodeCount)
+                .putInt(upNodes.length).putInt(downNodes.length).putLong(fingerprint);
+        putSide(buf, upOffsets, upNodes, upMiddle, upSeconds, upMeters);
+        putSide(buf, downOffsets, downNodes, downMiddle, downSeconds, downMeters);
+        buf.flip();
+        return buf;
+    }
+
+    private static void putSide(ByteBuffer buf, int[] offsets, int[] nodes, int[] middle, float[] seconds,
+            float[] meters) {
+        buf.asIntBuffer().put(offsets);
+        buf.position(buf.position() + 4 * offsets.length);
+        buf.asIntBuffer().put(nodes);
+        buf.position(buf.position() + 4 * nodes.length);
+        buf.asIntBuffer().put(middle);
+        buf.position(buf.position() + 4 * middle.length);
+        buf.asFloatBuffer().put(seconds);
+        buf.position(buf.position() + 4 * seconds.length);
+        buf.asFloatBuffer().put(meters);
+        buf.position(buf.position() + 4 * meters.length);
+    }
+}
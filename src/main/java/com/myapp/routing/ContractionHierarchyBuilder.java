@@ -0,0 +1,315 @@
+package com.myapp.routing;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.myapp.model.TransportMode;
+
+/**
+ * Pré-processamento de uma {@link ContractionHierarchy}.
+ *
+ * Ordem de contração: fila de prioridade com atualização preguiçosa. A
+ * prioridade de um nó é {@code 2 * (atalhos - arestas removidas) + vizinhos já
+ * contraídos}; antes de contrair o nó do topo, a prioridade é recalculada e,
+ * se deixou de ser a menor, o nó volta à fila.
+ *
+ * Pesquisa de testemunhas: para cada vizinho de entrada {@code u} de
+ * {@code v}, um Dijkstra limitado (custo máximo e {@value #WITNESS_SETTLE_LIMIT}
+ * nós fixados) no grafo restante sem {@code v}. Se não encontrar um caminho
+ * até {@code w} tão curto como {@code u -> v -> w}, acrescenta o atalho. O
+ * limite pode gerar atalhos desnecessários, mas nunca resultados errados.
+ */
+final class ContractionHierarchyBuilder {
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final RoadGraph graph;
+    private final TransportMode mode;
+    private final int nodeCount;
+
+    // Grafo restante: arestas de saída e de entrada dos nós por contrair
+    private final Adjacency[] out;
+    private final Adjacency[] in;
+    private final int[] deletedNeighbors;
+
+    // Estado da pesquisa de testemunhas (invalidado por geração)
+    private final double[] witnessDist;
+    private final int[] witnessStamp;
+    private final MinHeap witnessHeap = new MinHeap(256);
+    private int witnessGeneration;
+
+    // Atalhos calculados para o último nó avaliado
+    private final Adjacency shortcutFrom = new Adjacency();
+    private final Adjacency shortcutTo = new Adjacency();
+
+    // Arestas finais: "subir" (dono -> mais importante) e "descer" (mais importante -> dono)
+    private final EdgeBuffer upEdges = new EdgeBuffer();
+    private final EdgeBuffer downEdges = new EdgeBuffer();
+
+    ContractionHierarchyBuilder(RoadGraph graph, TransportMode mode) {
+        this.graph = graph;
+        this.mode = mode;
+        this.nodeCount = graph.getNodeCount();
+        this.out = new Adjacency[nodeCount];
+        this.in = new Adjacency[nodeCount];
+        this.deletedNeighbors = new int[nodeCount];
+        this.witnessDist = new double[nodeCount];
+        this.witnessStamp = new int[nodeCount];
+    }
+
+    /**
+     * Contrai todos os nós e devolve a hierarquia no formato binário.
+     */
+    ByteBuffer build() {
+        RoadGraph.Csr csr = graph.forward(mode);
+        for (int v = 0; v < nodeCount; v++) {
+            out[v] = new Adjacency();
+            in[v] = new Adjacency();
+        }
+        for (int u = 0; u < nodeCount; u++) {
+            for (int e = csr.offsets[u]; e < csr.offsets[u + 1]; e++) {
+                int v = csr.targets[e];
+                if (u != v) {
+                    addEdge(u, v, csr.seconds[e], csr.meters[e], -1);
+                }
+            }
+        }
+
+        MinHeap queue = new MinHeap(nodeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            queue.push(priority(v), v);
+        }
+        while (!queue.isEmpty()) {
+            int v = queue.peekNode();
+            queue.pop();
+            double current = priority(v);
+            if (!queue.isEmpty() && current > queue.peekKey()) {
+                queue.push(current, v);
+                continue;
+            }
+            contract(v);
+        }
+
+        SortedEdges up = upEdges.sort(nodeCount);
+        SortedEdges down = downEdges.sort(nodeCount);
+        return ContractionHierarchy.encode(mode, nodeCount, graph.fingerprint(mode),
+                up.offsets(), up.other(), up.middle(), up.seconds(), up.meters(),
+                down.offsets(), down.other(), down.middle(), down.seconds(), down.meters());
+    }
+
+    // Calcula os atalhos de v (em shortcutFrom/shortcutTo) e a prioridade
+    private double priority(int v) {
+        findShortcuts(v);
+        int removed = out[v].size + in[v].size;
+        return 2.0 * (shortcutFrom.size - removed) + deletedNeighbors[v];
+    }
+
+    private void findShortcuts(int v) {
+        shortcutFrom.size = 0;
+        shortcutTo.size = 0;
+        Adjacency outs = out[v];
+        Adjacency ins = in[v];
+        for (int i = 0; i < ins.size; i++) {
+            int u = ins.nodes[i];
+            float toV = ins.seconds[i];
+            double maxCost = -1.0;
+            for (int j = 0; j < outs.size; j++) {
+                if (outs.nodes[j] != u) {
+                    maxCost = Math.max(maxCost, toV + outs.seconds[j]);
+                }
+            }
+            if (maxCost < 0.0) {
+                continue;
+            }
+            witnessSearch(u, v, maxCost);
+            for (int j = 0; j < outs.size; j++) {
+                int w = outs.nodes[j];
+                if (w == u) {
+                    continue;
+                }
+                float via = toV + outs.seconds[j];
+                if (witnessDistance(w) > via) {
+                    // shortcutFrom guarda (u, custo, metros); shortcutTo guarda w
+                    shortcutFrom.add(u, via, ins.meters[i] + outs.meters[j], v);
+                    shortcutTo.add(w, via, 0f, v);
+                }
+            }
+        }
+    }
+
+    private void witnessSearch(int source, int excluded, double maxCost) {
+        if (++witnessGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(witnessStamp, 0);
+            witnessGeneration = 1;
+        }
+        witnessHeap.clear();
+        witnessStamp[source] = witnessGeneration;
+        witnessDist[source] = 0.0;
+        witnessHeap.push(0.0, source);
+        int settled = 0;
+        while (!witnessHeap.isEmpty()) {
+            double d = witnessHeap.peekKey();
+            int u = witnessHeap.peekNode();
+            witnessHeap.pop();
+            if (d > witnessDist[u]) {
+                continue;
+            }
+            if (d > maxCost || ++settled > WITNESS_SETTLE_LIMIT) {
+                break;
+            }
+            Adjacency edges = out[u];
+            for (int i = 0; i < edges.size; i++) {
+                int x = edges.nodes[i];
+                if (x == excluded) {
+                    continue;
+                }
+                double nd = d + edges.seconds[i];
+                if (nd < witnessDistance(x)) {
+                    witnessStamp[x] = witnessGeneration;
+                    witnessDist[x] = nd;
+                    witnessHeap.push(nd, x);
+                }
+            }
+        }
+    }
+
+    private double witnessDistance(int v) {
+        return witnessStamp[v] == witnessGeneration ? witnessDist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    // Usa os atalhos calculados pela última chamada a priority(v)
+    private void contract(int v) {
+        Adjacency outs = out[v];
+        Adjacency ins = in[v];
+        for (int i = 0; i < outs.size; i++) {
+            upEdges.add(v, outs.nodes[i], outs.middle[i], outs.seconds[i], outs.meters[i]);
+            in[outs.nodes[i]].remove(v);
+            deletedNeighbors[outs.nodes[i]]++;
+        }
+        for (int i = 0; i < ins.size; i++) {
+            downEdges.add(v, ins.nodes[i], ins.middle[i], ins.seconds[i], ins.meters[i]);
+            out[ins.nodes[i]].remove(v);
+            deletedNeighbors[ins.nodes[i]]++;
+        }
+        for (int i = 0; i < shortcutFrom.size; i++) {
+            addEdge(shortcutFrom.nodes[i], shortcutTo.nodes[i], shortcutFrom.seconds[i], shortcutFrom.meters[i], v);
+        }
+        out[v] = null;
+        in[v] = null;
+    }
+
+    // Acrescenta u -> w, mantendo só a aresta mais rápida entre cada par
+    private void addEdge(int u, int w, float seconds, float meters, int middle) {
+        Adjacency outs = out[u];
+        int i = outs.indexOf(w);
+        if (i >= 0) {
+            if (seconds < outs.seconds[i]) {
+                outs.set(i, seconds, meters, middle);
+                Adjacency ins = in[w];
+                ins.set(ins.indexOf(u), seconds, meters, middle);
+            }
+            return;
+        }
+        outs.add(w, seconds, meters, middle);
+        in[w].add(u, seconds, meters, middle);
+    }
+
+    /**
+     * Lista de arestas de um nó em arrays paralelos que crescem.
+     */
+    private static final class Adjacency {
+        int[] nodes = new int[4];
+        float[] seconds = new float[4];
+        float[] meters = new float[4];
+        int[] middle = new int[4];
+        int size;
+
+        void add(int node, float sec, float m, int mid) {
+            if (size == nodes.length) {
+                int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+                meters = Arrays.copyOf(meters, capacity);
+                middle = Arrays.copyOf(middle, capacity);
+            }
+            nodes[size] = node;
+            seconds[size] = sec;
+            meters[size] = m;
+            middle[size] = mid;
+            size++;
+        }
+
+        void set(int i, float sec, float m, int mid) {
+            seconds[i] = sec;
+            meters[i] = m;
+            middle[i] = mid;
+        }
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void remove(int node) {
+            int i = indexOf(node);
+            if (i >= 0) {
+                size--;
+                nodes[i] = nodes[size];
+                seconds[i] = seconds[size];
+                meters[i] = meters[size];
+                middle[i] = middle[size];
+            }
+        }
+    }
+
+    /**
+     * Arestas ordenadas por dono: as do nó {@code v} ocupam as posições
+     * {@code offsets[v]} a {@code offsets[v + 1] - 1} dos outros arrays.
+     */
+    private record SortedEdges(int[] offsets, int[] other, int[] middle, float[] seconds, float[] meters) {
+    }
+
+    /**
+     * Arestas finais por dono, ordenadas por dono (counting sort) em
+     * {@link #sort(int)}.
+     */
+    private static final class EdgeBuffer {
+        private final Adjacency edges = new Adjacency();
+        private int[] owner = new int[16];
+
+        void add(int ownerNode, int other, int middle, float seconds, float meters) {
+            if (edges.size == owner.length) {
+                owner = Arrays.copyOf(owner, owner.length * 2);
+            }
+            owner[edges.size] = ownerNode;
+            edges.add(other, seconds, meters, middle);
+        }
+
+        SortedEdges sort(int nodeCount) {
+            int count = edges.size;
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < count; i++) {
+                offsets[owner[i] + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] sortedOther = new int[count];
+            int[] sortedMiddle = new int[count];
+            float[] sortedSeconds = new float[count];
+            float[] sortedMeters = new float[count];
+            int[] fill = Arrays.copyOf(offsets, nodeCount);
+            for (int i = 0; i < count; i++) {
+                int slot = fill[owner[i]]++;
+                sortedOther[slot] = edges.nodes[i];
+                sortedMiddle[slot] = edges.middle[i];
+                sortedSeconds[slot] = edges.seconds[i];
+                sortedMeters[slot] = edges.meters[i];
+            }
+            return new SortedEdges(offsets, sortedOther, sortedMiddle, sortedSeconds, sortedMeters);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.myapp.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leitor de grafos de estradas num formato de texto simples, uma entrada por
+ * linha:
+ *
+ * <pre>
+ * # comentário
+ * n &lt;id&gt; &lt;lat&gt; &lt;lon&gt;
+ * e &lt;id origem&gt; &lt;id destino&gt; &lt;highway&gt; [oneway] [comprimento_m]
+ * </pre>
+ *
+ * Os identificadores são os ids OSM (ou quaisquer inteiros) e são convertidos
+ * em índices densos; cada nó tem de aparecer antes das arestas que o usam.
+ * {@code highway} é o valor da etiqueta OSM (ver {@link RoadClass}). Sem
+ * comprimento, usa-se a distância em linha reta entre os nós.
+ *
+ * Papel na arquitetura MVC:
+ * - Camada de dados do motor local: converte o ficheiro (gerado offline a
+ * partir de um extrato OSM) num {@link RoadGraph}.
+ */
+public final class EdgeListLoader {
+    private static final String ONEWAY = "oneway";
+
+    private EdgeListLoader() {
+    }
+
+    /**
+     * Lê um grafo de um ficheiro UTF-8.
+     *
+     * @param file ficheiro de arestas
+     * @return grafo construído
+     * @throws IOException se o ficheiro não puder ser lido ou for inválido
+     */
+    public static RoadGraph load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Lê um grafo de um {@link Reader}.
+     *
+     * @param source texto no formato de lista de arestas
+     * @return grafo construído
+     * @throws IOException se o texto não puder ser lido ou for inválido (a
+     *                     mensagem indica a linha)
+     */
+    public static RoadGraph load(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        RoadGraph.Builder builder = RoadGraph.builder();
+        Map<Long, Integer> ids = new HashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "n" -> {
+                        require(tokens.length == 4, "nó deve ter id, latitude e longitude");
+                        long id = Long.parseLong(tokens[1]);
+                        double lat = Double.parseDouble(tokens[2]);
+                        double lon = Double.parseDouble(tokens[3]);
+                        require(Math.abs(lat) <= 90 && Math.abs(lon) <= 180, "coordenadas fora dos limites");
+                        require(ids.putIfAbsent(id, builder.getNodeCount()) == null, "nó repetido " + id);
+                        builder.addNode(lat, lon);
+                    }
+                    case "e" -> {
+                        require(tokens.length >= 4 && tokens.length <= 6,
+                                "aresta deve ter origem, destino e highway");
+                        int from = node(ids, tokens[1]);
+                        int to = node(ids, tokens[2]);
+                        RoadClass roadClass = RoadClass.fromOsm(tokens[3]);
+                        require(roadClass != null, "highway desconhecido '" + tokens[3] + "'");
+                        boolean oneway = false;
+                        double length = Double.NaN;
+                        for (int i = 4; i < tokens.length; i++) {
+                            if (ONEWAY.equals(tokens[i])) {
+                                oneway = true;
+                            } else {
+                                length = Double.parseDouble(tokens[i]);
+                            }
+                        }
+                        builder.addEdge(from, to, roadClass, oneway, length);
+                    }
+                    default -> throw new IllegalArgumentException("tipo de linha desconhecido '" + tokens[0] + "'");
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException também é IllegalArgumentException
+                throw new IOException("Grafo inválido na linha " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static int node(Map<Long, Integer> ids, String token) {
+        Integer index = ids.get(Long.parseLong(token));
+        require(index != null, "nó " + token + " não declarado");
+        return index;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,622 @@
+package com.myapp.routing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.myapp.model.DistanceMatrix;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
+import com.myapp.model.TransportMode;
+
+/**
+ * Motor de rotas embutido que responde sem rede a partir de um
+ * {@link RoadGraph} carregado em memória.
+ *
+ * Papel na arquitetura MVC:
+ * - Alternativa ao servidor OSRM atrás de {@link RoutingBackend}: o Service
+ * usa-o quando a propriedade de sistema {@code routing.graph} indica um
+ * ficheiro de arestas ({@link EdgeListLoader}).
+ *
+ * Funcionamento:
+ * - Origem, destino e pontos intermédios são associados ao nó acessível mais
+ * próximo para o modo pedido (até {@value #MAX_SNAP_DISTANCE_M} m).
+ * - O custo é o tempo de viagem; cada modo tem a sua vista CSR do grafo, com
+ * os acessos e sentidos únicos já aplicados.
+ * - Se existir uma {@link ContractionHierarchy} para o modo, a pesquisa é
+ * bidirecional e só sobe na hierarquia (tipicamente poucas centenas de nós);
+ * os atalhos do caminho são depois desdobrados nas arestas originais.
+ * - Sem hierarquia, usa A* bidirecional com o potencial médio
+ * {@code (h_t(v) - h_s(v)) / 2}, onde {@code h} é a distância em linha reta a
+ * dividir pela velocidade máxima do modo; Dijkstra simples e bidirecional
+ * ficam disponíveis para comparação.
+ * - O estado das pesquisas (distâncias, predecessores, filas) é reutilizado
+ * por thread e invalidado com um contador de geração, sem limpar os arrays.
+ *
+ * Thread-safe: várias threads podem pesquisar em simultâneo.
+ */
+public class LocalRoutingEngine implements RoutingBackend {
+    /** Distância máxima entre um ponto pedido e o nó do grafo escolhido. */
+    public static final double MAX_SNAP_DISTANCE_M = 2000.0;
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    /**
+     * Algoritmo de pesquisa de caminho mais curto.
+     */
+    public enum Algorithm {
+        /** Dijkstra unidirecional a partir da origem. */
+        DIJKSTRA,
+        /** Dijkstra a partir da origem e do destino em simultâneo. */
+        BIDIRECTIONAL_DIJKSTRA,
+        /** Dijkstra bidirecional guiado pela heurística da linha reta. */
+        BIDIRECTIONAL_ASTAR
+    }
+
+    private final RoadGraph graph;
+    private final Algorithm algorithm;
+    private final Map<TransportMode, ContractionHierarchy> hierarchies;
+    private final ThreadLocal<SearchState> searchState;
+
+    /**
+     * Cria o motor com A* bidirecional.
+     *
+     * @param graph grafo de estradas
+     */
+    public LocalRoutingEngine(RoadGraph graph) {
+        this(graph, Algorithm.BIDIRECTIONAL_ASTAR);
+    }
+
+    /**
+     * Cria o motor com um algoritmo específico.
+     *
+     * @param graph     grafo de estradas
+     * @param algorithm algoritmo de pesquisa
+     */
+    public LocalRoutingEngine(RoadGraph graph, Algorithm algorithm) {
+        this(graph, algorithm, Map.of());
+    }
+
+    /**
+     * Cria o motor com hierarquias de contração pré-calculadas; os modos sem
+     * hierarquia usam A* bidirecional.
+     *
+     * @param graph       grafo de estradas
+     * @param hierarchies hierarquias por modo (geradas para este grafo)
+     */
+    public LocalRoutingEngine(RoadGraph graph, Map<TransportMode, ContractionHierarchy> hierarchies) {
+        this(graph, Algorithm.BIDIRECTIONAL_ASTAR, hierarchies);
+    }
+
+    private LocalRoutingEngine(RoadGraph graph, Algorithm algorithm,
+            Map<TransportMode, ContractionHierarchy> hierarchies) {
+        this.graph = Objects.requireNonNull(graph);
+        this.algorithm = Objects.requireNonNull(algorithm);
+        this.hierarchies = hierarchies.isEmpty() ? Map.of() : new EnumMap<>(hierarchies);
+        for (ContractionHierarchy ch : this.hierarchies.values()) {
+            if (ch.getNodeCount() != graph.getNodeCount()) {
+                throw new IllegalArgumentException("Hierarquia " + ch.getMode() + " não corresponde ao grafo");
+            }
+        }
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(graph.getNodeCount()));
+    }
+
+    /**
+     * Carrega um ficheiro de arestas e cria o motor. As hierarquias de
+     * contração geradas por {@link ChPreprocessor} ao lado do grafo (ver
+     * {@link ContractionHierarchy#fileFor(Path, TransportMode)}) são mapeadas
+     * em memória; se faltarem ou estiverem desatualizadas, esse modo usa A*.
+     *
+     * @param edgeList ficheiro no formato de {@link EdgeListLoader}
+     * @return motor pronto a usar
+     * @throws IOException se o ficheiro não puder ser lido ou for inválido
+     */
+    public static LocalRoutingEngine load(Path edgeList) throws IOException {
+        long start = System.nanoTime();
+        RoadGraph graph = EdgeListLoader.load(edgeList);
+        System.out.printf("[LocalRouting] Grafo %s carregado: %d nós em %d ms%n", edgeList.getFileName(),
+                graph.getNodeCount(), (System.nanoTime() - start) / 1_000_000);
+
+        Map<TransportMode, ContractionHierarchy> hierarchies = new EnumMap<>(TransportMode.class);
+        for (TransportMode mode : TransportMode.values()) {
+            Path file = ContractionHierarchy.fileFor(edgeList, mode);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                hierarchies.put(mode, ContractionHierarchy.map(file, graph));
+            } catch (IOException e) {
+                System.err.println("[LocalRouting] Hierarquia ignorada: " + e.getMessage());
+            }
+        }
+        if (!hierarchies.isEmpty()) {
+            System.out.println("[LocalRouting] Hierarquias de contração: " + hierarchies.keySet());
+        }
+        return new LocalRoutingEngine(graph, hierarchies);
+    }
+
+    /** @return grafo usado pelo motor */
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /** @return algoritmo de pesquisa usado nos modos sem hierarquia */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @param mode modo de transporte
+     * @return {@code true} se o modo tiver uma hierarquia de contração
+     */
+    public boolean hasHierarchy(TransportMode mode) {
+        return hierarchies.containsKey(mode);
+    }
+
+    @Override
+    public Route getRoute(Point origin, Point destination, TransportMode mode) {
+        return getRouteWithWaypoints(origin, List.of(destination), mode);
+    }
+
+    /**
+     * Calcula cada troço entre pontos consecutivos e junta-os numa só rota.
+     */
+    @Override
+    public Route getRouteWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode) {
+        if (waypoints == null || waypoints.isEmpty()) {
+            return null;
+        }
+        List<Point> stops = new ArrayList<>(waypoints.size() + 1);
+        stops.add(origin);
+        stops.addAll(waypoints);
+
+        int[] nodes = new int[stops.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            Point p = stops.get(i);
+            nodes[i] = graph.nearestNode(p.getLatitude(), p.getLongitude(), mode, MAX_SNAP_DISTANCE_M);
+            if (nodes[i] < 0) {
+                System.err.printf("[LocalRouting] Nenhuma via para %s a menos de %.0f m de (%.5f, %.5f)%n", mode,
+                        MAX_SNAP_DISTANCE_M, p.getLatitude(), p.getLongitude());
+                return null;
+            }
+        }
+
+        RouteGeometry.Builder geometry = RouteGeometry.builder(64);
+        double meters = 0.0;
+        double seconds = 0.0;
+        for (int leg = 0; leg + 1 < nodes.length; leg++) {
+            NodePath path = findPath(nodes[leg], nodes[leg + 1], mode);
+            if (path == null) {
+                System.err.println("[LocalRouting] Nenhuma rota encontrada no troço " + (leg + 1));
+                return null;
+            }
+            // O primeiro nó de cada troço é o último do anterior
+            for (int i = leg == 0 ? 0 : 1; i < path.nodes().length; i++) {
+                int v = path.nodes()[i];
+                geometry.add(graph.getLatitude(v), graph.getLongitude(v));
+            }
+            meters += path.meters();
+            seconds += path.seconds();
+        }
+        return new Route(geometry.build(), meters / 1000.0, Math.round(seconds), mode, new ArrayList<>());
+    }
+
+    /**
+     * Um Dijkstra por origem, que pára quando todos os destinos estiverem
+     * fixados (em vez de uma pesquisa por par).
+     */
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<Point> sources, List<Point> targets, TransportMode mode) {
+        DistanceMatrix matrix = new DistanceMatrix(sources.size(), targets.size());
+        int[] targetNodes = new int[targets.size()];
+        BitSet targetSet = new BitSet(graph.getNodeCount());
+        for (int j = 0; j < targetNodes.length; j++) {
+            Point p = targets.get(j);
+            targetNodes[j] = graph.nearestNode(p.getLatitude(), p.getLongitude(), mode, MAX_SNAP_DISTANCE_M);
+            if (targetNodes[j] >= 0) {
+                targetSet.set(targetNodes[j]);
+            }
+        }
+
+        RoadGraph.Csr out = graph.forward(mode);
+        SearchState s = searchState.get();
+        for (int i = 0; i < sources.size(); i++) {
+            Point p = sources.get(i);
+            int source = graph.nearestNode(p.getLatitude(), p.getLongitude(), mode, MAX_SNAP_DISTANCE_M);
+            if (source < 0) {
+                continue;
+            }
+            s.nextGeneration();
+            int remaining = targetSet.cardinality();
+            MinHeap heap = s.heapForward;
+            s.reachForward(source, 0.0, -1, -1);
+            heap.push(0.0, source);
+            while (!heap.isEmpty() && remaining > 0) {
+                int u = heap.peekNode();
+                heap.pop();
+                if (!s.settleForward(u)) {
+                    continue;
+                }
+                if (targetSet.get(u)) {
+                    remaining--;
+                }
+                double du = s.distForward[u];
+                for (int e = out.offsets[u]; e < out.offsets[u + 1]; e++) {
+                    int v = out.targets[e];
+                    double nd = du + out.seconds[e];
+                    if (nd < s.forwardDistance(v)) {
+                        s.reachForward(v, nd, u, e);
+                        heap.push(nd, v);
+                    }
+                }
+            }
+
+            for (int j = 0; j < targetNodes.length; j++) {
+                int t = targetNodes[j];
+                if (t < 0 || s.settledForward[t] != s.generation) {
+                    continue;
+                }
+                double meters = 0.0;
+                for (int v = t; v != source; v = s.parentForward[v]) {
+                    meters += out.meters[s.edgeForward[v]];
+                }
+                matrix.set(i, j, meters / 1000.0, Math.round(s.distForward[t]));
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Caminho mais rápido entre dois nós com a hierarquia do modo ou, sem
+     * ela, com o algoritmo configurado.
+     *
+     * @param source nó de origem
+     * @param target nó de destino
+     * @param mode   modo de transporte
+     * @return caminho encontrado, ou {@code null} se o destino for inalcançável
+     */
+    NodePath findPath(int source, int target, TransportMode mode) {
+        SearchState state = searchState.get();
+        state.nextGeneration();
+        if (source == target) {
+            return new NodePath(new int[] { source }, 0.0, 0.0, 1);
+        }
+        ContractionHierarchy ch = hierarchies.get(mode);
+        if (ch != null) {
+            return hierarchyPath(state, ch, source, target);
+        }
+        return algorithm == Algorithm.DIJKSTRA
+                ? dijkstra(state, source, target, mode)
+                : bidirectional(state, source, target, mode, algorithm == Algorithm.BIDIRECTIONAL_ASTAR);
+    }
+
+    private NodePath dijkstra(SearchState s, int source, int target, TransportMode mode) {
+        RoadGraph.Csr out = graph.forward(mode);
+        MinHeap heap = s.heapForward;
+        s.reachForward(source, 0.0, -1, -1);
+        heap.push(0.0, source);
+        int settled = 0;
+
+        while (!heap.isEmpty()) {
+            int u = heap.peekNode();
+            heap.pop();
+            if (!s.settleForward(u)) {
+                continue;
+            }
+            settled++;
+            if (u == target) {
+                return buildPath(s, source, target, u, settled, mode);
+            }
+            double du = s.distForward[u];
+            for (int e = out.offsets[u]; e < out.offsets[u + 1]; e++) {
+                int v = out.targets[e];
+                double nd = du + out.seconds[e];
+                if (nd < s.forwardDistance(v)) {
+                    s.reachForward(v, nd, u, e);
+                    heap.push(nd, v);
+                }
+            }
+        }
+        return null;
+    }
+
+    private NodePath bidirectional(SearchState s, int source, int target, TransportMode mode, boolean astar) {
+        RoadGraph.Csr out = graph.forward(mode);
+        RoadGraph.Csr in = graph.backward(mode);
+        MinHeap heapF = s.heapForward;
+        MinHeap heapB = s.heapBackward;
+        // Heurística em segundos por metro: nunca sobrestima o tempo real
+        double secondsPerMeter = astar ? 3.6 / RoadClass.maxSpeedKmh(mode) : 0.0;
+
+        s.reachForward(source, 0.0, -1, -1);
+        heapF.push(potential(source, source, target, secondsPerMeter), source);
+        s.reachBackward(target, 0.0, -1, -1);
+        heapB.push(-potential(target, source, target, secondsPerMeter), target);
+
+        double best = INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            // Com potenciais consistentes: kF + kB >= mu garante que mu é ótimo
+            if (heapF.peekKey() + heapB.peekKey() >= best) {
+                break;
+            }
+            if (heapF.peekKey() <= heapB.peekKey()) {
+                int u = heapF.peekNode();
+                heapF.pop();
+                if (!s.settleForward(u)) {
+                    continue;
+                }
+                settled++;
+                double du = s.distForward[u];
+                for (int e = out.offsets[u]; e < out.offsets[u + 1]; e++) {
+                    int v = out.targets[e];
+                    double nd = du + out.seconds[e];
+                    if (nd < s.forwardDistance(v)) {
+                        s.reachForward(v, nd, u, e);
+                        heapF.push(nd + potential(v, source, target, secondsPerMeter), v);
+                        double total = nd + s.backwardDistance(v);
+                        if (total < best) {
+                            best = total;
+                            meeting = v;
+                        }
+                    }
+                }
+            } else {
+                int u = heapB.peekNode();
+                heapB.pop();
+                if (!s.settleBackward(u)) {
+                    continue;
+                }
+                settled++;
+                double du = s.distBackward[u];
+                for (int e = in.offsets[u]; e < in.offsets[u + 1]; e++) {
+                    int v = in.targets[e];
+                    double nd = du + in.seconds[e];
+                    if (nd < s.backwardDistance(v)) {
+                        s.reachBackward(v, nd, u, e);
+                        heapB.push(nd - potential(v, source, target, secondsPerMeter), v);
+                        double total = nd + s.forwardDistance(v);
+                        if (total < best) {
+                            best = total;
+                            meeting = v;
+                        }
+                    }
+                }
+            }
+        }
+        return meeting < 0 ? null : buildPath(s, source, target, meeting, settled, mode);
+    }
+
+    // Pesquisa bidirecional que só sobe na hierarquia; cada lado pára quando a
+    // sua menor chave já não pode melhorar o melhor caminho encontrado
+    private NodePath hierarchyPath(SearchState s, ContractionHierarchy ch, int source, int target) {
+        ContractionHierarchy.Side up = ch.up();
+        ContractionHierarchy.Side down = ch.down();
+        MinHeap heapF = s.heapForward;
+        MinHeap heapB = s.heapBackward;
+        s.reachForward(source, 0.0, -1, -1);
+        heapF.push(0.0, source);
+        s.reachBackward(target, 0.0, -1, -1);
+        heapB.push(0.0, target);
+
+        double best = INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        while (true) {
+            boolean forwardOpen = !heapF.isEmpty() && heapF.peekKey() < best;
+            boolean backwardOpen = !heapB.isEmpty() && heapB.peekKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean forward = forwardOpen && (!backwardOpen || heapF.peekKey() <= heapB.peekKey());
+            MinHeap heap = forward ? heapF : heapB;
+            ContractionHierarchy.Side side = forward ? up : down;
+            int u = heap.peekNode();
+            heap.pop();
+            if (!(forward ? s.settleForward(u) : s.settleBackward(u))) {
+                continue;
+            }
+            settled++;
+            double du = forward ? s.distForward[u] : s.distBackward[u];
+            double other = forward ? s.backwardDistance(u) : s.forwardDistance(u);
+            if (du + other < best) {
+                best = du + other;
+                meeting = u;
+            }
+            for (int e = side.first(u); e < side.last(u); e++) {
+                int v = side.node(e);
+                double nd = du + side.seconds(e);
+                if (forward && nd < s.forwardDistance(v)) {
+                    s.reachForward(v, nd, u, e);
+                    heapF.push(nd, v);
+                } else if (!forward && nd < s.backwardDistance(v)) {
+                    s.reachBackward(v, nd, u, e);
+                    heapB.push(nd, v);
+                }
+            }
+        }
+        if (meeting < 0) {
+            return null;
+        }
+
+        // Arestas da hierarquia: origem -> meeting (subir) e meeting -> destino (descer)
+        int[] nodes = new int[32];
+        int size = 0;
+        int hops = 0;
+        for (int v = meeting; v != source; v = s.parentForward[v]) {
+            hops++;
+        }
+        int[] chain = new int[hops];
+        for (int v = meeting, i = hops - 1; v != source; v = s.parentForward[v]) {
+            chain[i--] = v;
+        }
+        nodes[size++] = source;
+        double meters = 0.0;
+        double seconds = 0.0;
+        int from = source;
+        for (int v : chain) {
+            int e = s.edgeForward[v];
+            ContractionHierarchy.Unpacked unpacked = ch.unpack(from, v, up.middle(e), nodes, size);
+            nodes = unpacked.nodes();
+            size = unpacked.size();
+            meters += up.meters(e);
+            seconds += up.seconds(e);
+            from = v;
+        }
+        for (int v = meeting; v != target; v = s.parentBackward[v]) {
+            int next = s.parentBackward[v];
+            int e = s.edgeBackward[v];
+            ContractionHierarchy.Unpacked unpacked = ch.unpack(v, next, down.middle(e), nodes, size);
+            nodes = unpacked.nodes();
+            size = unpacked.size();
+            meters += down.meters(e);
+            seconds += down.seconds(e);
+        }
+        return new NodePath(Arrays.copyOf(nodes, size), meters, seconds, settled);
+    }
+
+    // Potencial médio (h_t - h_s) / 2: consistente nos dois sentidos
+    private double potential(int v, int source, int target, double secondsPerMeter) {
+        if (secondsPerMeter == 0.0) {
+            return 0.0;
+        }
+        return (graph.distanceMeters(v, target) - graph.distanceMeters(source, v)) * secondsPerMeter / 2.0;
+    }
+
+    // Junta a cadeia de predecessores da origem até meeting com a cadeia de
+    // sucessores de meeting até ao destino.
+    private NodePath buildPath(SearchState s, int source, int target, int meeting, int settled,
+            TransportMode mode) {
+        RoadGraph.Csr out = graph.forward(mode);
+        RoadGraph.Csr in = graph.backward(mode);
+        int count = 1;
+        for (int v = meeting; v != source; v = s.parentForward[v]) {
+            count++;
+        }
+        int head = count;
+        if (meeting != target) {
+            for (int v = meeting; v != target; v = s.parentBackward[v]) {
+                count++;
+            }
+        }
+
+        int[] nodes = new int[count];
+        double meters = 0.0;
+        double seconds = 0.0;
+        int i = head - 1;
+        for (int v = meeting; ; v = s.parentForward[v]) {
+            nodes[i--] = v;
+            if (v == source) {
+                break;
+            }
+            int e = s.edgeForward[v];
+            meters += out.meters[e];
+            seconds += out.seconds[e];
+        }
+        i = head;
+        for (int v = meeting; v != target; v = s.parentBackward[v]) {
+            int e = s.edgeBackward[v];
+            meters += in.meters[e];
+            seconds += in.seconds[e];
+            nodes[i++] = s.parentBackward[v];
+        }
+        return new NodePath(nodes, meters, seconds, settled);
+    }
+
+    /**
+     * Estado de pesquisa reutilizável por thread. Uma entrada só é válida se o
+     * seu carimbo for igual à geração atual, pelo que cada nova pesquisa
+     * começa em O(1).
+     */
+    private static final class SearchState {
+        final double[] distForward;
+        final double[] distBackward;
+        final int[] parentForward;
+        final int[] parentBackward;
+        final int[] edgeForward;
+        final int[] edgeBackward;
+        final int[] reachedForward;
+        final int[] reachedBackward;
+        final int[] settledForward;
+        final int[] settledBackward;
+        final MinHeap heapForward;
+        final MinHeap heapBackward;
+        int generation;
+
+        SearchState(int nodeCount) {
+            distForward = new double[nodeCount];
+            distBackward = new double[nodeCount];
+            parentForward = new int[nodeCount];
+            parentBackward = new int[nodeCount];
+            edgeForward = new int[nodeCount];
+            edgeBackward = new int[nodeCount];
+            reachedForward = new int[nodeCount];
+            reachedBackward = new int[nodeCount];
+            settledForward = new int[nodeCount];
+            settledBackward = new int[nodeCount];
+            heapForward = new MinHeap(256);
+            heapBackward = new MinHeap(256);
+        }
+
+        void nextGeneration() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(reachedForward, 0);
+                Arrays.fill(reachedBackward, 0);
+                Arrays.fill(settledForward, 0);
+                Arrays.fill(settledBackward, 0);
+                generation = 1;
+            }
+            heapForward.clear();
+            heapBackward.clear();
+        }
+
+        double forwardDistance(int v) {
+            return reachedForward[v] == generation ? distForward[v] : INFINITY;
+        }
+
+        double backwardDistance(int v) {
+            return reachedBackward[v] == generation ? distBackward[v] : INFINITY;
+        }
+
+        void reachForward(int v, double dist, int parent, int edge) {
+            reachedForward[v] = generation;
+            distForward[v] = dist;
+            parentForward[v] = parent;
+            edgeForward[v] = edge;
+        }
+
+        void reachBackward(int v, double dist, int parent, int edge) {
+            reachedBackward[v] = generation;
+            distBackward[v] = dist;
+            parentBackward[v] = parent;
+            edgeBackward[v] = edge;
+        }
+
+        /** @return {@code false} se o nó já estava fixado (entrada obsoleta) */
+        boolean settleForward(int v) {
+            if (settledForward[v] == generation) {
+                return false;
+            }
+            settledForward[v] = generation;
+            return true;
+        }
+
+        boolean settleBackward(int v) {
+            if (settledBackward[v] == generation) {
+                return false;
+            }
+            settledBackward[v] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.myapp.routing;
+
+import java.util.Arrays;
+
+/**
+ * Fila de prioridade mínima de pares (chave {@code double}, nó {@code int})
+ * em arrays primitivos, sem objetos por entrada.
+ *
+ * Não suporta "decrease-key": as pesquisas inserem o nó de novo com a chave
+ * menor e ignoram as entradas obsoletas ao retirá-las.
+ */
+final class MinHeap {
+    private double[] keys;
+    private int[] nodes;
+    private int size;
+
+    MinHeap(int initialCapacity) {
+        keys = new double[Math.max(16, initialCapacity)];
+        nodes = new int[keys.length];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return menor chave (só válido se não estiver vazia) */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /** @return nó com a menor chave (só válido se não estiver vazia) */
+    int peekNode() {
+        return nodes[0];
+    }
+
+    void push(double key, int node) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    /** Retira a entrada com a menor chave (ler antes com peekKey/peekNode). */
+    void pop() {
+        int last = --size;
+        if (last == 0) {
+            return;
+        }
+        double key = keys[last];
+        int node = nodes[last];
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < last && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            nodes[i] = nodes[child];
+            i = child;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+}
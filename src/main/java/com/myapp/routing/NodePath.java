@@ -0,0 +1,12 @@
+package com.myapp.routing;
+
+/**
+ * Resultado de uma pesquisa no grafo: sequência de nós e custos acumulados.
+ *
+ * @param nodes   índices dos nós, da origem ao destino
+ * @param meters  comprimento total em metros
+ * @param seconds duração total em segundos
+ * @param settled número de nós fixados pela pesquisa (métrica de esforço)
+ */
+record NodePath(int[] nodes, double meters, double seconds, int settled) {
+}
@@ -0,0 +1,102 @@
+package com.myapp.routing;
+
+import java.util.Locale;
+
+import com.myapp.model.TransportMode;
+
+/**
+ * Classe de estrada (etiqueta OSM {@code highway}) e velocidade média de cada
+ * modo de transporte nessa classe.
+ *
+ * Funciona como o perfil de velocidades do motor local, à semelhança dos
+ * perfis {@code car}, {@code bicycle} e {@code foot} da OSRM: velocidade 0
+ * significa que o modo não pode usar a estrada.
+ */
+public enum RoadClass {
+    MOTORWAY(110, 0, 0),
+    TRUNK(90, 0, 0),
+    PRIMARY(70, 15, 5),
+    SECONDARY(60, 16, 5),
+    TERTIARY(50, 16, 5),
+    UNCLASSIFIED(40, 16, 5),
+    RESIDENTIAL(30, 16, 5),
+    SERVICE(15, 12, 5),
+    LIVING_STREET(10, 10, 5),
+    TRACK(0, 12, 5),
+    CYCLEWAY(0, 18, 5),
+    PATH(0, 12, 5),
+    PEDESTRIAN(0, 6, 5),
+    FOOTWAY(0, 6, 5),
+    STEPS(0, 0, 3);
+
+    private static final String LINK_SUFFIX = "_link";
+
+    private final double carKmh;
+    private final double bikeKmh;
+    private final double footKmh;
+
+    RoadClass(double carKmh, double bikeKmh, double footKmh) {
+        this.carKmh = carKmh;
+        this.bikeKmh = bikeKmh;
+        this.footKmh = footKmh;
+    }
+
+    /**
+     * Velocidade média de um modo nesta classe de estrada.
+     *
+     * @param mode modo de transporte
+     * @return velocidade em km/h (0 se o modo não puder circular)
+     */
+    public double speedKmh(TransportMode mode) {
+        return switch (mode) {
+            case CAR -> carKmh;
+            case BIKE -> bikeKmh;
+            case FOOT -> footKmh;
+        };
+    }
+
+    /**
+     * Velocidade máxima do modo em qualquer classe; usada como limite inferior
+     * do tempo de viagem na heurística A*.
+     *
+     * @param mode modo de transporte
+     * @return velocidade máxima em km/h
+     */
+    public static double maxSpeedKmh(TransportMode mode) {
+        double max = 0.0;
+        for (RoadClass c : values()) {
+            max = Math.max(max, c.speedKmh(mode));
+        }
+        return max;
+    }
+
+    /**
+     * Indica se o modo respeita o sentido único (os peões não o respeitam).
+     *
+     * @param mode modo de transporte
+     * @return {@code true} para carro e bicicleta
+     */
+    public static boolean respectsOneway(TransportMode mode) {
+        return mode != TransportMode.FOOT;
+    }
+
+    /**
+     * Converte o valor da etiqueta OSM {@code highway} (ex.: {@code primary},
+     * {@code motorway_link}).
+     *
+     * @param highway valor da etiqueta
+     * @return classe correspondente, ou {@code null} se não for reconhecida
+     */
+    public static RoadClass fromOsm(String highway) {
+        String value = highway.toLowerCase(Locale.ROOT);
+        if (value.endsWith(LINK_SUFFIX)) {
+            value = value.substring(0, value.length() - LINK_SUFFIX.length());
+        }
+        for (RoadClass c : values()) {
+            if (c.name().toLowerCase(Locale.ROOT).equals(value)) {
+                return c;
+            }
+        }
+        return null;
+    }
+}
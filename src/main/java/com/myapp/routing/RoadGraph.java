@@ -0,0 +1,404 @@
+package com.myapp.routing;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.myapp.model.TransportMode;
+import com.myapp.utils.GeoMath;
+
+/**
+ * Grafo de estradas imutável em arrays primitivos, com uma vista CSR
+ * (Compressed Sparse Row) por modo de transporte.
+ *
+ * Papel na arquitetura MVC:
+ * - Model do motor local: guardado em memória pelo {@link LocalRoutingEngine}
+ * e construído a partir de um ficheiro de arestas ({@link EdgeListLoader}).
+ *
+ * Representação:
+ * - Coordenadas dos nós em inteiros de ponto fixo (1e-6 graus).
+ * - Para cada modo, arestas de saída ({@code forward}) e de entrada
+ * ({@code backward}) em CSR: as arestas do nó {@code v} ocupam as posições
+ * {@code offsets[v]} a {@code offsets[v + 1] - 1} de {@code targets},
+ * {@code seconds} e {@code meters}. Só entram as arestas que o modo pode
+ * percorrer, já com o sentido único aplicado.
+ * - Uma grelha ordenada de células (0,01 graus) para encontrar o nó acessível
+ * mais próximo de uma coordenada.
+ *
+ * Thread-safe após a construção.
+ */
+public final class RoadGraph {
+    private static final double FIXED_POINT_SCALE = 1e6;
+    private static final double CELL_DEGREES = 0.01;
+    private static final double METERS_PER_DEGREE = GeoMath.EARTH_RADIUS_M * Math.PI / 180.0;
+
+    private final int nodeCount;
+    private final int[] latE6;
+    private final int[] lonE6;
+    private final Map<TransportMode, Csr> forward;
+    private final Map<TransportMode, Csr> backward;
+
+    // Grelha: células ordenadas por chave; nós de cada célula em cellNodes
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+
+    /**
+     * Arestas de um sentido em formato CSR.
+     */
+    static final class Csr {
+        final int[] offsets;
+        final int[] targets;
+        final float[] seconds;
+        final float[] meters;
+
+        Csr(int[] offsets, int[] targets, float[] seconds, float[] meters) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.seconds = seconds;
+            this.meters = meters;
+        }
+
+        int degree(int node) {
+            return offsets[node + 1] - offsets[node];
+        }
+    }
+
+    private RoadGraph(int nodeCount, int[] latE6, int[] lonE6, Map<TransportMode, Csr> forward,
+            Map<TransportMode, Csr> backward) {
+        this.nodeCount = nodeCount;
+        this.latE6 = latE6;
+        this.lonE6 = lonE6;
+        this.forward = forward;
+        this.backward = backward;
+
+        long[] keys = new long[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            keys[v] = cellKey(cell(getLatitude(v)), cell(getLongitude(v)));
+        }
+        Integer[] order = new Integer[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        int distinct = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (i == 0 || keys[order[i]] != keys[order[i - 1]]) {
+                distinct++;
+            }
+        }
+        cellKeys = new long[distinct];
+        cellStart = new int[distinct + 1];
+        cellNodes = new int[nodeCount];
+        int c = -1;
+        for (int i = 0; i < nodeCount; i++) {
+            int v = order[i];
+            if (c < 0 || keys[v] != cellKeys[c]) {
+                c++;
+                cellKeys[c] = keys[v];
+                cellStart[c] = i;
+            }
+            cellNodes[i] = v;
+        }
+        cellStart[distinct] = nodeCount;
+    }
+
+    /**
+     * Cria um construtor de grafos vazio.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** @return número de nós */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Número de arestas que um modo pode percorrer (cada sentido conta uma vez).
+     *
+     * @param mode modo de transporte
+     * @return número de arestas dirigidas
+     */
+    public int getEdgeCount(TransportMode mode) {
+        return forward.get(mode).targets.length;
+    }
+
+    /**
+     * @param node índice do nó
+     * @return latitude do nó em graus
+     */
+    public double getLatitude(int node) {
+        return latE6[node] / FIXED_POINT_SCALE;
+    }
+
+    /**
+     * @param node índice do nó
+     * @return longitude do nó em graus
+     */
+    public double getLongitude(int node) {
+        return lonE6[node] / FIXED_POINT_SCALE;
+    }
+
+    Csr forward(TransportMode mode) {
+        return forward.get(mode);
+    }
+
+    Csr backward(TransportMode mode) {
+        return backward.get(mode);
+    }
+
+    /**
+     * Procura o nó mais próximo de uma coordenada que tenha pelo menos uma
+     * aresta utilizável pelo modo.
+     *
+     * @param lat               latitude em graus
+     * @param lon               longitude em graus
+     * @param mode              modo de transporte
+     * @param maxDistanceMeters distância máxima aceite
+     * @return índice do nó, ou -1 se não houver nenhum dentro da distância
+     */
+    public int nearestNode(double lat, double lon, TransportMode mode, double maxDistanceMeters) {
+        Csr out = forward.get(mode);
+        Csr in = backward.get(mode);
+        // Lado mínimo de uma célula em metros, para saber quando parar a procura
+        double cellMeters = CELL_DEGREES * METERS_PER_DEGREE
+                * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(lat) + CELL_DEGREES))));
+        int maxRing = (int) Math.ceil(maxDistanceMeters / cellMeters) + 1;
+
+        long cy = cell(lat);
+        long cx = cell(lon);
+        int best = -1;
+        double bestDistance = maxDistanceMeters;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (long dy = -ring; dy <= ring; dy++) {
+                boolean edgeRow = dy == -ring || dy == ring;
+                long step = edgeRow ? 1 : 2L * ring;
+                for (long dx = -ring; dx <= ring; dx += Math.max(1, step)) {
+                    int c = Arrays.binarySearch(cellKeys, cellKey(cy + dy, cx + dx));
+                    if (c < 0) {
+                        continue;
+                    }
+                    for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                        int v = cellNodes[i];
+                        if (out.degree(v) == 0 && in.degree(v) == 0) {
+                            continue;
+                        }
+                        double d = distanceMeters(lat, lon, getLatitude(v), getLongitude(v));
+                        if (d <= bestDistance) {
+                            bestDistance = d;
+                            best = v;
+                        }
+                    }
+                }
+            }
+            // As células do anel seguinte estão a pelo menos ring * cellMeters
+            if (best >= 0 && bestDistance <= ring * cellMeters) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Impressão digital (FNV-1a) das coordenadas e das arestas de um modo;
+     * permite detetar ficheiros pré-processados de outra versão do grafo.
+     *
+     * @param mode modo de transporte
+     * @return hash de 64 bits
+     */
+    long fingerprint(TransportMode mode) {
+        Csr out = forward.get(mode);
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, nodeCount);
+        for (int v = 0; v < nodeCount; v++) {
+            h = mix(mix(h, latE6[v]), lonE6[v]);
+        }
+        for (int v = 0; v <= nodeCount; v++) {
+            h = mix(h, out.offsets[v]);
+        }
+        for (int e = 0; e < out.targets.length; e++) {
+            h = mix(mix(h, out.targets[e]), Float.floatToIntBits(out.seconds[e]));
+        }
+        return h;
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * Distância em metros entre dois nós (fórmula de Haversine).
+     *
+     * @param a índice do primeiro nó
+     * @param b índice do segundo nó
+     * @return distância em linha reta
+     */
+    double distanceMeters(int a, int b) {
+        return distanceMeters(getLatitude(a), getLongitude(a), getLatitude(b), getLongitude(b));
+    }
+
+    /**
+     * Distância em metros entre duas coordenadas (fórmula de Haversine).
+     *
+     * @param lat1 latitude do primeiro ponto
+     * @param lon1 longitude do primeiro ponto
+     * @param lat2 latitude do segundo ponto
+     * @param lon2 longitude do segundo ponto
+     * @return distância em linha reta
+     */
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        return GeoMath.haversineMeters(lat1, lon1, lat2, lon2);
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long cy, long cx) {
+        return (cy << 32) ^ (cx & 0xffffffffL);
+    }
+
+    /**
+     * Construtor incremental: acumula nós e arestas em arrays que crescem e
+     * gera as vistas CSR de cada modo em {@link #build()}.
+     */
+    public static final class Builder {
+        private int[] latE6 = new int[64];
+        private int[] lonE6 = new int[64];
+        private int nodeCount;
+
+        private int[] edgeFrom = new int[64];
+        private int[] edgeTo = new int[64];
+        private float[] edgeMeters = new float[64];
+        private RoadClass[] edgeClass = new RoadClass[64];
+        private boolean[] edgeOneway = new boolean[64];
+        private int edgeCount;
+
+        private Builder() {
+        }
+
+        /**
+         * Acrescenta um nó.
+         *
+         * @param lat latitude em graus
+         * @param lon longitude em graus
+         * @return índice do novo nó
+         */
+        public int addNode(double lat, double lon) {
+            if (nodeCount == latE6.length) {
+                latE6 = Arrays.copyOf(latE6, nodeCount * 2);
+                lonE6 = Arrays.copyOf(lonE6, nodeCount * 2);
+            }
+            latE6[nodeCount] = (int) Math.round(lat * FIXED_POINT_SCALE);
+            lonE6[nodeCount] = (int) Math.round(lon * FIXED_POINT_SCALE);
+            return nodeCount++;
+        }
+
+        /**
+         * Acrescenta uma estrada entre dois nós existentes.
+         *
+         * @param from         nó inicial
+         * @param to           nó final
+         * @param roadClass    classe da estrada
+         * @param oneway       {@code true} se só puder ser percorrida de
+         *                     {@code from} para {@code to} (carro e bicicleta)
+         * @param lengthMeters comprimento em metros; valores inferiores à
+         *                     distância em linha reta (ou {@code NaN}) são
+         *                     substituídos por esta, para a heurística A* nunca
+         *                     sobrestimar
+         * @return este builder
+         */
+        public Builder addEdge(int from, int to, RoadClass roadClass, boolean oneway, double lengthMeters) {
+            if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+                throw new IllegalArgumentException("Nó inexistente: " + from + " -> " + to);
+            }
+            if (edgeCount == edgeFrom.length) {
+                int capacity = edgeCount * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeMeters = Arrays.copyOf(edgeMeters, capacity);
+                edgeClass = Arrays.copyOf(edgeClass, capacity);
+                edgeOneway = Arrays.copyOf(edgeOneway, capacity);
+            }
+            double straight = distanceMeters(latE6[from] / FIXED_POINT_SCALE, lonE6[from] / FIXED_POINT_SCALE,
+                    latE6[to] / FIXED_POINT_SCALE, lonE6[to] / FIXED_POINT_SCALE);
+            edgeFrom[edgeCount] = from;
+            edgeTo[edgeCount] = to;
+            edgeMeters[edgeCount] = (float) (lengthMeters >= straight ? lengthMeters : straight);
+            edgeClass[edgeCount] = roadClass;
+            edgeOneway[edgeCount] = oneway;
+            edgeCount++;
+            return this;
+        }
+
+        /** @return número de nós acrescentados */
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Gera o grafo imutável.
+         *
+         * @return grafo com as vistas CSR de todos os modos
+         */
+        public RoadGraph build() {
+            Map<TransportMode, Csr> forward = new EnumMap<>(TransportMode.class);
+            Map<TransportMode, Csr> backward = new EnumMap<>(TransportMode.class);
+            for (TransportMode mode : TransportMode.values()) {
+                forward.put(mode, buildCsr(mode, false));
+                backward.put(mode, buildCsr(mode, true));
+            }
+            return new RoadGraph(nodeCount, Arrays.copyOf(latE6, nodeCount), Arrays.copyOf(lonE6, nodeCount),
+                    forward, backward);
+        }
+
+        // Counting sort das arestas pelo nó de origem (ou de destino, se reverse)
+        private Csr buildCsr(TransportMode mode, boolean reverse) {
+            boolean oneway = RoadClass.respectsOneway(mode);
+            int[] offsets = new int[nodeCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                if (edgeClass[e].speedKmh(mode) <= 0) {
+                    continue;
+                }
+                offsets[(reverse ? edgeTo[e] : edgeFrom[e]) + 1]++;
+                if (!(oneway && edgeOneway[e])) {
+                    offsets[(reverse ? edgeFrom[e] : edgeTo[e]) + 1]++;
+                }
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            int total = offsets[nodeCount];
+            int[] targets = new int[total];
+            float[] seconds = new float[total];
+            float[] meters = new float[total];
+            int[] fill = Arrays.copyOf(offsets, nodeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                double speed = edgeClass[e].speedKmh(mode);
+                if (speed <= 0) {
+                    continue;
+                }
+                float time = (float) (edgeMeters[e] / (speed / 3.6));
+                int a = reverse ? edgeTo[e] : edgeFrom[e];
+                int b = reverse ? edgeFrom[e] : edgeTo[e];
+                int slot = fill[a]++;
+                targets[slot] = b;
+                seconds[slot] = time;
+                meters[slot] = edgeMeters[e];
+                if (!(oneway && edgeOneway[e])) {
+                    slot = fill[b]++;
+                    targets[slot] = a;
+                    seconds[slot] = time;
+                    meters[slot] = edgeMeters[e];
+                }
+            }
+            return new Csr(offsets, targets, seconds, meters);
+        }
+    }
+}
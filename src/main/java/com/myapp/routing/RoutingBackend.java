@@ -0,0 +1,167 @@
+package com.myapp.routing;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.myapp.model.DistanceMatrix;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+
+/**
+ * Motor de cálculo de rotas usado pelo Service.
+ *
+ * Papel na arquitetura MVC:
+ * - Fronteira entre o Service (Controller) e a origem das rotas: o servidor
+ * OSRM ({@code com.myapp.service.OsrmRoutingBackend}) ou um grafo local
+ * ({@link LocalRoutingEngine}).
+ * - Devolve sempre o mesmo {@link Route} do Model, pelo que a UI e os
+ * exportadores não dependem do motor escolhido.
+ *
+ * Convenção: {@code null} indica que não existe rota entre os pontos; erros de
+ * comunicação ou de dados são lançados como {@link IOException}.
+ */
+public interface RoutingBackend {
+
+    /**
+     * Calcula uma rota entre dois pontos.
+     *
+     * @param origin      ponto de origem
+     * @param destination ponto de destino
+     * @param mode        modo de transporte
+     * @return rota calculada, ou {@code null} se não existir
+     * @throws IOException          erro ao obter ou interpretar os dados
+     * @throws InterruptedException se a thread for interrompida
+     */
+    Route getRoute(Point origin, Point destination, TransportMode mode) throws IOException, InterruptedException;
+
+    /**
+     * Calcula uma rota que passa pelos pontos intermédios pela ordem dada; o
+     * último ponto intermédio é o destino.
+     *
+     * @param origin    ponto de origem
+     * @param waypoints pontos intermédios (o último é o destino)
+     * @param mode      modo de transporte
+     * @return rota calculada, ou {@code null} se não existir
+     * @throws IOException          erro ao obter ou interpretar os dados
+     * @throws InterruptedException se a thread for interrompida
+     */
+    Route getRouteWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode)
+            throws IOException, InterruptedException;
+
+    /**
+     * Versão assíncrona de {@link #getRoute(Point, Point, TransportMode)}. Por
+     * omissão corre a versão síncrona no pool comum; motores com I/O
+     * assíncrono devem redefini-la.
+     *
+     * @param origin      ponto de origem
+     * @param destination ponto de destino
+     * @param mode        modo de transporte
+     * @return futuro com a rota (ou {@code null} se não existir)
+     */
+    default CompletableFuture<Route> getRouteAsync(Point origin, Point destination, TransportMode mode) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getRoute(origin, destination, mode);
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Versão assíncrona de
+     * {@link #getRouteWithWaypoints(Point, List, TransportMode)}.
+     *
+     * @param origin    ponto de origem
+     * @param waypoints pontos intermédios (o último é o destino)
+     * @param mode      modo de transporte
+     * @return futuro com a rota (ou {@code null} se não existir)
+     */
+    default CompletableFuture<Route> getRouteWithWaypointsAsync(Point origin, List<Point> waypoints,
+            TransportMode mode) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getRouteWithWaypoints(origin, waypoints, mode);
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Calcula a matriz de distâncias e durações entre origens e destinos. Por
+     * omissão calcula uma rota por par; os motores devem redefini-la com uma
+     * pesquisa "muitos-para-muitos".
+     *
+     * @param sources origens (linhas)
+     * @param targets destinos (colunas)
+     * @param mode    modo de transporte
+     * @return matriz preenchida; pares sem rota ficam marcados como tal
+     * @throws IOException          erro ao obter ou interpretar os dados
+     * @throws InterruptedException se a thread for interrompida
+     */
+    default DistanceMatrix getDistanceMatrix(List<Point> sources, List<Point> targets, TransportMode mode)
+            throws IOException, InterruptedException {
+        DistanceMatrix matrix = new DistanceMatrix(sources.size(), targets.size());
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                Route route = getRoute(sources.get(i), targets.get(j), mode);
+                if (route != null) {
+                    matrix.set(i, j, route.getDistanceKm(), route.getDurationSec());
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Versão assíncrona de
+     * {@link #getDistanceMatrix(List, List, TransportMode)}.
+     *
+     * @param sources origens (linhas)
+     * @param targets destinos (colunas)
+     * @param mode    modo de transporte
+     * @return futuro com a matriz
+     */
+    default CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> sources, List<Point> targets,
+            TransportMode mode) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getDistanceMatrix(sources, targets, mode);
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Calcula a matriz quadrada entre todos os pontos (cada ponto é origem e
+     * destino). Por omissão equivale a
+     * {@code getDistanceMatrix(points, points, mode)}; motores remotos podem
+     * redefini-la para enviar cada ponto uma só vez.
+     *
+     * @param points pontos (linhas e colunas, pela mesma ordem)
+     * @param mode   modo de transporte
+     * @return matriz {@code points.size() x points.size()}
+     * @throws IOException          erro ao obter ou interpretar os dados
+     * @throws InterruptedException se a thread for interrompida
+     */
+    default DistanceMatrix getDistanceMatrix(List<Point> points, TransportMode mode)
+            throws IOException, InterruptedException {
+        return getDistanceMatrix(points, points, mode);
+    }
+
+    /**
+     * Versão assíncrona de {@link #getDistanceMatrix(List, TransportMode)}.
+     *
+     * @param points pontos (linhas e colunas, pela mesma ordem)
+     * @param mode   modo de transporte
+     * @return futuro com a matriz
+     */
+    default CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> points, TransportMode mode) {
+        return getDistanceMatrixAsync(points, points, mode);
+    }
+}
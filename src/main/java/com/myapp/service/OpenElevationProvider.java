@@ -0,0 +1,169 @@
+package com.myapp.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.myapp.api.ElevationClient;
+import com.myapp.elevation.ElevationProvider;
+import com.myapp.model.Point;
+import com.myapp.utils.TokenBucketRateLimiter;
+
+/**
+ * Elevações obtidas da API Open-Elevation.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): adapta o {@link ElevationClient} (camada API,
+ * respostas JSON) à interface {@link ElevationProvider}.
+ *
+ * Os pontos são consultados em lotes de {@value #BATCH_SIZE} (pedidos POST),
+ * sujeitos a um limitador de taxa, e os resultados são juntos pela ordem dos
+ * pontos; se algum lote falhar, a consulta inteira falha.
+ * - Síncrono: os lotes correm em paralelo no executor recebido.
+ * - Assíncrono: os lotes são distribuídos por até {@value #MAX_CONCURRENCY}
+ * sequências (cada uma envia o lote seguinte quando o anterior termina), o
+ * que limita os pedidos em curso sem ocupar threads à espera.
+ */
+public class OpenElevationProvider implements ElevationProvider {
+    static final int BATCH_SIZE = 250;
+    static final int MAX_CONCURRENCY = 4;
+
+    private static final double PERMITS_PER_SECOND = 4.0;
+    private static final int BURST = 4;
+
+    private final ElevationClient client;
+    private final ExecutorService executor;
+    private TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(PERMITS_PER_SECOND, BURST);
+
+    /**
+     * Cria o fornecedor sobre um cliente Open-Elevation.
+     *
+     * @param client   cliente que faz os pedidos
+     * @param executor executor (limitado) onde correm os lotes da versão
+     *                 síncrona
+     */
+    public OpenElevationProvider(ElevationClient client, ExecutorService executor) {
+        this.client = client;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Substitui o limitador de taxa aplicado aos pedidos.
+     *
+     * @param rateLimiter limitador a usar (não pode ser {@code null})
+     */
+    public void setRateLimiter(TokenBucketRateLimiter rateLimiter) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter);
+    }
+
+    @Override
+    public double[] getElevations(List<Point> points) throws IOException, InterruptedException {
+        List<List<Point>> batches = batches(points);
+        List<Future<String>> futures = new ArrayList<>(batches.size());
+        try {
+            for (List<Point> batch : batches) {
+                futures.add(executor.submit(() -> {
+                    rateLimiter.acquire();
+                    return client.getElevations(batch);
+                }));
+            }
+            List<String> responses = new ArrayList<>(batches.size());
+            for (Future<String> future : futures) {
+                responses.add(future.get());
+            }
+            return parseBatches(responses, batches);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        } finally {
+            // Um lote falhado torna os restantes inúteis
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<double[]> getElevationsAsync(List<Point> points) {
+        List<List<Point>> batches = batches(points);
+        String[] responses = new String[batches.size()];
+
+        int lanes = Math.min(MAX_CONCURRENCY, batches.size());
+        CompletableFuture<?>[] laneFutures = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int b = lane; b < batches.size(); b += lanes) {
+                int index = b;
+                chain = chain.thenCompose(v -> rateLimiter.acquireAsync())
+                        .thenCompose(v -> client.getElevationsAsync(batches.get(index)))
+                        .thenAccept(json -> responses[index] = json);
+            }
+            laneFutures[lane] = chain;
+        }
+        return CompletableFuture.allOf(laneFutures).thenApply(v -> parseBatches(List.of(responses), batches));
+    }
+
+    // Lotes consecutivos de no máximo BATCH_SIZE pontos
+    private static List<List<Point>> batches(List<Point> points) {
+        List<List<Point>> batches = new ArrayList<>();
+        for (int from = 0; from < points.size(); from += BATCH_SIZE) {
+            batches.add(points.subList(from, Math.min(from + BATCH_SIZE, points.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Junta as elevações das respostas de cada lote, pela ordem dos lotes.
+     *
+     * @param responses respostas JSON, uma por lote
+     * @param batches   lotes pedidos
+     * @return elevações de todos os pontos
+     * @throws IllegalStateException se uma resposta não tiver um resultado
+     *                               por ponto do lote
+     */
+    private static double[] parseBatches(List<String> responses, List<List<Point>> batches) {
+        double[] elevations = new double[batches.stream().mapToInt(List::size).sum()];
+        int offset = 0;
+        for (int b = 0; b < batches.size(); b++) {
+            double[] batch = parseElevations(responses.get(b));
+            if (batch.length != batches.get(b).size()) {
+                throw new IllegalStateException(String.format(
+                        "Lote %d: %d elevações para %d pontos", b + 1, batch.length, batches.get(b).size()));
+            }
+            System.arraycopy(batch, 0, elevations, offset, batch.length);
+            offset += batch.length;
+        }
+        return elevations;
+    }
+
+    /**
+     * Campo {@code elevation} de cada elemento de {@code results}, pela ordem
+     * da resposta.
+     *
+     * @param json resposta JSON da Open-Elevation
+     * @return elevações
+     */
+    static double[] parseElevations(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        JsonArray results = root.getAsJsonArray("results");
+        double[] elevations = new double[results.size()];
+        for (int i = 0; i < elevations.length; i++) {
+            elevations[i] = results.get(i).getAsJsonObject().get("elevation").getAsDouble();
+        }
+        return elevations;
+    }
+}
@@ -0,0 +1,278 @@
+package com.myapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Parser em streaming para respostas do serviço {@code /route} da OSRM.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): transforma a resposta bruta da API OSRM nos dados
+ * necessários para construir uma {@link com.myapp.model.Route}.
+ *
+ * Ao contrário de {@code JsonParser.parseString}, não constrói a árvore
+ * {@code JsonObject}/{@code JsonArray}: lê apenas {@code code},
+ * {@code message} e, da primeira rota, {@code distance}, {@code duration} e
+ * {@code geometry}, escrevendo as coordenadas diretamente num
+ * {@code double[]} intercalado ({@code lat0, lon0, lat1, lon1, ...}). Tudo o
+ * resto (rotas alternativas, {@code legs}, {@code waypoints}) é ignorado sem
+ * ser materializado.
+ *
+ * A geometria pode vir em GeoJSON (objeto com {@code coordinates}) ou como
+ * polyline (string, descodificada por {@link PolylineCodec}); o formato é
+ * detetado pelo tipo do valor, mas a precisão da polyline tem de ser indicada.
+ */
+public final class OsrmResponseParser {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int DEFAULT_POLYLINE_PRECISION = 6;
+
+    private OsrmResponseParser() {
+    }
+
+    /**
+     * Resultado do parsing: a primeira rota da resposta (se existir) e o estado
+     * devolvido pela OSRM.
+     */
+    public static final class ParsedRoute {
+        private final String code;
+        private final String message;
+        private final boolean found;
+        private final double distanceMeters;
+        private final double durationSeconds;
+        private final double[] coordinates;
+        private final int pointCount;
+
+        private ParsedRoute(String code, String message, boolean found, double distanceMeters,
+                double durationSeconds, double[] coordinates, int pointCount) {
+            this.code = code;
+            this.message = message;
+            this.found = found;
+            this.distanceMeters = distanceMeters;
+            this.durationSeconds = durationSeconds;
+            this.coordinates = coordinates;
+            this.pointCount = pointCount;
+        }
+
+        /** @return campo {@code code} da resposta (ex.: {@code Ok}, {@code NoRoute}), ou {@code null} */
+        public String getCode() {
+            return code;
+        }
+
+        /** @return campo {@code message} da resposta, ou {@code null} */
+        public String getMessage() {
+            return message;
+        }
+
+        /** @return {@code true} se a resposta continha pelo menos uma rota */
+        public boolean isFound() {
+            return found;
+        }
+
+        /** @return distância da rota em metros */
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+
+        /** @return duração da rota em segundos */
+        public double getDurationSeconds() {
+            return durationSeconds;
+        }
+
+        /**
+         * Devolve o buffer de coordenadas intercaladas ({@code lat, lon}). O array
+         * pode ser maior do que o necessário; só os primeiros
+         * {@code 2 * getPointCount()} valores são válidos.
+         *
+         * @return buffer de coordenadas
+         */
+        public double[] getCoordinates() {
+            return coordinates;
+        }
+
+        /** @return número de vértices da geometria */
+        public int getPointCount() {
+            return pointCount;
+        }
+    }
+
+    /**
+     * Faz o parsing de uma resposta OSRM em texto.
+     *
+     * @param json corpo da resposta
+     * @return rota lida (ver {@link ParsedRoute#isFound()})
+     * @throws IOException se o JSON estiver mal formado
+     */
+    public static ParsedRoute parse(String json) throws IOException {
+        return parse(new StringReader(json), DEFAULT_POLYLINE_PRECISION);
+    }
+
+    /**
+     * Faz o parsing de uma resposta OSRM em texto, com geometrias em polyline
+     * na precisão indicada.
+     *
+     * @param json              corpo da resposta
+     * @param polylinePrecision casas decimais da polyline (5 para
+     *                          {@code polyline}, 6 para {@code polyline6});
+     *                          ignorado para GeoJSON
+     * @return rota lida (ver {@link ParsedRoute#isFound()})
+     * @throws IOException se o JSON ou a polyline estiverem mal formados
+     */
+    public static ParsedRoute parse(String json, int polylinePrecision) throws IOException {
+        return parse(new StringReader(json), polylinePrecision);
+    }
+
+    /**
+     * Faz o parsing de uma resposta OSRM a partir de um {@link Reader}
+     * (polylines com precisão 6).
+     *
+     * @param in origem do JSON (não é fechada)
+     * @return rota lida (ver {@link ParsedRoute#isFound()})
+     * @throws IOException se o JSON estiver mal formado
+     */
+    public static ParsedRoute parse(Reader in) throws IOException {
+        return parse(in, DEFAULT_POLYLINE_PRECISION);
+    }
+
+    /**
+     * Faz o parsing de uma resposta OSRM a partir de um {@link Reader}.
+     *
+     * @param in                origem do JSON (não é fechada)
+     * @param polylinePrecision casas decimais da polyline; ignorado para GeoJSON
+     * @return rota lida (ver {@link ParsedRoute#isFound()})
+     * @throws IOException se o JSON ou a polyline estiverem mal formados
+     */
+    public static ParsedRoute parse(Reader in, int polylinePrecision) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+
+        String code = null;
+        String message = null;
+        RouteFields route = null;
+
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "code" -> code = nextStringOrNull(reader);
+                    case "message" -> message = nextStringOrNull(reader);
+                    case "routes" -> route = readFirstRoute(reader, polylinePrecision);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            // Estrutura inesperada (ex.: array em vez de objeto)
+            throw new IOException("Resposta OSRM inválida: " + e.getMessage(), e);
+        }
+
+        if (route == null) {
+            return new ParsedRoute(code, message, false, 0.0, 0.0, new double[0], 0);
+        }
+        return new ParsedRoute(code, message, true, route.distance, route.duration, route.coords, route.count);
+    }
+
+    // Campos mutáveis da primeira rota durante o parsing.
+    private static final class RouteFields {
+        double distance;
+        double duration;
+        double[] coords = new double[0];
+        int count;
+    }
+
+    private static RouteFields readFirstRoute(JsonReader reader, int polylinePrecision) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        RouteFields first = null;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (first == null) {
+                first = readRoute(reader, polylinePrecision);
+            } else {
+                reader.skipValue(); // rotas alternativas
+            }
+        }
+        reader.endArray();
+        return first;
+    }
+
+    private static RouteFields readRoute(JsonReader reader, int polylinePrecision) throws IOException {
+        RouteFields route = new RouteFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "distance" -> route.distance = reader.nextDouble();
+                case "duration" -> route.duration = reader.nextDouble();
+                case "geometry" -> readGeometry(reader, route, polylinePrecision);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return route;
+    }
+
+    private static void readGeometry(JsonReader reader, RouteFields route, int polylinePrecision)
+            throws IOException {
+        if (reader.peek() == JsonToken.STRING) {
+            // polyline / polyline6
+            double[] coords = PolylineCodec.decode(reader.nextString(), polylinePrecision);
+            route.coords = coords;
+            route.count = coords.length / 2;
+            return;
+        }
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("coordinates".equals(reader.nextName())) {
+                readCoordinates(reader, route);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    // GeoJSON: [[lon, lat], [lon, lat], ...] -> buffer intercalado lat, lon
+    private static void readCoordinates(JsonReader reader, RouteFields route) throws IOException {
+        double[] buf = new double[INITIAL_CAPACITY];
+        int n = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginArray();
+            double lon = reader.nextDouble();
+            double lat = reader.nextDouble();
+            while (reader.hasNext()) {
+                reader.skipValue(); // eventual altitude
+            }
+            reader.endArray();
+
+            if (n + 2 > buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[n++] = lat;
+            buf[n++] = lon;
+        }
+        reader.endArray();
+        route.coords = buf;
+        route.count = n / 2;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,321 @@
+package com.myapp.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import com.myapp.api.OSRMClient;
+import com.myapp.model.DistanceMatrix;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
+import com.myapp.model.TransportMode;
+import com.myapp.routing.RoutingBackend;
+import com.myapp.utils.Futures;
+
+/**
+ * Motor de rotas baseado no servidor OSRM.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): adapta o {@link OSRMClient} (camada API, respostas
+ * JSON) à interface {@link RoutingBackend}, convertendo as respostas em
+ * {@link Route} com {@link OsrmResponseParser}.
+ *
+ * Matrizes de distâncias usam o serviço {@code /table}: matrizes maiores do
+ * que o limite de coordenadas por pedido ({@link OSRMClient#MAX_TABLE_COORDINATES})
+ * são divididas em blocos ("tiles") que correm em paralelo, até
+ * {@value #MAX_CONCURRENT_TILES} de cada vez, e escrevem cada um a sua zona
+ * da {@link DistanceMatrix}. Nas matrizes quadradas (todos os pontos entre
+ * si) cada pedido envia os seus pontos uma só vez, sem {@code sources} nem
+ * {@code destinations}.
+ */
+public class OsrmRoutingBackend implements RoutingBackend {
+    static final int MAX_CONCURRENT_TILES = 4;
+
+    private final OSRMClient client;
+
+    /**
+     * Cria o motor sobre um cliente OSRM (com ou sem cache).
+     *
+     * @param client cliente que faz os pedidos à OSRM
+     */
+    public OsrmRoutingBackend(OSRMClient client) {
+        this.client = Objects.requireNonNull(client);
+    }
+
+    @Override
+    public Route getRoute(Point origin, Point destination, TransportMode mode)
+            throws IOException, InterruptedException {
+        return parseRoute(client.getRouteJson(origin, destination, mode), mode);
+    }
+
+    @Override
+    public Route getRouteWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode)
+            throws IOException, InterruptedException {
+        return parseRoute(client.getRouteJsonWithWaypoints(origin, waypoints, mode), mode);
+    }
+
+    /**
+     * Usa o pedido assíncrono do cliente ({@code sendAsync}), sem ocupar
+     * threads enquanto a resposta não chega. Cancelar o futuro devolvido
+     * cancela o pedido HTTP.
+     */
+    @Override
+    public CompletableFuture<Route> getRouteAsync(Point origin, Point destination, TransportMode mode) {
+        CompletableFuture<String> response = client.getRouteJsonAsync(origin, destination, mode);
+        return Futures.propagateCancel(response.thenApply(json -> parseRoute(json, mode)), response);
+    }
+
+    @Override
+    public CompletableFuture<Route> getRouteWithWaypointsAsync(Point origin, List<Point> waypoints,
+            TransportMode mode) {
+        CompletableFuture<String> response = client.getRouteJsonWithWaypointsAsync(origin, waypoints, mode);
+        return Futures.propagateCancel(response.thenApply(json -> parseRoute(json, mode)), response);
+    }
+
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<Point> sources, List<Point> targets, TransportMode mode)
+            throws IOException {
+        return join(getDistanceMatrixAsync(sources, targets, mode));
+    }
+
+    @Override
+    public DistanceMatrix getDistanceMatrix(List<Point> points, TransportMode mode) throws IOException {
+        return join(getDistanceMatrixAsync(points, mode));
+    }
+
+    private static DistanceMatrix join(CompletableFuture<DistanceMatrix> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Divide a matriz em blocos que cabem num pedido {@code /table} e faz os
+     * pedidos com {@code sendAsync}, no máximo {@value #MAX_CONCURRENT_TILES}
+     * em simultâneo. Falha se algum bloco falhar.
+     */
+    @Override
+    public CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> sources, List<Point> targets,
+            TransportMode mode) {
+        DistanceMatrix matrix = new DistanceMatrix(sources.size(), targets.size());
+        if (sources.isEmpty() || targets.isEmpty()) {
+            return CompletableFuture.completedFuture(matrix);
+        }
+        Queue<Supplier<CompletableFuture<Void>>> requests = new ConcurrentLinkedQueue<>();
+        for (int[] tile : tiles(sources.size(), targets.size(), OSRMClient.MAX_TABLE_COORDINATES)) {
+            int row = tile[0];
+            int rows = tile[1];
+            int col = tile[2];
+            int cols = tile[3];
+            requests.add(() -> client.getTableJsonAsync(sources.subList(row, row + rows),
+                    targets.subList(col, col + cols), mode)
+                    .thenAccept(json -> parse(() -> OsrmTableParser.parseInto(json, matrix, row, col, rows, cols))));
+        }
+        return runTiles(requests).thenApply(v -> matrix);
+    }
+
+    /**
+     * Matriz quadrada: com até {@link OSRMClient#MAX_TABLE_COORDINATES} pontos
+     * basta um pedido; acima disso os pontos são divididos em grupos de no
+     * máximo metade do limite e cada pedido junta dois grupos (ver
+     * {@link #squareTiles}). Cada célula da matriz é escrita por um só pedido,
+     * pelo que os pedidos concorrentes nunca escrevem nas mesmas células.
+     */
+    @Override
+    public CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> points, TransportMode mode) {
+        if (points.size() < 2) {
+            // A OSRM exige pelo menos duas coordenadas por pedido
+            return getDistanceMatrixAsync(points, points, mode);
+        }
+        DistanceMatrix matrix = new DistanceMatrix(points.size(), points.size());
+        Queue<Supplier<CompletableFuture<Void>>> requests = new ConcurrentLinkedQueue<>();
+        for (SquareTile tile : squareTiles(points.size(), OSRMClient.MAX_TABLE_COORDINATES)) {
+            int[] indices = tile.indices();
+            List<Point> subset = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                subset.add(points.get(index));
+            }
+            requests.add(() -> client.getTableJsonAsync(subset, mode)
+                    .thenAccept(json -> parse(
+                            () -> OsrmTableParser.parseInto(json, matrix, indices, indices, tile::writes))));
+        }
+        return runTiles(requests).thenApply(v -> matrix);
+    }
+
+    // Até MAX_CONCURRENT_TILES "faixas", cada uma a fazer um pedido de cada vez até a fila ficar vazia
+    private static CompletableFuture<Void> runTiles(Queue<Supplier<CompletableFuture<Void>>> requests) {
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(MAX_CONCURRENT_TILES, requests.size())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = nextTile(requests);
+        }
+        return CompletableFuture.allOf(lanes);
+    }
+
+    private static CompletableFuture<Void> nextTile(Queue<Supplier<CompletableFuture<Void>>> requests) {
+        Supplier<CompletableFuture<Void>> request = requests.poll();
+        if (request == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return request.get().thenCompose(v -> nextTile(requests));
+    }
+
+    private interface TableParse {
+        void run() throws IOException;
+    }
+
+    private static void parse(TableParse parse) {
+        try {
+            parse.run();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Divide uma matriz {@code rows x cols} em blocos com no máximo
+     * {@code maxCoordinates} origens + destinos. Se um dos lados for pequeno,
+     * o outro fica com o resto do limite; caso contrário os blocos são
+     * quadrados.
+     *
+     * @param rows           número de origens
+     * @param cols           número de destinos
+     * @param maxCoordinates limite de coordenadas por pedido
+     * @return blocos {@code {linha, linhas, coluna, colunas}}
+     */
+    static List<int[]> tiles(int rows, int cols, int maxCoordinates) {
+        int half = maxCoordinates / 2;
+        int tileRows;
+        int tileCols;
+        if (rows + cols <= maxCoordinates) {
+            tileRows = rows;
+            tileCols = cols;
+        } else if (rows < half) {
+            tileRows = rows;
+            tileCols = maxCoordinates - rows;
+        } else if (cols < half) {
+            tileCols = cols;
+            tileRows = maxCoordinates - cols;
+        } else {
+            tileRows = half;
+            tileCols = maxCoordinates - half;
+        }
+        List<int[]> tiles = new ArrayList<>();
+        for (int r = 0; r < rows; r += tileRows) {
+            for (int c = 0; c < cols; c += tileCols) {
+                tiles.add(new int[] { r, Math.min(tileRows, rows - r), c, Math.min(tileCols, cols - c) });
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Um pedido de uma matriz quadrada: os índices dos pontos (origens e
+     * destinos ao mesmo tempo), com os do primeiro grupo antes de
+     * {@code split} e os do segundo a partir daí.
+     *
+     * Os blocos entre os dois grupos só aparecem neste pedido; o bloco de cada
+     * grupo consigo próprio (diagonal) aparece em todos os pedidos do grupo e
+     * só é escrito pelo pedido que é o seu dono ({@code ownsFirst} /
+     * {@code ownsSecond}).
+     */
+    record SquareTile(int[] indices, int split, boolean ownsFirst, boolean ownsSecond) {
+        /** Se a célula (origem, destino), em posições do pedido, é escrita por este pedido. */
+        boolean writes(int row, int col) {
+            boolean first = row < split;
+            return first != (col < split) || (first ? ownsFirst : ownsSecond);
+        }
+    }
+
+    /**
+     * Pedidos de uma matriz quadrada {@code n x n}. Com {@code n} até
+     * {@code maxCoordinates} há um só pedido; acima disso os índices são
+     * divididos em {@code k} grupos contíguos de no máximo
+     * {@code maxCoordinates / 2} e há um pedido por par de grupos
+     * ({@code k(k-1)/2}). O bloco da diagonal do grupo {@code g} pertence ao
+     * pedido {@code (g, g+1)} (o último grupo ao pedido {@code (k-2, k-1)}),
+     * pelo que cada célula é escrita exatamente uma vez.
+     *
+     * @param n              número de pontos
+     * @param maxCoordinates limite de coordenadas por pedido
+     * @return pedidos, com os índices por ordem crescente
+     */
+    static List<SquareTile> squareTiles(int n, int maxCoordinates) {
+        List<SquareTile> tiles = new ArrayList<>();
+        if (n <= maxCoordinates) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            tiles.add(new SquareTile(all, n, true, false));
+            return tiles;
+        }
+        int groups = (n + maxCoordinates / 2 - 1) / (maxCoordinates / 2);
+        for (int a = 0; a < groups; a++) {
+            for (int b = a + 1; b < groups; b++) {
+                // Grupo g: [g * n / groups, (g + 1) * n / groups), todos com tamanhos iguais a menos de um
+                int aStart = (int) ((long) a * n / groups);
+                int aEnd = (int) ((long) (a + 1) * n / groups);
+                int bStart = (int) ((long) b * n / groups);
+                int bEnd = (int) ((long) (b + 1) * n / groups);
+                int[] indices = new int[aEnd - aStart + bEnd - bStart];
+                int k = 0;
+                for (int i = aStart; i < aEnd; i++) {
+                    indices[k++] = i;
+                }
+                for (int i = bStart; i < bEnd; i++) {
+                    indices[k++] = i;
+                }
+                boolean lastPair = a == groups - 2 && b == groups - 1;
+                tiles.add(new SquareTile(indices, aEnd - aStart, b == a + 1, lastPair));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Converte a resposta JSON da OSRM numa {@link Route}, escrevendo a
+     * geometria diretamente em arrays primitivos.
+     *
+     * @param json resposta JSON da OSRM
+     * @param mode modo de transporte pedido
+     * @return rota construída, ou {@code null} se a resposta não tiver rotas ou
+     *         for inválida
+     */
+    private Route parseRoute(String json, TransportMode mode) {
+        if (json == null) {
+            System.err.println("[RouteService] Resposta OSRM vazia");
+            return null;
+        }
+
+        OsrmResponseParser.ParsedRoute parsed;
+        try {
+            parsed = OsrmResponseParser.parse(json, client.getGeometryEncoding().getPrecision());
+        } catch (IOException e) {
+            System.err.println("[RouteService] Resposta OSRM inválida: " + e.getMessage());
+            return null;
+        }
+
+        if (!parsed.isFound()) {
+            String code = parsed.getCode() != null ? " (" + parsed.getCode() + ")" : "";
+            System.err.println("[RouteService] Nenhuma rota encontrada" + code);
+            return null;
+        }
+
+        RouteGeometry geometry = RouteGeometry.ofInterleaved(parsed.getCoordinates(), parsed.getPointCount());
+        double distanceKm = parsed.getDistanceMeters() / 1000.0;
+        long durationSec = Math.round(parsed.getDurationSeconds());
+        return new Route(geometry, distanceKm, durationSec, mode, new ArrayList<>());
+    }
+}
@@ -0,0 +1,163 @@
+package com.myapp.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.myapp.model.DistanceMatrix;
+
+/**
+ * Parser em streaming para respostas do serviço {@code /table} da OSRM.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): escreve os blocos {@code durations} (segundos) e
+ * {@code distances} (metros) de uma resposta diretamente numa zona de uma
+ * {@link DistanceMatrix}, sem construir a árvore JSON. Assim cada pedido
+ * parcial (um "tile" da matriz) preenche só as suas células.
+ *
+ * Valores {@code null} (pares sem rota) ficam como sem rota na matriz.
+ */
+final class OsrmTableParser {
+    private static final String CODE_OK = "Ok";
+    private static final CellFilter ALL_CELLS = (row, col) -> true;
+
+    /**
+     * Seleciona as células de uma resposta que são copiadas para a matriz,
+     * pela posição (origem, destino) no pedido.
+     */
+    interface CellFilter {
+        boolean accept(int row, int col);
+    }
+
+    private OsrmTableParser() {
+    }
+
+    /**
+     * Lê uma resposta e copia os valores para a matriz.
+     *
+     * @param json      corpo da resposta
+     * @param matrix    matriz de destino
+     * @param rowOffset linha da matriz correspondente à primeira origem
+     * @param colOffset coluna da matriz correspondente ao primeiro destino
+     * @param rows      número de origens do pedido
+     * @param columns   número de destinos do pedido
+     * @throws IOException se o JSON for inválido, a OSRM devolver erro ou as
+     *                     dimensões não corresponderem ao pedido
+     */
+    static void parseInto(String json, DistanceMatrix matrix, int rowOffset, int colOffset, int rows,
+            int columns) throws IOException {
+        parseInto(json, matrix, range(rowOffset, rows), range(colOffset, columns));
+    }
+
+    /**
+     * Lê uma resposta e copia os valores para as linhas e colunas indicadas
+     * (usado quando as coordenadas do pedido não são contíguas na matriz).
+     *
+     * @param json   corpo da resposta
+     * @param matrix matriz de destino
+     * @param rows   linha da matriz de cada origem do pedido
+     * @param cols   coluna da matriz de cada destino do pedido
+     * @throws IOException se o JSON for inválido, a OSRM devolver erro ou as
+     *                     dimensões não corresponderem ao pedido
+     */
+    static void parseInto(String json, DistanceMatrix matrix, int[] rows, int[] cols) throws IOException {
+        parseInto(json, matrix, rows, cols, ALL_CELLS);
+    }
+
+    /**
+     * Como {@link #parseInto(String, DistanceMatrix, int[], int[])}, mas só
+     * copia as células aceites por {@code cells}; as restantes são lidas e
+     * ignoradas (usado quando outro pedido é o dono dessas células).
+     *
+     * @param json   corpo da resposta
+     * @param matrix matriz de destino
+     * @param rows   linha da matriz de cada origem do pedido
+     * @param cols   coluna da matriz de cada destino do pedido
+     * @param cells  células a copiar
+     * @throws IOException se o JSON for inválido, a OSRM devolver erro ou as
+     *                     dimensões não corresponderem ao pedido
+     */
+    static void parseInto(String json, DistanceMatrix matrix, int[] rows, int[] cols, CellFilter cells)
+            throws IOException {
+        if (json == null) {
+            throw new IOException("Resposta OSRM table vazia");
+        }
+        String code = null;
+        String message = null;
+        boolean durations = false;
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "code" -> code = reader.nextString();
+                    case "message" -> message = reader.nextString();
+                    case "durations" -> {
+                        readBlock(reader, matrix, rows, cols, cells, true);
+                        durations = true;
+                    }
+                    case "distances" -> readBlock(reader, matrix, rows, cols, cells, false);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Resposta OSRM table inválida: " + e.getMessage(), e);
+        }
+        if (!CODE_OK.equals(code)) {
+            throw new IOException("OSRM table devolveu " + code + (message != null ? ": " + message : ""));
+        }
+        if (!durations) {
+            throw new IOException("Resposta OSRM table sem durations");
+        }
+    }
+
+    private static int[] range(int offset, int length) {
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = offset + i;
+        }
+        return indices;
+    }
+
+    private static void readBlock(JsonReader reader, DistanceMatrix matrix, int[] rowIndex, int[] colIndex,
+            CellFilter cells, boolean durations) throws IOException {
+        int rows = rowIndex.length;
+        int columns = colIndex.length;
+        double[][] distances = matrix.getDistancesKm();
+        long[][] seconds = matrix.getDurationsSec();
+        int i = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (i >= rows) {
+                throw new IOException("Resposta OSRM table com mais de " + rows + " linhas");
+            }
+            int j = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (j >= columns) {
+                    throw new IOException("Resposta OSRM table com mais de " + columns + " colunas");
+                }
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else if (!cells.accept(i, j)) {
+                    reader.skipValue();
+                } else if (durations) {
+                    seconds[rowIndex[i]][colIndex[j]] = Math.round(reader.nextDouble());
+                } else {
+                    distances[rowIndex[i]][colIndex[j]] = reader.nextDouble() / 1000.0;
+                }
+                j++;
+            }
+            reader.endArray();
+            if (j != columns) {
+                throw new IOException("Resposta OSRM table com " + j + " colunas em vez de " + columns);
+            }
+            i++;
+        }
+        reader.endArray();
+        if (i != rows) {
+            throw new IOException("Resposta OSRM table com " + i + " linhas em vez de " + rows);
+        }
+    }
+}
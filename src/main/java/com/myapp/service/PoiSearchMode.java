@@ -0,0 +1,16 @@
+package com.myapp.service;
+
+/**
+ * Estratégia usada pelo {@link Service} para pesquisar POIs ao longo de uma
+ * rota.
+ *
+ * Ambas as estratégias dividem a rota nos mesmos segmentos e devolvem no máximo
+ * o mesmo número de POIs por segmento; diferem apenas no número de pedidos
+ * enviados à Overpass API.
+ */
+public enum PoiSearchMode {
+    /** Um único pedido com a união das áreas de todos os checkpoints. */
+    CORRIDOR,
+    /** Um pedido por checkpoint, executados em paralelo sob limite de taxa. */
+    PER_CHECKPOINT;
+}
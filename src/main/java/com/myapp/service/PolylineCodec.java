@@ -0,0 +1,171 @@
+package com.myapp.service;
+
+import java.io.IOException;
+
+/**
+ * Codificação e descodificação de geometrias no formato Encoded Polyline
+ * Algorithm (Google), usado pela OSRM com {@code geometries=polyline} (1e-5
+ * graus) e {@code geometries=polyline6} (1e-6 graus).
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): usado por {@link OsrmResponseParser} para converter
+ * a string da resposta em coordenadas.
+ *
+ * A descodificação não cria objetos por vértice: uma primeira passagem conta
+ * os vértices e a segunda escreve latitude e longitude diretamente num
+ * {@code double[]} intercalado ({@code lat0, lon0, lat1, lon1, ...}) com o
+ * tamanho exato.
+ *
+ * Formato: cada coordenada é a diferença para o vértice anterior, em inteiros
+ * escalados por {@code 10^precision}, codificada em zig-zag e dividida em
+ * blocos de 5 bits; cada bloco é um carácter {@code 63 + bloco}, com o bit
+ * {@code 0x20} a indicar que o valor continua no carácter seguinte.
+ */
+public final class PolylineCodec {
+    private static final int CHAR_OFFSET = 63;
+    private static final int CONTINUATION_BIT = 0x20;
+    private static final int CHUNK_MASK = 0x1f;
+    private static final int CHUNK_BITS = 5;
+    private static final int MAX_PRECISION = 7;
+
+    private PolylineCodec() {
+    }
+
+    /**
+     * Conta os vértices de uma polyline sem a descodificar.
+     *
+     * @param encoded polyline codificada
+     * @return número de vértices (pares latitude/longitude)
+     * @throws IOException se a polyline estiver truncada
+     */
+    public static int countPoints(CharSequence encoded) throws IOException {
+        int values = 0;
+        int len = encoded.length();
+        for (int i = 0; i < len; i++) {
+            int b = encoded.charAt(i) - CHAR_OFFSET;
+            if (b < 0 || b > 0x3f) {
+                throw new IOException("Polyline inválida: carácter '" + encoded.charAt(i) + "' na posição " + i);
+            }
+            if ((b & CONTINUATION_BIT) == 0) {
+                values++;
+            }
+        }
+        boolean unterminated = len > 0 && ((encoded.charAt(len - 1) - CHAR_OFFSET) & CONTINUATION_BIT) != 0;
+        if (unterminated || values % 2 != 0) {
+            throw new IOException("Polyline truncada");
+        }
+        return values / 2;
+    }
+
+    /**
+     * Descodifica uma polyline para um array novo com o tamanho exato.
+     *
+     * @param encoded   polyline codificada
+     * @param precision casas decimais codificadas (5 para {@code polyline}, 6
+     *                  para {@code polyline6})
+     * @return coordenadas intercaladas {@code lat, lon}
+     * @throws IOException se a polyline for inválida
+     */
+    public static double[] decode(CharSequence encoded, int precision) throws IOException {
+        double[] out = new double[2 * countPoints(encoded)];
+        decodeInto(encoded, precision, out, 0);
+        return out;
+    }
+
+    /**
+     * Descodifica uma polyline para um buffer existente.
+     *
+     * @param encoded   polyline codificada
+     * @param precision casas decimais codificadas (0 a 7)
+     * @param out       buffer de destino (coordenadas intercaladas)
+     * @param offset    posição inicial no buffer
+     * @return número de vértices escritos
+     * @throws IOException se a polyline for inválida ou não couber no buffer
+     */
+    public static int decodeInto(CharSequence encoded, int precision, double[] out, int offset)
+            throws IOException {
+        double factor = scale(precision);
+        int len = encoded.length();
+        int index = 0;
+        // long: com precisão 7 as coordenadas chegam a 1.8e9 e os deltas a 3.6e9
+        long lat = 0;
+        long lon = 0;
+        int pos = offset;
+        while (index < len) {
+            // Latitude
+            long result = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (index >= len) {
+                    throw new IOException("Polyline truncada");
+                }
+                b = encoded.charAt(index++) - CHAR_OFFSET;
+                result |= (long) (b & CHUNK_MASK) << shift;
+                shift += CHUNK_BITS;
+            } while ((b & CONTINUATION_BIT) != 0);
+            lat += (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+
+            // Longitude
+            result = 0;
+            shift = 0;
+            do {
+                if (index >= len) {
+                    throw new IOException("Polyline truncada");
+                }
+                b = encoded.charAt(index++) - CHAR_OFFSET;
+                result |= (long) (b & CHUNK_MASK) << shift;
+                shift += CHUNK_BITS;
+            } while ((b & CONTINUATION_BIT) != 0);
+            lon += (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+
+            if (pos + 2 > out.length) {
+                throw new IOException("Buffer demasiado pequeno para a polyline");
+            }
+            out[pos++] = lat / factor;
+            out[pos++] = lon / factor;
+        }
+        return (pos - offset) / 2;
+    }
+
+    /**
+     * Codifica coordenadas intercaladas como polyline.
+     *
+     * @param latLon    coordenadas intercaladas {@code lat, lon}
+     * @param count     número de vértices a codificar
+     * @param precision casas decimais (5 para {@code polyline}, 6 para
+     *                  {@code polyline6})
+     * @return polyline codificada
+     */
+    public static String encode(double[] latLon, int count, int precision) {
+        double factor = scale(precision);
+        StringBuilder sb = new StringBuilder(count * 8);
+        long prevLat = 0;
+        long prevLon = 0;
+        for (int i = 0; i < count; i++) {
+            long lat = Math.round(latLon[2 * i] * factor);
+            long lon = Math.round(latLon[2 * i + 1] * factor);
+            encodeValue(sb, lat - prevLat);
+            encodeValue(sb, lon - prevLon);
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return sb.toString();
+    }
+
+    private static void encodeValue(StringBuilder sb, long delta) {
+        long v = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (v >= CONTINUATION_BIT) {
+            sb.append((char) ((CONTINUATION_BIT | (v & CHUNK_MASK)) + CHAR_OFFSET));
+            v >>= CHUNK_BITS;
+        }
+        sb.append((char) (v + CHAR_OFFSET));
+    }
+
+    private static double scale(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision deve estar entre 0 e " + MAX_PRECISION);
+        }
+        return Math.pow(10, precision);
+    }
+}
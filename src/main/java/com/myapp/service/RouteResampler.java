@@ -0,0 +1,254 @@
+package com.myapp.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.myapp.model.Point;
+import com.myapp.model.RouteGeometry;
+import com.myapp.utils.GeoMath;
+
+/**
+ * Reamostragem da geometria de uma rota a intervalos fixos de distância.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): escolhe os pontos do perfil de elevação e os
+ * checkpoints da pesquisa de POIs, de forma independente da densidade de
+ * vértices devolvida pelo motor de rotas (troços urbanos têm muitos vértices,
+ * autoestradas retas muito poucos).
+ *
+ * Funcionamento:
+ * - As distâncias acumuladas (em metros, {@link GeoMath#cumulativeMeters})
+ * são calculadas uma vez, numa única passagem pela geometria.
+ * - Os pontos pedidos, por ordem crescente de distância, são obtidos com uma
+ * segunda passagem que avança sobre os troços e interpola linearmente dentro
+ * de cada um.
+ * - {@link #refine} acrescenta pontos a meio dos intervalos em volta das
+ * mudanças de declive de um perfil já amostrado (modo adaptativo).
+ */
+final class RouteResampler {
+    private RouteResampler() {
+    }
+
+    /**
+     * Pontos amostrados e a respetiva distância (em metros) desde o início da
+     * rota, por ordem do percurso.
+     *
+     * @param points    pontos amostrados
+     * @param distances distância acumulada de cada ponto, em metros
+     */
+    record Samples(RouteGeometry points, double[] distances) {
+        int size() {
+            return points.size();
+        }
+
+        /** Vista {@code List<Point>} (pontos criados a pedido). */
+        List<Point> asPointList() {
+            return points.asPointList();
+        }
+    }
+
+    /**
+     * Resultado de {@link #refine}: as amostras originais mais as novas, por
+     * ordem do percurso, e as posições das novas.
+     *
+     * @param samples todas as amostras
+     * @param added   posições (crescentes) das amostras acrescentadas
+     */
+    record Refinement(Samples samples, int[] added) {
+        /** Pontos acrescentados, pela ordem do percurso. */
+        List<Point> addedPoints() {
+            return new AbstractPointList(added.length) {
+                @Override
+                public Point get(int index) {
+                    return samples.points().getPoint(added[index]);
+                }
+            };
+        }
+
+        /**
+         * Junta as elevações das amostras originais e das acrescentadas.
+         *
+         * @param original elevações das amostras originais, pela ordem delas
+         * @param extra    elevações das amostras acrescentadas
+         * @return elevações de todas as amostras
+         */
+        double[] merge(double[] original, double[] extra) {
+            double[] merged = new double[samples.size()];
+            int o = 0;
+            int a = 0;
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] = a < added.length && added[a] == i ? extra[a++] : original[o++];
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * Distância acumulada (em metros) de cada vértice desde o início.
+     *
+     * @param geometry geometria da rota
+     * @return array com {@code geometry.size()} distâncias
+     */
+    static double[] cumulativeDistances(RouteGeometry geometry) {
+        int size = geometry.size();
+        double[] lat = new double[size];
+        double[] lon = new double[size];
+        for (int i = 0; i < size; i++) {
+            lat[i] = geometry.getLatitude(i);
+            lon[i] = geometry.getLongitude(i);
+        }
+        return GeoMath.cumulativeMeters(lat, lon, size);
+    }
+
+    /**
+     * Amostras espaçadas uniformemente, incluindo o primeiro e o último
+     * vértice. O espaçamento é o maior entre {@code minSpacingMeters} e o
+     * necessário para não passar de {@code maxSamples} amostras, ajustado para
+     * dividir o comprimento da rota em partes iguais.
+     *
+     * @param geometry         geometria da rota
+     * @param cumulative       distâncias acumuladas ({@link #cumulativeDistances})
+     * @param maxSamples       número máximo de amostras ({@code >= 2})
+     * @param minSpacingMeters espaçamento mínimo entre amostras
+     * @return amostras (uma só, se a rota tiver comprimento nulo)
+     */
+    static Samples uniform(RouteGeometry geometry, double[] cumulative, int maxSamples, double minSpacingMeters) {
+        if (maxSamples < 2) {
+            throw new IllegalArgumentException("maxSamples deve ser >= 2");
+        }
+        if (geometry.isEmpty()) {
+            return new Samples(RouteGeometry.empty(), new double[0]);
+        }
+        double length = cumulative[cumulative.length - 1];
+        if (!(length > 0)) {
+            return at(geometry, cumulative, new double[] { 0.0 });
+        }
+        int intervals = (int) Math.min(maxSamples - 1, Math.max(1, Math.floor(length / minSpacingMeters)));
+        double[] targets = new double[intervals + 1];
+        for (int i = 0; i < intervals; i++) {
+            targets[i] = length * i / intervals;
+        }
+        targets[intervals] = length;
+        return at(geometry, cumulative, targets);
+    }
+
+    /**
+     * Pontos da rota às distâncias indicadas.
+     *
+     * @param geometry   geometria da rota (não vazia)
+     * @param cumulative distâncias acumuladas ({@link #cumulativeDistances})
+     * @param targets    distâncias pretendidas, em metros, por ordem crescente
+     *                   (valores fora da rota ficam no extremo mais próximo)
+     * @return amostras nas distâncias pedidas
+     */
+    static Samples at(RouteGeometry geometry, double[] cumulative, double[] targets) {
+        int last = geometry.size() - 1;
+        double length = cumulative[last];
+        RouteGeometry.Builder points = RouteGeometry.builder(targets.length);
+        double[] distances = new double[targets.length];
+        int segment = 0;
+        for (int i = 0; i < targets.length; i++) {
+            double target = Math.min(Math.max(targets[i], 0.0), length);
+            while (segment < last - 1 && cumulative[segment + 1] < target) {
+                segment++;
+            }
+            if (last == 0) {
+                points.add(geometry.getLatitude(0), geometry.getLongitude(0));
+            } else {
+                double start = cumulative[segment];
+                double span = cumulative[segment + 1] - start;
+                double f = span > 0 ? Math.min(1.0, (target - start) / span) : 0.0;
+                double lat = geometry.getLatitude(segment);
+                double lon = geometry.getLongitude(segment);
+                points.add(lat + (geometry.getLatitude(segment + 1) - lat) * f,
+                        lon + (geometry.getLongitude(segment + 1) - lon) * f);
+            }
+            distances[i] = target;
+        }
+        return new Samples(points.build(), distances);
+    }
+
+    /**
+     * Acrescenta um ponto a meio de cada intervalo em volta das amostras onde o
+     * declive muda mais do que {@code minGradeChange} (ex.: 0.03 = 3 pontos
+     * percentuais). Com mais candidatos do que {@code maxAdded}, ficam os
+     * intervalos com maior mudança de declive. Intervalos mais curtos do que
+     * {@code 2 * minSpacingMeters} não são divididos.
+     *
+     * @param geometry         geometria da rota
+     * @param cumulative       distâncias acumuladas ({@link #cumulativeDistances})
+     * @param samples          amostras já consultadas
+     * @param elevations       elevação de cada amostra ({@code NaN} sem dados)
+     * @param minGradeChange   mudança mínima de declive (adimensional)
+     * @param maxAdded         número máximo de pontos a acrescentar
+     * @param minSpacingMeters espaçamento mínimo entre amostras
+     * @return amostras refinadas (sem novas posições, se nada mudar)
+     */
+    static Refinement refine(RouteGeometry geometry, double[] cumulative, Samples samples, double[] elevations,
+            double minGradeChange, int maxAdded, double minSpacingMeters) {
+        int n = samples.size();
+        double[] d = samples.distances();
+        // score[k]: maior mudança de declive nas extremidades do intervalo k (k, k + 1)
+        double[] score = new double[Math.max(0, n - 1)];
+        for (int i = 1; i < n - 1; i++) {
+            double change = Math.abs(grade(d, elevations, i, i + 1) - grade(d, elevations, i - 1, i));
+            if (change > minGradeChange) {
+                score[i - 1] = Math.max(score[i - 1], change);
+                score[i] = Math.max(score[i], change);
+            }
+        }
+
+        int candidates = 0;
+        for (int k = 0; k < score.length; k++) {
+            if (score[k] > 0 && d[k + 1] - d[k] >= 2 * minSpacingMeters) {
+                candidates++;
+            } else {
+                score[k] = 0;
+            }
+        }
+        int count = Math.min(candidates, Math.max(0, maxAdded));
+        if (count == 0) {
+            return new Refinement(samples, new int[0]);
+        }
+
+        double cutoff = 0;
+        if (count < candidates) {
+            double[] sorted = Arrays.stream(score).filter(s -> s > 0).sorted().toArray();
+            cutoff = sorted[sorted.length - count];
+        }
+        double[] targets = new double[n + count];
+        int[] added = new int[count];
+        int t = 0;
+        int a = 0;
+        for (int k = 0; k < n; k++) {
+            targets[t++] = d[k];
+            if (k < score.length && a < count && score[k] > 0 && score[k] >= cutoff) {
+                added[a++] = t;
+                targets[t++] = (d[k] + d[k + 1]) / 2;
+            }
+        }
+        return new Refinement(at(geometry, cumulative, Arrays.copyOf(targets, t)), Arrays.copyOf(added, a));
+    }
+
+    // Declive entre as amostras i e j; sem dados ou distância nula conta como plano
+    private static double grade(double[] distances, double[] elevations, int i, int j) {
+        double run = distances[j] - distances[i];
+        double rise = elevations[j] - elevations[i];
+        return run > 0 && !Double.isNaN(rise) ? rise / run : 0.0;
+    }
+
+    private abstract static class AbstractPointList extends AbstractList<Point> implements RandomAccess {
+        private final int size;
+
+        AbstractPointList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
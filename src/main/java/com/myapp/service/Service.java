@@ -1,19 +1,48 @@
 package com.myapp.service;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.myapp.api.CachingNominatimClient;
+import com.myapp.api.CachingOSRMClient;
 import com.myapp.api.ElevationClient;
 import com.myapp.api.NominatimClient;
 import com.myapp.api.OSRMClient;
 import com.myapp.api.OverpassClient;
+import com.myapp.elevation.ElevationProvider;
+import com.myapp.elevation.SrtmElevationProvider;
+import com.myapp.model.DistanceMatrix;
 import com.myapp.model.ElevationProfile;
 import com.myapp.model.POI;
 import com.myapp.model.Point;
 import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
+import com.myapp.model.SpatialGridIndex;
 import com.myapp.model.TransportMode;
+import com.myapp.routing.EdgeListLoader;
+import com.myapp.routing.LocalRoutingEngine;
+import com.myapp.routing.RoutingBackend;
+import com.myapp.utils.Futures;
+import com.myapp.utils.GeoMath;
+import com.myapp.utils.TokenBucketRateLimiter;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -31,32 +60,74 @@ import com.google.gson.JsonParser;
  * - UI (View): consome métodos deste serviço para apresentar dados.
  *
  * Este serviço converte respostas JSON das APIs em modelos da aplicação.
+ *
+ * As operações principais têm também uma versão assíncrona ({@code *Async})
+ * que devolve um {@link CompletableFuture}, assente em {@code sendAsync}: os
+ * pedidos ficam em curso sem ocupar uma thread cada, e podem ser compostos
+ * (ex.: obter a rota e depois, em paralelo, a elevação e os POIs). As versões
+ * assíncronas seguem as mesmas regras de erro das síncronas: em vez de
+ * falharem, completam com {@code null} ou com uma lista vazia.
  */
 public class Service {
 
     // Constantes para evitar números/strings mágicos
     private static final int DEFAULT_POI_SEGMENTS = 10;
-    private static final long OVERPASS_RATE_LIMIT_SLEEP_MS = 550L;
+    private static final int API_MAX_CONCURRENCY = 4;
+    private static final long API_THREAD_KEEP_ALIVE_S = 30L;
+    private static final double OVERPASS_PERMITS_PER_SECOND = 2.0;
+    private static final int OVERPASS_BURST = 2;
     private static final int OVERPASS_SEARCH_RADIUS_M = 1500;
     private static final int OVERPASS_QUERY_TIMEOUT_S = 5;
+    private static final int OVERPASS_CORRIDOR_TIMEOUT_S = 25;
+    private static final int OVERPASS_CORRIDOR_MAX_ELEMENTS = 2000;
+    private static final int DEFAULT_POIS_PER_SEGMENT = 2;
     private static final long POI_SEARCH_MAX_DURATION_MS = 15_000L;
     private static final double DUPLICATE_COORD_THRESHOLD_DEG = 0.00001;
-    private static final int MAX_UNIQUE_POIS = 100;
-    private static final int MAX_ELEVATION_SAMPLES = 100;
-
-    private final OSRMClient osrmClient;
+    private static final int DEFAULT_MAX_UNIQUE_POIS = 100;
+    private static final int MAX_ELEVATION_SAMPLES = 1000;
+    // Resolução do SRTM1; amostras mais próximas não acrescentam informação
+    private static final double MIN_ELEVATION_SPACING_M = 30.0;
+    private static final double ELEVATION_REFINE_GRADE_CHANGE = 0.03;
+    private static final long WAYPOINT_OPTIMIZATION_BUDGET_MS = 500L;
+    private static final double UNREACHABLE_LEG_COST = 1e9;
+
+    private static final String ROUTING_GRAPH_PROPERTY = "routing.graph";
+    private static final String ELEVATION_DEM_PROPERTY = "elevation.dem";
+
+    private final RoutingBackend routingBackend;
     private final OverpassClient overpassClient;
     private final NominatimClient nominatimClient;
-    private final ElevationClient elevationClient;
+
+    // Executor limitado partilhado pelos pedidos paralelos às APIs
+    private final ExecutorService apiExecutor = newApiExecutor();
+    private TokenBucketRateLimiter overpassRateLimiter = new TokenBucketRateLimiter(
+            OVERPASS_PERMITS_PER_SECOND, OVERPASS_BURST);
+    private Duration poiSearchTimeout = Duration.ofMillis(POI_SEARCH_MAX_DURATION_MS);
+    private PoiSearchMode poiSearchMode = PoiSearchMode.CORRIDOR;
+    private int poisPerSegment = DEFAULT_POIS_PER_SEGMENT;
+    private int maxUniquePois = DEFAULT_MAX_UNIQUE_POIS;
+    private final OpenElevationProvider openElevationProvider;
+    private ElevationProvider elevationProvider;
+    private boolean adaptiveElevationSampling;
 
     /**
-     * Construtor por omissão que instancia clientes reais.
+     * Construtor por omissão que instancia clientes reais. As rotas passam por
+     * uma cache persistente ({@link CachingOSRMClient}) e a geocodificação por
+     * uma cache com agregação de pedidos ({@link CachingNominatimClient}).
+     *
+     * Se a propriedade de sistema {@code routing.graph} indicar um ficheiro de
+     * grafo (ver {@link EdgeListLoader}), as rotas são calculadas localmente
+     * por um {@link LocalRoutingEngine}, sem depender do servidor OSRM. Da
+     * mesma forma, {@code elevation.dem} pode indicar uma pasta de tiles SRTM
+     * ({@link SrtmElevationProvider}) para obter as elevações sem rede.
      */
     public Service() {
-        this.osrmClient = new OSRMClient();
-        this.overpassClient = new OverpassClient();
-        this.nominatimClient = new NominatimClient();
-        this.elevationClient = new ElevationClient();
+        this(defaultRoutingBackend(), new OverpassClient(), new CachingNominatimClient(new NominatimClient()),
+                new ElevationClient());
+        ElevationProvider dem = localElevationProvider();
+        if (dem != null) {
+            setElevationProvider(dem);
+        }
     }
 
     /**
@@ -64,78 +135,266 @@ public class Service {
      */
     public Service(OSRMClient osrmClient, OverpassClient overpassClient,
             NominatimClient nominatimClient, ElevationClient elevationClient) {
-        this.osrmClient = osrmClient;
+        this(new OsrmRoutingBackend(osrmClient), overpassClient, nominatimClient, elevationClient);
+    }
+
+    /**
+     * Construtor com um motor de rotas arbitrário (OSRM ou grafo local).
+     *
+     * @param routingBackend  motor usado no cálculo das rotas
+     * @param overpassClient  cliente Overpass (POIs)
+     * @param nominatimClient cliente Nominatim (geocodificação)
+     * @param elevationClient cliente Open-Elevation
+     */
+    public Service(RoutingBackend routingBackend, OverpassClient overpassClient,
+            NominatimClient nominatimClient, ElevationClient elevationClient) {
+        this.routingBackend = Objects.requireNonNull(routingBackend);
         this.overpassClient = overpassClient;
         this.nominatimClient = nominatimClient;
-        this.elevationClient = elevationClient;
+        this.openElevationProvider = new OpenElevationProvider(elevationClient, apiExecutor);
+        this.elevationProvider = openElevationProvider;
+    }
+
+    // Grafo local se configurado (e legível); caso contrário, OSRM com cache
+    private static RoutingBackend defaultRoutingBackend() {
+        String graph = System.getProperty(ROUTING_GRAPH_PROPERTY);
+        if (graph != null && !graph.isBlank()) {
+            try {
+                return LocalRoutingEngine.load(Paths.get(graph));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[RouteService] Grafo local indisponível (" + graph + "), a usar OSRM: "
+                        + e.getMessage());
+            }
+        }
+        return new OsrmRoutingBackend(CachingOSRMClient.createDefault());
     }
 
     /**
-     * Obtém uma rota entre dois pontos usando a OSRM e converte o resultado
-     * num objeto {@link Route} com distância, duração e pontos do percurso.
+     * Indica se as rotas são calculadas pelo grafo local
+     * ({@link LocalRoutingEngine}) em vez de um servidor OSRM. Com
+     * {@code routing.graph} configurado mas ilegível, o serviço usa a OSRM e
+     * este método devolve {@code false}.
+     *
+     * @return {@code true} se o motor de rotas for local
+     */
+    public boolean isLocalRouting() {
+        return routingBackend instanceof LocalRoutingEngine;
+    }
+
+    // Tiles SRTM locais se configurados (e legíveis); caso contrário, null
+    private static ElevationProvider localElevationProvider() {
+        String dem = System.getProperty(ELEVATION_DEM_PROPERTY);
+        if (dem != null && !dem.isBlank()) {
+            try {
+                return new SrtmElevationProvider(Paths.get(dem));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Elevation] Tiles SRTM indisponíveis (" + dem + "), a usar Open-Elevation: "
+                        + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Substitui o limitador de taxa aplicado aos pedidos à Overpass.
+     *
+     * @param rateLimiter limitador a usar (não pode ser {@code null})
+     */
+    public void setOverpassRateLimiter(TokenBucketRateLimiter rateLimiter) {
+        this.overpassRateLimiter = Objects.requireNonNull(rateLimiter);
+    }
+
+    /**
+     * Substitui o limitador de taxa aplicado aos pedidos à Open-Elevation.
+     *
+     * @param rateLimiter limitador a usar (não pode ser {@code null})
+     */
+    public void setElevationRateLimiter(TokenBucketRateLimiter rateLimiter) {
+        openElevationProvider.setRateLimiter(rateLimiter);
+    }
+
+    /**
+     * Define a origem das elevações dos perfis (por omissão, a Open-Elevation
+     * através do {@link ElevationClient} recebido no construtor).
+     *
+     * @param provider origem das elevações (não pode ser {@code null})
+     */
+    public void setElevationProvider(ElevationProvider provider) {
+        this.elevationProvider = Objects.requireNonNull(provider);
+    }
+
+    /**
+     * Ativa a amostragem adaptativa dos perfis de elevação: metade das
+     * amostras é consultada primeiro, a intervalos regulares, e as restantes
+     * são colocadas a meio dos intervalos onde o declive muda mais do que
+     * {@value #ELEVATION_REFINE_GRADE_CHANGE} (um segundo pedido ao fornecedor
+     * de elevações). Por omissão as amostras são todas regulares.
+     *
+     * @param adaptive {@code true} para refinar onde o declive muda
+     */
+    public void setAdaptiveElevationSampling(boolean adaptive) {
+        this.adaptiveElevationSampling = adaptive;
+    }
+
+    /**
+     * Define o prazo global da pesquisa de POIs; pedidos ainda em curso quando
+     * o prazo expira são cancelados e devolvem-se os resultados parciais.
+     *
+     * @param timeout prazo máximo da pesquisa
+     */
+    public void setPoiSearchTimeout(Duration timeout) {
+        this.poiSearchTimeout = Objects.requireNonNull(timeout);
+    }
+
+    /**
+     * Define a estratégia de pesquisa de POIs ao longo da rota.
+     *
+     * @param mode {@link PoiSearchMode#CORRIDOR} (um único pedido) ou
+     *             {@link PoiSearchMode#PER_CHECKPOINT} (um pedido por segmento)
+     */
+    public void setPoiSearchMode(PoiSearchMode mode) {
+        this.poiSearchMode = Objects.requireNonNull(mode);
+    }
+
+    /**
+     * Define os limites da pesquisa de POIs. A remoção de duplicados usa um
+     * {@link SpatialGridIndex}, pelo que ambos os limites podem ir aos milhares.
+     *
+     * @param perSegment número máximo de POIs por segmento da rota (por omissão
+     *                   {@value #DEFAULT_POIS_PER_SEGMENT})
+     * @param maxUnique  número máximo de POIs únicos devolvidos (por omissão
+     *                   {@value #DEFAULT_MAX_UNIQUE_POIS})
+     */
+    public void setPoiLimits(int perSegment, int maxUnique) {
+        if (perSegment < 1 || maxUnique < 1) {
+            throw new IllegalArgumentException("Os limites de POIs devem ser >= 1");
+        }
+        this.poisPerSegment = perSegment;
+        this.maxUniquePois = maxUnique;
+    }
+
+    private static ExecutorService newApiExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "service-api-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(API_MAX_CONCURRENCY, API_MAX_CONCURRENCY,
+                API_THREAD_KEEP_ALIVE_S, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Obtém uma rota entre dois pontos através do motor de rotas configurado
+     * (OSRM por omissão) como {@link Route} com distância, duração e pontos do
+     * percurso.
      *
      * @param origin      ponto de origem
      * @param destination ponto de destino
      * @param mode        modo de transporte
-     * @return {@link Route} construída a partir da resposta OSRM, ou {@code null}
+     * @return {@link Route} calculada, ou {@code null}
      *         em caso de erro
      */
     public Route getRoute(Point origin, Point destination, TransportMode mode) {
         try {
-            String route = osrmClient.getRouteJson(origin, destination, mode);
-            JsonObject osrmResponseJSON = JsonParser.parseString(route).getAsJsonObject();
-            if (!osrmResponseJSON.has("routes")) {
-                System.err.println("[RouteService] JSON sem 'routes'");
-                return null;
-            }
-            JsonArray routes = osrmResponseJSON.getAsJsonArray("routes");
-            if (routes.size() == 0) {
-                System.err.println("[RouteService] Nenhuma rota encontrada");
-                return null;
-            }
-
-            JsonObject firstRoute = routes.get(0).getAsJsonObject();
-            double distanceKm = firstRoute.get("distance").getAsDouble() / 1000.0;
-            long durationSec = Math.round(firstRoute.get("duration").getAsDouble());
-
-            List<Point> path = new ArrayList<>();
-            JsonArray coordsArray = firstRoute
-                    .getAsJsonObject("geometry")
-                    .getAsJsonArray("coordinates");
-
-            for (JsonElement el : coordsArray) {
-                JsonArray coord = el.getAsJsonArray();
-                double lon = coord.get(0).getAsDouble();
-                double lat = coord.get(1).getAsDouble();
-                path.add(new Point(lat, lon, null));
-            }
-            return new Route(path, distanceKm, durationSec, mode, new ArrayList<>());
+            return routingBackend.getRoute(origin, destination, mode);
         } catch (IOException | InterruptedException e) {
             System.out.println("Error fetching route: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Versão assíncrona de {@link #getRoute(Point, Point, TransportMode)}.
+     *
+     * @param origin      ponto de origem
+     * @param destination ponto de destino
+     * @param mode        modo de transporte
+     * @return futuro com a {@link Route}, ou com {@code null} em caso de erro
+     */
+    public CompletableFuture<Route> getRouteAsync(Point origin, Point destination, TransportMode mode) {
+        CompletableFuture<Route> route = routingBackend.getRouteAsync(origin, destination, mode);
+        return Futures.propagateCancel(route.exceptionally(e -> {
+            System.out.println("Error fetching route: " + unwrap(e).getMessage());
+            return null;
+        }), route);
+    }
+
     /**
      * Pesquisa pontos de interesse (POIs) ao longo de uma rota, distribuindo
      * consultas por segmentos uniformes com recurso à Overpass API.
      *
+     * Por omissão é feito um único pedido para todo o corredor da rota
+     * ({@link PoiSearchMode#CORRIDOR}); se a Overpass o rejeitar, recorre-se a um
+     * pedido por segmento.
+     *
      * @param route rota sobre a qual pesquisar
      * @param type  tipo de POI (ex.: "Restaurante", "Hotel") mapeado para tags
      *              Overpass
-     * @return lista de POIs únicos encontrados (limitada a 100)
+     * @return lista de POIs únicos encontrados (limitada a 100 por omissão, ver
+     *         {@link #setPoiLimits(int, int)})
      */
     public List<POI> getPOIsAlongRoute(Route route, String type) {
-        if (route == null || route.getRoutePoints().isEmpty()) {
+        if (route == null || route.getPointCount() == 0) {
             return List.of();
         }
 
+        String tag = poiTagFor(type);
+        if (tag == null) {
+            return List.of(); // segurança
+        }
+
         List<POI> result = new ArrayList<>();
-        List<Point> points = route.getRoutePoints();
+        List<Point> selectedCheckpoints = selectCheckpoints(route.getGeometry());
+
+        long deadlineNanos = System.nanoTime() + poiSearchTimeout.toNanos();
+        List<POI> corridorPois = poiSearchMode == PoiSearchMode.CORRIDOR
+                ? searchPOIsInCorridor(selectedCheckpoints, tag, deadlineNanos)
+                : null;
+        if (corridorPois != null) {
+            result.addAll(corridorPois);
+        } else {
+            result.addAll(searchPOIsPerCheckpoint(selectedCheckpoints, tag, deadlineNanos));
+        }
 
-        int size = points.size();
+        return deduplicatePOIs(result);
+    }
+
+    /**
+     * Versão assíncrona de {@link #getPOIsAlongRoute(Route, String)}: os pedidos
+     * à Overpass usam {@code sendAsync}, a espera pelo limitador de taxa não
+     * ocupa threads e o prazo global é aplicado a cada pedido.
+     *
+     * @param route rota sobre a qual pesquisar
+     * @param type  tipo de POI (ex.: "Restaurante", "Hotel")
+     * @return futuro com a lista de POIs únicos encontrados (limitada a 100 por
+     *         omissão)
+     */
+    public CompletableFuture<List<POI>> getPOIsAlongRouteAsync(Route route, String type) {
+        if (route == null || route.getPointCount() == 0) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        String tag = poiTagFor(type);
+        if (tag == null) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        List<Point> checkpoints = selectCheckpoints(route.getGeometry());
+        long deadlineNanos = System.nanoTime() + poiSearchTimeout.toNanos();
+        CompletableFuture<List<POI>> raw = poiSearchMode == PoiSearchMode.CORRIDOR
+                ? searchPOIsInCorridorAsync(checkpoints, tag, deadlineNanos)
+                        .thenCompose(pois -> pois != null
+                                ? CompletableFuture.completedFuture(pois)
+                                : searchPOIsPerCheckpointAsync(checkpoints, tag, deadlineNanos))
+                : searchPOIsPerCheckpointAsync(checkpoints, tag, deadlineNanos);
+        return raw.thenApply(this::deduplicatePOIs);
+    }
 
-        String tag = switch (type) {
+    // Tipo de POI apresentado na UI -> filtro Overpass (null se desconhecido)
+    private static String poiTagFor(String type) {
+        return switch (type) {
             case "Restaurante" -> "amenity=restaurant";
             case "Café" -> "amenity=cafe";
             case "Fast Food" -> "amenity=fast_food";
@@ -159,118 +418,417 @@ public class Service {
 
             default -> null;
         };
+    }
 
-        if (tag == null) {
-            return List.of(); // segurança
-        }
-
-        // Nova estratégia: dividir rota em SEGMENTOS IGUAIS e pegar poucos POIs de cada
-        // Garante distribuição uniforme ao longo de TODA a rota
-
-        int numSegments = DEFAULT_POI_SEGMENTS; // Dividir rota em segmentos iguais
-        List<Point> selectedCheckpoints = new ArrayList<>();
-
+    // Divide a rota em segmentos de igual distância e devolve o ponto médio de cada um
+    private static List<Point> selectCheckpoints(RouteGeometry geometry) {
+        // Distância e não número de vértices: troços urbanos densos não
+        // concentram os checkpoints
+        int numSegments = DEFAULT_POI_SEGMENTS;
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        double length = cumulative[cumulative.length - 1];
+        double[] midpoints = new double[numSegments];
         for (int i = 0; i < numSegments; i++) {
-            // Calcular índice do ponto médio de cada segmento
-            int index = i * size / numSegments + size / numSegments / 2;
-            if (index >= size) {
-                index = size - 1;
-            }
-            selectedCheckpoints.add(points.get(index));
+            midpoints[i] = (i + 0.5) * length / numSegments;
         }
+        List<Point> selectedCheckpoints = new ArrayList<>(
+                RouteResampler.at(geometry, cumulative, midpoints).asPointList());
 
-        int checkpoints = selectedCheckpoints.size();
         System.out.println(String.format(
                 "[POI Search] Rota dividida em %d segmentos iguais para garantir distribuição uniforme.",
                 numSegments));
 
-        long startTime = System.currentTimeMillis();
-        long maxDuration = POI_SEARCH_MAX_DURATION_MS; // limite global para pesquisa de POIs
-
-        for (int i = 0; i < checkpoints; i++) {
-            // Timeout
-            long elapsed = System.currentTimeMillis() - startTime;
-            if (elapsed > maxDuration) {
-                double elapsedSeconds = elapsed / 1000.0;
-                System.out.println(String.format(
-                        "[POI Search] Timeout %.1fs. POIs coletados: %d",
-                        elapsedSeconds, result.size()));
-                break;
+        return selectedCheckpoints;
+    }
+
+    // Remove POIs com coordenadas repetidas e aplica o limite final.
+    // Índice em grelha: cada POI só é comparado com os das células vizinhas.
+    private List<POI> deduplicatePOIs(List<POI> result) {
+        SpatialGridIndex<POI> index = SpatialGridIndex.forPois(DUPLICATE_COORD_THRESHOLD_DEG);
+        List<POI> unique = new ArrayList<>();
+        for (POI poi : result) {
+            if (index.addIfAbsent(poi)) {
+                unique.add(poi);
+                if (unique.size() == maxUniquePois) {
+                    break; // limite final atingido
+                }
             }
+        }
 
-            Point p = selectedCheckpoints.get(i);
+        System.out
+                .println("[POI Search] Total de POIs únicos: " + unique.size() + " (de " + result.size() + " brutos)");
+        return unique;
+    }
 
-            System.out.println(String.format(
-                    "[POI Search] Segmento %d/%d (lat=%.4f, lon=%.4f)",
-                    i + 1, checkpoints, p.getLatitude(), p.getLongitude()));
+    /**
+     * Pesquisa POIs com um pedido Overpass por checkpoint, executados em
+     * paralelo no executor limitado; o limitador de taxa substitui a pausa fixa
+     * entre pedidos.
+     *
+     * @param checkpoints   checkpoints da rota, pela ordem do percurso
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param deadlineNanos instante limite da pesquisa ({@link System#nanoTime()})
+     * @return POIs encontrados, pela ordem da rota (resultados parciais se o
+     *         prazo expirar)
+     */
+    private List<POI> searchPOIsPerCheckpoint(List<Point> checkpoints, String tag, long deadlineNanos) {
+        int total = checkpoints.size();
+        List<Callable<List<POI>>> tasks = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            int segment = i + 1;
+            Point p = checkpoints.get(i);
+            tasks.add(() -> searchPOIsAroundCheckpoint(p, tag, segment, total, deadlineNanos));
+        }
 
+        List<Future<List<POI>>> futures;
+        try {
+            // invokeAll cancela (interrompe) os pedidos que não terminem dentro do prazo
+            long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+            futures = apiExecutor.invokeAll(tasks, remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+
+        // Recolher resultados parciais pela ordem da rota
+        List<POI> result = new ArrayList<>();
+        int timedOut = 0;
+        for (Future<List<POI>> future : futures) {
             try {
-                // Delay para rate limit
-                if (i > 0) {
-                    Thread.sleep(OVERPASS_RATE_LIMIT_SLEEP_MS);
-                }
+                result.addAll(future.get());
+            } catch (CancellationException e) {
+                timedOut++;
+            } catch (ExecutionException e) {
+                System.out.println("[POI Search] Erro inesperado: " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (timedOut > 0) {
+            System.out.println(String.format(
+                    "[POI Search] Timeout %.1fs. Segmentos cancelados: %d. POIs coletados: %d",
+                    poiSearchTimeout.toMillis() / 1000.0, timedOut, result.size()));
+        }
+        return result;
+    }
 
-                // Usar raio grande desde início para áreas rurais
-                // Limite de 2 POIs garante distribuição mesmo em áreas urbanas
-                int searchRadius = OVERPASS_SEARCH_RADIUS_M; // raio grande para cobrir áreas rurais
+    /**
+     * Pesquisa POIs em todo o corredor da rota com um único pedido Overpass
+     * (união de cláusulas {@code around}, uma por checkpoint). Os resultados são
+     * depois repartidos localmente pelo checkpoint mais próximo, mantendo no
+     * máximo {@code poisPerSegment} POIs por segmento, para preservar a
+     * distribuição ao longo da rota.
+     *
+     * @param checkpoints   checkpoints da rota, pela ordem do percurso
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param deadlineNanos instante limite da pesquisa ({@link System#nanoTime()})
+     * @return POIs pela ordem da rota, ou {@code null} se a Overpass rejeitar o
+     *         pedido (o chamador pode então recorrer a pedidos por checkpoint)
+     */
+    private List<POI> searchPOIsInCorridor(List<Point> checkpoints, String tag, long deadlineNanos) {
+        String ql = buildCorridorQuery(checkpoints, tag);
 
-                String ql = String.format(Locale.US, """
-                        [out:json][timeout:%d];
-                            node[%s](around:%d,%f,%f);
-                            out body 2;
-                        """, OVERPASS_QUERY_TIMEOUT_S, tag, searchRadius, p.getLatitude(), p.getLongitude());
+        Future<String> request = apiExecutor.submit(() -> {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (!overpassRateLimiter.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+            return overpassClient.postOverpass(ql);
+        });
 
-                String json = overpassClient.postOverpass(ql);
+        String json;
+        try {
+            json = request.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            request.cancel(true);
+            System.out.println(String.format("[POI Search] Timeout %.1fs no pedido do corredor",
+                    poiSearchTimeout.toMillis() / 1000.0));
+            return List.of();
+        } catch (InterruptedException e) {
+            request.cancel(true);
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException e) {
+            System.out.println("[POI Search] Corredor - erro: " + e.getCause().getClass().getSimpleName()
+                    + ", a recorrer a pedidos por segmento");
+            return null;
+        }
 
-                if (json != null && !json.trim().isEmpty() && !json.contains("error") && !json.contains("<")) {
-                    List<POI> chunkPois = parseOverpassPOIs(json);
+        return parseCorridorResponse(json, checkpoints);
+    }
 
-                    if (!chunkPois.isEmpty()) {
-                        int total = result.size() + chunkPois.size();
-                        System.out.println(String.format(
-                                "[POI Search] Segmento %d - ✓ %d POIs | Total: %d",
-                                i + 1, chunkPois.size(), total));
-                        result.addAll(chunkPois);
-                    } else {
-                        System.out.println(String.format("[POI Search] Segmento %d - 0 POIs", i + 1));
+    /**
+     * Versão assíncrona de {@link #searchPOIsInCorridor(List, String, long)}.
+     *
+     * @param checkpoints   checkpoints da rota, pela ordem do percurso
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param deadlineNanos instante limite da pesquisa ({@link System#nanoTime()})
+     * @return futuro com os POIs pela ordem da rota, ou com {@code null} se a
+     *         Overpass rejeitar o pedido
+     */
+    private CompletableFuture<List<POI>> searchPOIsInCorridorAsync(List<Point> checkpoints, String tag,
+            long deadlineNanos) {
+        String ql = buildCorridorQuery(checkpoints, tag);
+        long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+
+        return overpassRateLimiter.tryAcquireAsync(remaining, TimeUnit.NANOSECONDS)
+                .thenCompose(acquired -> acquired
+                        ? overpassClient.postOverpassAsync(ql)
+                        : CompletableFuture.<String>completedFuture(null))
+                .orTimeout(remaining, TimeUnit.NANOSECONDS)
+                .handle((json, error) -> {
+                    if (error == null) {
+                        return parseCorridorResponse(json, checkpoints);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        System.out.println(String.format("[POI Search] Timeout %.1fs no pedido do corredor",
+                                poiSearchTimeout.toMillis() / 1000.0));
+                        return List.of();
                     }
-                } else {
-                    System.out.println("[POI Search] Segmento " + (i + 1) + " - resposta inválida");
+                    System.out.println("[POI Search] Corredor - erro: " + cause.getClass().getSimpleName()
+                            + ", a recorrer a pedidos por segmento");
+                    return null;
+                });
+    }
+
+    // União de cláusulas around (uma por checkpoint) num único pedido
+    private String buildCorridorQuery(List<Point> checkpoints, String tag) {
+        int maxElements = Math.max(OVERPASS_CORRIDOR_MAX_ELEMENTS, poisPerSegment * checkpoints.size());
+        StringBuilder ql = new StringBuilder(64 + checkpoints.size() * 64);
+        ql.append(String.format(Locale.US, "[out:json][timeout:%d];%n(%n", OVERPASS_CORRIDOR_TIMEOUT_S));
+        for (Point p : checkpoints) {
+            ql.append(String.format(Locale.US, "  node[%s](around:%d,%f,%f);%n",
+                    tag, OVERPASS_SEARCH_RADIUS_M, p.getLatitude(), p.getLongitude()));
+        }
+        ql.append(String.format(Locale.US, ");%nout body %d;%n", maxElements));
+        return ql.toString();
+    }
+
+    /**
+     * Interpreta a resposta do pedido do corredor e reparte os POIs por
+     * segmento.
+     *
+     * @param json        resposta da Overpass ({@code null} se não houve tempo
+     *                    para o pedido)
+     * @param checkpoints checkpoints da rota, pela ordem do percurso
+     * @return POIs pela ordem da rota, ou {@code null} se a resposta for inválida
+     */
+    private List<POI> parseCorridorResponse(String json, List<Point> checkpoints) {
+        if (json == null) {
+            System.out.println("[POI Search] Corredor - sem tempo para pedido");
+            return List.of();
+        }
+        if (json.trim().isEmpty() || json.contains("error") || json.contains("<")) {
+            System.out.println("[POI Search] Corredor - resposta inválida, a recorrer a pedidos por segmento");
+            return null;
+        }
+
+        List<POI> pois;
+        try {
+            pois = parseOverpassPOIs(json);
+        } catch (RuntimeException e) {
+            System.out.println("[POI Search] Corredor - erro JSON, a recorrer a pedidos por segmento");
+            return null;
+        }
+
+        List<POI> bucketed = bucketBySegment(pois, checkpoints, poisPerSegment);
+        System.out.println(String.format("[POI Search] Corredor - %d POIs brutos, %d após repartição por segmento",
+                pois.size(), bucketed.size()));
+        return bucketed;
+    }
+
+    /**
+     * Reparte POIs pelo checkpoint mais próximo e mantém, em cada segmento, os
+     * {@code perSegment} POIs mais próximos do respetivo checkpoint.
+     *
+     * @param pois        POIs a repartir
+     * @param checkpoints checkpoints da rota, pela ordem do percurso
+     * @param perSegment  número máximo de POIs por segmento
+     * @return POIs selecionados, agrupados pela ordem dos segmentos
+     */
+    private static List<POI> bucketBySegment(List<POI> pois, List<Point> checkpoints, int perSegment) {
+        int segments = checkpoints.size();
+        List<List<POI>> buckets = new ArrayList<>(segments);
+        List<List<Double>> bucketDistances = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            buckets.add(new ArrayList<>());
+            bucketDistances.add(new ArrayList<>());
+        }
+
+        for (POI poi : pois) {
+            double lat = poi.getCoordinate().getLatitude();
+            double lon = poi.getCoordinate().getLongitude();
+            // Distância equiretangular ao quadrado: suficiente para comparar proximidade
+            double cosLat = Math.cos(Math.toRadians(lat));
+            int best = 0;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < segments; i++) {
+                Point c = checkpoints.get(i);
+                double dLat = lat - c.getLatitude();
+                double dLon = (lon - c.getLongitude()) * cosLat;
+                double dist = dLat * dLat + dLon * dLon;
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = i;
                 }
+            }
 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (com.google.gson.JsonSyntaxException e) {
-                System.out.println("[POI Search] Segmento " + (i + 1) + " - erro JSON, pulando");
-            } catch (Exception e) {
-                System.out.println("[POI Search] Segmento " + (i + 1) + " - erro: " + e.getClass().getSimpleName());
+            // Inserção ordenada, mantendo apenas os mais próximos
+            List<POI> bucket = buckets.get(best);
+            List<Double> distances = bucketDistances.get(best);
+            int pos = 0;
+            while (pos < distances.size() && distances.get(pos) <= bestDist) {
+                pos++;
+            }
+            if (pos < perSegment) {
+                bucket.add(pos, poi);
+                distances.add(pos, bestDist);
+                if (bucket.size() > perSegment) {
+                    bucket.remove(perSegment);
+                    distances.remove(perSegment);
+                }
             }
         }
 
-        // Remover duplicados (coordenadas iguais)
-        List<POI> unique = new ArrayList<>();
-        for (POI poi : result) {
-            boolean exists = unique.stream().anyMatch(
-                    x -> Math
-                            .abs(x.getCoordinate().getLatitude()
-                                    - poi.getCoordinate().getLatitude()) < DUPLICATE_COORD_THRESHOLD_DEG
-                            &&
-                            Math.abs(x.getCoordinate().getLongitude()
-                                    - poi.getCoordinate().getLongitude()) < DUPLICATE_COORD_THRESHOLD_DEG);
-            if (!exists) {
-                unique.add(poi);
-            }
+        List<POI> result = new ArrayList<>();
+        for (List<POI> bucket : buckets) {
+            result.addAll(bucket);
         }
+        return result;
+    }
 
-        // Aplicar limite final
-        System.out
-                .println("[POI Search] Total de POIs únicos: " + unique.size() + " (de " + result.size() + " brutos)");
-        if (unique.size() > MAX_UNIQUE_POIS) {
-            return unique.subList(0, MAX_UNIQUE_POIS);
+    /**
+     * Consulta a Overpass em torno de um checkpoint da rota, respeitando o
+     * limitador de taxa e o prazo global da pesquisa.
+     *
+     * @param p             checkpoint (centro da pesquisa)
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param segment       número do segmento (1..total), para registo
+     * @param total         número total de segmentos
+     * @param deadlineNanos instante limite ({@link System#nanoTime()})
+     * @return POIs encontrados (vazia em caso de erro ou prazo esgotado)
+     * @throws InterruptedException se o pedido for cancelado
+     */
+    private List<POI> searchPOIsAroundCheckpoint(Point p, String tag, int segment, int total, long deadlineNanos)
+            throws InterruptedException {
+        System.out.println(String.format(
+                "[POI Search] Segmento %d/%d (lat=%.4f, lon=%.4f)",
+                segment, total, p.getLatitude(), p.getLongitude()));
+
+        // Não vale a pena esperar por uma ficha que só chegaria depois do prazo
+        long remaining = deadlineNanos - System.nanoTime();
+        if (!overpassRateLimiter.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+            System.out.println("[POI Search] Segmento " + segment + " - sem tempo para pedido");
+            return List.of();
         }
 
-        return unique;
+        try {
+            String json = overpassClient.postOverpass(buildCheckpointQuery(p, tag));
+            return parseCheckpointResponse(json, segment);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            System.out.println("[POI Search] Segmento " + segment + " - erro: " + e.getClass().getSimpleName());
+        }
+        return List.of();
+    }
+
+    /**
+     * Versão assíncrona de
+     * {@link #searchPOIsAroundCheckpoint(Point, String, int, int, long)}; um
+     * pedido que ultrapasse o prazo conta como vazio, sem afetar os restantes.
+     *
+     * @param p             checkpoint (centro da pesquisa)
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param segment       número do segmento (1..total), para registo
+     * @param total         número total de segmentos
+     * @param deadlineNanos instante limite ({@link System#nanoTime()})
+     * @return futuro com os POIs encontrados (vazio em caso de erro ou prazo)
+     */
+    private CompletableFuture<List<POI>> searchPOIsAroundCheckpointAsync(Point p, String tag, int segment,
+            int total, long deadlineNanos) {
+        System.out.println(String.format(
+                "[POI Search] Segmento %d/%d (lat=%.4f, lon=%.4f)",
+                segment, total, p.getLatitude(), p.getLongitude()));
+
+        long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+        return overpassRateLimiter.tryAcquireAsync(remaining, TimeUnit.NANOSECONDS)
+                .thenCompose(acquired -> {
+                    if (!acquired) {
+                        System.out.println("[POI Search] Segmento " + segment + " - sem tempo para pedido");
+                        return CompletableFuture.completedFuture(List.<POI>of());
+                    }
+                    return overpassClient.postOverpassAsync(buildCheckpointQuery(p, tag))
+                            .thenApply(json -> parseCheckpointResponse(json, segment));
+                })
+                .orTimeout(remaining, TimeUnit.NANOSECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof TimeoutException) {
+                        System.out.println("[POI Search] Segmento " + segment + " - cancelado por timeout");
+                    } else {
+                        System.out.println("[POI Search] Segmento " + segment + " - erro: "
+                                + cause.getClass().getSimpleName());
+                    }
+                    return List.of();
+                });
+    }
+
+    /**
+     * Versão assíncrona de {@link #searchPOIsPerCheckpoint(List, String, long)}:
+     * todos os pedidos ficam em curso ao mesmo tempo (sujeitos ao limitador).
+     *
+     * @param checkpoints   checkpoints da rota, pela ordem do percurso
+     * @param tag           filtro Overpass (ex.: {@code amenity=cafe})
+     * @param deadlineNanos instante limite da pesquisa ({@link System#nanoTime()})
+     * @return futuro com os POIs pela ordem da rota
+     */
+    private CompletableFuture<List<POI>> searchPOIsPerCheckpointAsync(List<Point> checkpoints, String tag,
+            long deadlineNanos) {
+        int total = checkpoints.size();
+        List<CompletableFuture<List<POI>>> futures = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            futures.add(searchPOIsAroundCheckpointAsync(checkpoints.get(i), tag, i + 1, total, deadlineNanos));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<POI> result = new ArrayList<>();
+            for (CompletableFuture<List<POI>> future : futures) {
+                result.addAll(future.join());
+            }
+            return result;
+        });
+    }
+
+    // Pedido em torno de um checkpoint: raio grande desde início para áreas rurais;
+    // o limite de POIs por segmento garante distribuição mesmo em áreas urbanas
+    private String buildCheckpointQuery(Point p, String tag) {
+        return String.format(Locale.US, """
+                [out:json][timeout:%d];
+                    node[%s](around:%d,%f,%f);
+                    out body %d;
+                """, OVERPASS_QUERY_TIMEOUT_S, tag, OVERPASS_SEARCH_RADIUS_M, p.getLatitude(), p.getLongitude(),
+                poisPerSegment);
+    }
+
+    // Valida e converte a resposta de um checkpoint (vazia se inválida)
+    private List<POI> parseCheckpointResponse(String json, int segment) {
+        if (json != null && !json.trim().isEmpty() && !json.contains("error") && !json.contains("<")) {
+            try {
+                List<POI> chunkPois = parseOverpassPOIs(json);
+                System.out.println(String.format("[POI Search] Segmento %d - %d POIs", segment, chunkPois.size()));
+                return chunkPois;
+            } catch (com.google.gson.JsonSyntaxException e) {
+                System.out.println("[POI Search] Segmento " + segment + " - erro JSON, pulando");
+                return List.of();
+            } catch (RuntimeException e) {
+                System.out.println("[POI Search] Segmento " + segment + " - erro: " + e.getClass().getSimpleName());
+                return List.of();
+            }
+        }
+        System.out.println("[POI Search] Segmento " + segment + " - resposta inválida");
+        return List.of();
     }
 
     /**
@@ -327,22 +885,43 @@ public class Service {
     public Point getGeocodeFromLocationString(String query) {
         try {
             String json = nominatimClient.searchJson(query);
-            JsonArray array = JsonParser.parseString(json).getAsJsonArray();
-            if (array.isEmpty()) {
-                return null;
-            }
-
-            JsonElement first = array.get(0);
-            double lat = first.getAsJsonObject().get("lat").getAsDouble();
-            double lon = first.getAsJsonObject().get("lon").getAsDouble();
-            String displayName = first.getAsJsonObject().get("display_name").getAsString();
-            return new Point(lat, lon, displayName);
+            return parseFirstLocation(json);
         } catch (Exception e) {
             System.err.println("[GeocodingService] Erro a parsear Nominatim: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Versão assíncrona de {@link #getGeocodeFromLocationString(String)}.
+     *
+     * @param query texto a geocodificar (endereço ou local)
+     * @return futuro com o ponto correspondente, ou com {@code null} se não
+     *         houver resultados ou ocorrer um erro
+     */
+    public CompletableFuture<Point> getGeocodeFromLocationStringAsync(String query) {
+        return nominatimClient.searchJsonAsync(query)
+                .thenApply(this::parseFirstLocation)
+                .exceptionally(e -> {
+                    System.err.println("[GeocodingService] Erro a parsear Nominatim: " + unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    // Primeiro resultado do Nominatim como Point (null se não houver resultados)
+    private Point parseFirstLocation(String json) {
+        JsonArray array = JsonParser.parseString(json).getAsJsonArray();
+        if (array.isEmpty()) {
+            return null;
+        }
+
+        JsonElement first = array.get(0);
+        double lat = first.getAsJsonObject().get("lat").getAsDouble();
+        double lon = first.getAsJsonObject().get("lon").getAsDouble();
+        String displayName = first.getAsJsonObject().get("display_name").getAsString();
+        return new Point(lat, lon, displayName);
+    }
+
     /**
      * Pesquisa várias localizações pelo texto fornecido usando Nominatim.
      *
@@ -353,14 +932,7 @@ public class Service {
         List<Point> results = new ArrayList<>();
         try {
             String json = nominatimClient.searchJson(query);
-            JsonArray array = JsonParser.parseString(json).getAsJsonArray();
-            for (JsonElement el : array) {
-                JsonObject obj = el.getAsJsonObject();
-                double lat = obj.get("lat").getAsDouble();
-                double lon = obj.get("lon").getAsDouble();
-                String displayName = obj.get("display_name").getAsString();
-                results.add(new Point(lat, lon, displayName));
-            }
+            parseLocationsInto(json, results);
         } catch (Exception e) {
             System.err.println("[GeocodingService] Erro a pesquisar Nominatim: " + e.getMessage());
         }
@@ -368,117 +940,334 @@ public class Service {
     }
 
     /**
-     * Obtém uma rota com pontos intermédios (waypoints) usando a OSRM.
+     * Versão assíncrona de {@link #searchLocations(String)}.
+     *
+     * @param query termo de pesquisa
+     * @return futuro com os pontos encontrados (pode estar vazia)
+     */
+    public CompletableFuture<List<Point>> searchLocationsAsync(String query) {
+        List<Point> results = new ArrayList<>();
+        return nominatimClient.searchJsonAsync(query)
+                .thenApply(json -> {
+                    parseLocationsInto(json, results);
+                    return results;
+                })
+                .exceptionally(e -> {
+                    System.err.println("[GeocodingService] Erro a pesquisar Nominatim: " + unwrap(e).getMessage());
+                    return results;
+                });
+    }
+
+    // Acrescenta os resultados do Nominatim a results (parciais em caso de erro)
+    private static void parseLocationsInto(String json, List<Point> results) {
+        JsonArray array = JsonParser.parseString(json).getAsJsonArray();
+        for (JsonElement el : array) {
+            JsonObject obj = el.getAsJsonObject();
+            double lat = obj.get("lat").getAsDouble();
+            double lon = obj.get("lon").getAsDouble();
+            String displayName = obj.get("display_name").getAsString();
+            results.add(new Point(lat, lon, displayName));
+        }
+    }
+
+    /**
+     * Obtém uma rota com pontos intermédios (waypoints) através do motor de
+     * rotas configurado (OSRM por omissão).
      *
      * @param originPoint    ponto de origem
      * @param waypointPoints lista de waypoints (na ordem de passagem)
      * @param mode           modo de transporte
-     * @return {@link Route} construída a partir da resposta OSRM, ou {@code null}
+     * @return {@link Route} calculada, ou {@code null}
      *         em caso de erro
      */
     public Route getRouteWithWaypoints(Point originPoint, List<Point> waypointPoints, TransportMode mode) {
         try {
-            // Pergunta à OSRM por uma rota completa com múltiplas paragens
-            String routeJson = osrmClient.getRouteJsonWithWaypoints(originPoint, waypointPoints, mode);
+            // Rota completa com múltiplas paragens (OSRM ou grafo local)
+            return routingBackend.getRouteWithWaypoints(originPoint, waypointPoints, mode);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            JsonObject root = JsonParser.parseString(routeJson).getAsJsonObject();
-            if (!root.has("routes")) {
-                System.err.println("[RouteService] JSON sem 'routes'");
-                return null;
-            }
+    /**
+     * Versão assíncrona de
+     * {@link #getRouteWithWaypoints(Point, List, TransportMode)}.
+     *
+     * @param originPoint    ponto de origem
+     * @param waypointPoints lista de waypoints (na ordem de passagem)
+     * @param mode           modo de transporte
+     * @return futuro com a {@link Route}, ou com {@code null} em caso de erro;
+     *         cancelá-lo cancela o pedido ao motor de rotas
+     */
+    public CompletableFuture<Route> getRouteWithWaypointsAsync(Point originPoint, List<Point> waypointPoints,
+            TransportMode mode) {
+        CompletableFuture<Route> route =
+                routingBackend.getRouteWithWaypointsAsync(originPoint, waypointPoints, mode);
+        return Futures.propagateCancel(route.exceptionally(e -> {
+            System.err.println("[RouteService] Erro ao obter rota: " + unwrap(e).getMessage());
+            return null;
+        }), route);
+    }
 
-            JsonArray routes = root.getAsJsonArray("routes");
-            if (routes.size() == 0) {
-                System.err.println("[RouteService] Nenhuma rota encontrada");
-                return null;
-            }
+    /**
+     * Calcula as distâncias e durações de todas as origens para todos os
+     * destinos com o motor de rotas configurado. Com a OSRM usa o serviço
+     * {@code /table}, dividindo matrizes grandes em vários pedidos paralelos;
+     * substitui {@code N x M} chamadas a {@link #getRoute}.
+     *
+     * @param sources origens (linhas da matriz)
+     * @param targets destinos (colunas da matriz)
+     * @param mode    modo de transporte
+     * @return matriz de distâncias (km) e durações (s), ou {@code null} em caso
+     *         de erro
+     */
+    public DistanceMatrix getDistanceMatrix(List<Point> sources, List<Point> targets, TransportMode mode) {
+        try {
+            return routingBackend.getDistanceMatrix(sources, targets, mode);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("[RouteService] Erro ao obter matriz de distâncias: " + e.getMessage());
+            return null;
+        }
+    }
 
-            JsonObject firstRoute = routes.get(0).getAsJsonObject();
-            double distanceKm = firstRoute.get("distance").getAsDouble() / 1000.0;
-            long durationSec = Math.round(firstRoute.get("duration").getAsDouble());
+    /**
+     * Versão assíncrona de
+     * {@link #getDistanceMatrix(List, List, TransportMode)}.
+     *
+     * @param sources origens (linhas da matriz)
+     * @param targets destinos (colunas da matriz)
+     * @param mode    modo de transporte
+     * @return futuro com a matriz, ou com {@code null} em caso de erro
+     */
+    public CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> sources, List<Point> targets,
+            TransportMode mode) {
+        return routingBackend.getDistanceMatrixAsync(sources, targets, mode)
+                .exceptionally(e -> {
+                    System.err.println("[RouteService] Erro ao obter matriz de distâncias: "
+                            + unwrap(e).getMessage());
+                    return null;
+                });
+    }
 
-            List<Point> path = new ArrayList<>();
-            JsonArray coordsArray = firstRoute
-                    .getAsJsonObject("geometry")
-                    .getAsJsonArray("coordinates");
+    /**
+     * Calcula a matriz quadrada de distâncias e durações entre todos os
+     * pontos. Com a OSRM cada ponto é enviado uma só vez por pedido (sem
+     * {@code sources} nem {@code destinations}), o que reduz o número de
+     * pedidos em relação a {@code getDistanceMatrix(points, points, mode)}.
+     *
+     * @param points pontos (linhas e colunas da matriz, pela mesma ordem)
+     * @param mode   modo de transporte
+     * @return matriz de distâncias (km) e durações (s), ou {@code null} em caso
+     *         de erro
+     */
+    public DistanceMatrix getDistanceMatrix(List<Point> points, TransportMode mode) {
+        try {
+            return routingBackend.getDistanceMatrix(points, mode);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("[RouteService] Erro ao obter matriz de distâncias: " + e.getMessage());
+            return null;
+        }
+    }
 
-            for (JsonElement el : coordsArray) {
-                JsonArray coord = el.getAsJsonArray();
-                double lon = coord.get(0).getAsDouble();
-                double lat = coord.get(1).getAsDouble();
-                path.add(new Point(lat, lon, null));
-            }
+    /**
+     * Versão assíncrona de {@link #getDistanceMatrix(List, TransportMode)}.
+     *
+     * @param points pontos (linhas e colunas da matriz, pela mesma ordem)
+     * @param mode   modo de transporte
+     * @return futuro com a matriz, ou com {@code null} em caso de erro
+     */
+    public CompletableFuture<DistanceMatrix> getDistanceMatrixAsync(List<Point> points, TransportMode mode) {
+        return routingBackend.getDistanceMatrixAsync(points, mode)
+                .exceptionally(e -> {
+                    System.err.println("[RouteService] Erro ao obter matriz de distâncias: "
+                            + unwrap(e).getMessage());
+                    return null;
+                });
+    }
 
-            return new Route(path, distanceKm, durationSec, mode, new ArrayList<>());
+    /**
+     * Reordena as paragens para minimizar o tempo total de viagem, com a
+     * matriz quadrada de durações do motor de rotas (um único pedido
+     * {@code /table} com a OSRM até 99 paragens). Se a matriz falhar, usa
+     * distâncias em linha reta.
+     *
+     * @param origin    ponto de partida (fica sempre em primeiro lugar)
+     * @param waypoints paragens pela ordem atual
+     * @param mode      modo de transporte
+     * @param type      percurso de ida e volta, aberto ou com o último ponto
+     *                  como destino fixo
+     * @return nova lista com as mesmas paragens pela ordem otimizada (sem a
+     *         origem)
+     */
+    public List<Point> optimizeWaypointOrder(Point origin, List<Point> waypoints, TransportMode mode,
+            WaypointOptimizer.TourType type) {
+        if (waypoints.size() < 2) {
+            return new ArrayList<>(waypoints);
+        }
+        List<Point> all = withOrigin(origin, waypoints);
+        return reorderWaypoints(all, getDistanceMatrix(all, mode), type);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Versão assíncrona de
+     * {@link #optimizeWaypointOrder(Point, List, TransportMode, WaypointOptimizer.TourType)}.
+     * A otimização corre no pool comum quando a matriz chega.
+     *
+     * @param origin    ponto de partida
+     * @param waypoints paragens pela ordem atual
+     * @param mode      modo de transporte
+     * @param type      forma do percurso
+     * @return futuro com as paragens pela ordem otimizada
+     */
+    public CompletableFuture<List<Point>> optimizeWaypointOrderAsync(Point origin, List<Point> waypoints,
+            TransportMode mode, WaypointOptimizer.TourType type) {
+        if (waypoints.size() < 2) {
+            return CompletableFuture.completedFuture(new ArrayList<>(waypoints));
         }
+        List<Point> all = withOrigin(origin, waypoints);
+        return getDistanceMatrixAsync(all, mode)
+                .thenApplyAsync(matrix -> reorderWaypoints(all, matrix, type));
     }
 
-    // Calcular distância em km entre dois pontos usando fórmula de Haversine
-    private double calculateDistance(Point p1, Point p2) {
-        final double r = 6371.0; // Raio da Terra em km
+    private static List<Point> withOrigin(Point origin, List<Point> waypoints) {
+        List<Point> all = new ArrayList<>(waypoints.size() + 1);
+        all.add(origin);
+        all.addAll(waypoints);
+        return all;
+    }
 
-        double lat1 = Math.toRadians(p1.getLatitude());
-        double lat2 = Math.toRadians(p2.getLatitude());
-        double dLat = Math.toRadians(p2.getLatitude() - p1.getLatitude());
-        double dLon = Math.toRadians(p2.getLongitude() - p1.getLongitude());
+    // all = origem + paragens; matrix pode ser null (usa distâncias em linha reta)
+    private List<Point> reorderWaypoints(List<Point> all, DistanceMatrix matrix, WaypointOptimizer.TourType type) {
+        int n = all.size();
+        double[][] cost = new double[n][n];
+        if (matrix != null) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    cost[i][j] = matrix.isReachable(i, j) ? matrix.getDurationSec(i, j) : UNREACHABLE_LEG_COST;
+                }
+            }
+        } else {
+            System.err.println("[RouteService] Matriz indisponível, a otimizar por distância em linha reta");
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    cost[i][j] = calculateDistance(all.get(i), all.get(j));
+                }
+            }
+        }
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        int[] current = new int[n - 1];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = i + 1;
+        }
+        int[] order = new WaypointOptimizer(Duration.ofMillis(WAYPOINT_OPTIMIZATION_BUDGET_MS)).optimize(cost, type);
+        System.out.println(String.format(Locale.US, "[RouteService] Ordem otimizada: custo %.1f -> %.1f",
+                WaypointOptimizer.tourCost(cost, current, type), WaypointOptimizer.tourCost(cost, order, type)));
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        List<Point> result = new ArrayList<>(order.length);
+        for (int index : order) {
+            result.add(all.get(index));
+        }
+        return result;
+    }
 
-        return r * c;
+    // Distância em km entre dois pontos (fórmula de Haversine)
+    private double calculateDistance(Point p1, Point p2) {
+        return GeoMath.haversineKm(p1.getLatitude(), p1.getLongitude(), p2.getLatitude(), p2.getLongitude());
     }
 
     /**
      * Obtém o perfil de elevação para uma rota.
-     * Amostra pontos ao longo da rota para não sobrecarregar a API.
+     * Reamostra a rota a intervalos iguais de distância (no máximo
+     * {@value #MAX_ELEVATION_SAMPLES} pontos, a pelo menos
+     * {@value #MIN_ELEVATION_SPACING_M} m uns dos outros) e consulta-os no
+     * {@link ElevationProvider} configurado (Open-Elevation em lotes
+     * paralelos, ou tiles SRTM locais). Pontos sem dados ficam com a elevação
+     * do ponto vizinho mais próximo que os tenha. Ver também
+     * {@link #setAdaptiveElevationSampling(boolean)}.
      *
      * @param route rota para a qual obter o perfil de elevação
      * @return perfil de elevação ou {@code null} em caso de erro
      */
     public ElevationProfile getElevationProfile(Route route) {
-        if (route == null || route.getRoutePoints().isEmpty()) {
+        if (route == null || route.getPointCount() == 0) {
             return null;
         }
 
-        List<Point> points = route.getRoutePoints();
-
-        // Amostrar pontos (máximo configurado para não sobrecarregar API)
-        int sampleRate = Math.max(1, points.size() / MAX_ELEVATION_SAMPLES);
-        List<Point> sampledPoints = new ArrayList<>();
-        for (int i = 0; i < points.size(); i += sampleRate) {
-            sampledPoints.add(points.get(i));
-        }
-        // Garantir que o último ponto está incluído
-        if (!sampledPoints.contains(points.get(points.size() - 1))) {
-            sampledPoints.add(points.get(points.size() - 1));
-        }
-
-        // Construir string de localizações para a API
-        StringBuilder locations = new StringBuilder();
-        for (int i = 0; i < sampledPoints.size(); i++) {
-            Point p = sampledPoints.get(i);
-            locations.append(p.getLatitude()).append(",").append(p.getLongitude());
-            if (i < sampledPoints.size() - 1) {
-                locations.append("|");
-            }
-        }
-
+        RouteGeometry geometry = route.getGeometry();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, initialElevationSamples(),
+                MIN_ELEVATION_SPACING_M);
         try {
-            String json = elevationClient.getElevations(locations.toString());
-            return parseElevationProfile(json, sampledPoints);
+            double[] elevations = elevationProvider.getElevations(samples.asPointList());
+            if (adaptiveElevationSampling) {
+                RouteResampler.Refinement refinement = refineElevationSamples(geometry, cumulative, samples,
+                        elevations);
+                if (refinement.added().length > 0) {
+                    double[] extra = elevationProvider.getElevations(refinement.addedPoints());
+                    elevations = refinement.merge(elevations, extra);
+                    samples = refinement.samples();
+                }
+            }
+            return buildElevationProfile(elevations, samples.distances());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
             System.err.println("[Elevation] Erro ao obter elevações: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Versão assíncrona de {@link #getElevationProfile(Route)}.
+     *
+     * @param route rota para a qual obter o perfil de elevação
+     * @return futuro com o perfil, ou com {@code null} em caso de erro
+     */
+    public CompletableFuture<ElevationProfile> getElevationProfileAsync(Route route) {
+        if (route == null || route.getPointCount() == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        RouteGeometry geometry = route.getGeometry();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, initialElevationSamples(),
+                MIN_ELEVATION_SPACING_M);
+        boolean adaptive = adaptiveElevationSampling;
+        return elevationProvider.getElevationsAsync(samples.asPointList())
+                .thenCompose(elevations -> {
+                    if (!adaptive) {
+                        return CompletableFuture.completedFuture(buildElevationProfile(elevations,
+                                samples.distances()));
+                    }
+                    RouteResampler.Refinement refinement = refineElevationSamples(geometry, cumulative, samples,
+                            elevations);
+                    if (refinement.added().length == 0) {
+                        return CompletableFuture.completedFuture(buildElevationProfile(elevations,
+                                samples.distances()));
+                    }
+                    return elevationProvider.getElevationsAsync(refinement.addedPoints())
+                            .thenApply(extra -> buildElevationProfile(refinement.merge(elevations, extra),
+                                    refinement.samples().distances()));
+                })
+                .exceptionally(e -> {
+                    System.err.println("[Elevation] Erro ao obter elevações: " + unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    // No modo adaptativo, metade das amostras fica reservada para o refinamento
+    private int initialElevationSamples() {
+        return adaptiveElevationSampling ? MAX_ELEVATION_SAMPLES / 2 : MAX_ELEVATION_SAMPLES;
+    }
+
+    private static RouteResampler.Refinement refineElevationSamples(RouteGeometry geometry, double[] cumulative,
+            RouteResampler.Samples samples, double[] elevations) {
+        return RouteResampler.refine(geometry, cumulative, samples, elevations, ELEVATION_REFINE_GRADE_CHANGE,
+                MAX_ELEVATION_SAMPLES - samples.size(), MIN_ELEVATION_SPACING_M);
+    }
+
     /**
      * Converte a resposta JSON da Open-Elevation em {@link ElevationProfile}
      * calculando também as distâncias acumuladas entre pontos amostrados.
@@ -488,27 +1277,44 @@ public class Service {
      * @return perfil de elevação com métricas agregadas
      */
     private ElevationProfile parseElevationProfile(String json, List<Point> points) {
-        List<Double> elevations = new ArrayList<>();
-        List<Double> distances = new ArrayList<>();
-
-        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-        JsonArray results = root.getAsJsonArray("results");
-
-        double accumulatedDistance = 0.0;
-        distances.add(0.0);
+        return buildElevationProfile(OpenElevationProvider.parseElevations(json),
+                RouteResampler.cumulativeDistances(RouteGeometry.fromPoints(points)));
+    }
 
-        for (int i = 0; i < results.size(); i++) {
-            JsonObject result = results.get(i).getAsJsonObject();
-            double elevation = result.get("elevation").getAsDouble();
-            elevations.add(elevation);
+    /**
+     * Perfil a partir das elevações e das distâncias acumuladas (em metros)
+     * das amostras. Pontos sem dados ({@code NaN}) recebem a elevação do ponto
+     * anterior com dados (ou do seguinte, no início da rota).
+     *
+     * @throws IllegalStateException se nenhum ponto tiver dados
+     */
+    private static ElevationProfile buildElevationProfile(double[] elevations, double[] distancesMeters) {
+        int firstValid = 0;
+        while (firstValid < elevations.length && Double.isNaN(elevations[firstValid])) {
+            firstValid++;
+        }
+        if (elevations.length > 0 && firstValid == elevations.length) {
+            throw new IllegalStateException("Sem dados de elevação para a rota");
+        }
 
-            if (i > 0) {
-                accumulatedDistance += calculateDistance(points.get(i - 1), points.get(i));
-                distances.add(accumulatedDistance);
+        ElevationProfile.Builder profile = ElevationProfile.builder(elevations.length);
+        double last = firstValid < elevations.length ? elevations[firstValid] : Double.NaN;
+        for (int i = 0; i < elevations.length; i++) {
+            if (!Double.isNaN(elevations[i])) {
+                last = elevations[i];
             }
+            profile.add(last, distancesMeters[i] / 1000.0);
         }
-
-        return new ElevationProfile(elevations, distances);
+        return profile.build();
     }
 
-}
\ No newline at end of file
+    // Causa original de uma falha propagada por CompletableFuture
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
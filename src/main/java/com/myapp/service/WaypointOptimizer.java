@@ -0,0 +1,268 @@
+package com.myapp.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Otimização heurística da ordem das paragens (problema do caixeiro-viajante)
+ * a partir de uma matriz de custos.
+ *
+ * Papel na arquitetura MVC:
+ * - Service (Controller): usado por {@link Service#optimizeWaypointOrder} com
+ * as durações de {@code Service.getDistanceMatrix} (ou distâncias em linha
+ * reta, se o motor de rotas falhar).
+ *
+ * Algoritmo:
+ * - Construção pelo vizinho mais próximo a partir da origem.
+ * - Melhoria local até não haver ganhos ou acabar o tempo: 2-opt (inverter um
+ * troço) e Or-opt (mover um troço de 1 a {@value #MAX_SEGMENT} paragens para
+ * outra posição, na mesma ordem ou invertido).
+ *
+ * A matriz pode ser assimétrica (ex.: sentidos únicos): o custo de um troço
+ * invertido é obtido em O(1) com somas prefixas nos dois sentidos. Cada
+ * passagem é O(n²), pelo que 200 paragens convergem em poucos milissegundos.
+ *
+ * Não é thread-safe; criar uma instância por otimização ou por thread.
+ */
+public final class WaypointOptimizer {
+    private static final int MAX_SEGMENT = 3;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Forma do percurso a otimizar. A origem (índice 0 da matriz) é sempre o
+     * ponto de partida.
+     */
+    public enum TourType {
+        /** Regressa à origem no fim. */
+        ROUND_TRIP,
+        /** Termina na paragem que der o percurso mais curto. */
+        OPEN,
+        /** Termina sempre no último índice da matriz (destino fixo). */
+        FIXED_END
+    }
+
+    private final long budgetNanos;
+
+    // Percurso atual: path[0] e path[length - 1] são fixos
+    private double[][] cost;
+    private int[] path;
+    private int length;
+    private double[] forward;
+    private double[] backward;
+    private long deadline;
+
+    /**
+     * Cria um otimizador com um limite de tempo para a fase de melhoria.
+     *
+     * @param timeBudget tempo máximo (a construção inicial corre sempre)
+     */
+    public WaypointOptimizer(Duration timeBudget) {
+        this.budgetNanos = timeBudget.toNanos();
+    }
+
+    /**
+     * Calcula uma boa ordem de visita.
+     *
+     * @param costMatrix matriz quadrada {@code [de][para]}; o índice 0 é a
+     *                   origem e os restantes as paragens
+     * @param type       forma do percurso
+     * @return índices das paragens (1 a n-1) pela ordem de visita; com
+     *         {@link TourType#FIXED_END} o último é sempre n-1
+     */
+    public int[] optimize(double[][] costMatrix, TourType type) {
+        int n = costMatrix.length;
+        for (double[] row : costMatrix) {
+            if (row.length != n) {
+                throw new IllegalArgumentException("A matriz de custos tem de ser quadrada");
+            }
+        }
+        if (n <= 2) {
+            return n == 2 ? new int[] { 1 } : new int[0];
+        }
+        deadline = System.nanoTime() + budgetNanos;
+        setUp(costMatrix, type);
+        nearestNeighbour();
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt();
+            improved |= orOpt();
+        }
+
+        int stops = type == TourType.FIXED_END ? length - 1 : length - 2;
+        return Arrays.copyOfRange(path, 1, 1 + stops);
+    }
+
+    /**
+     * Custo total de uma ordem de visita.
+     *
+     * @param costMatrix matriz de custos (índice 0 = origem)
+     * @param order      índices das paragens pela ordem de visita
+     * @param type       forma do percurso
+     * @return soma dos custos das ligações
+     */
+    public static double tourCost(double[][] costMatrix, int[] order, TourType type) {
+        double total = 0.0;
+        int previous = 0;
+        for (int stop : order) {
+            total += costMatrix[previous][stop];
+            previous = stop;
+        }
+        if (type == TourType.ROUND_TRIP) {
+            total += costMatrix[previous][0];
+        }
+        return total;
+    }
+
+    // Reduz os três tipos a um caminho com as duas pontas fixas. No percurso
+    // aberto, a ponta final é um nó fictício com custo 0 a partir de todos.
+    private void setUp(double[][] costMatrix, TourType type) {
+        int n = costMatrix.length;
+        switch (type) {
+            case ROUND_TRIP -> {
+                cost = costMatrix;
+                length = n + 1;
+                path = new int[length];
+                path[length - 1] = 0;
+            }
+            case OPEN -> {
+                cost = new double[n + 1][n + 1];
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(costMatrix[i], 0, cost[i], 0, n);
+                }
+                length = n + 1;
+                path = new int[length];
+                path[length - 1] = n;
+            }
+            case FIXED_END -> {
+                cost = costMatrix;
+                length = n;
+                path = new int[length];
+                path[length - 1] = n - 1;
+            }
+        }
+        path[0] = 0;
+        forward = new double[length];
+        backward = new double[length];
+    }
+
+    private void nearestNeighbour() {
+        int interior = length - 2;
+        int firstStop = 1;
+        int lastStop = firstStop + interior - 1;
+        boolean[] visited = new boolean[cost.length];
+        int current = 0;
+        for (int pos = 1; pos <= interior; pos++) {
+            int best = -1;
+            for (int stop = firstStop; stop <= lastStop; stop++) {
+                if (!visited[stop] && (best < 0 || cost[current][stop] < cost[current][best])) {
+                    best = stop;
+                }
+            }
+            visited[best] = true;
+            path[pos] = best;
+            current = best;
+        }
+    }
+
+    private void prefixSums() {
+        forward[0] = 0.0;
+        backward[0] = 0.0;
+        for (int k = 1; k < length; k++) {
+            forward[k] = forward[k - 1] + cost[path[k - 1]][path[k]];
+            backward[k] = backward[k - 1] + cost[path[k]][path[k - 1]];
+        }
+    }
+
+    // Inverte path[i..j] quando isso encurta o percurso (primeira melhoria)
+    private boolean twoOpt() {
+        boolean improved = false;
+        prefixSums();
+        for (int i = 1; i < length - 2; i++) {
+            if (System.nanoTime() >= deadline) {
+                return improved;
+            }
+            for (int j = i + 1; j < length - 1; j++) {
+                int a = path[i - 1];
+                int b = path[j + 1];
+                double before = cost[a][path[i]] + (forward[j] - forward[i]) + cost[path[j]][b];
+                double after = cost[a][path[j]] + (backward[j] - backward[i]) + cost[path[i]][b];
+                if (after < before - EPSILON) {
+                    reverse(i, j);
+                    prefixSums();
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Move path[s..s+len-1] para entre path[k] e path[k+1], direito ou invertido
+    private boolean orOpt() {
+        boolean improved = false;
+        for (int len = 1; len <= MAX_SEGMENT; len++) {
+            for (int s = 1; s + len - 1 < length - 1; s++) {
+                if (System.nanoTime() >= deadline) {
+                    return improved;
+                }
+                int e = s + len - 1;
+                int first = path[s];
+                int last = path[e];
+                int prev = path[s - 1];
+                int next = path[e + 1];
+                double removeGain = cost[prev][first] + cost[last][next] - cost[prev][next];
+                double inner = 0.0;
+                double innerReversed = 0.0;
+                for (int m = s; m < e; m++) {
+                    inner += cost[path[m]][path[m + 1]];
+                    innerReversed += cost[path[m + 1]][path[m]];
+                }
+
+                for (int k = 0; k < length - 1; k++) {
+                    if (k >= s - 1 && k <= e) {
+                        continue;
+                    }
+                    int x = path[k];
+                    int y = path[k + 1];
+                    double straight = cost[x][first] + cost[last][y] - cost[x][y];
+                    double reversed = cost[x][last] + cost[first][y] - cost[x][y] + innerReversed - inner;
+                    if (straight - removeGain < -EPSILON || reversed - removeGain < -EPSILON) {
+                        moveSegment(s, e, k, reversed < straight);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    private void reverse(int i, int j) {
+        while (i < j) {
+            int tmp = path[i];
+            path[i++] = path[j];
+            path[j--] = tmp;
+        }
+    }
+
+    private void moveSegment(int s, int e, int k, boolean reversed) {
+        int len = e - s + 1;
+        int[] segment = Arrays.copyOfRange(path, s, e + 1);
+        if (reversed) {
+            for (int i = 0; i < len / 2; i++) {
+                int tmp = segment[i];
+                segment[i] = segment[len - 1 - i];
+                segment[len - 1 - i] = tmp;
+            }
+        }
+        if (k > e) {
+            // Desloca path[e+1..k] para trás e insere o troço a seguir
+            System.arraycopy(path, e + 1, path, s, k - e);
+            System.arraycopy(segment, 0, path, k - len + 1, len);
+        } else {
+            // k < s - 1: desloca path[k+1..s-1] para a frente
+            System.arraycopy(path, k + 1, path, k + 1 + len, s - k - 1);
+            System.arraycopy(segment, 0, path, k + 1, len);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.myapp.ui;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * Mede quanto tempo a thread da interface (JavaFX Application Thread) fica
+ * bloqueada.
+ *
+ * Papel na arquitetura MVC:
+ * - View (UI): instrumentação da própria interface; não contém lógica de
+ * negócio nem acede ao Service.
+ *
+ * Funcionamento: uma thread de fundo agenda periodicamente uma tarefa vazia
+ * na thread da UI ("heartbeat") e mede o atraso até ela correr. Com a UI
+ * livre o atraso é de poucos milissegundos; uma chamada de rede síncrona na
+ * thread da UI aparece como um atraso igual à duração da chamada. Nunca há
+ * mais do que um heartbeat pendente, pelo que um bloqueio longo conta uma vez
+ * com a sua duração total.
+ */
+public class FxStallMonitor {
+    private static final long DEFAULT_INTERVAL_MS = 50;
+    private static final long DEFAULT_STALL_THRESHOLD_MS = 100;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Consumer<Runnable> uiExecutor;
+    private final long intervalMillis;
+    private final long stallThresholdNanos;
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    // Atualizados apenas na thread da UI; lidos de qualquer thread.
+    private volatile long samples;
+    private volatile long stallCount;
+    private volatile long maxLagNanos;
+    private volatile long totalBlockedNanos;
+
+    /**
+     * Cria um monitor para a thread da UI do JavaFX com os valores por omissão
+     * (heartbeat a cada 50 ms; bloqueios a partir de 100 ms).
+     *
+     * @return monitor (ainda não iniciado)
+     */
+    public static FxStallMonitor forFxThread() {
+        return new FxStallMonitor(Platform::runLater, Duration.ofMillis(DEFAULT_INTERVAL_MS),
+                Duration.ofMillis(DEFAULT_STALL_THRESHOLD_MS));
+    }
+
+    /**
+     * Cria um monitor para uma thread de UI arbitrária (útil para testes).
+     *
+     * @param uiExecutor     agenda uma tarefa na thread monitorizada
+     * @param interval       intervalo entre heartbeats
+     * @param stallThreshold atraso a partir do qual se conta um bloqueio
+     */
+    public FxStallMonitor(Consumer<Runnable> uiExecutor, Duration interval, Duration stallThreshold) {
+        this.uiExecutor = Objects.requireNonNull(uiExecutor);
+        this.intervalMillis = Math.max(1L, interval.toMillis());
+        this.stallThresholdNanos = stallThreshold.toNanos();
+    }
+
+    /**
+     * Inicia os heartbeats (sem efeito se já estiver iniciado).
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-stall-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Para os heartbeats; as métricas acumuladas mantêm-se.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** @return número de heartbeats medidos */
+    public long getSamples() {
+        return samples;
+    }
+
+    /** @return número de bloqueios acima do limiar */
+    public long getStallCount() {
+        return stallCount;
+    }
+
+    /** @return maior atraso observado, em milissegundos */
+    public long getMaxStallMillis() {
+        return maxLagNanos / NANOS_PER_MILLI;
+    }
+
+    /** @return soma dos atrasos acima do limiar, em milissegundos */
+    public long getTotalBlockedMillis() {
+        return totalBlockedNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Resumo legível das métricas ("UI thread blocked").
+     *
+     * @return texto com bloqueios, tempo total bloqueado e pior caso
+     */
+    public String summary() {
+        return String.format("UI thread bloqueada: %d vezes, %d ms no total, pior caso %d ms (%d amostras)",
+                getStallCount(), getTotalBlockedMillis(), getMaxStallMillis(), getSamples());
+    }
+
+    private void heartbeat() {
+        if (!pending.compareAndSet(false, true)) {
+            return; // o anterior ainda não correu: a UI está bloqueada
+        }
+        long posted = System.nanoTime();
+        uiExecutor.accept(() -> {
+            record(System.nanoTime() - posted);
+            pending.set(false);
+        });
+    }
+
+    private void record(long lagNanos) {
+        samples++;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos;
+        }
+        if (lagNanos >= stallThresholdNanos) {
+            stallCount++;
+            totalBlockedNanos += lagNanos;
+            System.out.println("[FxStallMonitor] UI thread bloqueada " + lagNanos / NANOS_PER_MILLI + " ms");
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.myapp.ui;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 import com.myapp.model.POI;
 import com.myapp.model.Point;
 import com.myapp.model.Route;
 import com.myapp.model.TransportMode;
 import com.myapp.service.Service;
+import com.myapp.service.WaypointOptimizer;
+import com.myapp.utils.Futures;
 import com.myapp.utils.RouteExporter;
 import com.sothawo.mapjfx.Configuration;
 import com.sothawo.mapjfx.Coordinate;
@@ -33,6 +38,7 @@ import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.Pagination;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Separator;
 import javafx.scene.control.TextField;
@@ -72,7 +78,11 @@ public class MapViewer extends Application {
     private static final int POI_LIST_PREF_HEIGHT = 150;
     private static final int POI_LIST_MAX_HEIGHT = 200;
     private static final int WAYPOINT_ROW_SPACING = 10;
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final String HISTORY_ALL_MODES = "Todos";
     private static final int ELEVATION_DIALOG_SPACING = 15;
+    // Variações menores não contam para a subida/descida (ruído do DEM)
+    private static final double ELEVATION_NOISE_THRESHOLD_M = 3.0;
 
     // Map constants
     private static final double DEFAULT_MAP_CENTER_LAT = 38.7223;
@@ -115,9 +125,19 @@ public class MapViewer extends Application {
 
     private final com.myapp.utils.HistoryManager historyManager = new com.myapp.utils.HistoryManager();
 
+    // Cálculo de rota em curso e geração do pedido mais recente (thread da UI)
+    private CompletableFuture<RouteRender> pendingRoute = null;
+    private long routeGeneration = 0;
+
+    private final FxStallMonitor stallMonitor = FxStallMonitor.forFxThread();
+
+    // Trabalho em segundo plano (geocodificação, sugestões, POIs, elevação)
+    private final UiTaskExecutor uiTasks = new UiTaskExecutor();
+
     @Override
     public void start(Stage stage) {
         stage.setTitle("Planeador de Rotas");
+        stallMonitor.start();
 
         // Sidebar
         VBox sidebar = buildSidebarUI();
@@ -153,6 +173,14 @@ public class MapViewer extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        uiTasks.shutdown();
+        historyManager.close();
+        stallMonitor.stop();
+        System.out.println("[FxStallMonitor] " + stallMonitor.summary());
+    }
+
     private VBox buildSidebarUI() {
         VBox sidebar = new VBox(SIDEBAR_SPACING);
         sidebar.setPadding(new Insets(SIDEBAR_PADDING));
@@ -177,6 +205,10 @@ public class MapViewer extends Application {
         btnClearStops.getStyleClass().add("btn-danger-outline");
         btnClearStops.setMaxWidth(Double.MAX_VALUE);
         btnClearStops.setOnAction(e -> clearWaypoints());
+        Button btnOptimizeStops = new Button("🔀 Otimizar Ordem");
+        btnOptimizeStops.getStyleClass().add("btn-secondary-outline");
+        btnOptimizeStops.setMaxWidth(Double.MAX_VALUE);
+        btnOptimizeStops.setOnAction(e -> optimizeWaypoints());
 
         waypointListUI.setPadding(new Insets(5));
 
@@ -308,7 +340,7 @@ public class MapViewer extends Application {
         sidebar.getChildren().addAll(
                 lblOrigem, origemField, btnSetOrigem,
                 new Separator(),
-                lblStops, waypointListUI, btnClearStops,
+                lblStops, waypointListUI, btnOptimizeStops, btnClearStops,
                 new Separator(),
                 lblSearch, pesquisaField, btnPesquisar, btnAddSearchAsStop,
                 new Separator(),
@@ -379,20 +411,17 @@ public class MapViewer extends Application {
             return;
         }
 
-        new Thread(() -> {
-            Point result = service.getGeocodeFromLocationString(input);
+        uiTasks.submit("origem", () -> service.getGeocodeFromLocationString(input)).thenAcceptAsync(result -> {
             if (result == null) {
                 return;
             }
 
-            Platform.runLater(() -> {
-                Coordinate c = new Coordinate(result.getLatitude(), result.getLongitude());
-                setOrigin(c);
-                origemField.setText(result.getName());
-                mapView.setCenter(c);
-                mapView.setZoom(LOCATION_ZOOM);
-            });
-        }).start();
+            Coordinate c = new Coordinate(result.getLatitude(), result.getLongitude());
+            setOrigin(c);
+            origemField.setText(result.getName());
+            mapView.setCenter(c);
+            mapView.setZoom(LOCATION_ZOOM);
+        }, Platform::runLater);
     }
 
     /**
@@ -459,6 +488,45 @@ public class MapViewer extends Application {
         updateWaypointUI();
     }
 
+    // Reordena as paragens intermédias para o percurso mais rápido entre a
+    // origem e o destino (a última paragem mantém-se como destino) e recalcula
+    // a rota. A matriz e a otimização correm em segundo plano.
+    private void optimizeWaypoints() {
+        if (originMarker == null) {
+            routeSummaryLabel.setText("Defina uma origem.");
+            return;
+        }
+        if (waypointPoints.size() < 2) {
+            return;
+        }
+
+        Point origin = new Point(
+                originMarker.getPosition().getLatitude(),
+                originMarker.getPosition().getLongitude(),
+                null);
+        List<Point> waypoints = new ArrayList<>(waypointPoints);
+        TransportMode mode = selectedMode;
+        routeSummaryLabel.setText("A otimizar paragens...");
+
+        uiTasks.submit("otimizar",
+                () -> service.optimizeWaypointOrder(origin, waypoints, mode, WaypointOptimizer.TourType.FIXED_END))
+                .thenAcceptAsync(ordered -> {
+                    if (!waypoints.equals(waypointPoints)) {
+                        return; // paragens alteradas entretanto
+                    }
+                    List<Marker> markers = new ArrayList<>(ordered.size());
+                    for (Point p : ordered) {
+                        markers.add(waypointMarkers.get(waypoints.indexOf(p)));
+                    }
+                    waypointPoints.clear();
+                    waypointPoints.addAll(ordered);
+                    waypointMarkers.clear();
+                    waypointMarkers.addAll(markers);
+                    updateWaypointUI();
+                    calculateRoute();
+                }, Platform::runLater);
+    }
+
     private void addLastSearchAsWaypoint() {
         if (lastSearchPoint == null) {
             return;
@@ -467,7 +535,12 @@ public class MapViewer extends Application {
         addWaypoint(c, lastSearchPoint.getName());
     }
 
-    // Calcula a rota com a origem e paragens definidas.~
+    // Calcula a rota com a origem e paragens definidas.
+    //
+    // Os dados de entrada são copiados na thread da UI e o pedido à OSRM (e a
+    // conversão da geometria em coordenadas do mapa) corre em segundo plano. Um
+    // novo cálculo cancela o anterior, incluindo o pedido HTTP em curso; só o
+    // resultado do pedido mais recente é aplicado ao mapa.
 
     private void calculateRoute() {
         if (originMarker == null) {
@@ -475,10 +548,6 @@ public class MapViewer extends Application {
             return;
         }
 
-        if (currentRouteLine != null) {
-            mapView.removeCoordinateLine(currentRouteLine);
-        }
-
         String originName = origemField.getText();
 
         if (originName != null && originName.isBlank()) {
@@ -489,17 +558,60 @@ public class MapViewer extends Application {
                 originMarker.getPosition().getLatitude(),
                 originMarker.getPosition().getLongitude(),
                 originName);
+        List<Point> waypoints = new ArrayList<>(waypointPoints);
+        TransportMode mode = selectedMode;
+
+        if (pendingRoute != null) {
+            pendingRoute.cancel(true);
+        }
+        long generation = ++routeGeneration;
+        routeSummaryLabel.setText("A calcular rota...");
+
+        CompletableFuture<Route> route = service.getRouteWithWaypointsAsync(origin, waypoints, mode);
+        CompletableFuture<RouteRender> request =
+                Futures.propagateCancel(route.thenApplyAsync(MapViewer::toRouteRender), route);
+        pendingRoute = request;
+        request.whenComplete((render, error) -> Platform.runLater(() -> {
+            if (generation != routeGeneration) {
+                return; // substituído por um pedido mais recente
+            }
+            pendingRoute = null;
+            if (error != null) {
+                System.err.println("Erro ao calcular rota: " + error.getMessage());
+            }
+            applyRoute(render, origin, waypoints, mode);
+        }));
+    }
 
-        Route route = service.getRouteWithWaypoints(origin, waypointPoints, selectedMode);
+    // Rota e respetivas coordenadas do mapa, preparadas fora da thread da UI.
+    private record RouteRender(Route route, List<Coordinate> coords) {
+    }
+
+    private static RouteRender toRouteRender(Route route) {
+        if (route == null || route.getPointCount() == 0) {
+            return null;
+        }
+        List<Coordinate> coords = new ArrayList<>(route.getPointCount());
+        for (int i = 0; i < route.getPointCount(); i++) {
+            coords.add(new Coordinate(route.getLatitude(i), route.getLongitude(i)));
+        }
+        return new RouteRender(route, coords);
+    }
 
-        if (route == null || route.getRoutePoints().isEmpty()) {
+    // Aplica o resultado ao mapa (thread da UI): linha, extensão e resumo.
+    private void applyRoute(RouteRender render, Point origin, List<Point> waypoints, TransportMode mode) {
+        if (currentRouteLine != null) {
+            mapView.removeCoordinateLine(currentRouteLine);
+            currentRouteLine = null;
+        }
+
+        if (render == null) {
             routeSummaryLabel.setText("Erro ao calcular rota.");
             return;
         }
 
-        List<Coordinate> coords = route.getRoutePoints().stream()
-                .map(p -> new Coordinate(p.getLatitude(), p.getLongitude()))
-                .toList();
+        Route route = render.route();
+        List<Coordinate> coords = render.coords();
 
         currentRouteLine = new CoordinateLine(coords)
                 .setColor(Color.BLUE)
@@ -530,11 +642,10 @@ public class MapViewer extends Application {
 
         lastRoute = route;
 
-        if (!waypointPoints.isEmpty()) {
-            Point destination = waypointPoints.get(waypointPoints.size() - 1);
-            List<Point> savedWaypoints = new ArrayList<>(waypointPoints);
+        if (!waypoints.isEmpty()) {
+            Point destination = waypoints.get(waypoints.size() - 1);
             com.myapp.model.HistoryEntry entry = new com.myapp.model.HistoryEntry(
-                    origin, destination, savedWaypoints, selectedMode);
+                    origin, destination, waypoints, mode);
 
             historyManager.addEntry(entry);
             System.out.println("Rota adicionada ao histórico.");
@@ -544,7 +655,7 @@ public class MapViewer extends Application {
                 String.format("Distância: %.2f km | Tempo: %d min | Paragens: %d",
                         route.getDistanceKm(),
                         route.getDurationSec() / SECONDS_PER_MINUTE,
-                        waypointPoints.size()));
+                        waypoints.size()));
     }
 
     // Pesquisa a localização introduzida no campo de pesquisa e centra o mapa.
@@ -555,20 +666,17 @@ public class MapViewer extends Application {
             return;
         }
 
-        new Thread(() -> {
-            Point result = service.getGeocodeFromLocationString(query);
+        uiTasks.submit("pesquisa", () -> service.getGeocodeFromLocationString(query)).thenAcceptAsync(result -> {
             if (result == null) {
                 return;
             }
 
             lastSearchPoint = result;
 
-            Platform.runLater(() -> {
-                Coordinate c = new Coordinate(result.getLatitude(), result.getLongitude());
-                mapView.setCenter(c);
-                mapView.setZoom(LOCATION_ZOOM);
-            });
-        }).start();
+            Coordinate c = new Coordinate(result.getLatitude(), result.getLongitude());
+            mapView.setCenter(c);
+            mapView.setZoom(LOCATION_ZOOM);
+        }, Platform::runLater);
     }
 
     // Configura o sistema de autocompletar para os campos de texto.
@@ -602,42 +710,34 @@ public class MapViewer extends Application {
 
                 final String queryFinal = queryAtRequestTime.trim();
 
-                new Thread(() -> {
-                    try {
-                        List<Point> results = service.searchLocations(queryFinal);
-
-                        Platform.runLater(() -> {
-                            // Verificar se o texto mudou ou ficou null entretanto
-                            String currentText = field.getText();
-                            if (currentText == null || !currentText.trim().equals(queryFinal)) {
-                                return;
-                            }
-
-                            suggestionsMenu.getItems().clear();
-
-                            for (Point p : results) {
-                                MenuItem item = new MenuItem(p.getName());
-                                item.setOnAction(e -> {
-                                    field.setText(p.getName());
-                                    lastSearchPoint = p;
-                                    suggestionsMenu.hide();
-                                });
-                                suggestionsMenu.getItems().add(item);
-                            }
-
-                            if (!results.isEmpty()) {
-                                if (field.isFocused()) {
-                                    suggestionsMenu.show(field, Side.BOTTOM, 0, 0);
-                                }
-                            } else {
-                                suggestionsMenu.hide();
-                            }
+                // Uma nova pesquisa cancela a sugestão anterior ainda em curso
+                uiTasks.submit("autocomplete", () -> service.searchLocations(queryFinal)).thenAcceptAsync(results -> {
+                    // Verificar se o texto mudou ou ficou null entretanto
+                    String currentText = field.getText();
+                    if (currentText == null || !currentText.trim().equals(queryFinal)) {
+                        return;
+                    }
+
+                    suggestionsMenu.getItems().clear();
+
+                    for (Point p : results) {
+                        MenuItem item = new MenuItem(p.getName());
+                        item.setOnAction(e -> {
+                            field.setText(p.getName());
+                            lastSearchPoint = p;
+                            suggestionsMenu.hide();
                         });
+                        suggestionsMenu.getItems().add(item);
+                    }
 
-                    } catch (Exception e) {
-                        e.printStackTrace();
+                    if (!results.isEmpty()) {
+                        if (field.isFocused()) {
+                            suggestionsMenu.show(field, Side.BOTTOM, 0, 0);
+                        }
+                    } else {
+                        suggestionsMenu.hide();
                     }
-                }).start();
+                }, Platform::runLater);
             });
 
             pause.playFromStart();
@@ -669,24 +769,21 @@ public class MapViewer extends Application {
         poiSummaryLabel.setText("A procurar Pontos de Interesse...");
         poiListUI.getChildren().clear();
 
-        new Thread(() -> {
-            List<POI> pois = service.getPOIsAlongRoute(lastRoute, selected);
+        Route route = lastRoute;
+        uiTasks.submit("pois", () -> service.getPOIsAlongRoute(route, selected)).thenAcceptAsync(pois -> {
+            currentPOIs.clear();
+            currentPOIs.addAll(pois);
 
-            Platform.runLater(() -> {
-                currentPOIs.clear();
-                currentPOIs.addAll(pois);
-
-                // Add POIs to route for export
-                if (lastRoute != null) {
-                    lastRoute.getPois().clear();
-                    lastRoute.getPois().addAll(pois);
-                }
+            // Add POIs to route for export
+            if (lastRoute != null) {
+                lastRoute.getPois().clear();
+                lastRoute.getPois().addAll(pois);
+            }
 
-                showPoisOnMap(pois);
-                updatePOIList(pois);
-                poiSummaryLabel.setText("Pontos de Interesse: " + pois.size());
-            });
-        }).start();
+            showPoisOnMap(pois);
+            updatePOIList(pois);
+            poiSummaryLabel.setText("Pontos de Interesse: " + pois.size());
+        }, Platform::runLater);
     }
 
     /**
@@ -786,8 +883,9 @@ public class MapViewer extends Application {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Guardar Rota como JSON");
         fileChooser.setInitialFileName("route.json");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json"));
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json"),
+                new FileChooser.ExtensionFilter("JSON gzip (*.json.gz)", "*.json.gz"));
 
         java.io.File file = fileChooser.showSaveDialog(mapView.getScene().getWindow());
         if (file != null) {
@@ -811,8 +909,9 @@ public class MapViewer extends Application {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Guardar Rota como GPX");
         fileChooser.setInitialFileName("route.gpx");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("GPX files (*.gpx)", "*.gpx"));
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("GPX files (*.gpx)", "*.gpx"),
+                new FileChooser.ExtensionFilter("GPX gzip (*.gpx.gz)", "*.gpx.gz"));
 
         java.io.File file = fileChooser.showSaveDialog(mapView.getScene().getWindow());
         if (file != null) {
@@ -840,20 +939,19 @@ public class MapViewer extends Application {
         loadingAlert.setContentText("Por favor aguarde...");
         loadingAlert.show();
 
-        new Thread(() -> {
-            var profile = service.getElevationProfile(lastRoute);
-
-            Platform.runLater(() -> {
-                loadingAlert.close();
+        Route route = lastRoute;
+        uiTasks.submit("elevacao", () -> service.getElevationProfile(route)).whenCompleteAsync((profile, error) -> {
+            loadingAlert.close();
 
-                if (profile == null) {
+            if (error != null || profile == null) {
+                if (!(error instanceof CancellationException)) {
                     showAlert("Erro", "Não foi possível obter dados de elevação.");
-                    return;
                 }
+                return;
+            }
 
-                showElevationChart(profile);
-            });
-        }).start();
+            showElevationChart(profile);
+        }, Platform::runLater);
     }
 
     /**
@@ -872,7 +970,8 @@ public class MapViewer extends Application {
         Label stats = new Label(String.format(
                 "Elevação Máxima: %.0fm | Elevação Mínima: %.0fm | Subida Total: %.0fm | Descida Total: %.0fm",
                 profile.getMaxElevation(), profile.getMinElevation(),
-                profile.getTotalAscent(), profile.getTotalDescent()));
+                profile.getTotalAscent(ELEVATION_NOISE_THRESHOLD_M),
+                profile.getTotalDescent(ELEVATION_NOISE_THRESHOLD_M)));
         stats.getStyleClass().add("elevation-stats-label");
 
         // Canvas para desenhar gráfico
@@ -884,12 +983,10 @@ public class MapViewer extends Application {
         gc.fillRect(0, 0, 800, 400);
 
         // Dados
-        var elevations = profile.getElevations();
-        var distances = profile.getDistances();
-
-        if (elevations.isEmpty()) {
+        if (profile.isEmpty()) {
             return;
         }
+        int samples = profile.size();
 
         // Margens
         double marginLeft = 60;
@@ -900,7 +997,7 @@ public class MapViewer extends Application {
         double chartHeight = 400 - marginTop - marginBottom;
 
         // Escala
-        double maxDist = distances.get(distances.size() - 1);
+        double maxDist = profile.getDistance(samples - 1);
         double maxElev = profile.getMaxElevation();
         double minElev = profile.getMinElevation();
         double elevRange = maxElev - minElev;
@@ -923,11 +1020,12 @@ public class MapViewer extends Application {
         gc.setStroke(Color.BLUE);
         gc.setLineWidth(2);
 
-        for (int i = 0; i < elevations.size() - 1; i++) {
-            double x1 = marginLeft + (distances.get(i) / maxDist) * chartWidth;
-            double y1 = marginTop + chartHeight - ((elevations.get(i) - minElev) / elevRange) * chartHeight;
-            double x2 = marginLeft + (distances.get(i + 1) / maxDist) * chartWidth;
-            double y2 = marginTop + chartHeight - ((elevations.get(i + 1) - minElev) / elevRange) * chartHeight;
+        for (int i = 0; i < samples - 1; i++) {
+            double x1 = marginLeft + (profile.getDistance(i) / maxDist) * chartWidth;
+            double y1 = marginTop + chartHeight - ((profile.getElevation(i) - minElev) / elevRange) * chartHeight;
+            double x2 = marginLeft + (profile.getDistance(i + 1) / maxDist) * chartWidth;
+            double y2 = marginTop + chartHeight
+                    - ((profile.getElevation(i + 1) - minElev) / elevRange) * chartHeight;
 
             gc.strokeLine(x1, y1, x2, y2);
         }
@@ -971,6 +1069,14 @@ public class MapViewer extends Application {
     // Reseta todos os dados e o mapa para o estado inicial.
 
     private void resetAll() {
+        // Descarta um cálculo de rota ainda em curso
+        if (pendingRoute != null) {
+            pendingRoute.cancel(true);
+            pendingRoute = null;
+        }
+        routeGeneration++;
+        uiTasks.cancel("pois");
+
         if (originMarker != null) {
             mapView.removeMarker(originMarker);
         }
@@ -997,8 +1103,22 @@ public class MapViewer extends Application {
         Stage historyStage = new Stage();
         historyStage.setTitle("Histórico de Rotas");
 
-        ListView<com.myapp.model.HistoryEntry> listView = new ListView<>();
-        listView.getItems().addAll(historyManager.getHistory());
+        // Pesquisa por nome (prefixos, sem acentos) e por modo; só a página
+        // visível é lida do ficheiro
+        TextField searchField = new TextField();
+        searchField.setPromptText("Pesquisar origem ou destino...");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        ComboBox<String> modeBox = new ComboBox<>();
+        modeBox.getItems().add(HISTORY_ALL_MODES);
+        for (TransportMode mode : TransportMode.values()) {
+            modeBox.getItems().add(mode.name());
+        }
+        modeBox.setValue(HISTORY_ALL_MODES);
+
+        Pagination pagination = new Pagination();
+        pagination.setMaxPageIndicatorCount(7);
+        VBox.setVgrow(pagination, Priority.ALWAYS);
 
         // Botão para carregar a rota selecionada
         Button btnLoad = new Button("Carregar Rota");
@@ -1009,41 +1129,87 @@ public class MapViewer extends Application {
         Button btnClear = new Button("Limpar Histórico");
         btnClear.setStyle("-fx-background-color: #f44336; -fx-text-fill: white;");
 
-        listView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            btnLoad.setDisable(newVal == null);
-        });
+        Label countLabel = new Label();
+
+        // Lista da página atual (substituída a cada mudança de página)
+        List<ListView<com.myapp.model.HistoryEntry>> currentList = new ArrayList<>(1);
+
+        javafx.util.Callback<Integer, javafx.scene.Node> pageFactory = pageIndex -> {
+            String mode = modeBox.getValue();
+            com.myapp.utils.HistoryManager.Query query = new com.myapp.utils.HistoryManager.Query(
+                    searchField.getText(),
+                    HISTORY_ALL_MODES.equals(mode) ? null : TransportMode.valueOf(mode),
+                    null, null);
+            com.myapp.utils.HistoryManager.Page page = historyManager.search(query, pageIndex, HISTORY_PAGE_SIZE);
+            if (pagination.getPageCount() != page.pageCount()) {
+                pagination.setPageCount(page.pageCount());
+            }
+            countLabel.setText(page.totalMatches() + " rotas");
+
+            ListView<com.myapp.model.HistoryEntry> listView = new ListView<>();
+            listView.getItems().setAll(page.entries());
+            listView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+                btnLoad.setDisable(newVal == null);
+            });
+
+            // Ação de duplo clique na lista também carrega
+            listView.setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && listView.getSelectionModel().getSelectedItem() != null) {
+                    loadRouteFromHistory(listView.getSelectionModel().getSelectedItem());
+                    historyStage.close();
+                }
+            });
+
+            currentList.clear();
+            currentList.add(listView);
+            btnLoad.setDisable(true);
+            return listView;
+        };
+        pagination.setPageFactory(pageFactory);
+
+        // Nova pesquisa: volta à primeira página e reconstrói-a
+        Runnable refresh = () -> {
+            if (pagination.getCurrentPageIndex() != 0) {
+                pagination.setCurrentPageIndex(0);
+            } else {
+                pagination.setPageFactory(null);
+                pagination.setPageFactory(pageFactory);
+            }
+        };
+        searchField.textProperty().addListener((obs, oldText, newText) -> refresh.run());
+        modeBox.setOnAction(e -> refresh.run());
 
         // Ação de carregar
         btnLoad.setOnAction(e -> {
-            com.myapp.model.HistoryEntry entry = listView.getSelectionModel().getSelectedItem();
+            com.myapp.model.HistoryEntry entry = currentList.isEmpty() ? null
+                    : currentList.get(0).getSelectionModel().getSelectedItem();
             if (entry != null) {
                 loadRouteFromHistory(entry);
                 historyStage.close();
             }
         });
 
-        // Ação de duplo clique na lista também carrega
-        listView.setOnMouseClicked(e -> {
-            if (e.getClickCount() == 2 && listView.getSelectionModel().getSelectedItem() != null) {
-                loadRouteFromHistory(listView.getSelectionModel().getSelectedItem());
-                historyStage.close();
-            }
-        });
-
         // Ação de limpar
         btnClear.setOnAction(e -> {
-            historyManager.clearHistory();
-            listView.getItems().clear();
+            try {
+                historyManager.clearHistory();
+            } catch (UncheckedIOException ex) {
+                showAlert("Erro", "Não foi possível limpar o histórico: " + ex.getCause().getMessage());
+            }
+            refresh.run();
         });
 
+        HBox filters = new HBox(10, searchField, modeBox);
+        filters.setAlignment(Pos.CENTER_LEFT);
+
         HBox buttons = new HBox(10, btnLoad, btnClear);
         buttons.setAlignment(Pos.CENTER);
         buttons.setPadding(new Insets(10));
 
-        VBox root = new VBox(10, new Label("As tuas rotas recentes:"), listView, buttons);
+        VBox root = new VBox(10, new Label("As tuas rotas recentes:"), filters, countLabel, pagination, buttons);
         root.setPadding(new Insets(15));
 
-        Scene scene = new Scene(root, 400, 500);
+        Scene scene = new Scene(root, 400, 560);
         historyStage.setScene(scene);
         historyStage.show();
     }
@@ -1070,6 +1236,6 @@ public class MapViewer extends Application {
             selectedMode = entry.getMode();
         }
 
-        Platform.runLater(this::calculateRoute);
+        calculateRoute();
     }
 }
\ No newline at end of file
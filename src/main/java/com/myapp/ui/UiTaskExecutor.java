@@ -0,0 +1,238 @@
+package com.myapp.ui;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serviço único de execução de tarefas em segundo plano para a interface.
+ *
+ * Papel na arquitetura MVC:
+ * - View (UI): substitui as threads criadas à mão pelo MapViewer; as tarefas
+ * chamam o Service e o resultado é aplicado na thread da UI pelo chamador.
+ *
+ * Funcionamento:
+ * - Em JDKs com threads virtuais (21+) usa
+ * {@code Executors.newVirtualThreadPerTaskExecutor()}, obtido por reflexão para
+ * o código continuar a compilar para Java 17; caso contrário usa um conjunto
+ * fixo de threads daemon.
+ * - No máximo {@code maxConcurrent} tarefas correm em simultâneo; as restantes
+ * ficam em fila (à espera de uma licença, no caso das threads virtuais).
+ * - Cada tarefa pode ter uma chave de funcionalidade (ex.:
+ * {@code "autocomplete"}): submeter uma nova tarefa com a mesma chave cancela
+ * a anterior, interrompendo-a se já estiver a correr.
+ * - Expõe contadores de tarefas ativas, em fila e canceladas.
+ */
+public class UiTaskExecutor {
+    private static final int DEFAULT_MAX_CONCURRENT = 8;
+    private static final long FALLBACK_KEEP_ALIVE_S = 30L;
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore permits;
+    private final ConcurrentHashMap<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    // Thread que está a executar uma tarefa (null antes de começar e depois de terminar).
+    private static final class Runner {
+        private Thread thread;
+
+        synchronized void attach() {
+            thread = Thread.currentThread();
+        }
+
+        synchronized void detach() {
+            thread = null;
+            Thread.interrupted(); // não deixar a interrupção passar para a próxima tarefa
+        }
+
+        synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Cria o executor com os valores por omissão (8 tarefas em simultâneo,
+     * threads virtuais se disponíveis).
+     */
+    public UiTaskExecutor() {
+        this(DEFAULT_MAX_CONCURRENT, true);
+    }
+
+    /**
+     * Cria o executor.
+     *
+     * @param maxConcurrent         número máximo de tarefas em simultâneo
+     * @param preferVirtualThreads  usar threads virtuais se o JDK as suportar
+     */
+    public UiTaskExecutor(int maxConcurrent, boolean preferVirtualThreads) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent deve ser >= 1");
+        }
+        ExecutorService virtual = preferVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newBoundedPool(maxConcurrent);
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Executa uma tarefa sem chave de funcionalidade.
+     *
+     * @param task trabalho a executar (pode bloquear)
+     * @param <T>  tipo do resultado
+     * @return futuro com o resultado; cancelá-lo interrompe a tarefa
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(null, task);
+    }
+
+    /**
+     * Executa uma tarefa, cancelando a tarefa anterior com a mesma chave.
+     *
+     * @param key  chave da funcionalidade (ou {@code null})
+     * @param task trabalho a executar (pode bloquear)
+     * @param <T>  tipo do resultado
+     * @return futuro com o resultado; cancelá-lo interrompe a tarefa
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runner runner = new Runner();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                cancelled.incrementAndGet();
+                runner.interrupt();
+            }
+        });
+
+        if (key != null) {
+            CompletableFuture<?> previous = latestByKey.put(key, result);
+            if (previous != null) {
+                previous.cancel(true);
+            }
+            result.whenComplete((value, error) -> latestByKey.remove(key, result));
+        }
+
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(key, task, result, runner));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Cancela a tarefa em curso ou em fila com a chave indicada.
+     *
+     * @param key chave da funcionalidade
+     * @return {@code true} se havia uma tarefa para cancelar
+     */
+    public boolean cancel(String key) {
+        CompletableFuture<?> current = latestByKey.remove(key);
+        return current != null && current.cancel(true);
+    }
+
+    /** @return número de tarefas a correr neste momento */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /** @return número de tarefas submetidas que ainda não começaram */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /** @return número total de tarefas canceladas */
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    /** @return {@code true} se as tarefas correm em threads virtuais */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Cancela as tarefas pendentes e termina o executor.
+     */
+    public void shutdown() {
+        latestByKey.values().forEach(f -> f.cancel(true));
+        executor.shutdownNow();
+    }
+
+    private <T> void run(String key, Callable<T> task, CompletableFuture<T> result, Runner runner) {
+        runner.attach();
+        try {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            } finally {
+                queued.decrementAndGet();
+            }
+            try {
+                if (result.isDone()) {
+                    return; // cancelada enquanto estava em fila
+                }
+                active.incrementAndGet();
+                try {
+                    result.complete(task.call());
+                } catch (InterruptedException | CancellationException e) {
+                    result.cancel(false);
+                } catch (Exception e) {
+                    if (!result.isDone()) {
+                        System.err.println("[UiTasks] Tarefa " + (key != null ? "'" + key + "' " : "")
+                                + "falhou: " + e.getMessage());
+                    }
+                    result.completeExceptionally(e);
+                } finally {
+                    active.decrementAndGet();
+                }
+            } finally {
+                permits.release();
+            }
+        } finally {
+            runner.detach();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() (JDK 21+), ou null se não existir.
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newBoundedPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, FALLBACK_KEEP_ALIVE_S, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "ui-task-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
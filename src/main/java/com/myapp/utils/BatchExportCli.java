@@ -0,0 +1,378 @@
+package com.myapp.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.myapp.model.HistoryEntry;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.service.Service;
+
+/**
+ * Exportação em lote (sem interface gráfica): calcula as rotas de uma lista
+ * de trabalhos e grava-as em GPX e/ou JSON com o {@link RouteExporter}.
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: ponto de entrada alternativo ao {@link App}; usa o
+ * {@link Service} (Controller) tal como a UI, mas a partir da linha de
+ * comandos.
+ *
+ * Pipeline: no máximo {@code maxInFlight} trabalhos em curso (rota +
+ * exportação); a thread principal bloqueia quando a janela está cheia, por
+ * isso a memória não depende do número de trabalhos. Cada pedido de rota
+ * espera por uma ficha do {@link TokenBucketRateLimiter} do motor de rotas e
+ * usa a versão assíncrona do serviço; as exportações correm num pool próprio
+ * de {@code exportThreads} threads.
+ *
+ * Uso:
+ *
+ * <pre>
+ * BatchExportCli (--jobs &lt;ficheiro&gt; | --history &lt;history.ndjson&gt;) --out &lt;pasta&gt;
+ *                [--format gpx|json|both] [--gzip] [--concurrency N]
+ *                [--export-threads N] [--rate pedidos/s]
+ * </pre>
+ *
+ * Ficheiro de trabalhos: uma rota por linha,
+ * {@code <modo> <lat>,<lon> <lat>,<lon> [<lat>,<lon> ...]} (origem e
+ * paragens, a última é o destino); linhas vazias e começadas por {@code #}
+ * são ignoradas.
+ */
+public class BatchExportCli {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 8;
+    // Política do servidor público da OSRM: no máximo 1 pedido por segundo
+    private static final double DEFAULT_OSRM_PERMITS_PER_SECOND = 1.0;
+    private static final int RATE_BURST = 1;
+    private static final int PROGRESS_STEPS = 20;
+
+    /**
+     * Formato de exportação.
+     */
+    public enum Format {
+        GPX(".gpx"),
+        JSON(".json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Um trabalho: origem, paragens (a última é o destino) e modo.
+     *
+     * @param origin    ponto de partida
+     * @param waypoints paragens pela ordem de passagem (pelo menos uma)
+     * @param mode      modo de transporte
+     */
+    public record Job(Point origin, List<Point> waypoints, TransportMode mode) {
+    }
+
+    /**
+     * Resultado de uma execução.
+     *
+     * @param total        trabalhos recebidos
+     * @param succeeded    rotas calculadas e exportadas
+     * @param failed       trabalhos sem rota ou com erro de escrita
+     * @param elapsedMs    duração total
+     * @param pointCount   soma dos pontos das rotas exportadas
+     * @param bytesWritten bytes escritos em disco
+     */
+    public record Summary(int total, int succeeded, int failed, long elapsedMs, long pointCount,
+            long bytesWritten) {
+
+        /**
+         * @return trabalhos concluídos por segundo
+         */
+        public double routesPerSecond() {
+            return elapsedMs > 0 ? total * 1000.0 / elapsedMs : total;
+        }
+    }
+
+    private final Service service;
+    private final TokenBucketRateLimiter routingRateLimiter;
+    private final int maxInFlight;
+    private final int exportThreads;
+
+    /**
+     * Cria o exportador.
+     *
+     * @param service            serviço usado no cálculo das rotas
+     * @param routingRateLimiter limite de pedidos ao motor de rotas
+     * @param maxInFlight        trabalhos em curso em simultâneo (pelo menos 1)
+     * @param exportThreads      threads de exportação (pelo menos 1)
+     */
+    public BatchExportCli(Service service, TokenBucketRateLimiter routingRateLimiter, int maxInFlight,
+            int exportThreads) {
+        if (maxInFlight < 1 || exportThreads < 1) {
+            throw new IllegalArgumentException("maxInFlight e exportThreads devem ser >= 1");
+        }
+        this.service = Objects.requireNonNull(service);
+        this.routingRateLimiter = Objects.requireNonNull(routingRateLimiter);
+        this.maxInFlight = maxInFlight;
+        this.exportThreads = exportThreads;
+    }
+
+    /**
+     * Método principal.
+     *
+     * @param args opções (ver a documentação da classe)
+     */
+    public static void main(String[] args) {
+        Path jobsFile = null;
+        Path historyFile = null;
+        Path outDir = null;
+        Set<Format> formats = EnumSet.of(Format.GPX);
+        boolean gzip = false;
+        int concurrency = DEFAULT_MAX_IN_FLIGHT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        // Sem --rate, o limite depende do motor que o Service chegar a carregar
+        Double rate = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jobs" -> jobsFile = Paths.get(value(args, ++i));
+                    case "--history" -> historyFile = Paths.get(value(args, ++i));
+                    case "--out" -> outDir = Paths.get(value(args, ++i));
+                    case "--format" -> formats = parseFormats(value(args, ++i));
+                    case "--gzip" -> gzip = true;
+                    case "--concurrency" -> concurrency = Integer.parseInt(value(args, ++i));
+                    case "--export-threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--rate" -> rate = Double.parseDouble(value(args, ++i));
+                    default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            if ((jobsFile == null) == (historyFile == null) || outDir == null) {
+                throw new IllegalArgumentException("Indique --jobs ou --history, e --out");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[Batch] " + e.getMessage());
+            System.err.println("Uso: BatchExportCli (--jobs <ficheiro> | --history <history.ndjson>) --out <pasta>"
+                    + " [--format gpx|json|both] [--gzip] [--concurrency N] [--export-threads N]"
+                    + " [--rate pedidos/s]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            List<Job> jobs;
+            if (jobsFile != null) {
+                jobs = parseJobs(jobsFile);
+            } else {
+                try (HistoryManager history = new HistoryManager(historyFile.toString())) {
+                    jobs = fromHistory(history.getHistory());
+                }
+            }
+            Service service = new Service();
+            if (rate == null) {
+                // Sem limite com o grafo local; com a OSRM, a política do servidor público
+                rate = service.isLocalRouting() ? 0.0 : DEFAULT_OSRM_PERMITS_PER_SECOND;
+            }
+            TokenBucketRateLimiter limiter = rate > 0 ? new TokenBucketRateLimiter(rate, RATE_BURST)
+                    : TokenBucketRateLimiter.unlimited();
+            Summary summary = new BatchExportCli(service, limiter, concurrency, threads)
+                    .run(jobs, outDir, formats, gzip);
+            System.exit(summary.failed() > 0 ? 1 : 0);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("[Batch] Erro: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Falta o valor de " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private static Set<Format> parseFormats(String value) {
+        return "both".equalsIgnoreCase(value) ? EnumSet.allOf(Format.class)
+                : EnumSet.of(Format.valueOf(value.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Lê um ficheiro de trabalhos (formato na documentação da classe).
+     *
+     * @param file ficheiro de texto UTF-8
+     * @return trabalhos pela ordem do ficheiro
+     * @throws IOException se o ficheiro não puder ser lido ou tiver uma linha
+     *                     inválida (a mensagem indica a linha)
+     */
+    public static List<Job> parseJobs(Path file) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    jobs.add(parseJob(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("linha " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private static Job parseJob(String line) {
+        String[] fields = line.split("\\s+");
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("esperado '<modo> <lat>,<lon> <lat>,<lon> ...'");
+        }
+        TransportMode mode = TransportMode.valueOf(fields[0].toUpperCase(Locale.ROOT));
+        List<Point> points = new ArrayList<>(fields.length - 1);
+        for (int i = 1; i < fields.length; i++) {
+            int comma = fields[i].indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("coordenada inválida: " + fields[i]);
+            }
+            double lat = Double.parseDouble(fields[i].substring(0, comma));
+            double lon = Double.parseDouble(fields[i].substring(comma + 1));
+            points.add(new Point(lat, lon, null));
+        }
+        return new Job(points.get(0), points.subList(1, points.size()), mode);
+    }
+
+    /**
+     * Converte entradas do histórico em trabalhos (as paragens guardadas já
+     * incluem o destino). Entradas sem origem ou sem paragens são ignoradas.
+     *
+     * @param history entradas do {@link HistoryManager}
+     * @return trabalhos pela ordem do histórico
+     */
+    public static List<Job> fromHistory(List<HistoryEntry> history) {
+        List<Job> jobs = new ArrayList<>(history.size());
+        for (HistoryEntry entry : history) {
+            List<Point> waypoints = entry.getWaypoints();
+            if (entry.getOrigin() == null || waypoints == null || waypoints.isEmpty()) {
+                continue;
+            }
+            TransportMode mode = entry.getMode() != null ? entry.getMode() : TransportMode.CAR;
+            jobs.add(new Job(entry.getOrigin(), waypoints, mode));
+        }
+        return jobs;
+    }
+
+    /**
+     * Calcula e exporta todos os trabalhos. O trabalho {@code i} (a contar de
+     * 1) é gravado em {@code route-000i.<formato>[.gz]}.
+     *
+     * @param jobs    trabalhos a processar
+     * @param outDir  pasta de saída (criada se não existir)
+     * @param formats formatos a escrever
+     * @param gzip    {@code true} para comprimir os ficheiros
+     * @return estatísticas da execução
+     * @throws IOException          se a pasta de saída não puder ser criada
+     * @throws InterruptedException se a thread for interrompida à espera
+     */
+    public Summary run(List<Job> jobs, Path outDir, Set<Format> formats, boolean gzip)
+            throws IOException, InterruptedException {
+        Files.createDirectories(outDir);
+        int total = jobs.size();
+        int progressEvery = Math.max(1, total / PROGRESS_STEPS);
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong points = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        Semaphore window = new Semaphore(maxInFlight);
+        ExecutorService exporters = Executors.newFixedThreadPool(exportThreads, r -> {
+            Thread t = new Thread(r, "batch-export");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < total; i++) {
+                Job job = jobs.get(i);
+                String baseName = String.format(Locale.ROOT, "route-%04d", i + 1);
+                window.acquire();
+                routingRateLimiter.acquireAsync()
+                        .thenCompose(v -> service.getRouteWithWaypointsAsync(job.origin(), job.waypoints(),
+                                job.mode()))
+                        .thenApplyAsync(route -> export(route, outDir, baseName, formats, gzip, bytes), exporters)
+                        .whenComplete((route, error) -> {
+                            if (error != null) {
+                                System.err.println("[Batch] " + baseName + ": " + error.getMessage());
+                                failed.incrementAndGet();
+                            } else if (route != null) {
+                                succeeded.incrementAndGet();
+                                points.addAndGet(route.getPointCount());
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                            int count = done.incrementAndGet();
+                            if (count % progressEvery == 0 || count == total) {
+                                System.out.printf("[Batch] %d/%d (%d falhadas)%n", count, total, failed.get());
+                            }
+                            // Só no fim: o resumo espera por todas as licenças da janela
+                            window.release();
+                        });
+            }
+            // Esperar pelos trabalhos ainda em curso
+            window.acquire(maxInFlight);
+        } finally {
+            exporters.shutdown();
+            exporters.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Summary summary = new Summary(total, succeeded.get(), failed.get(), elapsedMs, points.get(), bytes.get());
+        System.out.printf(Locale.US, "[Batch] %d rotas (%d ok, %d falhadas) em %.1f s: %.2f rotas/s, "
+                + "%d pontos, %.1f MB%n", total, summary.succeeded(), summary.failed(), elapsedMs / 1000.0,
+                summary.routesPerSecond(), summary.pointCount(), summary.bytesWritten() / (1024.0 * 1024.0));
+        return summary;
+    }
+
+    // Devolve a rota exportada, ou null se não houver rota (falha do trabalho)
+    private static Route export(Route route, Path outDir, String baseName, Set<Format> formats, boolean gzip,
+            AtomicLong bytes) {
+        if (route == null) {
+            System.err.println("[Batch] " + baseName + ": sem rota");
+            return null;
+        }
+        for (Format format : formats) {
+            Path file = outDir.resolve(baseName + format.extension + (gzip ? ".gz" : ""));
+            try {
+                if (format == Format.GPX) {
+                    RouteExporter.exportToGPX(route, file.toString());
+                } else {
+                    RouteExporter.exportToJson(route, file.toString());
+                }
+                bytes.addAndGet(Files.size(file));
+            } catch (IOException e) {
+                System.err.println("[Batch] " + baseName + ": erro ao escrever " + file + ": " + e.getMessage());
+                return null;
+            }
+        }
+        return route;
+    }
+}
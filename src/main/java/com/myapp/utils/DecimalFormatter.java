@@ -0,0 +1,91 @@
+package com.myapp.utils;
+
+import java.util.Locale;
+
+/**
+ * Formatação rápida de números decimais para os exportadores, sem
+ * {@code String.format} nem objetos intermédios: os dígitos são escritos num
+ * {@code char[]} reutilizado pelo chamador.
+ *
+ * O valor é arredondado a {@code decimals} casas com {@link Math#round} sobre
+ * {@code valor * 10^decimals}, o que só difere de {@code %.Nf} em empates
+ * exatos que o {@code double} não consegue representar (no último dígito).
+ * Valores fora de ±{@value #MAX_FAST_VALUE}, infinitos e NaN usam o caminho
+ * lento do JDK.
+ */
+final class DecimalFormatter {
+    /** Tamanho mínimo do buffer passado a {@link #format}. */
+    static final int BUFFER_SIZE = 48;
+
+    private static final double MAX_FAST_VALUE = 1e9;
+    private static final int MAX_DECIMALS = 9;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L };
+
+    private DecimalFormatter() {
+    }
+
+    /**
+     * Escreve {@code value} com {@code decimals} casas decimais.
+     *
+     * @param value     valor a formatar
+     * @param decimals  casas decimais (0 a {@value #MAX_DECIMALS})
+     * @param trimZeros {@code true} para retirar zeros à direita (mantendo
+     *                  pelo menos uma casa, como {@code Double.toString})
+     * @param buffer    destino, com pelo menos {@link #BUFFER_SIZE} posições
+     * @return número de caracteres escritos a partir da posição 0
+     */
+    static int format(double value, int decimals, boolean trimZeros, char[] buffer) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Casas decimais fora do intervalo: " + decimals);
+        }
+        if (!(Math.abs(value) < MAX_FAST_VALUE)) {
+            String slow = trimZeros ? Double.toString(value) : String.format(Locale.US, "%." + decimals + "f", value);
+            slow.getChars(0, slow.length(), buffer, 0);
+            return slow.length();
+        }
+
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        long integer = scaled / scale;
+        long fraction = scaled % scale;
+
+        int digits = decimals;
+        if (trimZeros) {
+            while (digits > 1 && fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            if (digits == 0) {
+                digits = 1;
+            }
+        }
+
+        int pos = 0;
+        if (value < 0 && scaled != 0) {
+            buffer[pos++] = '-';
+        }
+        pos = writeDigits(integer, buffer, pos);
+        if (digits > 0) {
+            buffer[pos++] = '.';
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buffer[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += digits;
+        }
+        return pos;
+    }
+
+    private static int writeDigits(long value, char[] buffer, int pos) {
+        int length = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            length++;
+        }
+        for (int i = pos + length - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + length;
+    }
+}
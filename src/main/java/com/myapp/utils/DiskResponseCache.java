@@ -0,0 +1,381 @@
+package com.myapp.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Cache persistente de respostas de texto num ficheiro de segmento
+ * "append-only".
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: armazenamento genérico chave/valor, sem lógica de negócio.
+ * - Usada como segundo nível (depois de {@link LruCache}) pelos clientes das
+ * APIs, para que respostas sobrevivam entre execuções da aplicação.
+ *
+ * Formato de cada registo (big-endian):
+ * {@code magic:int, keyLength:int, valueLength:int, expiresAt:long, crc32:int,
+ * key:UTF-8, value:UTF-8}. Escritas acrescentam sempre ao fim do ficheiro; o
+ * índice em memória (chave -> posição) é reconstruído na abertura, lendo só os
+ * cabeçalhos e as chaves. Um registo incompleto no fim (ex.: a aplicação
+ * terminou a meio de uma escrita) é truncado. O CRC é verificado em cada
+ * leitura.
+ *
+ * Substituições e expirações deixam registos mortos no ficheiro; quando estes
+ * ocupam mais de metade do segmento, o ficheiro é compactado (reescrito só com
+ * os registos vivos). Se os registos vivos excederem o tamanho máximo,
+ * descartam-se os mais antigos.
+ *
+ * Entradas descartadas (por tamanho ou por CRC inválido) são marcadas com uma
+ * lápide: um registo da mesma chave, sem valor e já expirado
+ * ({@code expiresAt = 0}), que na reabertura anula os registos anteriores. A
+ * compactação não copia lápides, porque os registos que estas anulam também
+ * não são copiados.
+ */
+public class DiskResponseCache implements Closeable {
+    private static final int MAGIC = 0x52435331; // "RCS1"
+    private static final int HEADER_BYTES = 24;
+    private static final long COMPACTION_MIN_BYTES = 1L << 20;
+    private static final int MAX_KEY_BYTES = 64 * 1024;
+    private static final long TOMBSTONE_EXPIRES_AT = 0L;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Path file;
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final Clock clock;
+
+    // Índice por ordem de escrita (o primeiro é o registo mais antigo).
+    private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long fileLength;
+    private long liveBytes;
+
+    private long hits;
+    private long misses;
+
+    // Posição e metadados de um registo vivo.
+    private record Slot(long offset, int keyLength, int valueLength, long expiresAtMillis, int crc) {
+        long recordBytes() {
+            return HEADER_BYTES + (long) keyLength + valueLength;
+        }
+    }
+
+    /**
+     * Resposta lida do disco, com o instante de expiração original.
+     *
+     * @param body            conteúdo guardado
+     * @param expiresAtMillis instante de expiração em epoch ms
+     */
+    public record CachedResponse(String body, long expiresAtMillis) {
+    }
+
+    /**
+     * Abre (ou cria) a cache no ficheiro indicado, usando o relógio do sistema.
+     *
+     * @param file     ficheiro de segmento (as pastas em falta são criadas)
+     * @param ttl      tempo de vida de cada entrada
+     * @param maxBytes tamanho máximo ocupado pelos registos vivos
+     * @throws IOException se o ficheiro não puder ser aberto
+     */
+    public DiskResponseCache(Path file, Duration ttl, long maxBytes) throws IOException {
+        this(file, ttl, maxBytes, Clock.systemUTC());
+    }
+
+    /**
+     * Abre (ou cria) a cache com relógio injetado (útil para testes).
+     *
+     * @param file     ficheiro de segmento (as pastas em falta são criadas)
+     * @param ttl      tempo de vida de cada entrada (positivo)
+     * @param maxBytes tamanho máximo ocupado pelos registos vivos (positivo)
+     * @param clock    relógio usado para calcular a expiração
+     * @throws IOException se o ficheiro não puder ser aberto
+     */
+    public DiskResponseCache(Path file, Duration ttl, long maxBytes, Clock clock) throws IOException {
+        if (ttl.isNegative() || ttl.isZero() || maxBytes <= 0) {
+            throw new IllegalArgumentException("ttl e maxBytes devem ser positivos");
+        }
+        this.file = Objects.requireNonNull(file);
+        this.ttlMillis = ttl.toMillis();
+        this.maxBytes = maxBytes;
+        this.clock = Objects.requireNonNull(clock);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = openChannel(file);
+        loadIndex();
+    }
+
+    /**
+     * Devolve a resposta guardada para a chave, se existir, não tiver expirado
+     * e o registo estiver íntegro.
+     *
+     * @param key chave
+     * @return resposta em cache, ou {@code null}
+     */
+    public synchronized CachedResponse get(String key) {
+        Slot slot = index.get(key);
+        if (slot == null) {
+            misses++;
+            return null;
+        }
+        if (slot.expiresAtMillis() <= clock.millis()) {
+            removeSlot(key, slot);
+            misses++;
+            return null;
+        }
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(slot.keyLength() + slot.valueLength());
+            readFully(buf, slot.offset() + HEADER_BYTES);
+            if (crc(buf.array(), buf.capacity()) != slot.crc()) {
+                System.err.println("[DiskCache] Registo corrompido para a chave " + key);
+                removeSlot(key, slot);
+                persistRemoval(key);
+                misses++;
+                return null;
+            }
+            String body = new String(buf.array(), slot.keyLength(), slot.valueLength(), StandardCharsets.UTF_8);
+            hits++;
+            return new CachedResponse(body, slot.expiresAtMillis());
+        } catch (IOException e) {
+            System.err.println("[DiskCache] Erro ao ler cache: " + e.getMessage());
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Guarda (ou substitui) a resposta associada à chave, com o TTL da cache.
+     * Erros de escrita são registados e ignorados.
+     *
+     * @param key   chave
+     * @param value resposta a guardar
+     */
+    public synchronized void put(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES || HEADER_BYTES + (long) keyBytes.length + valueBytes.length > maxBytes) {
+            return; // nunca caberia na cache
+        }
+        long expiresAt = clock.millis() + ttlMillis;
+
+        try {
+            Slot slot = append(keyBytes, valueBytes, expiresAt);
+            Slot old = index.remove(key);
+            if (old != null) {
+                liveBytes -= old.recordBytes();
+            }
+            index.put(key, slot);
+            liveBytes += slot.recordBytes();
+
+            evictOldest();
+            if (fileLength > COMPACTION_MIN_BYTES && fileLength > 2 * liveBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("[DiskCache] Erro ao escrever cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reescreve o ficheiro apenas com os registos vivos e não expirados.
+     *
+     * @throws IOException se a reescrita falhar (o ficheiro original mantém-se)
+     */
+    public synchronized void compact() throws IOException {
+        long now = clock.millis();
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        LinkedHashMap<String, Slot> compacted = new LinkedHashMap<>();
+        long position = 0;
+
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Slot> e : index.entrySet()) {
+                Slot slot = e.getValue();
+                if (slot.expiresAtMillis() <= now) {
+                    continue;
+                }
+                long length = slot.recordBytes();
+                long copied = 0;
+                while (copied < length) {
+                    long n = channel.transferTo(slot.offset() + copied, length - copied, out);
+                    if (n <= 0) {
+                        throw new IOException("Segmento mais curto do que o índice");
+                    }
+                    copied += n;
+                }
+                compacted.put(e.getKey(), new Slot(position, slot.keyLength(), slot.valueLength(),
+                        slot.expiresAtMillis(), slot.crc()));
+                position += length;
+            }
+            out.force(false);
+        }
+
+        channel.close();
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = openChannel(file);
+        }
+
+        index.clear();
+        index.putAll(compacted);
+        fileLength = position;
+        liveBytes = position;
+    }
+
+    /** @return número de entradas vivas no índice */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /** @return tamanho atual do ficheiro de segmento em bytes */
+    public synchronized long getFileLength() {
+        return fileLength;
+    }
+
+    /** @return número de leituras com sucesso */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return número de leituras sem resposta válida */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static FileChannel openChannel(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Lê cabeçalhos e chaves; trunca o ficheiro no primeiro registo inválido.
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long now = clock.millis();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            int magic = header.getInt(0);
+            int keyLength = header.getInt(4);
+            int valueLength = header.getInt(8);
+            long expiresAt = header.getLong(12);
+            int crc = header.getInt(20);
+            if (magic != MAGIC || keyLength < 0 || keyLength > MAX_KEY_BYTES || valueLength < 0
+                    || position + HEADER_BYTES + keyLength + valueLength > size) {
+                break;
+            }
+            ByteBuffer keyBuf = ByteBuffer.allocate(keyLength);
+            readFully(keyBuf, position + HEADER_BYTES);
+            String key = new String(keyBuf.array(), StandardCharsets.UTF_8);
+
+            Slot old = index.remove(key);
+            if (old != null) {
+                liveBytes -= old.recordBytes();
+            }
+            Slot slot = new Slot(position, keyLength, valueLength, expiresAt, crc);
+            if (expiresAt > now) {
+                index.put(key, slot);
+                liveBytes += slot.recordBytes();
+            }
+            position += slot.recordBytes();
+        }
+
+        if (position < size) {
+            System.err.println("[DiskCache] Registo incompleto em " + file + " (offset " + position + "); a truncar");
+            channel.truncate(position);
+        }
+        fileLength = position;
+    }
+
+    private void evictOldest() throws IOException {
+        Iterator<Map.Entry<String, Slot>> it = index.entrySet().iterator();
+        while (liveBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Slot> eldest = it.next();
+            liveBytes -= eldest.getValue().recordBytes();
+            it.remove();
+            append(eldest.getKey().getBytes(StandardCharsets.UTF_8), EMPTY, TOMBSTONE_EXPIRES_AT);
+        }
+    }
+
+    // Lápide fora do caminho de escrita normal: erros são registados e ignorados
+    private void persistRemoval(String key) {
+        try {
+            append(key.getBytes(StandardCharsets.UTF_8), EMPTY, TOMBSTONE_EXPIRES_AT);
+        } catch (IOException e) {
+            System.err.println("[DiskCache] Erro ao escrever cache: " + e.getMessage());
+        }
+    }
+
+    // Acrescenta um registo ao fim do segmento e devolve a respetiva posição.
+    private Slot append(byte[] keyBytes, byte[] valueBytes, long expiresAt) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + valueBytes.length);
+        record.position(HEADER_BYTES);
+        record.put(keyBytes).put(valueBytes);
+        int crc = crc(record.array(), HEADER_BYTES, keyBytes.length + valueBytes.length);
+        record.putInt(0, MAGIC)
+                .putInt(4, keyBytes.length)
+                .putInt(8, valueBytes.length)
+                .putLong(12, expiresAt)
+                .putInt(20, crc);
+        record.flip();
+
+        long offset = fileLength;
+        writeFully(record, offset);
+        fileLength += record.capacity();
+        return new Slot(offset, keyBytes.length, valueBytes.length, expiresAt, crc);
+    }
+
+    private void removeSlot(String key, Slot slot) {
+        if (index.remove(key, slot)) {
+            liveBytes -= slot.recordBytes();
+        }
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new IOException("Fim de ficheiro inesperado em " + file);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    private static int crc(byte[] data, int length) {
+        return crc(data, 0, length);
+    }
+
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,38 @@
+package com.myapp.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Utilitários para cadeias de {@link CompletableFuture}.
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: usado pelos clientes HTTP e pelo Service para que cancelar o
+ * resultado de um pedido assíncrono cancele também o pedido em curso.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Liga o cancelamento de um futuro derivado ({@code thenApply},
+     * {@code exceptionally}, ...) ao futuro de que depende. O
+     * {@link CompletableFuture#cancel(boolean)} não se propaga para trás na
+     * cadeia: sem isto, cancelar o resultado descartava-o mas o pedido HTTP
+     * ({@code HttpClient.sendAsync}) continuava até ao fim.
+     *
+     * @param derived futuro devolvido a quem chama
+     * @param source  futuro de que {@code derived} depende
+     * @param <T>     tipo do resultado
+     * @return {@code derived}
+     */
+    public static <T> CompletableFuture<T> propagateCancel(CompletableFuture<T> derived, Future<?> source) {
+        derived.whenComplete((value, error) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+}
@@ -0,0 +1,183 @@
+package com.myapp.utils;
+
+/**
+ * Distâncias geodésicas (esfera de raio {@value #EARTH_RADIUS_KM} km) entre
+ * pares de pontos e ao longo de sequências de coordenadas.
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: cálculo numérico sem lógica de negócio, usado pelo Service
+ * (distâncias em linha reta, reamostragem de rotas) e pelo motor de rotas
+ * local.
+ *
+ * As funções sobre sequências trabalham com arrays primitivos numa única
+ * passagem:
+ * - o cosseno da latitude de cada ponto é calculado uma vez e serve os dois
+ * troços que o partilham;
+ * - troços curtos (menos de {@value #FAST_PATH_MAX_RAD} rad de diferença
+ * somada de latitude e longitude, ~6 km) usam a aproximação equirectangular,
+ * só com uma raiz quadrada; o erro relativo fica abaixo de 1e-6;
+ * - os restantes usam a fórmula de Haversine.
+ *
+ * Se o módulo {@code jdk.incubator.vector} estiver presente (JVM lançada com
+ * {@code --add-modules jdk.incubator.vector}) e a aplicação tiver sido
+ * compilada com o perfil Maven {@code vector}, as sequências são processadas
+ * com a Vector API, várias coordenadas por instrução. A propriedade de sistema
+ * {@value #VECTOR_PROPERTY}{@code =false} força a versão escalar.
+ */
+public final class GeoMath {
+    /** Raio médio da Terra, em quilómetros. */
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    /** Raio médio da Terra, em metros. */
+    public static final double EARTH_RADIUS_M = EARTH_RADIUS_KM * 1000.0;
+
+    static final double FAST_PATH_MAX_RAD = 1e-3;
+    static final String VECTOR_PROPERTY = "geomath.vector";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "com.myapp.utils.VectorGeoKernel";
+
+    /**
+     * Cálculo das distâncias de troço de uma sequência de coordenadas (ver
+     * {@link GeoMath#segmentMeters}).
+     */
+    interface SegmentKernel {
+        void segmentMeters(double[] lat, double[] lon, int count, double[] out);
+    }
+
+    static final SegmentKernel SCALAR = GeoMath::segmentMetersScalar;
+    private static final SegmentKernel KERNEL = loadKernel();
+
+    private GeoMath() {
+    }
+
+    /**
+     * Distância em quilómetros entre duas coordenadas (fórmula de Haversine).
+     *
+     * @param lat1 latitude do primeiro ponto, em graus
+     * @param lon1 longitude do primeiro ponto, em graus
+     * @param lat2 latitude do segundo ponto, em graus
+     * @param lon2 longitude do segundo ponto, em graus
+     * @return distância em linha reta
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        return haversineMeters(lat1, lon1, lat2, lon2) / 1000.0;
+    }
+
+    /**
+     * Distância em metros entre duas coordenadas (fórmula de Haversine).
+     *
+     * @param lat1 latitude do primeiro ponto, em graus
+     * @param lon1 longitude do primeiro ponto, em graus
+     * @param lat2 latitude do segundo ponto, em graus
+     * @param lon2 longitude do segundo ponto, em graus
+     * @return distância em linha reta
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        return haversine(phi2 - phi1, Math.toRadians(lon2 - lon1), Math.cos(phi1), Math.cos(phi2));
+    }
+
+    /**
+     * Distância de cada ponto ao anterior: {@code out[0] = 0} e
+     * {@code out[i]} é o comprimento do troço {@code i - 1 → i}, em metros.
+     *
+     * @param lat   latitudes em graus
+     * @param lon   longitudes em graus
+     * @param count número de pontos a usar
+     * @param out   destino, com pelo menos {@code count} posições
+     */
+    public static void segmentMeters(double[] lat, double[] lon, int count, double[] out) {
+        checkArrays(lat, lon, count, out);
+        KERNEL.segmentMeters(lat, lon, count, out);
+    }
+
+    /**
+     * Distância acumulada de cada ponto desde o primeiro, em metros.
+     *
+     * @param lat   latitudes em graus
+     * @param lon   longitudes em graus
+     * @param count número de pontos a usar
+     * @return array com {@code count} distâncias ({@code [0] = 0})
+     */
+    public static double[] cumulativeMeters(double[] lat, double[] lon, int count) {
+        double[] out = new double[count];
+        segmentMeters(lat, lon, count, out);
+        for (int i = 1; i < count; i++) {
+            out[i] += out[i - 1];
+        }
+        return out;
+    }
+
+    /**
+     * Indica se as sequências são processadas com a Vector API.
+     *
+     * @return {@code true} se o módulo {@code jdk.incubator.vector} está em uso
+     */
+    public static boolean isVectorized() {
+        return KERNEL != SCALAR;
+    }
+
+    static void segmentMetersScalar(double[] lat, double[] lon, int count, double[] out) {
+        if (count == 0) {
+            return;
+        }
+        out[0] = 0.0;
+        double prevPhi = Math.toRadians(lat[0]);
+        double prevLambda = Math.toRadians(lon[0]);
+        double prevCos = Math.cos(prevPhi);
+        for (int i = 1; i < count; i++) {
+            double phi = Math.toRadians(lat[i]);
+            double lambda = Math.toRadians(lon[i]);
+            double cos = Math.cos(phi);
+            out[i] = segment(phi - prevPhi, lambda - prevLambda, prevCos, cos);
+            prevPhi = phi;
+            prevLambda = lambda;
+            prevCos = cos;
+        }
+    }
+
+    /**
+     * Comprimento de um troço, em metros, a partir das diferenças de latitude
+     * e longitude (radianos) e dos cossenos das latitudes dos extremos.
+     */
+    static double segment(double dPhi, double dLambda, double cos1, double cos2) {
+        // Troço que atravessa o antimeridiano
+        if (dLambda > Math.PI) {
+            dLambda -= 2 * Math.PI;
+        } else if (dLambda < -Math.PI) {
+            dLambda += 2 * Math.PI;
+        }
+        if (Math.abs(dPhi) + Math.abs(dLambda) < FAST_PATH_MAX_RAD) {
+            double x = dLambda * 0.5 * (cos1 + cos2);
+            return EARTH_RADIUS_M * Math.sqrt(x * x + dPhi * dPhi);
+        }
+        return haversine(dPhi, dLambda, cos1, cos2);
+    }
+
+    private static double haversine(double dPhi, double dLambda, double cos1, double cos2) {
+        double sinPhi = Math.sin(dPhi / 2);
+        double sinLambda = Math.sin(dLambda / 2);
+        double a = sinPhi * sinPhi + cos1 * cos2 * sinLambda * sinLambda;
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    private static void checkArrays(double[] lat, double[] lon, int count, double[] out) {
+        if (count < 0 || count > lat.length || count > lon.length || count > out.length) {
+            throw new IllegalArgumentException("count inválido: " + count);
+        }
+    }
+
+    // Vector API só se o módulo foi carregado e a classe compilada (perfil vector)
+    private static SegmentKernel loadKernel() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+                || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return (SegmentKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
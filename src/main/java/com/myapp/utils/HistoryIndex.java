@@ -0,0 +1,399 @@
+package com.myapp.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import com.myapp.model.HistoryEntry;
+import com.myapp.model.TransportMode;
+
+/**
+ * Índice em memória do histórico, gravado no ficheiro {@code <diário>.idx}.
+ *
+ * Cada registo descreve uma linha do diário (posição e tamanho em bytes) e
+ * os campos pesquisáveis da entrada: instante (minutos desde a época),
+ * modo e nomes da origem e do destino. Arrancar só precisa de ler o índice;
+ * as entradas são lidas do diário quando são mostradas.
+ *
+ * - Instante: os registos estão pela ordem de inserção, que é cronológica,
+ * por isso um intervalo de datas é encontrado por pesquisa binária.
+ * - Nomes: mapa ordenado de termos (minúsculas, sem acentos) para os números
+ * de sequência dos registos; a pesquisa por prefixo é um {@code subMap}. O
+ * mapa só é construído na primeira pesquisa por texto, para não atrasar o
+ * arranque.
+ * - Modo: comparado registo a registo depois dos filtros anteriores.
+ *
+ * Formato do ficheiro (big-endian, {@link DataOutputStream}): {@code int}
+ * {@value #MAGIC} e {@code int} versão, seguidos dos registos
+ * ({@code long} posição, {@code int} tamanho, {@code long} minuto,
+ * {@code byte} modo ou -1, e os dois nomes como {@code boolean} + UTF).
+ */
+final class HistoryIndex {
+    static final int MAGIC = 0x52504849; // "RPHI"
+    static final int VERSION = 1;
+    static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int MAX_NAME_CHARS = 1000;
+
+    /**
+     * Uma linha do diário.
+     */
+    static final class Record {
+        final int seq;
+        long offset;
+        final int length;
+        final long minute;
+        final TransportMode mode;
+        final String origin;
+        final String destination;
+
+        Record(int seq, long offset, int length, long minute, TransportMode mode, String origin,
+                String destination) {
+            this.seq = seq;
+            this.offset = offset;
+            this.length = length;
+            this.minute = minute;
+            this.mode = mode;
+            this.origin = origin;
+            this.destination = destination;
+        }
+    }
+
+    // Números de sequência (crescentes) dos registos que contêm um termo
+    private static final class Postings {
+        int[] seqs = new int[2];
+        int size;
+
+        void add(int seq) {
+            if (size == seqs.length) {
+                seqs = Arrays.copyOf(seqs, size * 2);
+            }
+            seqs[size++] = seq;
+        }
+    }
+
+    // Da mais antiga para a mais recente
+    private final List<Record> records = new ArrayList<>();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private boolean termsBuilt;
+    private int nextSeq;
+
+    int size() {
+        return records.size();
+    }
+
+    Record get(int position) {
+        return records.get(position);
+    }
+
+    List<Record> records() {
+        return records;
+    }
+
+    Record add(long offset, int length, long minute, TransportMode mode, String origin, String destination) {
+        Record record = new Record(nextSeq++, offset, length, minute, mode, origin, destination);
+        records.add(record);
+        if (termsBuilt) {
+            indexTerms(record);
+        }
+        return record;
+    }
+
+    Record add(long offset, int length, HistoryEntry entry) {
+        return add(offset, length, minuteOf(entry.getTimestamp()), entry.getMode(), nameOf(entry, true),
+                nameOf(entry, false));
+    }
+
+    // Os termos dos registos removidos ficam no mapa até ao próximo reindex()
+    void removeOldest(int count) {
+        records.subList(0, count).clear();
+    }
+
+    void clear() {
+        records.clear();
+        terms.clear();
+        termsBuilt = false;
+    }
+
+    /**
+     * Descarta o mapa de termos (com os registos já removidos); é
+     * reconstruído na próxima pesquisa por texto.
+     */
+    void reindex() {
+        terms.clear();
+        termsBuilt = false;
+    }
+
+    private void indexTerms(Record record) {
+        for (String name : new String[] { record.origin, record.destination }) {
+            for (String term : tokenize(name)) {
+                Postings postings = terms.computeIfAbsent(term, t -> new Postings());
+                if (postings.size == 0 || postings.seqs[postings.size - 1] != record.seq) {
+                    postings.add(record.seq);
+                }
+            }
+        }
+    }
+
+    /**
+     * Posições (da mais recente para a mais antiga) dos registos que
+     * satisfazem todos os filtros.
+     *
+     * @param text prefixos a procurar nos nomes (todos têm de existir), ou
+     *             {@code null}
+     * @param mode modo exigido, ou {@code null}
+     * @param from instante mínimo (inclusive), ou {@code null}
+     * @param to   instante máximo (exclusive), ou {@code null}
+     * @return posições em {@link #get(int)}
+     */
+    int[] search(String text, TransportMode mode, LocalDateTime from, LocalDateTime to) {
+        int first = from != null ? lowerBound(toMinute(from)) : 0;
+        int last = to != null ? lowerBound(toMinute(to)) : records.size();
+        BitSet matches = text != null ? matchText(text) : null;
+
+        int[] result = new int[Math.max(0, last - first)];
+        int count = 0;
+        for (int i = last - 1; i >= first; i--) {
+            if (matches != null && !matches.get(i)) {
+                continue;
+            }
+            if (mode != null && records.get(i).mode != mode) {
+                continue;
+            }
+            result[count++] = i;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Primeira posição com minuto >= minute (registos sem data contam como antigos)
+    private int lowerBound(long minute) {
+        int lo = 0;
+        int hi = records.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (records.get(mid).minute < minute) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private BitSet matchText(String text) {
+        List<String> prefixes = tokenize(text);
+        if (prefixes.isEmpty() || records.isEmpty()) {
+            return null;
+        }
+        if (!termsBuilt) {
+            for (Record record : records) {
+                indexTerms(record);
+            }
+            termsBuilt = true;
+        }
+        int baseSeq = records.get(0).seq;
+        BitSet all = null;
+        for (String prefix : prefixes) {
+            BitSet any = new BitSet(records.size());
+            for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    int position = postings.seqs[i] - baseSeq;
+                    if (position >= 0) {
+                        any.set(position);
+                    }
+                }
+            }
+            if (all == null) {
+                all = any;
+            } else {
+                all.and(any);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Divide um nome em termos pesquisáveis: minúsculas, sem acentos,
+     * separados por tudo o que não for letra ou dígito (com
+     * {@link Character#isLetterOrDigit}, ou seja, também letras não latinas).
+     *
+     * @param text texto (pode ser {@code null})
+     * @return termos, pela ordem do texto
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String plain = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!isMark(c) && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Acentos separados pela decomposição NFD
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    static long minuteOf(String timestamp) {
+        if (timestamp == null) {
+            return UNKNOWN_TIME;
+        }
+        try {
+            return toMinute(LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT));
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_TIME;
+        }
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static String nameOf(HistoryEntry entry, boolean origin) {
+        var point = origin ? entry.getOrigin() : entry.getDestination();
+        String name = point != null ? point.getName() : null;
+        return name != null && name.length() > MAX_NAME_CHARS ? name.substring(0, MAX_NAME_CHARS) : name;
+    }
+
+    // ---- Ficheiro ----
+
+    static byte[] header() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encode(Record record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(record, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Cabeçalho seguido de todos os registos (para reescrever o índice).
+     */
+    byte[] encodeAll() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + records.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(header());
+            for (Record record : records) {
+                write(record, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(Record record, DataOutputStream out) throws IOException {
+        out.writeLong(record.offset);
+        out.writeInt(record.length);
+        out.writeLong(record.minute);
+        out.writeByte(record.mode != null ? record.mode.ordinal() : -1);
+        writeName(record.origin, out);
+        writeName(record.destination, out);
+    }
+
+    private static void writeName(String name, DataOutputStream out) throws IOException {
+        out.writeBoolean(name != null);
+        if (name != null) {
+            out.writeUTF(name);
+        }
+    }
+
+    /**
+     * Lê o ficheiro de índice. Só aceita registos contíguos (cada um começa
+     * onde o anterior acaba) e contidos no diário; pára no primeiro registo
+     * incompleto ou inválido.
+     *
+     * @param indexFile   ficheiro de índice
+     * @param journalSize tamanho atual do diário
+     * @return posição do diário até onde o índice é válido (0 se não existir
+     *         ou for inválido)
+     * @throws IOException se o ficheiro não puder ser lido
+     */
+    long load(Path indexFile, long journalSize) throws IOException {
+        clear();
+        long covered = 0;
+        try (InputStream stream = Files.newInputStream(indexFile);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return 0;
+            }
+            TransportMode[] modes = TransportMode.values();
+            while (true) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                long minute = in.readLong();
+                int mode = in.readByte();
+                String origin = readName(in);
+                String destination = readName(in);
+                if (offset != covered || length <= 0 || offset + length > journalSize || mode >= modes.length) {
+                    break;
+                }
+                add(offset, length, minute, mode >= 0 ? modes[mode] : null, origin, destination);
+                covered = offset + length;
+            }
+        } catch (NoSuchFileException | EOFException e) {
+            // Sem índice ou último registo incompleto: vale o que foi lido
+        }
+        return covered;
+    }
+
+    private static String readName(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
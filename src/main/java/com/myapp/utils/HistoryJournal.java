@@ -0,0 +1,400 @@
+package com.myapp.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread de escrita do diário do histórico e do respetivo índice
+ * ({@link HistoryIndex}).
+ *
+ * Recebe operações por ordem numa fila: linhas a acrescentar
+ * ({@link Append}), compactações ({@link Compaction}), reescritas completas
+ * ({@link Rewrite}), reescritas só do índice ({@link WriteIndex}) e marcas de
+ * flush ({@link CountDownLatch}). As linhas pendentes são juntas numa só
+ * escrita e forçadas para o disco no máximo a cada
+ * {@value #FSYNC_INTERVAL_MS} ms.
+ *
+ * Há uma instância (e uma thread) por ficheiro, partilhada por todos os
+ * {@link HistoryManager} desse ficheiro: cada gestor obtém-na com
+ * {@link #open(Path)} e liberta-a com {@link #close()}; quando o último a
+ * liberta, as escritas pendentes são concluídas, a thread termina e os
+ * ficheiros são fechados.
+ *
+ * Uma falha de escrita descarta as linhas pendentes e incrementa um contador
+ * ({@link #failures()}): os gestores comparam-no com o valor que já
+ * conheciam e, se mudou, reconstroem o estado a partir do diário. Até lá, as
+ * compactações pedidas com um valor desatualizado são ignoradas, porque as
+ * posições que copiariam contam com linhas que não chegaram ao disco.
+ */
+final class HistoryJournal implements Runnable {
+    static final long FSYNC_INTERVAL_MS = 1000L;
+
+    private static final long FLUSH_TIMEOUT_S = 10L;
+    private static final int MAX_BATCH = 1024;
+
+    // Uma thread de escrita por ficheiro (caminho absoluto normalizado); acesso sincronizado no mapa
+    private static final Map<Path, HistoryJournal> JOURNALS = new HashMap<>();
+    // Marca de fim: escreve o que estiver pendente e termina a thread
+    private static final Object STOP = new Object();
+
+    /** Acrescenta uma linha ao diário e o registo correspondente ao índice. */
+    record Append(byte[] line, byte[] indexRecord) {
+    }
+
+    /**
+     * Reescreve o diário só com os intervalos indicados do ficheiro atual (por
+     * ordem) e substitui o índice. {@code failures} é o número de falhas de
+     * escrita que quem a pediu já conhecia.
+     */
+    record Compaction(long[] offsets, int[] lengths, byte[] index, int failures) {
+    }
+
+    /** Substitui o diário e o índice pelo conteúdo indicado. */
+    record Rewrite(byte[] journal, byte[] index) {
+    }
+
+    /** Substitui só o índice. */
+    record WriteIndex(byte[] index) {
+    }
+
+    private final Path file;
+    private final Path indexFile;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final List<byte[]> pendingLines = new ArrayList<>();
+    private final List<byte[]> pendingRecords = new ArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final Thread thread;
+    private volatile IOException lastFailure;
+    private volatile boolean closed;
+    private int users; // protegido por JOURNALS
+    private boolean stopping;
+    private FileChannel channel;
+    private FileChannel indexChannel;
+    private boolean dirty;
+    private long lastSyncNanos = System.nanoTime();
+
+    private HistoryJournal(Path file) {
+        this.file = file;
+        this.indexFile = indexFileOf(file);
+        this.thread = new Thread(this, "history-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Obtém a thread de escrita do ficheiro, criando-a se for o primeiro
+     * utilizador. Cada chamada tem de ter um {@link #close()} correspondente.
+     *
+     * @param file diário (caminho absoluto normalizado)
+     * @return instância partilhada do ficheiro
+     */
+    static HistoryJournal open(Path file) {
+        synchronized (JOURNALS) {
+            HistoryJournal journal = JOURNALS.computeIfAbsent(file, HistoryJournal::new);
+            journal.users++;
+            return journal;
+        }
+    }
+
+    /**
+     * Liberta uma instância obtida com {@link #open(Path)}. O último
+     * utilizador do ficheiro espera pelas escritas pendentes, termina a thread
+     * e fecha o diário e o índice.
+     */
+    void close() {
+        synchronized (JOURNALS) {
+            if (--users > 0) {
+                return;
+            }
+            JOURNALS.remove(file);
+            closed = true;
+            queue.add(STOP);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(FLUSH_TIMEOUT_S));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                System.err.println("[History] Tempo esgotado à espera da escrita do histórico");
+            }
+        }
+    }
+
+    /**
+     * Número de falhas de escrita no ficheiro desde que a thread de escrita
+     * foi criada.
+     *
+     * @return falhas de escrita
+     */
+    int failures() {
+        return failures.get();
+    }
+
+    /** @return erro da última falha de escrita, ou {@code null} se não houve nenhuma */
+    IOException lastFailure() {
+        return lastFailure;
+    }
+
+    static Path indexFileOf(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    void submit(Object operation) {
+        if (closed) {
+            throw new IllegalStateException("Histórico fechado: " + file);
+        }
+        queue.add(operation);
+    }
+
+    void flush() {
+        if (closed) {
+            return; // a thread já escreveu tudo ao terminar
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        queue.add(done);
+        try {
+            if (!done.await(FLUSH_TIMEOUT_S, TimeUnit.SECONDS)) {
+                System.err.println("[History] Tempo esgotado à espera da escrita do histórico");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Object> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Object first;
+                if (dirty) {
+                    long waitMs = FSYNC_INTERVAL_MS - (System.nanoTime() - lastSyncNanos) / 1_000_000;
+                    first = queue.poll(Math.max(0L, waitMs), TimeUnit.MILLISECONDS);
+                } else {
+                    first = queue.take();
+                }
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH);
+                    process(batch);
+                    batch.clear();
+                }
+                if (stopping) {
+                    return;
+                }
+                if (dirty && (System.nanoTime() - lastSyncNanos) / 1_000_000 >= FSYNC_INTERVAL_MS) {
+                    sync();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Erro ao guardar histórico: " + e.getMessage());
+                lastFailure = e;
+                failures.incrementAndGet();
+                pendingLines.clear();
+                pendingRecords.clear();
+                closeChannels();
+                // Desbloqueia quem esperava por um flush deste lote
+                for (Object operation : batch) {
+                    if (operation instanceof CountDownLatch latch) {
+                        latch.countDown();
+                    }
+                }
+                batch.clear();
+                if (stopping) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void process(List<Object> batch) throws IOException {
+        for (Object operation : batch) {
+            if (operation instanceof Append append) {
+                pendingLines.add(append.line());
+                pendingRecords.add(append.indexRecord());
+            } else if (operation instanceof Compaction compaction) {
+                // As linhas pendentes podem estar entre os intervalos a copiar
+                writePending();
+                if (compaction.failures() == failures.get()) {
+                    compact(compaction);
+                } else {
+                    System.err.println("[History] Compactação ignorada depois de uma falha de escrita");
+                }
+            } else if (operation instanceof Rewrite rewrite) {
+                pendingLines.clear(); // já incluídas na reescrita
+                pendingRecords.clear();
+                rewrite(rewrite);
+            } else if (operation instanceof WriteIndex writeIndex) {
+                writePending();
+                closeChannels();
+                replace(indexFile, writeIndex.index());
+            } else if (operation instanceof CountDownLatch latch) {
+                writePending();
+                if (dirty) {
+                    sync();
+                }
+                latch.countDown();
+            } else if (operation == STOP) {
+                stopping = true;
+                writePending();
+                if (dirty) {
+                    sync();
+                }
+                closeChannels();
+            }
+        }
+        writePending();
+    }
+
+    private void writePending() throws IOException {
+        if (pendingLines.isEmpty()) {
+            return;
+        }
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        if (indexChannel == null) {
+            indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            if (indexChannel.size() == 0) {
+                writeFully(indexChannel, HistoryIndex.header());
+            }
+        }
+        // O diário primeiro: um registo do índice sem linha seria inválido
+        writeFully(channel, pendingLines);
+        writeFully(indexChannel, pendingRecords);
+        pendingLines.clear();
+        pendingRecords.clear();
+        dirty = true;
+    }
+
+    private void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+        if (indexChannel != null) {
+            indexChannel.force(false);
+        }
+        dirty = false;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    // Copia os intervalos retidos para um ficheiro temporário e substitui o diário
+    private void compact(Compaction compaction) throws IOException {
+        closeChannels();
+        Path tempFile = tempOf(file);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < compaction.offsets().length; i++) {
+                long position = compaction.offsets()[i];
+                long remaining = compaction.lengths()[i];
+                while (remaining > 0) {
+                    long copied = in.transferTo(position, remaining, out);
+                    if (copied <= 0) {
+                        throw new IOException("Diário mais curto do que o índice");
+                    }
+                    position += copied;
+                    remaining -= copied;
+                }
+            }
+            out.force(false);
+        }
+        replaceBoth(tempFile, compaction.index());
+    }
+
+    private void rewrite(Rewrite rewrite) throws IOException {
+        closeChannels();
+        Path tempFile = tempOf(file);
+        writeFile(tempFile, rewrite.journal());
+        replaceBoth(tempFile, rewrite.index());
+    }
+
+    // Sem índice entre as duas mudanças de nome: uma falha pelo meio obriga a
+    // reconstruir o índice, em vez de o deixar a apontar para o diário errado
+    private void replaceBoth(Path journalTemp, byte[] index) throws IOException {
+        Files.deleteIfExists(indexFile);
+        move(journalTemp, file);
+        replace(indexFile, index);
+        dirty = false;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private static void replace(Path target, byte[] content) throws IOException {
+        Path tempFile = tempOf(target);
+        writeFile(tempFile, content);
+        move(tempFile, target);
+    }
+
+    private static void writeFile(Path target, byte[] content) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, content);
+            out.force(false);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path tempOf(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    private static void writeFully(FileChannel out, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel out, List<byte[]> chunks) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[chunks.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(chunks.get(i));
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= out.write(buffers);
+        }
+    }
+
+    private void closeChannels() {
+        channel = close(channel);
+        indexChannel = close(indexChannel);
+    }
+
+    private static FileChannel close(FileChannel open) {
+        if (open != null) {
+            try {
+                open.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar histórico: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+}
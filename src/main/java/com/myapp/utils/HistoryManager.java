@@ -1,68 +1,608 @@
 package com.myapp.utils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.myapp.model.HistoryEntry;
+import com.myapp.model.TransportMode;
 
-import java.io.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
-// Gere a persistência do histórico de rotas em ficheiro JSON.
-public class HistoryManager {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private final String fileName;
-    private List<HistoryEntry> history;
+/**
+ * Gere a persistência do histórico de rotas.
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: persistência local, sem lógica de negócio; usado pela UI (View)
+ * para guardar, pesquisar e listar as rotas calculadas.
+ *
+ * Formato: diário só de acrescento ("append-only") em JSON delimitado por
+ * linhas (uma entrada por linha, da mais antiga para a mais recente), com um
+ * índice binário ao lado ({@code <ficheiro>.idx}, ver {@link HistoryIndex}).
+ * Cada {@link #addEntry} só acrescenta uma linha ao diário e um registo ao
+ * índice; a escrita é feita por uma thread própria ({@link HistoryJournal}),
+ * fora da thread da UI.
+ *
+ * - Arranque: só o índice é lido. As linhas do diário que o índice não cobre
+ * (ex.: índice de uma versão anterior ou perdido) são lidas e indexadas, e o
+ * índice é regravado.
+ * - Leitura preguiçosa: as entradas são lidas do diário, por posição, só
+ * quando são pedidas ({@link #search} por páginas, ou a vista
+ * {@link #getHistory()}), e as últimas {@value #CACHE_SIZE} ficam em cache
+ * (também as acrescentadas nesta sessão; uma entrada que já saiu da cache e
+ * ainda não foi escrita obriga a esperar pela thread de escrita).
+ * - Pesquisa: por prefixos dos nomes da origem e do destino (sem distinguir
+ * maiúsculas nem acentos), por modo e por intervalo de datas.
+ * - Fsync em grupo: as escritas pendentes são forçadas para o disco no máximo
+ * a cada {@value HistoryJournal#FSYNC_INTERVAL_MS} ms ({@link #flush()}
+ * força de imediato).
+ * - Retenção: só são mantidas as {@code maxEntries} entradas mais recentes.
+ * - Compactação: quando o diário tem mais do dobro das linhas retidas, é
+ * reescrito (ficheiro temporário + mudança de nome atómica) só com as
+ * entradas retidas, copiando as linhas sem as voltar a interpretar.
+ * {@link #clearHistory()} é uma compactação para vazio.
+ * - Migração: um ficheiro no formato antigo (array JSON, da mais recente para
+ * a mais antiga, gravado na codificação da plataforma) é lido e convertido
+ * para o diário.
+ *
+ * - Falhas de escrita: a thread de escrita descarta as linhas pendentes; na
+ * operação seguinte ({@link #addEntry}, {@link #search}, {@link #getHistory()}
+ * ou {@link #flush()}) o gestor deteta a falha e reconstrói o índice a partir
+ * do diário que ficou no disco (uma migração que não chegou ao disco é
+ * repetida). {@link #clearHistory()} espera pela escrita e falha se ela não
+ * for feita.
+ *
+ * Instâncias diferentes sobre o mesmo ficheiro partilham a thread de escrita;
+ * ao carregar, as escritas pendentes desse ficheiro são concluídas primeiro.
+ * {@link #close()} liberta a thread de escrita, que termina quando a última
+ * instância do ficheiro é fechada.
+ * Só uma instância de cada vez deve acrescentar entradas a um ficheiro. Os
+ * métodos devem ser chamados a partir de uma única thread (a da UI).
+ */
+public class HistoryManager implements AutoCloseable {
+    private static final Gson GSON = new Gson();
+    private static final String DEFAULT_FILE = "history.ndjson";
+    private static final String LEGACY_FILE = "history.json";
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final int COMPACTION_FACTOR = 2;
+    private static final int CACHE_SIZE = 256;
+    // Entradas lidas de uma vez pela vista getHistory()
+    private static final int READ_AHEAD = 64;
+
+    /**
+     * Critérios de pesquisa; os campos a {@code null} não filtram.
+     *
+     * @param text texto a procurar: cada palavra tem de ser o início de uma
+     *             palavra do nome da origem ou do destino
+     * @param mode modo de transporte
+     * @param from data mínima (inclusive)
+     * @param to   data máxima (exclusive)
+     */
+    public record Query(String text, TransportMode mode, LocalDateTime from, LocalDateTime to) {
+        /** Todas as entradas. */
+        public static Query all() {
+            return new Query(null, null, null, null);
+        }
+    }
+
+    /**
+     * Uma página de resultados, da entrada mais recente para a mais antiga.
+     *
+     * @param entries      entradas da página
+     * @param pageIndex    número da página (a partir de 0)
+     * @param pageSize     tamanho pedido
+     * @param totalMatches número de entradas que satisfazem a pesquisa
+     */
+    public record Page(List<HistoryEntry> entries, int pageIndex, int pageSize, int totalMatches) {
+        /** Número de páginas (pelo menos 1, mesmo sem resultados). */
+        public int pageCount() {
+            return Math.max(1, (totalMatches + pageSize - 1) / pageSize);
+        }
+    }
+
+    private final Path file;
+    private final Path indexFile;
+    // Ficheiro no formato antigo a migrar (null se não houver)
+    private final Path legacyFile;
+    private final int maxEntries;
+    private final HistoryJournal journal;
+    private final HistoryIndex index = new HistoryIndex();
+    private final List<HistoryEntry> newestFirst = Collections.unmodifiableList(new NewestFirst());
+    // Entradas lidas do disco, por número de sequência (LRU)
+    private final Map<Integer, HistoryEntry> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, HistoryEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Tamanho e linhas do diário depois das escritas pendentes
+    private long journalBytes;
+    private int journalLines;
+    // As posições do índice já são as do diário compactado, que pode ainda
+    // não estar no disco
+    private boolean compactionPending;
+    // Bytes do diário que já estavam escritos na última espera pela thread de escrita
+    private long writtenBytes;
+    // Falhas de escrita da thread de escrita já refletidas no estado em memória
+    private int seenFailures;
+    private boolean closed;
 
     public HistoryManager() {
-        this("history.json");
+        this(Paths.get(DEFAULT_FILE), Paths.get(LEGACY_FILE), DEFAULT_MAX_ENTRIES);
     }
 
     // Construtor adicional para permitir injeção de caminho de ficheiro (útil para testes)
     public HistoryManager(String fileName) {
-        this.fileName = fileName;
-        this.history = loadHistory();
+        this(fileName, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Cria um gestor sobre o ficheiro indicado (diário ou formato antigo).
+     *
+     * @param fileName   ficheiro do histórico
+     * @param maxEntries número máximo de entradas retidas (pelo menos 1)
+     */
+    public HistoryManager(String fileName, int maxEntries) {
+        this(Paths.get(fileName), null, maxEntries);
+    }
+
+    private HistoryManager(Path file, Path legacyFile, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries deve ser >= 1");
+        }
+        this.file = file.toAbsolutePath().normalize();
+        this.indexFile = HistoryJournal.indexFileOf(this.file);
+        this.legacyFile = legacyFile;
+        this.maxEntries = maxEntries;
+        this.journal = HistoryJournal.open(this.file);
+        loadHistory(legacyFile, false);
     }
 
     // Adiciona uma nova entrada e guarda no ficheiro.
     public void addEntry(HistoryEntry entry) {
-        history.add(0, entry); // Adiciona no início (mais recente primeiro)
-        saveHistory();
+        ensureOpen();
+        recoverFromWriteFailure();
+        byte[] line = toLine(entry);
+        HistoryIndex.Record record = index.add(journalBytes, line.length, entry);
+        // Só a cache LRU guarda a entrada: a memória não cresce com a sessão
+        cache.put(record.seq, entry);
+        journalBytes += line.length;
+        journalLines++;
+        journal.submit(new HistoryJournal.Append(line, HistoryIndex.encode(record)));
+        if (index.size() > maxEntries) {
+            index.removeOldest(index.size() - maxEntries);
+        }
+        if (journalLines > COMPACTION_FACTOR * maxEntries) {
+            compact();
+        }
     }
 
+    /**
+     * Entradas retidas, da mais recente para a mais antiga. A lista é uma
+     * vista só de leitura que acompanha as alterações ao histórico; as
+     * entradas são lidas do ficheiro à medida que são acedidas.
+     *
+     * @return histórico (mais recente primeiro)
+     */
     public List<HistoryEntry> getHistory() {
-        return history;
+        recoverFromWriteFailure();
+        return newestFirst;
     }
 
+    /**
+     * Pesquisa no histórico e devolve uma página de resultados. Só as entradas
+     * da página são lidas do ficheiro.
+     *
+     * @param query     critérios de pesquisa
+     * @param pageIndex número da página (a partir de 0)
+     * @param pageSize  entradas por página (pelo menos 1)
+     * @return página pedida (vazia se estiver para lá do fim)
+     */
+    public Page search(Query query, int pageIndex, int pageSize) {
+        if (pageIndex < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Página inválida: " + pageIndex + " / " + pageSize);
+        }
+        recoverFromWriteFailure();
+        int[] matches = index.search(query.text(), query.mode(), query.from(), query.to());
+        int from = (int) Math.min((long) pageIndex * pageSize, matches.length);
+        int to = Math.min(from + pageSize, matches.length);
+
+        List<HistoryIndex.Record> records = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            records.add(index.get(matches[i]));
+        }
+        List<HistoryEntry> entries = new ArrayList<>(records.size());
+        for (HistoryEntry entry : read(records)) {
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return new Page(Collections.unmodifiableList(entries), pageIndex, pageSize, matches.length);
+    }
+
+    /**
+     * Apaga todas as entradas e espera que o diário vazio chegue ao disco.
+     *
+     * @throws UncheckedIOException se a escrita falhar; o histórico fica como
+     *                              estava no disco
+     */
     public void clearHistory() {
-        history.clear();
-        saveHistory();
+        ensureOpen();
+        index.clear();
+        cache.clear();
+        journalBytes = 0;
+        writtenBytes = 0;
+        journalLines = 0;
+        compactionPending = false;
+        journal.submit(new HistoryJournal.Rewrite(new byte[0], HistoryIndex.header()));
+        awaitWrites();
+        if (journal.failures() != seenFailures) {
+            recoverFromWriteFailure();
+            if (index.size() > 0) {
+                // Sem isto, a recuperação repunha em silêncio as entradas "apagadas"
+                throw new UncheckedIOException("Não foi possível limpar o histórico", journal.lastFailure());
+            }
+        }
+    }
+
+    /**
+     * Espera até as escritas pendentes estarem no disco (com fsync).
+     */
+    public void flush() {
+        awaitWrites();
+        recoverFromWriteFailure();
+    }
+
+    /**
+     * Conclui as escritas pendentes e liberta a thread de escrita (que termina
+     * se nenhuma outra instância usar o mesmo ficheiro). Depois de fechado, o
+     * histórico ainda pode ser lido mas não alterado.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        journal.close();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Histórico fechado: " + file);
+        }
+    }
+
+    private void awaitWrites() {
+        journal.flush();
+        compactionPending = false;
+        writtenBytes = journalBytes;
+    }
+
+    // Indica se as linhas em falta já foram escritas (senão, é preciso esperar pela thread de escrita)
+    private boolean written(List<HistoryIndex.Record> records, List<Integer> missing) {
+        for (int position : missing) {
+            HistoryIndex.Record record = records.get(position);
+            if (record.offset + record.length > writtenBytes) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void saveHistory() {
-        try (Writer writer = new FileWriter(fileName)) {
-            GSON.toJson(history, writer);
+    // Depois de uma falha, posições e contagens em memória incluem linhas que
+    // não foram escritas: o índice é reconstruído a partir do diário
+    private void recoverFromWriteFailure() {
+        if (journal.failures() == seenFailures) {
+            return;
+        }
+        System.err.println("[History] Falha na escrita do histórico; a reconstruir a partir de " + file);
+        index.clear();
+        cache.clear();
+        journalBytes = 0;
+        writtenBytes = 0;
+        journalLines = 0;
+        loadHistory(legacyFile, true);
+    }
+
+    // O diário passa a ter só as linhas retidas, pela mesma ordem
+    private void compact() {
+        int count = index.size();
+        long[] offsets = new long[count];
+        int[] lengths = new int[count];
+        long position = 0;
+        for (int i = 0; i < count; i++) {
+            HistoryIndex.Record record = index.get(i);
+            offsets[i] = record.offset;
+            lengths[i] = record.length;
+            record.offset = position;
+            position += record.length;
+        }
+        index.reindex();
+        journal.submit(new HistoryJournal.Compaction(offsets, lengths, index.encodeAll(), seenFailures));
+        journalBytes = position;
+        journalLines = count;
+        compactionPending = true;
+    }
+
+    // Substitui o diário pelas entradas indicadas (da mais antiga para a mais recente)
+    private void rewrite(List<HistoryEntry> entries) {
+        index.clear();
+        ByteArrayOutputStream journalContent = new ByteArrayOutputStream();
+        for (HistoryEntry entry : entries) {
+            byte[] line = toLine(entry);
+            cache.put(index.add(journalContent.size(), line.length, entry).seq, entry);
+            journalContent.writeBytes(line);
+        }
+        journal.submit(new HistoryJournal.Rewrite(journalContent.toByteArray(), index.encodeAll()));
+        journalBytes = journalContent.size();
+        journalLines = entries.size();
+    }
+
+    // rebuildIndex: ignora o índice gravado e lê o diário inteiro
+    private void loadHistory(Path legacyFile, boolean rebuildIndex) {
+        awaitWrites();
+        seenFailures = journal.failures();
+        Path source = file;
+        if (!Files.exists(file)) {
+            if (legacyFile == null || !Files.exists(legacyFile)) {
+                return;
+            }
+            source = legacyFile;
+        }
+
+        try {
+            if (!source.equals(file)) {
+                // Migração: o diário passa a existir já com todas as entradas
+                System.out.println("[History] A converter " + source + " para " + file);
+                rewrite(parseAll(Files.readAllBytes(source)));
+            } else {
+                loadJournal(rebuildIndex);
+            }
         } catch (IOException e) {
-            System.err.println("Erro ao guardar histórico: " + e.getMessage());
+            System.err.println("Erro ao ler histórico: " + e.getMessage());
         }
     }
 
-    private List<HistoryEntry> loadHistory() {
-        File file = new File(fileName);
-        if (!file.exists()) {
-            return new ArrayList<>();
+    private void loadJournal(boolean rebuildIndex) throws IOException {
+        long size = Files.size(file);
+        long covered = 0;
+        if (size > 0 && !rebuildIndex) {
+            covered = index.load(indexFile, size);
+            if (covered > 0 && byteAt(covered - 1) != '\n') {
+                index.clear(); // o índice não corresponde a este diário
+                covered = 0;
+            }
+        }
+
+        byte[] tail = readRange(covered, size);
+        if (covered == 0 && startsWithArray(tail)) {
+            System.out.println("[History] A converter " + file + " para o formato de diário");
+            rewrite(parseAll(tail));
+            return;
+        }
+
+        // Uma linha inválida ou sem '\n' final (escrita interrompida) obriga a
+        // reescrever o diário antes de acrescentar mais linhas
+        boolean repair = false;
+        int lineStart = 0;
+        for (int i = 0; i < tail.length; i++) {
+            if (tail[i] != '\n') {
+                continue;
+            }
+            HistoryEntry entry = parseLine(tail, lineStart, i + 1 - lineStart, covered + lineStart);
+            if (entry != null) {
+                index.add(covered + lineStart, i + 1 - lineStart, entry);
+            } else {
+                repair = true;
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < tail.length) {
+            System.err.println("[History] Última linha incompleta, ignorada");
+            repair = true;
         }
+        journalBytes = size;
+        writtenBytes = size;
+        journalLines = index.size();
+        if (tail.length > 0) {
+            System.out.println("[History] " + tail.length + " bytes do diário fora do índice lidos");
+            if (!repair) {
+                // O índice passa a cobrir o diário inteiro
+                journal.submit(new HistoryJournal.WriteIndex(index.encodeAll()));
+            }
+        }
+        if (index.size() > maxEntries) {
+            index.removeOldest(index.size() - maxEntries);
+        }
+        if (repair || journalLines > COMPACTION_FACTOR * maxEntries) {
+            compact();
+        }
+    }
 
-        try (Reader reader = new FileReader(file)) {
+    // Lê uma linha do diário; null (com aviso) se for inválida ou vazia
+    private static HistoryEntry parseLine(byte[] bytes, int start, int length, long offset) {
+        String line = new String(bytes, start, length, StandardCharsets.UTF_8);
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return GSON.fromJson(line, HistoryEntry.class);
+        } catch (JsonParseException e) {
+            // Ex.: linha escrita a meio antes de uma falha de energia
+            System.err.println("[History] Linha na posição " + offset + " inválida, ignorada: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Ficheiro completo (array antigo ou diário), da mais antiga para a mais recente
+    private List<HistoryEntry> parseAll(byte[] bytes) {
+        List<HistoryEntry> entries = new ArrayList<>();
+        if (startsWithArray(bytes)) {
+            loadLegacy(decode(bytes), entries);
+        } else {
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i == bytes.length || bytes[i] == '\n') {
+                    HistoryEntry entry = i > lineStart ? parseLine(bytes, lineStart, i - lineStart, lineStart) : null;
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                    lineStart = i + 1;
+                }
+            }
+        }
+        return entries.size() > maxEntries ? entries.subList(entries.size() - maxEntries, entries.size()) : entries;
+    }
+
+    private void loadLegacy(String content, List<HistoryEntry> entries) {
+        try {
             Type listType = new TypeToken<ArrayList<HistoryEntry>>() {
             }.getType();
-            List<HistoryEntry> loaded = GSON.fromJson(reader, listType);
-            return loaded != null ? loaded : new ArrayList<>();
+            List<HistoryEntry> loaded = GSON.fromJson(content, listType);
+            if (loaded != null) {
+                // O formato antigo guardava a mais recente primeiro
+                int keep = Math.min(loaded.size(), maxEntries);
+                for (int i = keep - 1; i >= 0; i--) {
+                    entries.add(loaded.get(i));
+                }
+            }
+        } catch (JsonParseException e) {
+            System.err.println("Erro ao ler histórico: " + e.getMessage());
+        }
+    }
+
+    private static boolean startsWithArray(byte[] bytes) {
+        for (byte b : bytes) {
+            if (!Character.isWhitespace(b)) {
+                return b == '[';
+            }
+        }
+        return false;
+    }
+
+    // UTF-8; se não for válido, ISO-8859-1 (ficheiros antigos gravados com
+    // FileWriter na codificação da plataforma)
+    private static String decode(byte[] bytes) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static byte[] toLine(HistoryEntry entry) {
+        return (GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int byteAt(long position) throws IOException {
+        byte[] one = readRange(position, position + 1);
+        return one.length == 1 ? one[0] : -1;
+    }
+
+    private byte[] readRange(long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readFully(channel, buffer, from);
+        }
+        return buffer.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Fim inesperado do histórico");
+            }
+        }
+    }
+
+    /**
+     * Entradas dos registos indicados, pela mesma ordem: da memória, da cache
+     * ou lidas do diário (um só acesso ao ficheiro para todas as que faltam).
+     * Uma entrada ilegível fica a {@code null}.
+     */
+    private List<HistoryEntry> read(List<HistoryIndex.Record> records) {
+        List<HistoryEntry> result = new ArrayList<>(records.size());
+        List<Integer> missing = new ArrayList<>();
+        for (HistoryIndex.Record record : records) {
+            HistoryEntry entry = cache.get(record.seq);
+            if (entry == null) {
+                missing.add(result.size());
+            }
+            result.add(entry);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        if (compactionPending || !written(records, missing)) {
+            awaitWrites();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int position : missing) {
+                HistoryIndex.Record record = records.get(position);
+                ByteBuffer buffer = ByteBuffer.allocate(record.length);
+                readFully(channel, buffer, record.offset);
+                HistoryEntry entry = parseLine(buffer.array(), 0, record.length, record.offset);
+                if (entry != null) {
+                    cache.put(record.seq, entry);
+                }
+                result.set(position, entry);
+            }
         } catch (IOException e) {
             System.err.println("Erro ao ler histórico: " + e.getMessage());
-            return new ArrayList<>();
+        }
+        return result;
+    }
+
+    /**
+     * Vista "mais recente primeiro" sobre o índice. Um acesso a uma entrada
+     * que não está em memória lê também as {@value #READ_AHEAD} seguintes,
+     * para percorrer a lista sem um acesso ao ficheiro por entrada.
+     */
+    private final class NewestFirst extends AbstractList<HistoryEntry> implements RandomAccess {
+        @Override
+        public HistoryEntry get(int index) {
+            int position = HistoryManager.this.index.size() - 1 - index;
+            HistoryIndex.Record record = HistoryManager.this.index.get(position);
+            HistoryEntry cached = cache.get(record.seq);
+            if (cached != null) {
+                return cached;
+            }
+            int first = Math.max(0, position - READ_AHEAD + 1);
+            List<HistoryIndex.Record> records = HistoryManager.this.index.records().subList(first, position + 1);
+            List<HistoryEntry> entries = read(new ArrayList<>(records));
+            return entries.get(entries.size() - 1);
+        }
+
+        @Override
+        public int size() {
+            return index.size();
         }
     }
 }
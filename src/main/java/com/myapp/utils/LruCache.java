@@ -0,0 +1,164 @@
+package com.myapp.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache em memória com política LRU (menos recentemente usado) e expiração
+ * por tempo de vida (TTL).
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: estrutura genérica, sem lógica de negócio.
+ * - Usada pelos clientes das APIs para evitar pedidos de rede repetidos.
+ *
+ * Todas as operações são sincronizadas; o custo de uma consulta é o de um
+ * {@link LinkedHashMap} em modo de ordem de acesso. Quando a capacidade é
+ * excedida, remove-se a entrada usada há mais tempo. Entradas expiradas são
+ * removidas quando consultadas ou com {@link #purgeExpired()}.
+ *
+ * @param <K> tipo da chave
+ * @param <V> tipo do valor
+ */
+public class LruCache<K, V> {
+    private final int capacity;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+
+    // Valor guardado e instante (epoch ms) a partir do qual deixa de ser válido.
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    /**
+     * Cria uma cache com a capacidade e o TTL indicados, usando o relógio do
+     * sistema.
+     *
+     * @param capacity número máximo de entradas (pelo menos 1)
+     * @param ttl      tempo de vida de cada entrada (positivo)
+     */
+    public LruCache(int capacity, Duration ttl) {
+        this(capacity, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Cria uma cache com relógio injetado (útil para testes de expiração).
+     *
+     * @param capacity número máximo de entradas (pelo menos 1)
+     * @param ttl      tempo de vida de cada entrada (positivo)
+     * @param clock    relógio usado para calcular a expiração
+     * @throws IllegalArgumentException se a capacidade ou o TTL forem inválidos
+     */
+    public LruCache(int capacity, Duration ttl, Clock clock) {
+        if (capacity < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("capacity deve ser >= 1 e ttl positivo");
+        }
+        this.capacity = capacity;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = Objects.requireNonNull(clock);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Devolve o valor associado à chave, se existir e não tiver expirado.
+     *
+     * @param key chave
+     * @return valor em cache, ou {@code null}
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.millis()) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    /**
+     * Guarda um valor com o TTL por omissão da cache.
+     *
+     * @param key   chave
+     * @param value valor (não pode ser {@code null})
+     */
+    public void put(K key, V value) {
+        putUntil(key, value, clock.millis() + ttlMillis);
+    }
+
+    /**
+     * Guarda um valor que expira no instante indicado (por exemplo, para
+     * preservar a expiração original de uma entrada lida do disco).
+     *
+     * @param key             chave
+     * @param value           valor (não pode ser {@code null})
+     * @param expiresAtMillis instante de expiração em epoch ms
+     */
+    public synchronized void putUntil(K key, V value, long expiresAtMillis) {
+        entries.put(key, new Entry<>(Objects.requireNonNull(value), expiresAtMillis));
+    }
+
+    /**
+     * Remove a entrada associada à chave.
+     *
+     * @param key chave
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove todas as entradas (os contadores mantêm-se).
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Remove as entradas expiradas.
+     *
+     * @return número de entradas removidas
+     */
+    public synchronized int purgeExpired() {
+        long now = clock.millis();
+        int removed = 0;
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAtMillis() <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** @return número de entradas atualmente guardadas (incluindo expiradas ainda não removidas) */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return número de consultas com sucesso */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** @return número de consultas sem valor válido */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -1,15 +1,18 @@
 package com.myapp.utils;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.Locale;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import com.myapp.model.POI;
-import com.myapp.model.Point;
 import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
 
 /**
  * Utilitário para exportação de rotas para formatos comuns.
@@ -21,14 +24,25 @@ import com.myapp.model.Route;
  * - Trabalha com modelos (Route, Point, POI) mas não os modifica.
  *
  * Atualmente suporta exportação para JSON e GPX.
+ *
+ * A exportação é feita em streaming: os pontos são lidos da
+ * {@link RouteGeometry} e escritos diretamente num {@link Writer} com buffer,
+ * sem construir o documento em memória (o JSON, tal como o GPX, é escrito à
+ * mão, com o mesmo escape de strings do {@code JsonWriter} da Gson).
+ * A memória usada é a do buffer, qualquer que seja o tamanho da rota. Os
+ * ficheiros terminados em {@value #GZIP_SUFFIX} são comprimidos com gzip.
  */
 public class RouteExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int GPX_DECIMALS = 6;
+    private static final int JSON_MAX_DECIMALS = 7;
 
     /**
      * Exporta a rota para um ficheiro JSON.
      *
      * Estrutura gerada:
-     * 
+     *
      * <pre>
      * {
      *   "distance_km": number,
@@ -40,43 +54,115 @@ public class RouteExporter {
      * </pre>
      *
      * @param route    a rota a exportar
-     * @param filePath caminho do ficheiro de saída
+     * @param filePath caminho do ficheiro de saída (comprimido com gzip se
+     *                 terminar em {@value #GZIP_SUFFIX})
      * @throws IOException quando ocorre erro de escrita
      */
     public static void exportToJson(Route route, String filePath) throws IOException {
-        JsonObject root = new JsonObject();
-
-        root.addProperty("distance_km", route.getDistanceKm());
-        root.addProperty("duration_sec", route.getDurationSec());
-        root.addProperty("mode", route.getMode().name());
-
-        // pontos da rota
-        JsonArray pts = new JsonArray();
-        for (Point p : route.getRoutePoints()) {
-            JsonObject o = new JsonObject();
-            o.addProperty("lat", p.getLatitude());
-            o.addProperty("lon", p.getLongitude());
-            pts.add(o);
+        try (Writer out = openWriter(filePath)) {
+            exportToJson(route, out);
+        }
+    }
+
+    /**
+     * Escreve a rota em JSON (mesma estrutura de
+     * {@link #exportToJson(Route, String)}) num {@link Writer}. As coordenadas
+     * são escritas com até {@value #JSON_MAX_DECIMALS} casas decimais. O
+     * {@code Writer} é esvaziado mas não é fechado.
+     *
+     * @param route a rota a exportar
+     * @param out   destino (de preferência com buffer)
+     * @throws IOException quando ocorre erro de escrita
+     */
+    public static void exportToJson(Route route, Writer out) throws IOException {
+        char[] number = new char[DecimalFormatter.BUFFER_SIZE];
+
+        out.write("{\"distance_km\":");
+        writeJsonNumber(out, route.getDistanceKm());
+        out.write(",\"duration_sec\":");
+        out.write(Long.toString(route.getDurationSec()));
+        out.write(",\"mode\":");
+        writeJsonString(out, route.getMode().name());
+
+        // pontos da rota: sem criar uma String por coordenada
+        out.write(",\"route_points\":[");
+        RouteGeometry geometry = route.getGeometry();
+        for (int i = 0; i < geometry.size(); i++) {
+            out.write(i == 0 ? "{\"lat\":" : ",{\"lat\":");
+            writeJsonCoordinate(out, geometry.getLatitude(i), number);
+            out.write(",\"lon\":");
+            writeJsonCoordinate(out, geometry.getLongitude(i), number);
+            out.write('}');
         }
-        root.add("route_points", pts);
+        out.write(']');
 
         // POIs
-        JsonArray pois = new JsonArray();
+        out.write(",\"pois\":[");
+        boolean first = true;
         for (POI poi : route.getPois()) {
-            JsonObject o = new JsonObject();
-            o.addProperty("name", poi.getName());
-            o.addProperty("category", poi.getCategory());
-            o.addProperty("lat", poi.getCoordinate().getLatitude());
-            o.addProperty("lon", poi.getCoordinate().getLongitude());
-            pois.add(o);
+            out.write(first ? "{\"name\":" : ",{\"name\":");
+            first = false;
+            writeJsonString(out, poi.getName());
+            out.write(",\"category\":");
+            writeJsonString(out, poi.getCategory());
+            out.write(",\"lat\":");
+            writeJsonNumber(out, poi.getCoordinate().getLatitude());
+            out.write(",\"lon\":");
+            writeJsonNumber(out, poi.getCoordinate().getLongitude());
+            out.write('}');
         }
-        root.add("pois", pois);
+        out.write("]}");
+        out.flush();
+    }
+
+    // Como JsonWriter.value(double); NaN e infinitos não existem em JSON e ficam null
+    private static void writeJsonNumber(Writer out, double value) throws IOException {
+        out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+    }
 
-        try (FileWriter fw = new FileWriter(filePath, StandardCharsets.UTF_8)) {
-            fw.write(root.toString());
+    // Coordenada com até JSON_MAX_DECIMALS casas, sem criar uma String; não finita fica null
+    private static void writeJsonCoordinate(Writer out, double value, char[] number) throws IOException {
+        if (Double.isFinite(value)) {
+            out.write(number, 0, DecimalFormatter.format(value, JSON_MAX_DECIMALS, true, number));
+        } else {
+            out.write("null");
         }
     }
 
+    // String JSON entre aspas: escapes obrigatórios, mais U+2028/U+2029 (como o JsonWriter)
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int last = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else if (c == '\n') {
+                escape = "\\n";
+            } else if (c == '\r') {
+                escape = "\\r";
+            } else if (c == '\t') {
+                escape = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                escape = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            out.write(value, last, i - last);
+            out.write(escape);
+            last = i + 1;
+        }
+        out.write(value, last, value.length() - last);
+        out.write('"');
+    }
+
     /**
      * Exporta a rota para um ficheiro GPX (versão 1.1).
      *
@@ -84,30 +170,59 @@ public class RouteExporter {
      * coordenada da rota.
      *
      * @param route    a rota a exportar
-     * @param filePath caminho do ficheiro de saída
+     * @param filePath caminho do ficheiro de saída (comprimido com gzip se
+     *                 terminar em {@value #GZIP_SUFFIX})
      * @throws IOException quando ocorre erro de escrita
      */
     public static void exportToGPX(Route route, String filePath) throws IOException {
-        StringBuilder gpx = new StringBuilder();
-        gpx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        gpx.append("<gpx version=\"1.1\" creator=\"MyApp\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
-        gpx.append("  <trk>\n");
-        gpx.append("    <name>Route Export</name>\n");
-        gpx.append("    <trkseg>\n");
-
-        for (Point p : route.getRoutePoints()) {
-            gpx.append(String.format(Locale.US,
-                    "      <trkpt lat=\"%.6f\" lon=\"%.6f\">\n",
-                    p.getLatitude(),
-                    p.getLongitude()));
+        try (Writer out = openWriter(filePath)) {
+            exportToGPX(route, out);
         }
+    }
 
-        gpx.append("    </trkseg>\n");
-        gpx.append("  </trk>\n");
-        gpx.append("</gpx>\n");
+    /**
+     * Escreve a rota em GPX 1.1 num {@link Writer}, com as coordenadas em
+     * {@value #GPX_DECIMALS} casas decimais. O {@code Writer} é esvaziado mas
+     * não é fechado.
+     *
+     * @param route a rota a exportar
+     * @param out   destino (de preferência com buffer)
+     * @throws IOException quando ocorre erro de escrita
+     */
+    public static void exportToGPX(Route route, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<gpx version=\"1.1\" creator=\"MyApp\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
+        out.write("  <trk>\n");
+        out.write("    <name>Route Export</name>\n");
+        out.write("    <trkseg>\n");
+
+        char[] number = new char[DecimalFormatter.BUFFER_SIZE];
+        RouteGeometry geometry = route.getGeometry();
+        for (int i = 0; i < geometry.size(); i++) {
+            out.write("      <trkpt lat=\"");
+            out.write(number, 0, DecimalFormatter.format(geometry.getLatitude(i), GPX_DECIMALS, false, number));
+            out.write("\" lon=\"");
+            out.write(number, 0, DecimalFormatter.format(geometry.getLongitude(i), GPX_DECIMALS, false, number));
+            out.write("\"></trkpt>\n");
+        }
+
+        out.write("    </trkseg>\n");
+        out.write("  </trk>\n");
+        out.write("</gpx>\n");
+        out.flush();
+    }
 
-        try (FileWriter fw = new FileWriter(filePath, StandardCharsets.UTF_8)) {
-            fw.write(gpx.toString());
+    // Writer UTF-8 com buffer; gzip quando o nome termina em ".gz"
+    private static Writer openWriter(String filePath) throws IOException {
+        OutputStream stream = Files.newOutputStream(Path.of(filePath));
+        try {
+            if (filePath.endsWith(GZIP_SUFFIX)) {
+                stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+            }
+        } catch (IOException e) {
+            stream.close();
+            throw e;
         }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
     }
-}
\ No newline at end of file
+}
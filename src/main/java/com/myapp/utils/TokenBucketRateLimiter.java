@@ -0,0 +1,173 @@
+package com.myapp.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de taxa do tipo "token bucket" (balde de fichas).
+ *
+ * Papel na arquitetura MVC:
+ * - Utils: mecanismo genérico de concorrência, sem lógica de negócio.
+ * - Usado pelo Service (Controller) para respeitar as políticas de utilização
+ * das APIs públicas (Overpass, Nominatim, ...) quando vários pedidos correm
+ * em paralelo.
+ *
+ * O balde tem uma capacidade máxima ({@code burst}) e é reabastecido a uma
+ * taxa constante ({@code permitsPerSecond}). Cada pedido consome uma ficha;
+ * quando o balde está vazio, o chamador espera até haver fichas disponíveis.
+ * As fichas são reservadas de forma justa: pedidos concorrentes recebem
+ * instantes de partida sucessivos em vez de competirem entre si.
+ */
+public class TokenBucketRateLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // Capacidade máxima do balde (rajada permitida).
+    private final double capacity;
+    // Intervalo, em nanossegundos, para gerar uma ficha.
+    private final double nanosPerPermit;
+
+    // Fichas disponíveis no instante {@code lastRefillNanos}; pode ser negativo
+    // quando há reservas pendentes.
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Cria um limitador com a taxa e a rajada indicadas. O balde começa cheio.
+     *
+     * @param permitsPerSecond fichas geradas por segundo (maior que zero)
+     * @param burst            número máximo de fichas acumuladas (pelo menos 1)
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond deve ser > 0 e burst >= 1");
+        }
+        this.capacity = burst;
+        this.nanosPerPermit = NANOS_PER_SECOND / permitsPerSecond;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Cria um limitador que nunca bloqueia (útil para testes e servidores
+     * próprios sem limite de taxa).
+     *
+     * @return limitador sem restrições práticas
+     */
+    public static TokenBucketRateLimiter unlimited() {
+        return new TokenBucketRateLimiter(1_000_000.0, 1_000_000);
+    }
+
+    /**
+     * Obtém uma ficha, bloqueando o tempo necessário.
+     *
+     * @throws InterruptedException se a thread for interrompida durante a
+     *                              espera (a ficha reservada é devolvida)
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve(Long.MAX_VALUE);
+        sleepNanos(waitNanos);
+    }
+
+    /**
+     * Tenta obter uma ficha esperando no máximo {@code timeout}. Se a ficha só
+     * ficasse disponível depois desse prazo, nada é reservado e devolve
+     * {@code false} de imediato.
+     *
+     * @param timeout tempo máximo de espera
+     * @param unit    unidade de {@code timeout}
+     * @return {@code true} se a ficha foi obtida
+     * @throws InterruptedException se a thread for interrompida durante a
+     *                              espera (a ficha reservada é devolvida)
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long waitNanos = reserve(Math.max(0L, unit.toNanos(timeout)));
+        if (waitNanos < 0) {
+            return false;
+        }
+        sleepNanos(waitNanos);
+        return true;
+    }
+
+    /**
+     * Versão não bloqueante de {@link #acquire()}: reserva uma ficha e devolve
+     * um futuro que completa quando ela fica disponível, sem ocupar uma thread
+     * durante a espera.
+     *
+     * @return futuro completado no instante da ficha reservada
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        return completeAfter(reserve(Long.MAX_VALUE)).thenApply(ok -> null);
+    }
+
+    /**
+     * Versão não bloqueante de {@link #tryAcquire(long, TimeUnit)}.
+     *
+     * @param timeout tempo máximo de espera
+     * @param unit    unidade de {@code timeout}
+     * @return futuro com {@code true} quando a ficha estiver disponível, ou
+     *         {@code false} de imediato se só chegasse depois do prazo
+     */
+    public CompletableFuture<Boolean> tryAcquireAsync(long timeout, TimeUnit unit) {
+        long waitNanos = reserve(Math.max(0L, unit.toNanos(timeout)));
+        if (waitNanos < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return completeAfter(waitNanos);
+    }
+
+    /**
+     * Devolve o número (aproximado) de fichas disponíveis neste instante.
+     *
+     * @return fichas disponíveis; negativo se houver reservas em espera
+     */
+    public synchronized double availablePermits() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    // Reserva uma ficha e devolve o tempo de espera, ou -1 se exceder maxWaitNanos.
+    private synchronized long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        refill(now);
+        long waitNanos = tokens >= 1.0 ? 0L : (long) Math.ceil((1.0 - tokens) * nanosPerPermit);
+        if (waitNanos > maxWaitNanos) {
+            return -1L;
+        }
+        tokens -= 1.0;
+        return waitNanos;
+    }
+
+    // Devolve uma ficha reservada que não chegou a ser usada.
+    private synchronized void refund() {
+        refill(System.nanoTime());
+        tokens = Math.min(capacity, tokens + 1.0);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed / nanosPerPermit);
+            lastRefillNanos = now;
+        }
+    }
+
+    private static CompletableFuture<Boolean> completeAfter(long nanos) {
+        if (nanos <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return CompletableFuture.supplyAsync(() -> true,
+                CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    private void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                refund();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.myapp.api;
+
+import com.myapp.utils.LruCache;
+import com.myapp.utils.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingNominatimClientTest {
+
+    private static final String RESULT = "[{\"lat\":\"38.7\",\"lon\":\"-9.1\",\"display_name\":\"Lisboa\"}]";
+
+    // Stub que conta os pedidos "de rede" e pode ficar bloqueado até ser libertado.
+    static class CountingNominatim extends NominatimClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean block;
+        volatile String body = RESULT;
+
+        @Override
+        public String searchJson(String query) throws InterruptedException {
+            calls.incrementAndGet();
+            if (block) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return body;
+        }
+    }
+
+    private static CachingNominatimClient clientFor(NominatimClient network) {
+        return new CachingNominatimClient(network, new LruCache<>(16, Duration.ofHours(1)),
+                TokenBucketRateLimiter.unlimited());
+    }
+
+    @Test
+    void normalizedQueriesShareTheCachedResult() throws Exception {
+        CountingNominatim network = new CountingNominatim();
+        CachingNominatimClient client = clientFor(network);
+
+        assertEquals(RESULT, client.searchJson("Lisboa"));
+        assertEquals(RESULT, client.searchJson("  LISBOA "));
+        assertEquals(RESULT, client.searchJson("lisboa"));
+
+        assertEquals(1, network.calls.get());
+        assertEquals(2, client.getHits());
+        assertEquals(1, client.getMisses());
+    }
+
+    @Test
+    void normalizeCollapsesWhitespaceAndComposesAccents() {
+        assertEquals("rua de são bento", CachingNominatimClient.normalize(" Rua  de\tSão Bento "));
+        assertEquals("", CachingNominatimClient.normalize("   "));
+        assertEquals("", CachingNominatimClient.normalize(null));
+    }
+
+    @Test
+    void blankQueryNeverReachesTheNetwork() throws Exception {
+        CountingNominatim network = new CountingNominatim();
+        assertEquals("[]", clientFor(network).searchJson("  "));
+        assertEquals(0, network.calls.get());
+    }
+
+    @Test
+    void concurrentIdenticalQueriesShareOneRequest() throws Exception {
+        CountingNominatim network = new CountingNominatim();
+        network.block = true;
+        CachingNominatimClient client = clientFor(network);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> client.searchJson("Porto")));
+            }
+            // Espera que os restantes pedidos se juntem ao que está em curso
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (client.getCoalesced() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            network.release.countDown();
+            for (Future<String> f : results) {
+                assertEquals(RESULT, f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, network.calls.get());
+        assertEquals(3, client.getCoalesced());
+    }
+
+    @Test
+    void failuresAreSharedButNotCached() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        NominatimClient failing = new NominatimClient() {
+            @Override
+            public String searchJson(String query) throws IOException {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IOException("offline");
+                }
+                return RESULT;
+            }
+        };
+        CachingNominatimClient client = clientFor(failing);
+
+        assertThrows(IOException.class, () -> client.searchJson("Faro"));
+        assertEquals(RESULT, client.searchJson("Faro"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void nonArrayResponsesAreNotCached() throws Exception {
+        CountingNominatim network = new CountingNominatim();
+        network.body = "<html>Too Many Requests</html>";
+        CachingNominatimClient client = clientFor(network);
+
+        client.searchJson("Braga");
+        client.searchJson("Braga");
+
+        assertEquals(2, network.calls.get());
+    }
+
+    @Test
+    void networkRequestsRespectTheRateLimit() throws Exception {
+        CountingNominatim network = new CountingNominatim();
+        CachingNominatimClient client = new CachingNominatimClient(network,
+                new LruCache<>(16, Duration.ofHours(1)), new TokenBucketRateLimiter(10.0, 1));
+
+        long start = System.nanoTime();
+        client.searchJson("a");
+        client.searchJson("b");
+        client.searchJson("c");
+        client.searchJson("a"); // cache: sem ficha
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(3, network.calls.get());
+        assertTrue(elapsedMs >= 150, "3 pedidos a 10/s deviam demorar ~200 ms, foram " + elapsedMs);
+    }
+
+    @Test
+    void asyncQueriesShareCacheAndInFlightRequest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        NominatimClient network = new NominatimClient() {
+            @Override
+            public CompletableFuture<String> searchJsonAsync(String query) {
+                calls.incrementAndGet();
+                return pending;
+            }
+        };
+        CachingNominatimClient client = clientFor(network);
+
+        CompletableFuture<String> first = client.searchJsonAsync("Coimbra");
+        CompletableFuture<String> second = client.searchJsonAsync(" coimbra");
+        assertFalse(first.isDone());
+        pending.complete(RESULT);
+
+        assertEquals(RESULT, first.get(1, TimeUnit.SECONDS));
+        assertEquals(RESULT, second.get(1, TimeUnit.SECONDS));
+        assertEquals(RESULT, client.searchJsonAsync("COIMBRA").get(1, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1, client.getCoalesced());
+        assertEquals(1, client.getHits());
+    }
+}
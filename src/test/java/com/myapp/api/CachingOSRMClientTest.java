@@ -0,0 +1,201 @@
+package com.myapp.api;
+
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.DiskResponseCache;
+import com.myapp.utils.LruCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingOSRMClientTest {
+
+    private static final String OK = "{\"code\":\"Ok\",\"routes\":[{\"distance\":1,\"duration\":1}]}";
+
+    @TempDir
+    Path dir;
+
+    // Stub que conta os pedidos "de rede".
+    static class CountingOSRM extends OSRMClient {
+        final AtomicInteger calls = new AtomicInteger();
+        String body = OK;
+
+        @Override
+        public String getRouteJson(Point o, Point d, TransportMode m) {
+            calls.incrementAndGet();
+            return body;
+        }
+
+        @Override
+        public String getRouteJsonWithWaypoints(Point o, List<Point> w, TransportMode m) {
+            calls.incrementAndGet();
+            return body;
+        }
+    }
+
+    private static LruCache<String, String> memory() {
+        return new LruCache<>(16, Duration.ofHours(1));
+    }
+
+    @Test
+    void repeatedRouteIsServedFromMemory() throws Exception {
+        CountingOSRM network = new CountingOSRM();
+        CachingOSRMClient client = new CachingOSRMClient(network, memory(), null, 5);
+        Point a = new Point(41.1579, -8.6291, "Porto");
+        Point b = new Point(38.7223, -9.1393, "Lisboa");
+
+        assertEquals(OK, client.getRouteJson(a, b, TransportMode.CAR));
+        // Diferença abaixo da precisão (1e-5) partilha a entrada
+        assertEquals(OK, client.getRouteJson(new Point(41.157901, -8.629101, null), b, TransportMode.CAR));
+
+        assertEquals(1, network.calls.get());
+        assertEquals(1, client.getMisses());
+        assertEquals(1, client.getMemoryHits());
+    }
+
+    @Test
+    void keyDistinguishesProfileAndWaypoints() throws Exception {
+        CountingOSRM network = new CountingOSRM();
+        CachingOSRMClient client = new CachingOSRMClient(network, memory(), null, 5);
+        Point a = new Point(41.0, -8.0, null);
+        Point b = new Point(41.1, -8.1, null);
+
+        client.getRouteJson(a, b, TransportMode.CAR);
+        client.getRouteJson(a, b, TransportMode.FOOT);
+        client.getRouteJsonWithWaypoints(a, List.of(b), TransportMode.CAR);
+        client.getRouteJsonWithWaypoints(a, List.of(new Point(41.05, -8.05, null), b), TransportMode.CAR);
+        client.getRouteJsonWithWaypoints(a, List.of(b), TransportMode.CAR);
+
+        // a->b com ou sem "waypoints" é o mesmo pedido à OSRM
+        assertEquals(3, network.calls.get());
+        assertEquals("route-v1|polyline6|driving|4100000,-800000;4110000,-810000",
+                client.cacheKey(TransportMode.CAR, a, b, List.of()));
+    }
+
+    @Test
+    void keyFollowsDelegateGeometryEncoding() {
+        OSRMClient geojson = new OSRMClient(GeometryEncoding.GEOJSON) {
+            @Override
+            public String getRouteJson(Point o, Point d, TransportMode m) {
+                return OK;
+            }
+        };
+        CachingOSRMClient client = new CachingOSRMClient(geojson, memory(), null, 5);
+        Point a = new Point(41.0, -8.0, null);
+
+        assertEquals(GeometryEncoding.GEOJSON, client.getGeometryEncoding());
+        assertEquals("route-v1|geojson|walking|4100000,-800000", client.cacheKey(TransportMode.FOOT, a, null, List.of()));
+    }
+
+    @Test
+    void errorResponsesAreNotCached() throws Exception {
+        CountingOSRM network = new CountingOSRM();
+        network.body = "{\"code\":\"NoRoute\",\"routes\":[]}";
+        CachingOSRMClient client = new CachingOSRMClient(network, memory(), null, 5);
+        Point a = new Point(41.0, -8.0, null);
+        Point b = new Point(41.1, -8.1, null);
+
+        client.getRouteJson(a, b, TransportMode.CAR);
+        client.getRouteJson(a, b, TransportMode.CAR);
+
+        assertEquals(2, network.calls.get());
+    }
+
+    @Test
+    void diskTierServesRoutesAfterRestart() throws Exception {
+        Path file = dir.resolve("osrm.cache");
+        Point a = new Point(41.0, -8.0, null);
+        Point b = new Point(41.1, -8.1, null);
+
+        CountingOSRM first = new CountingOSRM();
+        try (DiskResponseCache disk = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            new CachingOSRMClient(first, memory(), disk, 5).getRouteJson(a, b, TransportMode.BIKE);
+        }
+
+        CountingOSRM second = new CountingOSRM();
+        try (DiskResponseCache disk = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            CachingOSRMClient client = new CachingOSRMClient(second, memory(), disk, 5);
+            assertEquals(OK, client.getRouteJson(a, b, TransportMode.BIKE));
+            assertEquals(OK, client.getRouteJson(a, b, TransportMode.BIKE));
+            assertEquals(1, client.getDiskHits());
+            assertEquals(1, client.getMemoryHits());
+        }
+        assertEquals(0, second.calls.get());
+    }
+
+    @Test
+    void rejectsInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CachingOSRMClient(new CountingOSRM(), memory(), null, 9));
+    }
+
+    @Test
+    void delegateFailuresPropagate() {
+        OSRMClient failing = new OSRMClient() {
+            @Override
+            public String getRouteJson(Point o, Point d, TransportMode m) throws IOException {
+                throw new IOException("offline");
+            }
+        };
+        CachingOSRMClient client = new CachingOSRMClient(failing, memory(), null, 5);
+        assertThrows(IOException.class, () -> client.getRouteJson(new Point(0, 0, null),
+                new Point(1, 1, null), TransportMode.CAR));
+    }
+
+    @Test
+    void asyncLookupsUseTheSameCache() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        OSRMClient network = new OSRMClient() {
+            @Override
+            public CompletableFuture<String> getRouteJsonAsync(Point o, Point d, TransportMode m) {
+                calls.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> OK);
+            }
+        };
+        CachingOSRMClient client = new CachingOSRMClient(network, memory(), null, 5);
+        Point a = new Point(41.0, -8.0, null);
+        Point b = new Point(41.1, -8.1, null);
+
+        assertEquals(OK, client.getRouteJsonAsync(a, b, TransportMode.CAR).get(1, TimeUnit.SECONDS));
+        CompletableFuture<String> cached = client.getRouteJsonAsync(a, b, TransportMode.CAR);
+        assertTrue(cached.isDone(), "acerto na cache completa de imediato");
+        assertEquals(OK, cached.get());
+        assertEquals(OK, client.getRouteJson(a, b, TransportMode.CAR));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void tableRequestsReachTheDelegate() throws Exception {
+        String table = "{\"code\":\"Ok\",\"durations\":[[0]],\"distances\":[[0]]}";
+        AtomicInteger calls = new AtomicInteger();
+        OSRMClient network = new OSRMClient() {
+            @Override
+            public String getTableJson(List<Point> s, List<Point> d, TransportMode m) {
+                calls.incrementAndGet();
+                return table;
+            }
+
+            @Override
+            public CompletableFuture<String> getTableJsonAsync(List<Point> s, List<Point> d, TransportMode m) {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture(table);
+            }
+        };
+        CachingOSRMClient client = new CachingOSRMClient(network, memory(), null, 5);
+        List<Point> points = List.of(new Point(41.0, -8.0, null));
+
+        assertEquals(table, client.getTableJson(points, points, TransportMode.CAR));
+        assertEquals(table, client.getTableJsonAsync(points, points, TransportMode.CAR).get(1, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+        assertEquals(0, client.getMisses());
+    }
+}
@@ -0,0 +1,46 @@
+package com.myapp.api;
+
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OSRMClientTest {
+
+    @Test
+    void tableUrl_listsSourcesThenDestinationsWithIndices() {
+        String url = OSRMClient.buildTableUrl(
+                List.of(new Point(38.7, -9.1, null), new Point(41.15, -8.61, null)),
+                List.of(new Point(40.2, -8.4, null)), TransportMode.BIKE);
+
+        assertEquals("https://router.project-osrm.org/table/v1/cycling/"
+                + "-9.100000,38.700000;-8.610000,41.150000;-8.400000,40.200000"
+                + "?sources=0;1&destinations=2&annotations=duration,distance", url);
+    }
+
+    @Test
+    void squareTableUrl_sendsEachPointOnceWithoutSourcesOrDestinations() {
+        String url = OSRMClient.buildTableUrl(
+                List.of(new Point(38.7, -9.1, null), new Point(41.15, -8.61, null)), TransportMode.CAR);
+
+        assertEquals("https://router.project-osrm.org/table/v1/driving/"
+                + "-9.100000,38.700000;-8.610000,41.150000?annotations=duration,distance", url);
+    }
+
+    @Test
+    void tableRequest_rejectsTooManyCoordinates() {
+        List<Point> many = Collections.nCopies(60, new Point(0, 0, null));
+        OSRMClient client = new OSRMClient();
+        assertThrows(IllegalArgumentException.class, () -> client.getTableJsonAsync(many, many, TransportMode.CAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.getTableJsonAsync(List.of(), many, TransportMode.CAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.getTableJsonAsync(Collections.nCopies(101, new Point(0, 0, null)), TransportMode.CAR));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.getTableJsonAsync(List.of(new Point(0, 0, null)), TransportMode.CAR));
+    }
+}
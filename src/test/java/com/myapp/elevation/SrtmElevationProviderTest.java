@@ -0,0 +1,147 @@
+package com.myapp.elevation;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.ElevationProfile;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.service.Service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SrtmElevationProviderTest {
+
+    // Tile de teste N38W010 (11 x 11): plano com 100 m no canto sudoeste,
+    // +200 m por grau para leste e +100 m por grau para norte
+    private static double plane(double lat, double lon) {
+        return 100 + 200 * (lon + 10) + 100 * (lat - 38);
+    }
+
+    private static Path demDirectory() throws URISyntaxException {
+        return Paths.get(SrtmElevationProviderTest.class.getResource("/dem").toURI());
+    }
+
+    private static void writeTile(Path dir, String name, short... samples) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(samples.length * 2);
+        for (short s : samples) {
+            bytes.putShort(s);
+        }
+        Files.write(dir.resolve(name), bytes.array());
+    }
+
+    @Test
+    void interpolatesBilinearlyInsideTile() throws Exception {
+        SrtmElevationProvider provider = new SrtmElevationProvider(demDirectory());
+        double[][] points = { { 38.0, -10.0 }, { 38.5, -9.5 }, { 38.123, -9.987 }, { 38.95, -9.01 },
+                { 38.0, -9.0000001 } };
+        List<Point> query = new ArrayList<>();
+        for (double[] p : points) {
+            query.add(new Point(p[0], p[1], null));
+        }
+
+        double[] elevations = provider.getElevations(query);
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(plane(points[i][0], points[i][1]), elevations[i], 1e-6, "ponto " + i);
+        }
+        assertEquals(plane(38.5, -9.5), provider.getElevation(38.5, -9.5), 1e-6);
+    }
+
+    @Test
+    void pointsWithoutTileOrOutOfRangeGiveNaN() throws Exception {
+        SrtmElevationProvider provider = new SrtmElevationProvider(demDirectory());
+        double[] elevations = provider.getElevations(List.of(
+                new Point(40.5, -8.5, null), new Point(91, 0, null), new Point(38.5, -9.5, null)));
+        assertTrue(Double.isNaN(elevations[0]));
+        assertTrue(Double.isNaN(elevations[1]));
+        assertEquals(plane(38.5, -9.5), elevations[2], 1e-6);
+    }
+
+    @Test
+    void voidSamplesAreLeftOutOfTheInterpolation(@TempDir Path dir) throws Exception {
+        // 2 x 2: noroeste sem dados
+        writeTile(dir, "N10E020.hgt", HgtTile.VOID, (short) 200, (short) 100, (short) 300);
+        SrtmElevationProvider provider = new SrtmElevationProvider(dir);
+
+        assertEquals(100.0, provider.getElevation(10.0, 20.0), 1e-9);
+        // centro: média das três amostras válidas
+        assertEquals(200.0, provider.getElevation(10.5, 20.5), 1e-9);
+
+        writeTile(dir, "N11E020.hgt", HgtTile.VOID, HgtTile.VOID, HgtTile.VOID, HgtTile.VOID);
+        assertTrue(Double.isNaN(provider.getElevation(11.5, 20.5)));
+    }
+
+    @Test
+    void antimeridianReadsWestEdgeOfW180Tile(@TempDir Path dir) throws Exception {
+        // 2 x 2: oeste 100/300, leste 200/400 (norte/sul)
+        writeTile(dir, SrtmElevationProvider.tileName(10, -180), (short) 100, (short) 200, (short) 300, (short) 400);
+        SrtmElevationProvider provider = new SrtmElevationProvider(dir);
+
+        assertEquals(300.0, provider.getElevation(10.0, -180.0), 1e-9);
+        assertEquals(300.0, provider.getElevation(10.0, 180.0), 1e-9);
+        assertEquals(provider.getElevation(10.5, -180.0), provider.getElevation(10.5, 180.0), 1e-9);
+    }
+
+    @Test
+    void keepsAtMostMaxOpenTiles(@TempDir Path dir) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            short h = (short) (100 * (i + 1));
+            writeTile(dir, SrtmElevationProvider.tileName(0, i), h, h, h, h);
+        }
+        SrtmElevationProvider provider = new SrtmElevationProvider(dir, 2);
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(100.0 * (i + 1), provider.getElevation(0.5, i + 0.5), 1e-9);
+                assertTrue(provider.openTiles() <= 2, "tiles abertos: " + provider.openTiles());
+            }
+        }
+    }
+
+    @Test
+    void rejectsTileWithInvalidSize(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("N00E000.hgt"), new byte[6]);
+        SrtmElevationProvider provider = new SrtmElevationProvider(dir);
+        assertThrows(IOException.class, () -> provider.getElevation(0.5, 0.5));
+        assertThrows(IOException.class, () -> new SrtmElevationProvider(dir.resolve("nada")));
+    }
+
+    @Test
+    void tileNamesUseSouthWestCorner() {
+        assertEquals("N38W010.hgt", SrtmElevationProvider.tileName(38, -10));
+        assertEquals("S01E005.hgt", SrtmElevationProvider.tileName(-1, 5));
+    }
+
+    @Test
+    void serviceBuildsProfileFromLocalTiles() throws Exception {
+        Service service = new Service(new OSRMClient(), new OverpassClient(), new NominatimClient(),
+                new ElevationClient());
+        service.setElevationProvider(new SrtmElevationProvider(demDirectory()));
+        Route route = new Route(List.of(new Point(38.2, -9.8, "A"), new Point(38.4, -9.6, "B"),
+                new Point(40.5, -8.5, "Fora"), new Point(38.6, -9.4, "C")), 0.0, 0, TransportMode.FOOT, List.of());
+
+        ElevationProfile profile = service.getElevationProfile(route);
+        assertNotNull(profile);
+        List<Double> elevations = profile.getElevations();
+        assertEquals(plane(38.2, -9.8), elevations.get(0), 1e-6);
+        assertEquals(plane(38.6, -9.4), elevations.get(elevations.size() - 1), 1e-6);
+        for (double h : elevations) {
+            // as amostras fora do tile ficam com a elevação da anterior
+            assertTrue(h >= plane(38.2, -9.8) && h <= plane(39.0, -9.0), "elevação " + h);
+        }
+        assertNotNull(service.getElevationProfileAsync(route).get());
+    }
+}
@@ -44,4 +44,90 @@ class ElevationProfileTest {
         assertEquals(distances, profile.getDistances());
         assertEquals(5.0, profile.getDistances().get(1), 0.01);
     }
+
+    @Test
+    void maximumIsCorrectBelowSeaLevel() {
+        ElevationProfile profile = new ElevationProfile(List.of(-30.0, -10.0, -25.0), List.of(0.0, 1.0, 2.0));
+
+        assertEquals(-10.0, profile.getMaxElevation(), 1e-9);
+        assertEquals(-30.0, profile.getMinElevation(), 1e-9);
+    }
+
+    @Test
+    void builderUpdatesStatisticsAsSamplesArrive() {
+        ElevationProfile.Builder builder = ElevationProfile.builder(1);
+        double[] elevations = { 100, 150, 120, 180 };
+        for (int i = 0; i < elevations.length; i++) {
+            builder.add(elevations[i], i);
+        }
+        assertEquals(4, builder.size());
+        ElevationProfile profile = builder.build();
+
+        assertEquals(4, profile.size());
+        assertEquals(120.0, profile.getElevation(2));
+        assertEquals(3.0, profile.getDistance(3));
+        assertEquals(180.0, profile.getMaxElevation());
+        assertEquals(100.0, profile.getMinElevation());
+        assertEquals(110.0, profile.getTotalAscent(), 1e-9);
+        assertEquals(30.0, profile.getTotalDescent(), 1e-9);
+
+        // Continuar a acrescentar não altera o perfil já construído
+        builder.add(500, 4);
+        assertEquals(4, profile.size());
+        assertEquals(180.0, profile.getMaxElevation());
+        assertEquals(500.0, builder.build().getMaxElevation());
+
+        ElevationProfile empty = ElevationProfile.builder(0).build();
+        assertTrue(empty.isEmpty());
+        assertTrue(Double.isNaN(empty.getMaxElevation()));
+        assertEquals(0.0, empty.getTotalAscent());
+        assertEquals(0, empty.getGrades().length);
+    }
+
+    @Test
+    void listViewsAreReadOnly() {
+        ElevationProfile profile = new ElevationProfile(List.of(1.0, 2.0), List.of(0.0, 1.0));
+
+        assertThrows(UnsupportedOperationException.class, () -> profile.getElevations().add(3.0));
+        assertThrows(UnsupportedOperationException.class, () -> profile.getDistances().set(0, 5.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ElevationProfile(List.of(1.0, 2.0), List.of(0.0)));
+    }
+
+    @Test
+    void hysteresisIgnoresNoiseBelowThreshold() {
+        // Ruído de ±2 m em torno de 100 m, depois uma subida real de 50 m
+        ElevationProfile profile = new ElevationProfile(
+                List.of(100.0, 102.0, 100.0, 102.0, 100.0, 120.0, 150.0, 148.0, 150.0),
+                List.of(0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8));
+
+        assertEquals(56.0, profile.getTotalAscent(), 1e-9);
+        assertEquals(6.0, profile.getTotalDescent(), 1e-9);
+        assertEquals(50.0, profile.getTotalAscent(3.0), 1e-9);
+        assertEquals(0.0, profile.getTotalDescent(3.0), 1e-9);
+        assertEquals(profile.getTotalAscent(), profile.getTotalAscent(0.0), 1e-9);
+    }
+
+    @Test
+    void gradesPerSegment() {
+        ElevationProfile profile = new ElevationProfile(List.of(100.0, 110.0, 110.0, 110.0, 95.0),
+                List.of(0.0, 0.2, 0.4, 0.4, 0.9));
+
+        assertArrayEquals(new double[] { 0.05, 0.0, 0.0, -0.03 }, profile.getGrades(), 1e-12);
+    }
+
+    @Test
+    void smoothingUsesCenteredMovingAverage() {
+        ElevationProfile profile = new ElevationProfile(List.of(0.0, 3.0, 0.0, 3.0, 0.0),
+                List.of(0.0, 1.0, 2.0, 3.0, 4.0));
+
+        ElevationProfile smoothed = profile.smooth(3);
+        assertArrayEquals(new double[] { 1.5, 1.0, 2.0, 1.0, 1.5 },
+                smoothed.getElevations().stream().mapToDouble(Double::doubleValue).toArray(), 1e-9);
+        assertEquals(profile.getDistances(), smoothed.getDistances());
+        assertEquals(2.0, smoothed.getMaxElevation(), 1e-9);
+        assertTrue(smoothed.getTotalAscent() < profile.getTotalAscent());
+        assertEquals(profile.getElevations(), profile.smooth(1).getElevations());
+        assertThrows(IllegalArgumentException.class, () -> profile.smooth(2));
+    }
 }
@@ -0,0 +1,63 @@
+package com.myapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteGeometryTest {
+
+    @Test
+    void builder_growsAndExposesIndexedAccessors() {
+        RouteGeometry.Builder builder = RouteGeometry.builder(1);
+        for (int i = 0; i < 100; i++) {
+            builder.add(38.0 + i * 0.001, -9.0 - i * 0.001);
+        }
+        RouteGeometry geometry = builder.build();
+
+        assertEquals(100, geometry.size());
+        assertFalse(geometry.isFixedPoint());
+        assertEquals(38.099, geometry.getLatitude(99), 1e-12);
+        assertEquals(-9.099, geometry.getLongitude(99), 1e-12);
+        assertThrows(IndexOutOfBoundsException.class, () -> geometry.getLatitude(100));
+    }
+
+    @Test
+    void fixedPoint_keepsMicrodegreePrecision() {
+        RouteGeometry geometry = RouteGeometry.ofInterleaved(
+                new double[] { 38.7223456, -9.1393449, -33.8688197, 151.2092955 }, 2);
+
+        RouteGeometry fixed = geometry.toFixedPoint();
+
+        assertTrue(fixed.isFixedPoint());
+        assertEquals(2, fixed.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(geometry.getLatitude(i), fixed.getLatitude(i), 0.6e-6);
+            assertEquals(geometry.getLongitude(i), fixed.getLongitude(i), 0.6e-6);
+        }
+        assertSame(fixed, fixed.toFixedPoint());
+    }
+
+    @Test
+    void asPointList_isLazyReadOnlyView() {
+        RouteGeometry geometry = RouteGeometry.fromPoints(List.of(
+                new Point(41.0, -8.0, "A"),
+                new Point(40.0, -7.0, "B")));
+
+        List<Point> view = geometry.asPointList();
+
+        assertEquals(2, view.size());
+        assertEquals(40.0, view.get(1).getLatitude(), 1e-12);
+        assertEquals(-7.0, view.get(1).getLongitude(), 1e-12);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(new Point(0, 0, null)));
+        // Reconstruir a partir da vista reutiliza a mesma geometria
+        assertSame(geometry, RouteGeometry.fromPoints(view));
+    }
+
+    @Test
+    void fromPoints_handlesEmptyAndNull() {
+        assertTrue(RouteGeometry.fromPoints(List.of()).isEmpty());
+        assertTrue(RouteGeometry.fromPoints(null).isEmpty());
+    }
+}
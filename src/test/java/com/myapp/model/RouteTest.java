@@ -39,4 +39,20 @@ class RouteTest {
         assertEquals(1, route.getPois().size());
         assertEquals("Restaurante", route.getPois().get(0).getName());
     }
+
+    @Test
+    void geometryConstructor_exposesIndexedAccessorsAndPointView() {
+        RouteGeometry geometry = RouteGeometry.builder(2)
+                .add(41.0, -8.0)
+                .add(40.0, -7.0)
+                .build();
+
+        Route route = new Route(geometry, 10.0, 600L, TransportMode.FOOT, new ArrayList<>());
+
+        assertSame(geometry, route.getGeometry());
+        assertEquals(2, route.getPointCount());
+        assertEquals(40.0, route.getLatitude(1), 1e-12);
+        assertEquals(-7.0, route.getLongitude(1), 1e-12);
+        assertEquals(-8.0, route.getRoutePoints().get(0).getLongitude(), 1e-12);
+    }
 }
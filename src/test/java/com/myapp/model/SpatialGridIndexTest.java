@@ -0,0 +1,71 @@
+package com.myapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridIndexTest {
+
+    @Test
+    void findNear_usesStrictPerAxisEpsilon() {
+        SpatialGridIndex<Point> index = SpatialGridIndex.forPoints(0.001);
+        Point p = new Point(38.7000, -9.1000, "A");
+        index.add(p);
+
+        assertSame(p, index.findNear(38.7009, -9.1009));
+        assertTrue(index.containsNear(38.6991, -9.0991));
+        assertFalse(index.containsNear(38.7011, -9.1000));
+        assertFalse(index.containsNear(38.7000, -9.1011));
+        assertNull(index.findNear(0.0, 0.0));
+    }
+
+    @Test
+    void findNear_crossesCellBoundariesAndSigns() {
+        SpatialGridIndex<Point> index = SpatialGridIndex.forPoints(0.01);
+        index.add(new Point(-0.004, -0.004, null));
+
+        // Vizinho do outro lado do equador e do meridiano de Greenwich
+        assertTrue(index.containsNear(0.004, 0.004));
+        assertFalse(index.containsNear(0.007, 0.0));
+    }
+
+    @Test
+    void addIfAbsent_rejectsDuplicatesOfPois() {
+        SpatialGridIndex<POI> index = SpatialGridIndex.forPois(0.00001);
+
+        assertTrue(index.addIfAbsent(new POI("A", "amenity:cafe", new Point(41.0, -8.0, null))));
+        assertFalse(index.addIfAbsent(new POI("A'", "amenity:cafe", new Point(41.000005, -8.000005, null))));
+        assertTrue(index.addIfAbsent(new POI("B", "amenity:cafe", new Point(41.0001, -8.0, null))));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void addIfAbsent_matchesBruteForceOnRandomData() {
+        double eps = 0.0005;
+        Random random = new Random(7);
+        SpatialGridIndex<Point> index = SpatialGridIndex.forPoints(eps);
+        List<Point> bruteForce = new ArrayList<>();
+
+        for (int i = 0; i < 3000; i++) {
+            Point p = new Point(38.7 + random.nextDouble() * 0.02, -9.1 + random.nextDouble() * 0.02, null);
+            boolean exists = bruteForce.stream().anyMatch(x -> Math.abs(x.getLatitude() - p.getLatitude()) < eps
+                    && Math.abs(x.getLongitude() - p.getLongitude()) < eps);
+            if (!exists) {
+                bruteForce.add(p);
+            }
+            assertEquals(!exists, index.addIfAbsent(p));
+        }
+        assertEquals(bruteForce.size(), index.size());
+    }
+
+    @Test
+    void constructor_rejectsInvalidEpsilon() {
+        assertThrows(IllegalArgumentException.class, () -> SpatialGridIndex.forPoints(0.0));
+        assertThrows(IllegalArgumentException.class, () -> SpatialGridIndex.forPoints(-1.0));
+        assertThrows(IllegalArgumentException.class, () -> SpatialGridIndex.forPoints(Double.NaN));
+    }
+}
@@ -0,0 +1,129 @@
+package com.myapp.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void queriesMatchDijkstraAndUnpackToOriginalEdges() {
+        RoadGraph graph = LocalRoutingEngineTest.randomGrid(30, 5L);
+        LocalRoutingEngine dijkstra = new LocalRoutingEngine(graph, LocalRoutingEngine.Algorithm.DIJKSTRA);
+
+        for (TransportMode mode : TransportMode.values()) {
+            ContractionHierarchy ch = ContractionHierarchy.build(graph, mode);
+            LocalRoutingEngine engine = new LocalRoutingEngine(graph, Map.of(mode, ch));
+            assertTrue(engine.hasHierarchy(mode));
+
+            Random random = new Random(mode.ordinal());
+            for (int i = 0; i < 200; i++) {
+                int s = random.nextInt(graph.getNodeCount());
+                int t = random.nextInt(graph.getNodeCount());
+                NodePath expected = dijkstra.findPath(s, t, mode);
+                NodePath actual = engine.findPath(s, t, mode);
+                if (expected == null) {
+                    assertNull(actual, mode + " " + s + "->" + t);
+                    continue;
+                }
+                assertNotNull(actual, mode + " " + s + "->" + t);
+                assertEquals(expected.seconds(), actual.seconds(), 1e-2);
+                assertOriginalPath(graph, mode, actual, s, t);
+            }
+        }
+    }
+
+    @Test
+    void writeAndMapRoundTrip() throws IOException {
+        RoadGraph graph = LocalRoutingEngineTest.randomGrid(15, 9L);
+        ContractionHierarchy built = ContractionHierarchy.build(graph, TransportMode.CAR);
+        Path file = tempDir.resolve("grid.car.ch");
+        built.write(file);
+
+        assertEquals(built.getSizeBytes(), Files.size(file));
+        ContractionHierarchy mapped = ContractionHierarchy.map(file, graph);
+        assertEquals(TransportMode.CAR, mapped.getMode());
+        assertEquals(built.getEdgeCount(), mapped.getEdgeCount());
+
+        LocalRoutingEngine fromMemory = new LocalRoutingEngine(graph, Map.of(TransportMode.CAR, built));
+        LocalRoutingEngine fromFile = new LocalRoutingEngine(graph, Map.of(TransportMode.CAR, mapped));
+        for (int t = 0; t < graph.getNodeCount(); t += 7) {
+            NodePath a = fromMemory.findPath(0, t, TransportMode.CAR);
+            NodePath b = fromFile.findPath(0, t, TransportMode.CAR);
+            assertEquals(a == null, b == null);
+            if (a != null) {
+                assertArrayEquals(a.nodes(), b.nodes());
+            }
+        }
+    }
+
+    @Test
+    void map_rejectsHierarchyOfAnotherGraph() throws IOException {
+        Path file = tempDir.resolve("other.car.ch");
+        ContractionHierarchy.build(LocalRoutingEngineTest.randomGrid(10, 1L), TransportMode.CAR).write(file);
+
+        IOException e = assertThrows(IOException.class, () -> ContractionHierarchy.map(file, LocalRoutingEngineTest.randomGrid(10, 2L)));
+        assertTrue(e.getMessage().contains("não corresponde"));
+
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> ContractionHierarchy.map(file, LocalRoutingEngineTest.randomGrid(10, 1L)));
+    }
+
+    @Test
+    void preprocessorWritesFilesThatLoadPicksUp() throws IOException {
+        Path graphFile = tempDir.resolve("small-grid.txt");
+        try (InputStream in = getClass().getResourceAsStream("/routing/small-grid.txt")) {
+            Files.copy(in, graphFile);
+        }
+
+        List<Path> written = ChPreprocessor.preprocess(graphFile, List.of(TransportMode.CAR));
+        assertEquals(List.of(tempDir.resolve("small-grid.txt.car.ch")), written);
+
+        LocalRoutingEngine engine = LocalRoutingEngine.load(graphFile);
+        assertTrue(engine.hasHierarchy(TransportMode.CAR));
+        assertFalse(engine.hasHierarchy(TransportMode.FOOT));
+
+        // Mesmo resultado do teste sem hierarquia: autoestrada na diagonal
+        Route car = engine.getRoute(new Point(38.7000, -9.1000, null), new Point(38.7030, -9.0970, null),
+                TransportMode.CAR);
+        assertEquals(3, car.getGeometry().size());
+        assertNull(engine.getRoute(new Point(38.7000, -9.1000, null), new Point(38.7100, -9.0990, null),
+                TransportMode.CAR));
+    }
+
+    // Nós consecutivos ligados por arestas do grafo original, com o mesmo custo total
+    private static void assertOriginalPath(RoadGraph graph, TransportMode mode, NodePath path, int s, int t) {
+        int[] nodes = path.nodes();
+        assertEquals(s, nodes[0]);
+        assertEquals(t, nodes[nodes.length - 1]);
+        RoadGraph.Csr out = graph.forward(mode);
+        double seconds = 0.0;
+        for (int i = 0; i + 1 < nodes.length; i++) {
+            float best = Float.POSITIVE_INFINITY;
+            for (int e = out.offsets[nodes[i]]; e < out.offsets[nodes[i] + 1]; e++) {
+                if (out.targets[e] == nodes[i + 1]) {
+                    best = Math.min(best, out.seconds[e]);
+                }
+            }
+            assertTrue(best < Float.POSITIVE_INFINITY, "sem aresta " + nodes[i] + "->" + nodes[i + 1]);
+            seconds += best;
+        }
+        assertEquals(path.seconds(), seconds, 1e-2);
+    }
+}
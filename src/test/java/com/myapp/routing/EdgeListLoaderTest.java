@@ -0,0 +1,97 @@
+package com.myapp.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.myapp.model.TransportMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeListLoaderTest {
+
+    @Test
+    void load_buildsPerModeCsrWithAccessAndOneway() throws IOException {
+        RoadGraph graph = EdgeListLoader.load(new StringReader("""
+                # triângulo: a -> b em sentido único, b - c pedonal, a - c autoestrada
+                n 100 38.70 -9.10
+                n 200 38.70 -9.09
+                n 300 38.71 -9.10
+                e 100 200 residential oneway
+                e 200 300 footway
+                e 100 300 motorway
+                """));
+
+        assertEquals(3, graph.getNodeCount());
+        assertEquals(38.71, graph.getLatitude(2), 1e-9);
+        // Carro: a->b (sentido único) + a<->c
+        assertEquals(3, graph.getEdgeCount(TransportMode.CAR));
+        // A pé: a<->b (ignora o sentido único) + b<->c
+        assertEquals(4, graph.getEdgeCount(TransportMode.FOOT));
+        // Bicicleta: a->b + b<->c
+        assertEquals(3, graph.getEdgeCount(TransportMode.BIKE));
+    }
+
+    @Test
+    void load_neverUsesLengthShorterThanStraightLine() throws IOException {
+        RoadGraph graph = EdgeListLoader.load(new StringReader("""
+                n 1 38.700 -9.100
+                n 2 38.701 -9.100
+                n 3 38.702 -9.100
+                e 1 2 primary 5
+                e 2 3 primary 500
+                """));
+
+        RoadGraph.Csr out = graph.forward(TransportMode.CAR);
+        float shortened = out.meters[out.offsets[0]];
+        assertEquals(graph.distanceMeters(0, 1), shortened, 0.01);
+        float longer = out.meters[out.offsets[2]];
+        assertEquals(500.0, longer, 1e-3);
+    }
+
+    @Test
+    void load_reportsLineOfInvalidEntries() {
+        IOException undeclared = assertThrows(IOException.class, () -> EdgeListLoader.load(new StringReader("""
+                n 1 38.7 -9.1
+                e 1 2 residential
+                """)));
+        assertTrue(undeclared.getMessage().contains("linha 2"), undeclared.getMessage());
+
+        IOException unknownHighway = assertThrows(IOException.class, () -> EdgeListLoader.load(new StringReader("""
+                n 1 38.7 -9.1
+                n 2 38.8 -9.1
+                e 1 2 autobahn
+                """)));
+        assertTrue(unknownHighway.getMessage().contains("autobahn"));
+
+        assertThrows(IOException.class, () -> EdgeListLoader.load(new StringReader("n 1 abc -9.1")));
+        assertThrows(IOException.class, () -> EdgeListLoader.load(new StringReader("n 1 38.7 -9.1\nn 1 38.8 -9.1")));
+    }
+
+    @Test
+    void nearestNode_skipsNodesWithoutAccessForMode() throws IOException {
+        RoadGraph graph = EdgeListLoader.load(new StringReader("""
+                n 1 38.7000 -9.1000
+                n 2 38.7000 -9.0990
+                n 3 38.7050 -9.1000
+                n 4 38.7060 -9.1000
+                e 1 2 footway
+                e 3 4 residential
+                """));
+
+        assertEquals(0, graph.nearestNode(38.7001, -9.1001, TransportMode.FOOT, 1000));
+        // O carro não pode usar o caminho pedonal: escolhe o nó 3 (~550 m)
+        assertEquals(2, graph.nearestNode(38.7001, -9.1001, TransportMode.CAR, 1000));
+        assertEquals(-1, graph.nearestNode(38.7001, -9.1001, TransportMode.CAR, 100));
+    }
+
+    @Test
+    void roadClass_mapsOsmValuesAndLinks() {
+        assertEquals(RoadClass.MOTORWAY, RoadClass.fromOsm("motorway_link"));
+        assertEquals(RoadClass.LIVING_STREET, RoadClass.fromOsm("Living_Street"));
+        assertNull(RoadClass.fromOsm("construction"));
+        assertEquals(110.0, RoadClass.maxSpeedKmh(TransportMode.CAR));
+        assertFalse(RoadClass.respectsOneway(TransportMode.FOOT));
+    }
+}
@@ -0,0 +1,205 @@
+package com.myapp.routing;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import com.myapp.model.DistanceMatrix;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.service.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRoutingEngineTest {
+
+    private static RoadGraph grid;
+
+    @BeforeAll
+    static void loadFixture() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                LocalRoutingEngineTest.class.getResourceAsStream("/routing/small-grid.txt"),
+                StandardCharsets.UTF_8)) {
+            grid = EdgeListLoader.load(reader);
+        }
+    }
+
+    // Índice denso do nó com o id dado no ficheiro (ids 1-17 seguidos, depois 19-21)
+    private static int node(int id) {
+        return id <= 17 ? id - 1 : id - 2;
+    }
+
+    private static Point at(int id) {
+        int v = node(id);
+        return new Point(grid.getLatitude(v), grid.getLongitude(v), null);
+    }
+
+    @Test
+    void car_prefersMotorwayWhileFootWalksTheGrid() {
+        LocalRoutingEngine engine = new LocalRoutingEngine(grid);
+
+        Route car = engine.getRoute(at(1), at(16), TransportMode.CAR);
+        assertNotNull(car);
+        assertEquals(3, car.getGeometry().size());
+        assertEquals(38.7015, car.getGeometry().getLatitude(1), 1e-9);
+
+        Route foot = engine.getRoute(at(1), at(16), TransportMode.FOOT);
+        assertNotNull(foot);
+        assertEquals(7, foot.getGeometry().size());
+        assertTrue(foot.getDurationSec() > car.getDurationSec());
+        assertEquals(0.594, foot.getDistanceKm(), 0.01);
+        assertEquals(TransportMode.FOOT, foot.getMode());
+    }
+
+    @Test
+    void bike_respectsOnewayButFootDoesNot() {
+        LocalRoutingEngine engine = new LocalRoutingEngine(grid);
+
+        // Linha 0 só pode ser percorrida para este: a bicicleta sobe à linha 1
+        NodePath bike = engine.findPath(node(4), node(1), TransportMode.BIKE);
+        assertArrayEquals(new int[] { node(4), node(8), node(7), node(6), node(5), node(1) }, bike.nodes());
+
+        NodePath foot = engine.findPath(node(4), node(1), TransportMode.FOOT);
+        assertArrayEquals(new int[] { node(4), node(3), node(2), node(1) }, foot.nodes());
+    }
+
+    @Test
+    void snapsToNearestNodeAccessibleForMode() {
+        LocalRoutingEngine engine = new LocalRoutingEngine(grid);
+
+        // O nó 19 só tem um caminho pedonal: de carro parte do nó 13
+        Route car = engine.getRoute(at(19), at(1), TransportMode.CAR);
+        assertEquals(4, car.getGeometry().size());
+        assertEquals(at(13).getLongitude(), car.getGeometry().getLongitude(0), 1e-9);
+
+        Route foot = engine.getRoute(at(19), at(1), TransportMode.FOOT);
+        assertEquals(5, foot.getGeometry().size());
+
+        assertNull(engine.getRoute(new Point(0.0, 0.0, null), at(1), TransportMode.CAR));
+    }
+
+    @Test
+    void unreachableIslandGivesNullForEveryAlgorithm() {
+        for (LocalRoutingEngine.Algorithm algorithm : LocalRoutingEngine.Algorithm.values()) {
+            LocalRoutingEngine engine = new LocalRoutingEngine(grid, algorithm);
+            assertNull(engine.findPath(node(1), node(20), TransportMode.CAR), algorithm.name());
+            assertNull(engine.getRoute(at(1), at(21), TransportMode.CAR), algorithm.name());
+        }
+    }
+
+    @Test
+    void waypoints_concatenateLegsWithoutRepeatingJunctions() {
+        LocalRoutingEngine engine = new LocalRoutingEngine(grid);
+
+        Route direct = engine.getRoute(at(1), at(4), TransportMode.FOOT);
+        Route viaCorner = engine.getRouteWithWaypoints(at(1), List.of(at(4), at(16)), TransportMode.FOOT);
+
+        assertNotNull(viaCorner);
+        assertEquals(7, viaCorner.getGeometry().size());
+        assertEquals(at(4).getLongitude(), viaCorner.getGeometry().getLongitude(3), 1e-9);
+        assertTrue(viaCorner.getDistanceKm() > direct.getDistanceKm());
+        assertNull(engine.getRouteWithWaypoints(at(1), List.of(at(4), at(20)), TransportMode.CAR));
+    }
+
+    @Test
+    void allAlgorithmsAgreeWithDijkstraOnRandomGraph() {
+        RoadGraph graph = randomGrid(40, 11L);
+        LocalRoutingEngine dijkstra = new LocalRoutingEngine(graph, LocalRoutingEngine.Algorithm.DIJKSTRA);
+        LocalRoutingEngine bidirectional = new LocalRoutingEngine(graph,
+                LocalRoutingEngine.Algorithm.BIDIRECTIONAL_DIJKSTRA);
+        LocalRoutingEngine astar = new LocalRoutingEngine(graph, LocalRoutingEngine.Algorithm.BIDIRECTIONAL_ASTAR);
+
+        Random random = new Random(3);
+        long settledDijkstra = 0;
+        long settledAstar = 0;
+        for (int i = 0; i < 300; i++) {
+            int s = random.nextInt(graph.getNodeCount());
+            int t = random.nextInt(graph.getNodeCount());
+            TransportMode mode = TransportMode.values()[i % 3];
+
+            NodePath expected = dijkstra.findPath(s, t, mode);
+            NodePath bi = bidirectional.findPath(s, t, mode);
+            NodePath as = astar.findPath(s, t, mode);
+            if (expected == null) {
+                assertNull(bi);
+                assertNull(as);
+                continue;
+            }
+            assertEquals(expected.seconds(), bi.seconds(), 1e-3);
+            assertEquals(expected.seconds(), as.seconds(), 1e-3);
+            assertEquals(s, as.nodes()[0]);
+            assertEquals(t, as.nodes()[as.nodes().length - 1]);
+            settledDijkstra += expected.settled();
+            settledAstar += as.settled();
+        }
+        assertTrue(settledAstar < settledDijkstra, settledAstar + " >= " + settledDijkstra);
+    }
+
+    @Test
+    void distanceMatrix_matchesPointToPointRoutes() {
+        LocalRoutingEngine engine = new LocalRoutingEngine(grid);
+        List<Point> sources = List.of(at(1), at(4), at(19), new Point(0.0, 0.0, null));
+        List<Point> targets = List.of(at(16), at(1), at(20));
+
+        DistanceMatrix m = engine.getDistanceMatrix(sources, targets, TransportMode.CAR);
+
+        assertEquals(4, m.getRowCount());
+        assertEquals(3, m.getColumnCount());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 2; j++) {
+                Route route = engine.getRoute(sources.get(i), targets.get(j), TransportMode.CAR);
+                assertEquals(route.getDurationSec(), m.getDurationSec(i, j), 1);
+                assertEquals(route.getDistanceKm(), m.getDistanceKm(i, j), 1e-6);
+            }
+            // A ilha não é alcançável
+            assertFalse(m.isReachable(i, 2));
+        }
+        // Origem sem estrada por perto
+        assertFalse(m.isReachable(3, 0));
+        assertEquals(0, m.getDurationSec(0, 1));
+    }
+
+    @Test
+    void service_usesLocalBackendWithoutNetwork() {
+        Service service = new Service(new LocalRoutingEngine(grid), null, null, null);
+
+        Route route = service.getRoute(at(1), at(16), TransportMode.CAR);
+        assertNotNull(route);
+        assertEquals(3, route.getGeometry().size());
+        assertNotNull(service.getRouteAsync(at(1), at(16), TransportMode.BIKE).join());
+    }
+
+    // Grelha n x n com classes de estrada e sentidos únicos aleatórios
+    static RoadGraph randomGrid(int n, long seed) {
+        Random random = new Random(seed);
+        RoadClass[] classes = RoadClass.values();
+        RoadGraph.Builder builder = RoadGraph.builder();
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                builder.addNode(38.7 + r * 0.001 + random.nextDouble() * 0.0004,
+                        -9.1 + c * 0.001 + random.nextDouble() * 0.0004);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = r * n + c;
+                if (c + 1 < n) {
+                    builder.addEdge(v, v + 1, classes[random.nextInt(classes.length)], random.nextInt(8) == 0,
+                            Double.NaN);
+                }
+                if (r + 1 < n) {
+                    builder.addEdge(v, v + n, classes[random.nextInt(classes.length)], random.nextInt(8) == 0,
+                            Double.NaN);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.myapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OsrmResponseParserTest {
+
+    @Test
+    void parse_readsFirstRouteAndSkipsEverythingElse() throws IOException {
+        String json = """
+            {"code":"Ok",
+             "waypoints":[{"name":"A","location":[-9.1,38.7]}],
+             "routes":[
+               {"legs":[{"steps":[],"summary":"","distance":1.0}],
+                "weight_name":"routability",
+                "geometry":{"type":"LineString","coordinates":[[-9.10,38.70],[-9.15,38.75,12.0],[-9.20,38.80]]},
+                "distance":12345.6,"duration":678.4},
+               {"distance":1.0,"duration":1.0,"geometry":{"coordinates":[[0,0]]}}
+             ]}
+            """;
+
+        OsrmResponseParser.ParsedRoute route = OsrmResponseParser.parse(json);
+
+        assertTrue(route.isFound());
+        assertEquals("Ok", route.getCode());
+        assertEquals(12345.6, route.getDistanceMeters(), 1e-9);
+        assertEquals(678.4, route.getDurationSeconds(), 1e-9);
+        assertEquals(3, route.getPointCount());
+        double[] c = route.getCoordinates();
+        // Buffer intercalado lat, lon
+        assertEquals(38.70, c[0], 1e-9);
+        assertEquals(-9.10, c[1], 1e-9);
+        assertEquals(38.75, c[2], 1e-9);
+        assertEquals(-9.15, c[3], 1e-9);
+        assertEquals(-9.20, c[5], 1e-9);
+    }
+
+    @Test
+    void parse_growsBufferForLongGeometries() throws IOException {
+        StringBuilder json = new StringBuilder("{\"routes\":[{\"distance\":1,\"duration\":1,"
+                + "\"geometry\":{\"coordinates\":[");
+        int n = 5000;
+        for (int i = 0; i < n; i++) {
+            json.append(i == 0 ? "" : ",").append('[').append(i * 0.001).append(',').append(-i * 0.001).append(']');
+        }
+        json.append("]}}]}");
+
+        OsrmResponseParser.ParsedRoute route = OsrmResponseParser.parse(json.toString());
+
+        assertEquals(n, route.getPointCount());
+        assertEquals(-(n - 1) * 0.001, route.getCoordinates()[2 * (n - 1)], 1e-9);
+        assertEquals((n - 1) * 0.001, route.getCoordinates()[2 * (n - 1) + 1], 1e-9);
+    }
+
+    @Test
+    void parse_reportsMissingOrEmptyRoutesWithOsrmCode() throws IOException {
+        OsrmResponseParser.ParsedRoute noRoute = OsrmResponseParser.parse(
+                "{\"code\":\"NoRoute\",\"message\":\"Impossible route between points\",\"routes\":[]}");
+        assertFalse(noRoute.isFound());
+        assertEquals("NoRoute", noRoute.getCode());
+        assertEquals("Impossible route between points", noRoute.getMessage());
+
+        OsrmResponseParser.ParsedRoute missing = OsrmResponseParser.parse("{ }");
+        assertFalse(missing.isFound());
+        assertEquals(0, missing.getPointCount());
+    }
+
+    @Test
+    void parse_decodesPolylineGeometryWithGivenPrecision() throws IOException {
+        double[] coords = { 38.70, -9.10, 38.75, -9.15, 38.80, -9.20 };
+        String json = "{\"code\":\"Ok\",\"routes\":[{\"geometry\":\""
+                + PolylineCodec.encode(coords, 3, 6).replace("\\", "\\\\")
+                + "\",\"distance\":100.0,\"duration\":10.0}]}";
+
+        OsrmResponseParser.ParsedRoute route = OsrmResponseParser.parse(json, 6);
+
+        assertTrue(route.isFound());
+        assertEquals(3, route.getPointCount());
+        assertArrayEquals(coords, java.util.Arrays.copyOf(route.getCoordinates(), 6), 1e-9);
+
+        // A mesma string lida com precisão 5 fica dez vezes maior
+        OsrmResponseParser.ParsedRoute wrong = OsrmResponseParser.parse(json, 5);
+        assertEquals(387.0, wrong.getCoordinates()[0], 1e-6);
+    }
+
+    @Test
+    void parse_rejectsMalformedResponses() {
+        assertThrows(IOException.class, () -> OsrmResponseParser.parse("{\"routes\":[{\"distance\":"));
+        assertThrows(IOException.class, () -> OsrmResponseParser.parse("[1, 2]"));
+        assertThrows(IOException.class,
+                () -> OsrmResponseParser.parse("{\"routes\":[{\"geometry\":\"_p~iF~ps|U_\"}]}", 5));
+    }
+}
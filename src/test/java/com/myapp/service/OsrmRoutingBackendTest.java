@@ -0,0 +1,237 @@
+package com.myapp.service;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.DistanceMatrix;
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da matriz de distâncias do {@link OsrmRoutingBackend} com uma OSRM
+ * falsa que responde ao serviço {@code /table} (sem rede).
+ */
+class OsrmRoutingBackendTest {
+
+    /**
+     * OSRM falsa: a latitude de cada ponto é o seu índice; a duração de
+     * {@code i} para {@code j} é {@code 1000 * i + j} segundos e a distância
+     * o dobro, em metros.
+     */
+    private static class TableOSRM extends OSRMClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger squareCalls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Integer> coordinateCounts = new ArrayList<>();
+        String failWith;
+
+        @Override
+        public CompletableFuture<String> getTableJsonAsync(List<Point> sources, List<Point> destinations,
+                TransportMode mode) {
+            return respond(sources, destinations, sources.size() + destinations.size());
+        }
+
+        @Override
+        public CompletableFuture<String> getTableJsonAsync(List<Point> points, TransportMode mode) {
+            squareCalls.incrementAndGet();
+            return respond(points, points, points.size());
+        }
+
+        private CompletableFuture<String> respond(List<Point> sources, List<Point> destinations, int coordinates) {
+            calls.incrementAndGet();
+            synchronized (coordinateCounts) {
+                coordinateCounts.add(coordinates);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                if (failWith != null) {
+                    return "{\"code\":\"" + failWith + "\",\"message\":\"falhou\"}";
+                }
+                StringBuilder durations = new StringBuilder("[");
+                StringBuilder distances = new StringBuilder("[");
+                for (int i = 0; i < sources.size(); i++) {
+                    durations.append(i == 0 ? "[" : ",[");
+                    distances.append(i == 0 ? "[" : ",[");
+                    for (int j = 0; j < destinations.size(); j++) {
+                        long value = 1000L * (long) sources.get(i).getLatitude()
+                                + (long) destinations.get(j).getLatitude();
+                        durations.append(j == 0 ? "" : ",").append(value);
+                        distances.append(j == 0 ? "" : ",").append(2 * value);
+                    }
+                    durations.append(']');
+                    distances.append(']');
+                }
+                return "{\"code\":\"Ok\",\"durations\":" + durations + "],\"distances\":" + distances
+                        + "],\"sources\":[],\"destinations\":[]}";
+            }, CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS))
+                    .whenComplete((r, e) -> inFlight.decrementAndGet());
+        }
+    }
+
+    private static List<Point> points(int n) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            points.add(new Point(i, 0.0, null));
+        }
+        return points;
+    }
+
+    @Test
+    void tiles_coverMatrixWithinCoordinateLimit() {
+        for (int[] dims : new int[][] { { 3, 4 }, { 30, 500 }, { 500, 30 }, { 250, 250 }, { 1, 1 }, { 99, 1 } }) {
+            int rows = dims[0];
+            int cols = dims[1];
+            int[][] covered = new int[rows][cols];
+            for (int[] t : OsrmRoutingBackend.tiles(rows, cols, 100)) {
+                assertTrue(t[1] + t[3] <= 100, "bloco com " + (t[1] + t[3]) + " coordenadas");
+                for (int i = t[0]; i < t[0] + t[1]; i++) {
+                    for (int j = t[2]; j < t[2] + t[3]; j++) {
+                        covered[i][j]++;
+                    }
+                }
+            }
+            for (int[] row : covered) {
+                for (int c : row) {
+                    assertEquals(1, c);
+                }
+            }
+        }
+        // Lado pequeno inteiro em cada pedido: 30 origens + 70 destinos
+        assertEquals(8, OsrmRoutingBackend.tiles(30, 500, 100).size());
+        assertEquals(1, OsrmRoutingBackend.tiles(40, 60, 100).size());
+    }
+
+    @Test
+    void distanceMatrix_assemblesTilesRequestedConcurrently() throws IOException {
+        TableOSRM osrm = new TableOSRM();
+        OsrmRoutingBackend backend = new OsrmRoutingBackend(osrm);
+
+        DistanceMatrix m = backend.getDistanceMatrix(points(120), points(130), TransportMode.CAR);
+
+        assertEquals(120, m.getRowCount());
+        assertEquals(130, m.getColumnCount());
+        for (int i = 0; i < 120; i++) {
+            for (int j = 0; j < 130; j++) {
+                assertEquals(1000L * i + j, m.getDurationSec(i, j));
+                assertEquals((2000.0 * i + 2 * j) / 1000.0, m.getDistanceKm(i, j), 1e-9);
+            }
+        }
+        assertEquals(OsrmRoutingBackend.tiles(120, 130, OSRMClient.MAX_TABLE_COORDINATES).size(), osrm.calls.get());
+        assertTrue(osrm.coordinateCounts.stream().allMatch(c -> c <= OSRMClient.MAX_TABLE_COORDINATES));
+        assertTrue(osrm.maxInFlight.get() > 1);
+        assertTrue(osrm.maxInFlight.get() <= OsrmRoutingBackend.MAX_CONCURRENT_TILES);
+    }
+
+    @Test
+    void squareTiles_writeEachCellExactlyOnce() {
+        for (int n : new int[] { 2, 100, 101, 201, 350, 3000 }) {
+            int[][] written = new int[n][n];
+            for (OsrmRoutingBackend.SquareTile tile : OsrmRoutingBackend.squareTiles(n, 100)) {
+                int[] indices = tile.indices();
+                assertTrue(indices.length <= 100, "pedido com " + indices.length + " coordenadas");
+                for (int r = 0; r < indices.length; r++) {
+                    for (int c = 0; c < indices.length; c++) {
+                        if (tile.writes(r, c)) {
+                            written[indices[r]][indices[c]]++;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals(1, written[i][j], "n=" + n + " célula (" + i + ", " + j + ")");
+                }
+            }
+        }
+        assertEquals(1, OsrmRoutingBackend.squareTiles(100, 100).size());
+        // 201 pontos: 5 grupos de 40-41, um pedido por par (com origens/destinos seriam 25)
+        assertEquals(10, OsrmRoutingBackend.squareTiles(201, 100).size());
+        assertEquals(25, OsrmRoutingBackend.tiles(201, 201, 100).size());
+    }
+
+    @Test
+    void squareDistanceMatrix_sendsEachPointOncePerRequest() throws IOException {
+        TableOSRM osrm = new TableOSRM();
+        OsrmRoutingBackend backend = new OsrmRoutingBackend(osrm);
+
+        DistanceMatrix small = backend.getDistanceMatrix(points(80), TransportMode.CAR);
+        assertEquals(1, osrm.calls.get());
+        assertEquals(List.of(80), osrm.coordinateCounts);
+
+        DistanceMatrix m = backend.getDistanceMatrix(points(201), TransportMode.CAR);
+        // 5 grupos: um pedido por par, sem pedidos só para a diagonal
+        assertEquals(11, osrm.squareCalls.get());
+        for (DistanceMatrix matrix : List.of(small, m)) {
+            for (int i = 0; i < matrix.getRowCount(); i++) {
+                for (int j = 0; j < matrix.getColumnCount(); j++) {
+                    assertEquals(1000L * i + j, matrix.getDurationSec(i, j));
+                }
+            }
+        }
+        assertTrue(osrm.coordinateCounts.stream().allMatch(c -> c <= OSRMClient.MAX_TABLE_COORDINATES));
+    }
+
+    @Test
+    void distanceMatrix_failsWhenAnyTileFails() {
+        TableOSRM osrm = new TableOSRM();
+        osrm.failWith = "TooBig";
+        OsrmRoutingBackend backend = new OsrmRoutingBackend(osrm);
+
+        IOException e = assertThrows(IOException.class,
+                () -> backend.getDistanceMatrix(points(10), points(10), TransportMode.FOOT));
+        assertTrue(e.getMessage().contains("TooBig"));
+
+        Service service = new Service(osrm, new OverpassClient(), new NominatimClient(), new ElevationClient());
+        assertNull(service.getDistanceMatrix(points(3), points(3), TransportMode.CAR));
+        assertNull(service.getDistanceMatrixAsync(points(3), points(3), TransportMode.CAR).join());
+    }
+
+    @Test
+    void distanceMatrix_emptyInputNeedsNoRequest() throws IOException {
+        TableOSRM osrm = new TableOSRM();
+        DistanceMatrix m = new OsrmRoutingBackend(osrm).getDistanceMatrix(List.of(), points(5), TransportMode.CAR);
+        assertEquals(0, m.getRowCount());
+        assertEquals(0, osrm.calls.get());
+    }
+
+    @Test
+    void tableParser_marksNullCellsUnreachableAndChecksShape() throws IOException {
+        DistanceMatrix m = new DistanceMatrix(3, 3);
+        OsrmTableParser.parseInto("{\"code\":\"Ok\",\"durations\":[[0,null],[12.6,0]],"
+                + "\"distances\":[[0,null],[1500,0]]}", m, 1, 1, 2, 2);
+
+        assertEquals(13, m.getDurationSec(2, 1));
+        assertEquals(1.5, m.getDistanceKm(2, 1), 1e-9);
+        assertFalse(m.isReachable(1, 2));
+        assertTrue(Double.isNaN(m.getDistanceKm(1, 2)));
+        assertFalse(m.isReachable(0, 0));
+
+        DistanceMatrix filtered = new DistanceMatrix(2, 2);
+        OsrmTableParser.parseInto("{\"code\":\"Ok\",\"durations\":[[1,2],[3,4]],\"distances\":[[10,20],[30,40]]}",
+                filtered, new int[] { 1, 0 }, new int[] { 0, 1 }, (row, col) -> row != col);
+        assertEquals(2, filtered.getDurationSec(1, 1));
+        assertEquals(3, filtered.getDurationSec(0, 0));
+        assertEquals(0.02, filtered.getDistanceKm(1, 1), 1e-9);
+        assertFalse(filtered.isReachable(1, 0));
+        assertFalse(filtered.isReachable(0, 1));
+
+        assertThrows(IOException.class, () -> OsrmTableParser.parseInto(
+                "{\"code\":\"Ok\",\"durations\":[[1,2,3]]}", new DistanceMatrix(1, 2), 0, 0, 1, 2));
+        assertThrows(IOException.class, () -> OsrmTableParser.parseInto(
+                "{\"code\":\"Ok\"}", new DistanceMatrix(1, 1), 0, 0, 1, 1));
+        assertThrows(IOException.class, () -> OsrmTableParser.parseInto("<html>", new DistanceMatrix(1, 1),
+                0, 0, 1, 1));
+    }
+}
@@ -0,0 +1,71 @@
+package com.myapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolylineCodecTest {
+
+    // Exemplo da documentação do Encoded Polyline Algorithm
+    private static final String GOOGLE_EXAMPLE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    @Test
+    void decode_matchesReferenceExample() throws IOException {
+        double[] c = PolylineCodec.decode(GOOGLE_EXAMPLE, 5);
+
+        assertEquals(6, c.length);
+        assertEquals(38.5, c[0], 1e-9);
+        assertEquals(-120.2, c[1], 1e-9);
+        assertEquals(40.7, c[2], 1e-9);
+        assertEquals(-120.95, c[3], 1e-9);
+        assertEquals(43.252, c[4], 1e-9);
+        assertEquals(-126.453, c[5], 1e-9);
+    }
+
+    @Test
+    void encode_isInverseOfDecodeAtPrecision6() throws IOException {
+        double[] route = { 38.722300, -9.139300, 38.722512, -9.138877, 41.157900, -8.629100, -33.868820, 151.209296 };
+
+        String encoded = PolylineCodec.encode(route, 4, 6);
+        assertEquals(4, PolylineCodec.countPoints(encoded));
+
+        double[] decoded = PolylineCodec.decode(encoded, 6);
+        assertArrayEquals(route, decoded, 1e-9);
+        assertEquals(GOOGLE_EXAMPLE, PolylineCodec.encode(PolylineCodec.decode(GOOGLE_EXAMPLE, 5), 3, 5));
+    }
+
+    @Test
+    void encode_isInverseOfDecodeAtAntimeridianWithPrecision7() throws IOException {
+        // 180 * 1e7 e o salto de 360 graus não cabem num int
+        double[] route = { 90.0, 180.0, -90.0, -180.0, 0.0, 179.9999999, -85.0511288, -179.9999999 };
+
+        String encoded = PolylineCodec.encode(route, 4, 7);
+
+        assertArrayEquals(route, PolylineCodec.decode(encoded, 7), 1e-9);
+    }
+
+    @Test
+    void decodeInto_writesAtOffset() throws IOException {
+        double[] buf = new double[10];
+
+        int n = PolylineCodec.decodeInto(GOOGLE_EXAMPLE, 5, buf, 2);
+
+        assertEquals(3, n);
+        assertEquals(0.0, buf[0]);
+        assertEquals(38.5, buf[2], 1e-9);
+        assertEquals(-126.453, buf[7], 1e-9);
+        assertThrows(IOException.class, () -> PolylineCodec.decodeInto(GOOGLE_EXAMPLE, 5, new double[4], 0));
+    }
+
+    @Test
+    void decode_rejectsTruncatedOrInvalidInput() throws IOException {
+        assertEquals(0, PolylineCodec.decode("", 6).length);
+        // Último carácter com o bit de continuação
+        assertThrows(IOException.class, () -> PolylineCodec.decode("_p~iF~ps|U_", 5));
+        // Só a latitude do primeiro vértice
+        assertThrows(IOException.class, () -> PolylineCodec.decode("_p~iF", 5));
+        assertThrows(IOException.class, () -> PolylineCodec.decode("abc def", 5));
+    }
+}
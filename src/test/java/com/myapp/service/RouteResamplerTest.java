@@ -0,0 +1,167 @@
+package com.myapp.service;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.ElevationProfile;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
+import com.myapp.model.TransportMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteResamplerTest {
+
+    // Metros por grau de longitude no equador (raio de 6371 km)
+    private static final double METERS_PER_DEGREE = 6_371_000.0 * Math.PI / 180;
+
+    // Rota no equador com 1 km de vértices densos (10 m) seguida de 9 km com apenas 2 vértices
+    private static RouteGeometry unevenRoute() {
+        RouteGeometry.Builder builder = RouteGeometry.builder(110);
+        for (int i = 0; i <= 100; i++) {
+            builder.add(0.0, i * 10 / METERS_PER_DEGREE);
+        }
+        builder.add(0.0, 5_000 / METERS_PER_DEGREE);
+        builder.add(0.0, 10_000 / METERS_PER_DEGREE);
+        return builder.build();
+    }
+
+    @Test
+    void samplesAreEvenlySpacedRegardlessOfVertexDensity() {
+        RouteGeometry geometry = unevenRoute();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        assertEquals(10_000, cumulative[cumulative.length - 1], 1e-6);
+
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, 11, 30);
+        assertEquals(11, samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(i * 1000.0, samples.distances()[i], 1e-6);
+            assertEquals(i * 1000.0 / METERS_PER_DEGREE, samples.points().getLongitude(i), 1e-9, "amostra " + i);
+            assertEquals(0.0, samples.points().getLatitude(i), 1e-12);
+        }
+    }
+
+    @Test
+    void minimumSpacingLimitsShortRoutes() {
+        RouteGeometry geometry = unevenRoute();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, 1000, 30);
+        // 10 km a pelo menos 30 m: 333 intervalos
+        assertEquals(334, samples.size());
+        assertEquals(10_000, samples.distances()[samples.size() - 1], 1e-6);
+        assertEquals(geometry.getLongitude(geometry.size() - 1),
+                samples.points().getLongitude(samples.size() - 1), 1e-12);
+    }
+
+    @Test
+    void degenerateRoutesGiveASingleSample() {
+        RouteGeometry single = RouteGeometry.fromPoints(List.of(new Point(38.7, -9.1, null)));
+        RouteResampler.Samples one = RouteResampler.uniform(single, RouteResampler.cumulativeDistances(single),
+                1000, 30);
+        assertEquals(1, one.size());
+        assertEquals(38.7, one.points().getLatitude(0), 1e-12);
+
+        RouteGeometry repeated = RouteGeometry.fromPoints(List.of(new Point(38.7, -9.1, null),
+                new Point(38.7, -9.1, null)));
+        assertEquals(1, RouteResampler.uniform(repeated, RouteResampler.cumulativeDistances(repeated), 1000, 30)
+                .size());
+
+        RouteGeometry empty = RouteGeometry.empty();
+        assertEquals(0, RouteResampler.uniform(empty, RouteResampler.cumulativeDistances(empty), 1000, 30).size());
+    }
+
+    @Test
+    void refinementSplitsIntervalsAroundSlopeChanges() {
+        RouteGeometry geometry = unevenRoute();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, 11, 30);
+        // Plano até aos 5 km, depois sobe 10 %
+        double[] elevations = { 0, 0, 0, 0, 0, 0, 100, 200, 300, 400, 500 };
+
+        RouteResampler.Refinement refinement = RouteResampler.refine(geometry, cumulative, samples, elevations,
+                0.03, 100, 30);
+        assertArrayEquals(new int[] { 5, 7 }, refinement.added());
+        assertEquals(13, refinement.samples().size());
+        assertEquals(4500, refinement.samples().distances()[5], 1e-6);
+        assertEquals(5500, refinement.samples().distances()[7], 1e-6);
+        assertEquals(4500 / METERS_PER_DEGREE, refinement.addedPoints().get(0).getLongitude(), 1e-9);
+
+        double[] merged = refinement.merge(elevations, new double[] { -1, -2 });
+        assertEquals(13, merged.length);
+        assertEquals(-1, merged[5]);
+        assertEquals(0, merged[6]);
+        assertEquals(-2, merged[7]);
+        assertEquals(500, merged[12]);
+    }
+
+    @Test
+    void refinementKeepsTheLargestChangesWithinBudget() {
+        RouteGeometry geometry = unevenRoute();
+        double[] cumulative = RouteResampler.cumulativeDistances(geometry);
+        RouteResampler.Samples samples = RouteResampler.uniform(geometry, cumulative, 11, 30);
+        // Mudanças pequenas (5 %) aos 2 km, maiores aos 7 km (15 %) e aos 8 km (20 %)
+        double[] elevations = { 0, 0, 0, 50, 100, 150, 200, 250, 450, 450, 450 };
+
+        RouteResampler.Refinement all = RouteResampler.refine(geometry, cumulative, samples, elevations,
+                0.03, 100, 30);
+        assertEquals(5, all.added().length);
+
+        RouteResampler.Refinement budget = RouteResampler.refine(geometry, cumulative, samples, elevations,
+                0.03, 2, 30);
+        double[] distances = budget.samples().distances();
+        assertEquals(2, budget.added().length);
+        assertEquals(7500, distances[budget.added()[0]], 1e-6);
+        assertEquals(8500, distances[budget.added()[1]], 1e-6);
+
+        assertEquals(0, RouteResampler.refine(geometry, cumulative, samples, elevations, 0.03, 2, 600)
+                .added().length, "intervalos de 1 km não se dividem com espaçamento mínimo de 600 m");
+    }
+
+    @Test
+    void adaptiveProfileRefinesWhereTheSlopeChanges() throws Exception {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            points.add(new Point(0.0, i * 0.01, null));
+        }
+        Route route = new Route(points, 0.0, 0, TransportMode.CAR, List.of());
+        AtomicInteger calls = new AtomicInteger();
+        Service service = new Service(new OSRMClient(), new OverpassClient(), new NominatimClient(),
+                new ElevationClient());
+        // Plano até à longitude 0.5, depois sobe 100 m por cada 0.01°
+        service.setElevationProvider(query -> {
+            calls.incrementAndGet();
+            double[] elevations = new double[query.size()];
+            for (int i = 0; i < elevations.length; i++) {
+                elevations[i] = Math.max(0, query.get(i).getLongitude() - 0.5) * 10_000;
+            }
+            return elevations;
+        });
+
+        ElevationProfile uniform = service.getElevationProfile(route);
+        assertEquals(1000, uniform.getElevations().size());
+        assertEquals(1, calls.get());
+
+        service.setAdaptiveElevationSampling(true);
+        ElevationProfile adaptive = service.getElevationProfile(route);
+        assertEquals(3, calls.get());
+        int samples = adaptive.getElevations().size();
+        assertTrue(samples > 500 && samples <= 1000, "amostras: " + samples);
+        List<Double> distances = adaptive.getDistances();
+        for (int i = 1; i < samples; i++) {
+            assertTrue(distances.get(i) > distances.get(i - 1), "distâncias fora de ordem em " + i);
+        }
+        assertEquals(5000.0, adaptive.getMaxElevation(), 1e-6);
+
+        ElevationProfile async = service.getElevationProfileAsync(route).get();
+        assertEquals(samples, async.getElevations().size());
+        assertEquals(5, calls.get());
+    }
+}
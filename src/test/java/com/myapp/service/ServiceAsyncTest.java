@@ -0,0 +1,332 @@
+package com.myapp.service;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.ElevationProfile;
+import com.myapp.model.POI;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes das versões assíncronas do Service com clientes falsos que
+ * respondem através de {@link CompletableFuture} (sem rede).
+ */
+class ServiceAsyncTest {
+
+    private static final Pattern AROUND = Pattern.compile("around:\\d+,([-\\d.]+),([-\\d.]+)");
+    private static final String ROUTE_JSON = "{\"code\":\"Ok\",\"routes\":[{\"distance\":10000,\"duration\":600,"
+            + "\"geometry\":{\"coordinates\":[[-9.0,38.0],[-9.0,38.5],[-9.0,39.0]]}}]}";
+
+    private static class AsyncOSRM extends OSRMClient {
+        @Override
+        public CompletableFuture<String> getRouteJsonAsync(Point o, Point d, TransportMode m) {
+            return CompletableFuture.supplyAsync(() -> ROUTE_JSON);
+        }
+
+        @Override
+        public CompletableFuture<String> getRouteJsonWithWaypointsAsync(Point o, List<Point> w, TransportMode m) {
+            return CompletableFuture.supplyAsync(() -> ROUTE_JSON);
+        }
+    }
+
+    /**
+     * Open-Elevation falsa: elevação = latitude * 1000, para verificar a ordem;
+     * regista os pedidos e o máximo de pedidos em curso.
+     */
+    private static class AsyncElevation extends ElevationClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        long delayMs;
+        boolean failSecondBatch;
+
+        @Override
+        public CompletableFuture<String> getElevationsAsync(List<Point> points) {
+            int call = calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                if (failSecondBatch && call == 2) {
+                    return "{\"error\":\"busy\"}";
+                }
+                return respond(points);
+            });
+        }
+
+        @Override
+        public String getElevations(List<Point> points) {
+            calls.incrementAndGet();
+            return respond(points);
+        }
+
+        private static String respond(List<Point> points) {
+            StringBuilder json = new StringBuilder("{\"results\":[");
+            for (int i = 0; i < points.size(); i++) {
+                json.append(i == 0 ? "" : ",").append("{\"elevation\":")
+                        .append(points.get(i).getLatitude() * 1000).append('}');
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /** Overpass falsa: um POI junto a cada cláusula around; opcionalmente rejeita o corredor. */
+    private static class AsyncOverpass extends OverpassClient {
+        final AtomicInteger calls = new AtomicInteger();
+        boolean rejectCorridor;
+        boolean neverAnswer;
+
+        @Override
+        public CompletableFuture<String> postOverpassAsync(String ql) {
+            calls.incrementAndGet();
+            if (neverAnswer) {
+                return new CompletableFuture<>();
+            }
+            if (rejectCorridor && ql.contains("(\n")) {
+                return CompletableFuture.completedFuture("<html>runtime error: Query timed out</html>");
+            }
+            StringBuilder json = new StringBuilder("{\"elements\":[");
+            Matcher m = AROUND.matcher(ql);
+            boolean first = true;
+            while (m.find()) {
+                json.append(first ? "" : ",").append(String.format(Locale.US,
+                        "{\"lat\":%s,\"lon\":%s,\"tags\":{\"name\":\"P\",\"amenity\":\"cafe\"}}",
+                        m.group(1), m.group(2)));
+                first = false;
+            }
+            return CompletableFuture.supplyAsync(() -> json.append("]}").toString());
+        }
+    }
+
+    private static class AsyncNominatim extends NominatimClient {
+        @Override
+        public CompletableFuture<String> searchJsonAsync(String query) {
+            if (query.equals("nada")) {
+                return CompletableFuture.completedFuture("[]");
+            }
+            return CompletableFuture.supplyAsync(() -> "[{\"lat\":\"41.15\",\"lon\":\"-8.61\",\"display_name\":\"Porto\"},"
+                    + "{\"lat\":\"41.20\",\"lon\":\"-8.50\",\"display_name\":\"Porto 2\"}]");
+        }
+    }
+
+    private static Service asyncService(AsyncOverpass overpass) {
+        Service service = new Service(new AsyncOSRM(), overpass, new AsyncNominatim(), new AsyncElevation());
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+        return service;
+    }
+
+    @Test
+    void routeThenElevationAndPoisCompose() throws Exception {
+        AsyncOverpass overpass = new AsyncOverpass();
+        Service service = asyncService(overpass);
+
+        CompletableFuture<Object[]> all = service
+                .getRouteAsync(new Point(38.0, -9.0, null), new Point(39.0, -9.0, null), TransportMode.CAR)
+                .thenCompose(route -> {
+                    CompletableFuture<ElevationProfile> elevation = service.getElevationProfileAsync(route);
+                    CompletableFuture<List<POI>> pois = service.getPOIsAlongRouteAsync(route, "Café");
+                    return elevation.thenCombine(pois, (e, p) -> new Object[] { route, e, p });
+                });
+        Object[] result = all.get(5, TimeUnit.SECONDS);
+
+        Route route = (Route) result[0];
+        assertEquals(3, route.getPointCount());
+        assertEquals(10.0, route.getDistanceKm(), 1e-9);
+        ElevationProfile profile = (ElevationProfile) result[1];
+        // 111 km reamostrados no máximo de amostras, a intervalos iguais
+        assertEquals(1000, profile.getElevations().size());
+        assertEquals(38000.0, profile.getElevations().get(0), 1e-6);
+        assertEquals(39000.0, profile.getElevations().get(999), 1e-6);
+        @SuppressWarnings("unchecked")
+        List<POI> pois = (List<POI>) result[2];
+        assertFalse(pois.isEmpty());
+        assertEquals(1, overpass.calls.get(), "modo corredor: um único pedido");
+    }
+
+    @Test
+    void routeWithWaypointsAsyncParsesResponse() throws Exception {
+        Route route = asyncService(new AsyncOverpass())
+                .getRouteWithWaypointsAsync(new Point(38.0, -9.0, null), List.of(new Point(39.0, -9.0, null)),
+                        TransportMode.FOOT)
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(TransportMode.FOOT, route.getMode());
+        assertEquals(600, route.getDurationSec());
+    }
+
+    @Test
+    void cancellingRouteCancelsClientRequest() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        OSRMClient slowOsrm = new OSRMClient() {
+            @Override
+            public CompletableFuture<String> getRouteJsonWithWaypointsAsync(Point o, List<Point> w, TransportMode m) {
+                return pending;
+            }
+        };
+        Service service = new Service(slowOsrm, new AsyncOverpass(), new AsyncNominatim(), new AsyncElevation());
+
+        CompletableFuture<Route> route = service.getRouteWithWaypointsAsync(new Point(38.0, -9.0, null),
+                List.of(new Point(39.0, -9.0, null)), TransportMode.CAR);
+        route.cancel(true);
+
+        // no OSRMClient real, o futuro do sendAsync: cancelá-lo aborta o pedido HTTP
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    void failedRequestsCompleteWithNullOrEmpty() throws Exception {
+        OSRMClient failingOsrm = new OSRMClient() {
+            @Override
+            public CompletableFuture<String> getRouteJsonAsync(Point o, Point d, TransportMode m) {
+                return CompletableFuture.failedFuture(new IOException("offline"));
+            }
+        };
+        NominatimClient failingNominatim = new NominatimClient() {
+            @Override
+            public CompletableFuture<String> searchJsonAsync(String query) {
+                return CompletableFuture.failedFuture(new IOException("offline"));
+            }
+        };
+        Service service = new Service(failingOsrm, new AsyncOverpass(), failingNominatim, new AsyncElevation());
+
+        assertNull(service.getRouteAsync(new Point(0, 0, null), new Point(1, 1, null), TransportMode.CAR)
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(service.searchLocationsAsync("Porto").get(5, TimeUnit.SECONDS).isEmpty());
+        assertNull(service.getGeocodeFromLocationStringAsync("Porto").get(5, TimeUnit.SECONDS));
+        assertNull(service.getElevationProfileAsync(null).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void geocodingAsyncParsesResults() throws Exception {
+        Service service = asyncService(new AsyncOverpass());
+
+        List<Point> results = service.searchLocationsAsync("Porto").get(5, TimeUnit.SECONDS);
+        assertEquals(2, results.size());
+        assertEquals("Porto 2", results.get(1).getName());
+
+        Point first = service.getGeocodeFromLocationStringAsync("Porto").get(5, TimeUnit.SECONDS);
+        assertEquals(41.15, first.getLatitude(), 1e-9);
+        assertNull(service.getGeocodeFromLocationStringAsync("nada").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void poisAsyncFallsBackToPerCheckpointRequests() throws Exception {
+        AsyncOverpass overpass = new AsyncOverpass();
+        overpass.rejectCorridor = true;
+        Service service = asyncService(overpass);
+        Route route = service.getRouteAsync(null, null, TransportMode.CAR).get(5, TimeUnit.SECONDS);
+
+        List<POI> pois = service.getPOIsAlongRouteAsync(route, "Café").get(5, TimeUnit.SECONDS);
+
+        assertEquals(1 + 10, overpass.calls.get());
+        assertFalse(pois.isEmpty());
+    }
+
+    @Test
+    void poisAsyncHonoursDeadline() throws Exception {
+        AsyncOverpass overpass = new AsyncOverpass();
+        overpass.neverAnswer = true;
+        Service service = asyncService(overpass);
+        service.setPoiSearchMode(PoiSearchMode.PER_CHECKPOINT);
+        service.setPoiSearchTimeout(Duration.ofMillis(300));
+        Route route = service.getRouteAsync(null, null, TransportMode.CAR).get(5, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        List<POI> pois = service.getPOIsAlongRouteAsync(route, "Café").get(5, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(pois.isEmpty());
+        assertEquals(10, overpass.calls.get());
+        assertTrue(elapsedMs < 2_000, "devia terminar perto do prazo de 300 ms, demorou " + elapsedMs);
+    }
+
+    @Test
+    void unknownPoiTypeCompletesImmediately() throws Exception {
+        Service service = asyncService(new AsyncOverpass());
+        Route route = service.getRouteAsync(null, null, TransportMode.CAR).get(5, TimeUnit.SECONDS);
+        assertTrue(service.getPOIsAlongRouteAsync(route, "Desconhecido").isDone());
+        assertTrue(service.getPOIsAlongRouteAsync(null, "Café").get().isEmpty());
+    }
+
+    private static Route longRoute(int points) {
+        List<Point> geometry = new java.util.ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            geometry.add(new Point(i * 0.0001, -9.0, null));
+        }
+        return new Route(geometry, 0.0, 0, TransportMode.CAR, List.of());
+    }
+
+    private static void assertElevationsInRouteOrder(ElevationProfile profile) {
+        List<Double> elevations = profile.getElevations();
+        for (int i = 1; i < elevations.size(); i++) {
+            assertTrue(elevations.get(i) > elevations.get(i - 1), "fora de ordem na posição " + i);
+        }
+        assertEquals(elevations.size(), profile.getDistances().size());
+    }
+
+    @Test
+    void longProfileIsFetchedInConcurrentBatchesAndReassembledInOrder() throws Exception {
+        AsyncElevation elevation = new AsyncElevation();
+        elevation.delayMs = 50;
+        Service service = new Service(new AsyncOSRM(), new AsyncOverpass(), new AsyncNominatim(), elevation);
+        service.setElevationRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        long start = System.nanoTime();
+        ElevationProfile profile = service.getElevationProfileAsync(longRoute(5000)).get(5, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(profile);
+        int samples = profile.getElevations().size();
+        assertTrue(samples > 750 && samples <= 1000, "amostras: " + samples);
+        assertEquals(0.0, profile.getElevations().get(0), 1e-9);
+        assertEquals(4999 * 0.1, profile.getElevations().get(samples - 1), 1e-6, "inclui o último ponto");
+        assertElevationsInRouteOrder(profile);
+        assertEquals(4, elevation.calls.get());
+        assertTrue(elevation.maxInFlight.get() > 1 && elevation.maxInFlight.get() <= 4,
+                "em curso: " + elevation.maxInFlight.get());
+        assertTrue(elapsedMs < 4 * elevation.delayMs, "lotes em paralelo: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void syncProfileUsesBatchesToo() {
+        AsyncElevation elevation = new AsyncElevation();
+        Service service = new Service(new AsyncOSRM(), new AsyncOverpass(), new AsyncNominatim(), elevation);
+        service.setElevationRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        ElevationProfile profile = service.getElevationProfile(longRoute(5000));
+        assertNotNull(profile);
+        assertEquals(1000, profile.getElevations().size());
+        assertElevationsInRouteOrder(profile);
+        assertEquals(4, elevation.calls.get());
+    }
+
+    @Test
+    void failedBatchYieldsNullProfile() throws Exception {
+        AsyncElevation elevation = new AsyncElevation();
+        elevation.failSecondBatch = true;
+        Service service = new Service(new AsyncOSRM(), new AsyncOverpass(), new AsyncNominatim(), elevation);
+        service.setElevationRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        assertNull(service.getElevationProfileAsync(longRoute(2000)).get(5, TimeUnit.SECONDS));
+    }
+}
@@ -69,7 +69,7 @@ class ServiceEdgeCasesTest {
     private static ElevationClient elevationThrowing(RuntimeException ex) {
         return new ElevationClient() {
             @Override
-            public String getElevations(String locations) {
+            public String getElevations(List<Point> points) {
                 throw ex;
             }
         };
@@ -78,7 +78,7 @@ class ServiceEdgeCasesTest {
     private static ElevationClient elevationReturning(String json) {
         return new ElevationClient() {
             @Override
-            public String getElevations(String locations) {
+            public String getElevations(List<Point> points) {
                 return json;
             }
         };
@@ -0,0 +1,253 @@
+package com.myapp.service;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.POI;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.utils.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da pesquisa paralela de POIs contra uma Overpass local (stub) com
+ * latência simulada.
+ */
+class ServicePoiSearchTest {
+
+    private static final Pattern AROUND = Pattern.compile("around:\\d+,([-\\d.]+),([-\\d.]+)");
+    private static final long STUB_LATENCY_MS = 300;
+
+    /** Overpass falsa: responde com um POI junto ao checkpoint após um atraso. */
+    private static class SlowOverpass extends OverpassClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+        private final long latencyMs;
+
+        SlowOverpass(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public String postOverpass(String overpassQL) throws InterruptedException {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Matcher m = AROUND.matcher(overpassQL);
+                assertTrue(m.find(), "query sem cláusula around");
+                double lat = Double.parseDouble(m.group(1));
+                double lon = Double.parseDouble(m.group(2));
+                // Segmentos mais a norte respondem primeiro, para baralhar a ordem de chegada
+                Thread.sleep(Math.max(0, latencyMs - (long) ((lat - 38.0) * 100)));
+                return String.format(Locale.US,
+                        "{\"elements\":[{\"lat\":%f,\"lon\":%f,\"tags\":{\"name\":\"P\",\"amenity\":\"cafe\"}}]}",
+                        lat, lon);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw e;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private static Route northboundRoute() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new Point(38.0 + i * 0.01, -9.0, null));
+        }
+        return new Route(points, 0.0, 0, TransportMode.CAR, new ArrayList<>());
+    }
+
+    /** Overpass falsa para o modo corredor: devolve 5 POIs junto a cada checkpoint. */
+    private static class CorridorOverpass extends OverpassClient {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile String lastQuery;
+
+        @Override
+        public String postOverpass(String overpassQL) {
+            calls.incrementAndGet();
+            lastQuery = overpassQL;
+            StringBuilder json = new StringBuilder("{\"elements\":[");
+            Matcher m = AROUND.matcher(overpassQL);
+            boolean first = true;
+            while (m.find()) {
+                double lat = Double.parseDouble(m.group(1));
+                double lon = Double.parseDouble(m.group(2));
+                // Do mais afastado para o mais próximo, para testar a ordenação por proximidade
+                for (int k = 5; k >= 1; k--) {
+                    json.append(first ? "" : ",").append(String.format(Locale.US,
+                            "{\"lat\":%f,\"lon\":%f,\"tags\":{\"name\":\"P%d\",\"amenity\":\"cafe\"}}",
+                            lat, lon + k * 0.0005, k));
+                    first = false;
+                }
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    private static Service serviceWith(OverpassClient overpass) {
+        return new Service(new OSRMClient(), overpass, new NominatimClient(), new ElevationClient());
+    }
+
+    private static Service perCheckpointServiceWith(OverpassClient overpass) {
+        Service service = serviceWith(overpass);
+        service.setPoiSearchMode(PoiSearchMode.PER_CHECKPOINT);
+        return service;
+    }
+
+    @Test
+    void checkpointsAreQueriedConcurrently() {
+        SlowOverpass overpass = new SlowOverpass(STUB_LATENCY_MS);
+        Service service = perCheckpointServiceWith(overpass);
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        long start = System.nanoTime();
+        List<POI> pois = service.getPOIsAlongRoute(northboundRoute(), "Café");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10, overpass.calls.get());
+        assertEquals(10, pois.size());
+        assertTrue(overpass.maxInFlight.get() > 1, "os checkpoints devem ser consultados em paralelo");
+        // Sequencialmente seriam 10 x 300 ms de latência mais 9 pausas de rate limit
+        assertTrue(elapsedMs < 10 * STUB_LATENCY_MS / 2,
+                "pesquisa demorou " + elapsedMs + " ms");
+    }
+
+    @Test
+    void resultsKeepRouteOrderRegardlessOfCompletionOrder() {
+        Service service = perCheckpointServiceWith(new SlowOverpass(STUB_LATENCY_MS));
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        List<POI> pois = service.getPOIsAlongRoute(northboundRoute(), "Café");
+
+        for (int i = 1; i < pois.size(); i++) {
+            assertTrue(pois.get(i).getCoordinate().getLatitude() > pois.get(i - 1).getCoordinate().getLatitude(),
+                    "POIs devem seguir a ordem da rota");
+        }
+    }
+
+    @Test
+    void deadlineCancelsInFlightRequestsAndReturnsPartialResults() {
+        SlowOverpass overpass = new SlowOverpass(10_000);
+        Service service = perCheckpointServiceWith(overpass);
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+        service.setPoiSearchTimeout(Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        List<POI> pois = service.getPOIsAlongRoute(northboundRoute(), "Café");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(pois.isEmpty());
+        assertTrue(elapsedMs < 2_000, "o prazo global não foi respeitado: " + elapsedMs + " ms");
+        assertTrue(overpass.interrupted.get() > 0, "pedidos em curso devem ser cancelados");
+    }
+
+    @Test
+    void rateLimiterThrottlesRequests() {
+        SlowOverpass overpass = new SlowOverpass(0);
+        Service service = perCheckpointServiceWith(overpass);
+        // 1 pedido imediato e depois 20 por segundo: 10 pedidos levam ~450 ms
+        service.setOverpassRateLimiter(new TokenBucketRateLimiter(20.0, 1));
+
+        long start = System.nanoTime();
+        service.getPOIsAlongRoute(northboundRoute(), "Café");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10, overpass.calls.get());
+        assertTrue(elapsedMs >= 400, "o limitador de taxa não foi aplicado: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void corridorModeSendsSingleQueryAndKeepsSegmentSpread() {
+        CorridorOverpass overpass = new CorridorOverpass();
+        Service service = serviceWith(overpass);
+
+        List<POI> pois = service.getPOIsAlongRoute(northboundRoute(), "Café");
+
+        assertEquals(1, overpass.calls.get(), "o corredor deve usar um único pedido");
+        assertEquals(10, AROUND.matcher(overpass.lastQuery).results().count());
+        // 2 POIs por segmento, os mais próximos de cada checkpoint, pela ordem da rota
+        assertEquals(20, pois.size());
+        for (int i = 0; i < pois.size(); i += 2) {
+            assertEquals("P1", pois.get(i).getName());
+            assertEquals("P2", pois.get(i + 1).getName());
+            if (i > 0) {
+                assertTrue(pois.get(i).getCoordinate().getLatitude()
+                        > pois.get(i - 2).getCoordinate().getLatitude());
+            }
+        }
+    }
+
+    @Test
+    void corridorModeFallsBackToPerCheckpointWhenRejected() {
+        AtomicInteger calls = new AtomicInteger();
+        OverpassClient overpass = new OverpassClient() {
+            @Override
+            public String postOverpass(String overpassQL) {
+                // Rejeita o pedido agregado (várias cláusulas around), aceita os individuais
+                if (calls.incrementAndGet() == 1) {
+                    return "{\"remark\":\"runtime error: Query timed out\"}";
+                }
+                Matcher m = AROUND.matcher(overpassQL);
+                assertTrue(m.find());
+                return "{\"elements\":[{\"lat\":" + m.group(1) + ",\"lon\":" + m.group(2)
+                        + ",\"tags\":{\"amenity\":\"cafe\"}}]}";
+            }
+        };
+        Service service = serviceWith(overpass);
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        List<POI> pois = service.getPOIsAlongRoute(northboundRoute(), "Café");
+
+        assertEquals(11, calls.get());
+        assertEquals(10, pois.size());
+    }
+
+    @Test
+    void raisedLimitsDeduplicateThousandsOfPois() {
+        AtomicInteger calls = new AtomicInteger();
+        OverpassClient overpass = new OverpassClient() {
+            @Override
+            public String postOverpass(String overpassQL) {
+                calls.incrementAndGet();
+                assertTrue(overpassQL.contains("out body 200;"), overpassQL);
+                Matcher m = AROUND.matcher(overpassQL);
+                assertTrue(m.find());
+                double lat = Double.parseDouble(m.group(1));
+                StringBuilder json = new StringBuilder("{\"elements\":[");
+                for (int k = 0; k < 400; k++) {
+                    // Cada POI aparece duas vezes (k e k + 200 têm as mesmas coordenadas)
+                    json.append(k == 0 ? "" : ",").append(String.format(Locale.US,
+                            "{\"lat\":%f,\"lon\":%f,\"tags\":{\"name\":\"P\",\"amenity\":\"cafe\"}}",
+                            lat, -9.0 + (k % 200) * 0.0001));
+                }
+                return json.append("]}").toString();
+            }
+        };
+        Service service = perCheckpointServiceWith(overpass);
+        service.setOverpassRateLimiter(TokenBucketRateLimiter.unlimited());
+
+        service.setPoiLimits(200, 5000);
+        assertEquals(2000, service.getPOIsAlongRoute(northboundRoute(), "Café").size());
+
+        service.setPoiLimits(200, 1500);
+        assertEquals(1500, service.getPOIsAlongRoute(northboundRoute(), "Café").size());
+        assertEquals(20, calls.get());
+        assertThrows(IllegalArgumentException.class, () -> service.setPoiLimits(0, 10));
+    }
+}
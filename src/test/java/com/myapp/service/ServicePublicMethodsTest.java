@@ -51,7 +51,7 @@ public class ServicePublicMethodsTest {
         private static ElevationClient fakeElevation(String json) {
                 return new ElevationClient() {
                         @Override
-                        public String getElevations(String locations) {
+                        public String getElevations(List<Point> points) {
                                 return json;
                         }
                 };
@@ -97,27 +97,42 @@ public class ServicePublicMethodsTest {
                 new Point(0.0, 2.0, "p2")
         ), 0.0, 0, TransportMode.CAR, List.of());
 
-        String elevationJson = "{\n" +
-                "  \"results\": [\n" +
-                "    {\"elevation\": 10.0},\n" +
-                "    {\"elevation\": 20.0},\n" +
-                "    {\"elevation\": 15.0}\n" +
-                "  ]\n" +
-                "}";
+        // Sobe de 10 m a 20 m no primeiro grau e desce para 15 m no segundo
+        ElevationClient elevation = new ElevationClient() {
+            @Override
+            public String getElevations(List<Point> points) {
+                StringBuilder json = new StringBuilder("{\"results\":[");
+                for (int i = 0; i < points.size(); i++) {
+                    double lon = points.get(i).getLongitude();
+                    double h = lon <= 1.0 ? 10.0 + 10.0 * lon : 20.0 - 5.0 * (lon - 1.0);
+                    json.append(i == 0 ? "" : ",").append("{\"elevation\":").append(h).append('}');
+                }
+                return json.append("]}").toString();
+            }
+        };
 
         Service service = new Service(
                 fakeOSRM("{}"),
                 fakeOverpass("{}"),
                 fakeNominatim("[]"),
-                fakeElevation(elevationJson)
+                elevation
         );
 
         ElevationProfile profile = service.getElevationProfile(r);
         assertNotNull(profile);
-        assertEquals(List.of(10.0, 20.0, 15.0), profile.getElevations());
-        assertEquals(3, profile.getDistances().size());
-        assertEquals(0.0, profile.getDistances().get(0), 1e-9);
-        assertTrue(profile.getDistances().get(2) > profile.getDistances().get(1));
+        List<Double> elevations = profile.getElevations();
+        List<Double> distances = profile.getDistances();
+        assertEquals(10.0, elevations.get(0), 1e-9);
+        assertEquals(15.0, elevations.get(elevations.size() - 1), 1e-9);
+        assertEquals(20.0, profile.getMaxElevation(), 0.05);
+        assertEquals(elevations.size(), distances.size());
+        assertEquals(0.0, distances.get(0), 1e-9);
+        assertEquals(222.4, distances.get(distances.size() - 1), 0.1);
+        // Amostras a intervalos iguais de distância
+        double step = distances.get(1);
+        for (int i = 1; i < distances.size(); i++) {
+            assertEquals(step, distances.get(i) - distances.get(i - 1), 1e-6);
+        }
     }
 
     @Test
@@ -155,7 +170,10 @@ public class ServicePublicMethodsTest {
         assertNotNull(pois);
         // Deduplicated across segments: should keep two unique by coordinates
         assertTrue(pois.size() >= 2);
-        assertEquals("amenity:cafe", pois.get(0).getCategory());
+        // O primeiro checkpoint fica a meio do primeiro décimo da rota; os POIs
+        // do segmento vêm por proximidade a ele
+        assertEquals(List.of("amenity:restaurant", "amenity:cafe"),
+                List.of(pois.get(0).getCategory(), pois.get(1).getCategory()));
         assertNotNull(pois.get(0).getCoordinate());
     }
 
@@ -0,0 +1,243 @@
+package com.myapp.service;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OSRMClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.Point;
+import com.myapp.model.TransportMode;
+import com.myapp.service.WaypointOptimizer.TourType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link WaypointOptimizer} com matrizes sintéticas (pontos
+ * aleatórios no plano, com ou sem assimetria) e da integração no
+ * {@link Service}.
+ */
+class WaypointOptimizerTest {
+
+    private static final Duration BUDGET = Duration.ofSeconds(1);
+
+    // Distâncias euclidianas entre n pontos aleatórios num quadrado 1000 x 1000
+    private static double[][] euclidean(int n, long seed) {
+        Random random = new Random(seed);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 1000.0;
+            y[i] = random.nextDouble() * 1000.0;
+        }
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cost[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        return cost;
+    }
+
+    // Soma uma penalização aleatória a cada sentido (ex.: sentidos únicos)
+    private static double[][] asymmetric(int n, long seed) {
+        double[][] cost = euclidean(n, seed);
+        Random random = new Random(seed + 1);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    cost[i][j] += random.nextDouble() * 300.0;
+                }
+            }
+        }
+        return cost;
+    }
+
+    // Melhor custo por força bruta (todas as permutações das paragens)
+    private static double bruteForce(double[][] cost, TourType type) {
+        int n = cost.length;
+        int free = type == TourType.FIXED_END ? n - 2 : n - 1;
+        int[] stops = new int[free];
+        for (int i = 0; i < free; i++) {
+            stops[i] = i + 1;
+        }
+        double[] best = { Double.POSITIVE_INFINITY };
+        permute(stops, 0, cost, type, best);
+        return best[0];
+    }
+
+    private static void permute(int[] stops, int k, double[][] cost, TourType type, double[] best) {
+        if (k == stops.length) {
+            int[] order = stops;
+            if (type == TourType.FIXED_END) {
+                order = Arrays.copyOf(stops, stops.length + 1);
+                order[stops.length] = cost.length - 1;
+            }
+            best[0] = Math.min(best[0], WaypointOptimizer.tourCost(cost, order, type));
+            return;
+        }
+        for (int i = k; i < stops.length; i++) {
+            swap(stops, k, i);
+            permute(stops, k + 1, cost, type, best);
+            swap(stops, k, i);
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static void assertPermutation(int[] order, int n) {
+        assertEquals(n - 1, order.length);
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i + 1, sorted[i], "Cada paragem tem de aparecer uma vez");
+        }
+    }
+
+    @Test
+    void testSmallInputs() {
+        WaypointOptimizer optimizer = new WaypointOptimizer(BUDGET);
+        assertArrayEquals(new int[0], optimizer.optimize(new double[][] { { 0 } }, TourType.OPEN));
+        assertArrayEquals(new int[] { 1 }, optimizer.optimize(euclidean(2, 1), TourType.ROUND_TRIP));
+        assertArrayEquals(new int[] { 1, 2 }, optimizer.optimize(euclidean(3, 1), TourType.FIXED_END));
+    }
+
+    @Test
+    void testRejectsNonSquareMatrix() {
+        WaypointOptimizer optimizer = new WaypointOptimizer(BUDGET);
+        assertThrows(IllegalArgumentException.class,
+                () -> optimizer.optimize(new double[][] { { 0, 1 }, { 1 } }, TourType.OPEN));
+    }
+
+    @Test
+    void testCollinearStopsAreVisitedInOrder() {
+        // Origem em 0 e paragens baralhadas numa reta: a ordem ótima é crescente
+        int n = 12;
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 1; i < n; i++) {
+            positions.add(i);
+        }
+        Collections.shuffle(positions, new Random(3));
+        double[] x = new double[n];
+        for (int i = 1; i < n; i++) {
+            x[i] = positions.get(i - 1);
+        }
+        double[][] cost = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cost[i][j] = Math.abs(x[i] - x[j]);
+            }
+        }
+
+        int[] order = new WaypointOptimizer(BUDGET).optimize(cost, TourType.OPEN);
+        for (int k = 0; k < order.length; k++) {
+            assertEquals(k + 1, x[order[k]], 1e-9);
+        }
+    }
+
+    @Test
+    void testMatchesBruteForceOnSmallMatrices() {
+        WaypointOptimizer optimizer = new WaypointOptimizer(BUDGET);
+        for (TourType type : TourType.values()) {
+            for (long seed = 1; seed <= 20; seed++) {
+                double[][] cost = seed % 2 == 0 ? euclidean(8, seed) : asymmetric(8, seed);
+                int[] order = optimizer.optimize(cost, type);
+                assertPermutation(order, cost.length);
+                double optimum = bruteForce(cost, type);
+                // Heurística: aceita até 5% acima do ótimo
+                assertTrue(WaypointOptimizer.tourCost(cost, order, type) <= optimum * 1.05 + 1e-6,
+                        type + " seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testFixedEndKeepsDestinationLast() {
+        double[][] cost = asymmetric(30, 7);
+        int[] order = new WaypointOptimizer(BUDGET).optimize(cost, TourType.FIXED_END);
+        assertPermutation(order, cost.length);
+        assertEquals(cost.length - 1, order[order.length - 1]);
+    }
+
+    @Test
+    void testImprovesOnInputOrder() {
+        double[][] cost = euclidean(60, 11);
+        int[] identity = new int[59];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i + 1;
+        }
+        for (TourType type : List.of(TourType.ROUND_TRIP, TourType.OPEN)) {
+            int[] order = new WaypointOptimizer(BUDGET).optimize(cost, type);
+            assertTrue(WaypointOptimizer.tourCost(cost, order, type)
+                    < WaypointOptimizer.tourCost(cost, identity, type) * 0.5);
+        }
+    }
+
+    @Test
+    void testTwoHundredFiftyStopsWellUnderOneSecond() {
+        double[][] cost = asymmetric(251, 42);
+        // Aquecer o JIT antes de medir
+        new WaypointOptimizer(BUDGET).optimize(asymmetric(251, 43), TourType.ROUND_TRIP);
+
+        long start = System.nanoTime();
+        int[] order = new WaypointOptimizer(Duration.ofSeconds(10)).optimize(cost, TourType.ROUND_TRIP);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        assertPermutation(order, cost.length);
+        assertTrue(elapsedMs < 500, "Demorou " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testTimeBudgetIsRespected() {
+        double[][] cost = euclidean(600, 5);
+        long start = System.nanoTime();
+        int[] order = new WaypointOptimizer(Duration.ofMillis(20)).optimize(cost, TourType.OPEN);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+
+        // Sem tempo para melhorar, devolve ainda assim uma ordem válida
+        assertPermutation(order, cost.length);
+        assertTrue(elapsedMs < 1000, "Demorou " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testServiceFallsBackToStraightLineDistance() {
+        // OSRM sem /table: a matriz falha e o serviço usa a distância em linha reta
+        OSRMClient osrm = new OSRMClient() {
+            @Override
+            public CompletableFuture<String> getTableJsonAsync(List<Point> sources, List<Point> destinations,
+                    TransportMode mode) {
+                return CompletableFuture.failedFuture(new IOException("sem rede"));
+            }
+
+            @Override
+            public CompletableFuture<String> getTableJsonAsync(List<Point> points, TransportMode mode) {
+                return CompletableFuture.failedFuture(new IOException("sem rede"));
+            }
+        };
+        Service service = new Service(osrm, new OverpassClient(), new NominatimClient(), new ElevationClient());
+
+        Point origin = new Point(41.0, -8.0, "Origem");
+        List<Point> stops = List.of(new Point(41.03, -8.0, "C"), new Point(41.01, -8.0, "A"), new Point(41.04, -8.0, "D"),
+                new Point(41.02, -8.0, "B"));
+        List<Point> ordered = service.optimizeWaypointOrder(origin, stops, TransportMode.CAR, TourType.OPEN);
+
+        assertEquals(4, ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            assertEquals(41.01 + 0.01 * i, ordered.get(i).getLatitude(), 1e-9);
+        }
+        assertEquals(List.of(stops.get(0)), service.optimizeWaypointOrder(origin, stops.subList(0, 1),
+                TransportMode.CAR, TourType.ROUND_TRIP));
+    }
+}
@@ -0,0 +1,61 @@
+package com.myapp.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do monitor de bloqueios usando um executor de uma só thread no papel
+ * da thread da UI.
+ */
+class FxStallMonitorTest {
+
+    @Test
+    void idleUiThreadReportsNoStalls() throws InterruptedException {
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        FxStallMonitor monitor = new FxStallMonitor(ui::execute, Duration.ofMillis(10), Duration.ofMillis(100));
+        try {
+            monitor.start();
+            Thread.sleep(200);
+        } finally {
+            monitor.stop();
+            ui.shutdownNow();
+        }
+
+        assertTrue(monitor.getSamples() > 5, "deviam existir várias amostras");
+        assertEquals(0, monitor.getStallCount());
+    }
+
+    @Test
+    void blockingWorkOnUiThreadIsMeasured() throws InterruptedException {
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        FxStallMonitor monitor = new FxStallMonitor(ui::execute, Duration.ofMillis(10), Duration.ofMillis(100));
+        try {
+            monitor.start();
+            Thread.sleep(50);
+            // Simula uma chamada de rede síncrona na thread da UI
+            ui.execute(() -> {
+                try {
+                    Thread.sleep(400);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(600);
+        } finally {
+            monitor.stop();
+            ui.shutdown();
+            ui.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, monitor.getStallCount(), "um bloqueio longo conta uma só vez");
+        assertTrue(monitor.getMaxStallMillis() >= 300, "pior caso: " + monitor.getMaxStallMillis());
+        assertTrue(monitor.getTotalBlockedMillis() >= 300);
+        assertTrue(monitor.summary().contains("1 vezes"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.myapp.ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class UiTaskExecutorTest {
+
+    private UiTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitReturnsResult() throws Exception {
+        executor = new UiTaskExecutor();
+
+        assertEquals("ok", executor.submit(() -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailurePropagatesToFuture() {
+        executor = new UiTaskExecutor();
+
+        CompletableFuture<String> f = executor.submit("falha", () -> {
+            throw new IOException("sem rede");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    void testNewTaskWithSameKeyCancelsPrevious() throws Exception {
+        executor = new UiTaskExecutor(4, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> first = executor.submit("autocomplete", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "lento";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> second = executor.submit("autocomplete", () -> "rápido");
+
+        assertEquals("rápido", second.get(5, TimeUnit.SECONDS));
+        assertTrue(first.isCancelled());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "A tarefa anterior deve ser interrompida");
+        assertEquals(1, executor.getCancelledCount());
+    }
+
+    @Test
+    void testDifferentKeysDoNotCancelEachOther() throws Exception {
+        executor = new UiTaskExecutor(4, false);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> pois = executor.submit("pois", () -> {
+            release.await();
+            return "pois";
+        });
+        CompletableFuture<String> elevation = executor.submit("elevacao", () -> "elevacao");
+
+        assertEquals("elevacao", elevation.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("pois", pois.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getCancelledCount());
+    }
+
+    @Test
+    void testConcurrencyIsBoundedAndCountersReported() throws Exception {
+        executor = new UiTaskExecutor(2, true);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            futures.add(executor.submit(() -> {
+                release.await();
+                return n;
+            }));
+        }
+
+        waitUntil(() -> executor.getActiveCount() == 2 && executor.getQueuedCount() == 3);
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(3, executor.getQueuedCount());
+
+        release.countDown();
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        waitUntil(() -> executor.getActiveCount() == 0);
+        assertEquals(0, executor.getQueuedCount());
+    }
+
+    @Test
+    void testQueuedTaskCancelledBeforeStartNeverRuns() throws Exception {
+        executor = new UiTaskExecutor(1, false);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CompletableFuture<String> blocker = executor.submit(() -> {
+            release.await();
+            return "primeira";
+        });
+        CompletableFuture<String> queued = executor.submit("pesquisa", () -> {
+            ran.set(true);
+            return "segunda";
+        });
+
+        assertTrue(executor.cancel("pesquisa"));
+        release.countDown();
+
+        assertEquals("primeira", blocker.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.isCancelled());
+        waitUntil(() -> executor.getQueuedCount() == 0 && executor.getActiveCount() == 0);
+        assertFalse(ran.get());
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
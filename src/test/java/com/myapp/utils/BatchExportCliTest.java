@@ -0,0 +1,152 @@
+package com.myapp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.myapp.api.ElevationClient;
+import com.myapp.api.NominatimClient;
+import com.myapp.api.OverpassClient;
+import com.myapp.model.HistoryEntry;
+import com.myapp.model.Point;
+import com.myapp.model.Route;
+import com.myapp.model.TransportMode;
+import com.myapp.routing.RoutingBackend;
+import com.myapp.service.Service;
+
+class BatchExportCliTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Motor falso: demora alguns milissegundos, regista quantos pedidos estão
+     * em curso e falha (sem rota) quando a origem tem latitude negativa.
+     */
+    private static class SlowBackend implements RoutingBackend {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public Route getRoute(Point origin, Point destination, TransportMode mode) {
+            return getRouteWithWaypoints(origin, List.of(destination), mode);
+        }
+
+        @Override
+        public Route getRouteWithWaypoints(Point origin, List<Point> waypoints, TransportMode mode) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (origin.getLatitude() < 0) {
+                return null;
+            }
+            List<Point> points = new ArrayList<>();
+            points.add(origin);
+            points.addAll(waypoints);
+            return new Route(points, 1.0, 60L, mode, new ArrayList<>());
+        }
+    }
+
+    private static Service service(RoutingBackend backend) {
+        return new Service(backend, new OverpassClient(), new NominatimClient(), new ElevationClient());
+    }
+
+    @Test
+    void parseJobs_readsModesAndPointsAndReportsBadLines() throws IOException {
+        Path file = dir.resolve("jobs.txt");
+        Files.writeString(file, "# origem e paragens\n"
+                + "car 41.1579,-8.6291 38.7223,-9.1393\n"
+                + "\n"
+                + "FOOT 38.70,-9.10 38.71,-9.11 38.72,-9.12\n", StandardCharsets.UTF_8);
+
+        List<BatchExportCli.Job> jobs = BatchExportCli.parseJobs(file);
+
+        assertEquals(2, jobs.size());
+        assertEquals(TransportMode.CAR, jobs.get(0).mode());
+        assertEquals(41.1579, jobs.get(0).origin().getLatitude());
+        assertEquals(1, jobs.get(0).waypoints().size());
+        assertEquals(TransportMode.FOOT, jobs.get(1).mode());
+        assertEquals(-9.12, jobs.get(1).waypoints().get(1).getLongitude());
+
+        Files.writeString(file, "car 41.1,-8.6 38.7,-9.1\nbike 41.1;-8.6 38.7,-9.1\n", StandardCharsets.UTF_8);
+        IOException error = assertThrows(IOException.class, () -> BatchExportCli.parseJobs(file));
+        assertTrue(error.getMessage().contains("linha 2"));
+    }
+
+    @Test
+    void fromHistory_skipsEntriesWithoutStops() {
+        Point origin = new Point(41.0, -8.0, "A");
+        Point destination = new Point(38.0, -9.0, "B");
+        List<HistoryEntry> history = List.of(
+                new HistoryEntry(origin, destination, List.of(destination), TransportMode.BIKE),
+                new HistoryEntry(origin, destination, List.of(), TransportMode.CAR));
+
+        List<BatchExportCli.Job> jobs = BatchExportCli.fromHistory(history);
+
+        assertEquals(1, jobs.size());
+        assertEquals(TransportMode.BIKE, jobs.get(0).mode());
+        assertEquals(List.of(destination), jobs.get(0).waypoints());
+    }
+
+    @Test
+    void run_exportsEveryJobWithBoundedConcurrency() throws Exception {
+        SlowBackend backend = new SlowBackend();
+        List<BatchExportCli.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            double lat = i % 10 == 9 ? -1.0 : 41.0 + i * 0.01;
+            jobs.add(new BatchExportCli.Job(new Point(lat, -8.0, null), List.of(new Point(38.7, -9.1, null)),
+                    TransportMode.CAR));
+        }
+        Path out = dir.resolve("out");
+
+        BatchExportCli.Summary summary = new BatchExportCli(service(backend), TokenBucketRateLimiter.unlimited(),
+                3, 2).run(jobs, out, EnumSet.allOf(BatchExportCli.Format.class), true);
+
+        assertEquals(40, summary.total());
+        assertEquals(36, summary.succeeded());
+        assertEquals(4, summary.failed());
+        assertEquals(72L, summary.pointCount());
+        assertTrue(summary.bytesWritten() > 0);
+        assertTrue(backend.maxInFlight.get() <= 3, "Em curso: " + backend.maxInFlight.get());
+        assertTrue(Files.exists(out.resolve("route-0001.gpx.gz")));
+        assertTrue(Files.exists(out.resolve("route-0001.json.gz")));
+        assertTrue(Files.notExists(out.resolve("route-0010.gpx.gz")));
+        try (var files = Files.list(out)) {
+            assertEquals(72L, files.count());
+        }
+    }
+
+    @Test
+    void run_respectsRoutingRateLimit() throws Exception {
+        List<BatchExportCli.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            jobs.add(new BatchExportCli.Job(new Point(41.0, -8.0, null), List.of(new Point(38.7, -9.1, null)),
+                    TransportMode.CAR));
+        }
+
+        // 20 pedidos/s sem rajada: 6 pedidos demoram pelo menos ~250 ms
+        BatchExportCli.Summary summary = new BatchExportCli(service(new SlowBackend()),
+                new TokenBucketRateLimiter(20.0, 1), 6, 1)
+                .run(jobs, dir.resolve("rate"), EnumSet.of(BatchExportCli.Format.GPX), false);
+
+        assertEquals(6, summary.succeeded());
+        assertTrue(summary.elapsedMs() >= 240, "Demorou " + summary.elapsedMs() + " ms");
+    }
+}
@@ -0,0 +1,54 @@
+package com.myapp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DecimalFormatterTest {
+
+    private static String format(double value, int decimals, boolean trimZeros) {
+        char[] buffer = new char[DecimalFormatter.BUFFER_SIZE];
+        return new String(buffer, 0, DecimalFormatter.format(value, decimals, trimZeros, buffer));
+    }
+
+    @Test
+    void fixedDecimalsMatchStringFormat() {
+        assertEquals("41.157900", format(41.1579, 6, false));
+        assertEquals("-8.629100", format(-8.6291, 6, false));
+        assertEquals("0.000000", format(0.0, 6, false));
+        assertEquals("180.000000", format(180.0, 6, false));
+        assertEquals("3", format(2.5, 0, false));
+
+        Random random = new Random(17);
+        for (int i = 0; i < 100_000; i++) {
+            // Coordenadas com 6 casas exatas, como as da OSRM
+            double value = Math.round((random.nextDouble() * 360.0 - 180.0) * 1e6) / 1e6;
+            assertEquals(String.format(Locale.US, "%.6f", value), format(value, 6, false));
+        }
+    }
+
+    @Test
+    void trimmedDecimalsMatchDoubleToString() {
+        assertEquals("41.1579", format(41.1579, 7, true));
+        assertEquals("-9.0", format(-9.0, 7, true));
+        assertEquals("0.0", format(-0.00000001, 7, true));
+
+        Random random = new Random(23);
+        for (int i = 0; i < 100_000; i++) {
+            double value = Math.round((random.nextDouble() * 180.0 - 90.0) * 1e7) / 1e7;
+            assertEquals(value, Double.parseDouble(format(value, 7, true)));
+        }
+    }
+
+    @Test
+    void largeAndNonFiniteValuesUseSlowPath() {
+        assertEquals("12345678901.50", format(12345678901.5, 2, false));
+        assertEquals("NaN", format(Double.NaN, 6, true));
+        assertEquals("Infinity", format(Double.POSITIVE_INFINITY, 6, true));
+        assertThrows(IllegalArgumentException.class, () -> format(1.0, 10, false));
+    }
+}
@@ -0,0 +1,134 @@
+package com.myapp.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void entriesSurviveReopening() throws IOException {
+        Path file = dir.resolve("cache/routes.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            cache.put("k1", "{\"code\":\"Ok\"}");
+            cache.put("k2", "ção");
+            cache.put("k1", "substituído");
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            assertEquals(2, cache.size());
+            assertEquals("substituído", cache.get("k1").body());
+            assertEquals("ção", cache.get("k2").body());
+            assertNull(cache.get("k3"));
+            assertEquals(2, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        }
+    }
+
+    @Test
+    void expiredEntriesAreNotReturnedNorReloaded() throws IOException {
+        LruCacheTest.MutableClock clock = new LruCacheTest.MutableClock();
+        Path file = dir.resolve("routes.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofMinutes(10), 1 << 20, clock)) {
+            cache.put("k", "v");
+            long expiresAt = cache.get("k").expiresAtMillis();
+            assertEquals(clock.millis() + Duration.ofMinutes(10).toMillis(), expiresAt);
+
+            clock.advance(Duration.ofMinutes(11));
+            assertNull(cache.get("k"));
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofMinutes(10), 1 << 20, clock)) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    void truncatedTailIsDiscardedOnOpen() throws IOException {
+        Path file = dir.resolve("routes.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            cache.put("ok", "intacto");
+            cache.put("partial", "x".repeat(100));
+        }
+        long size = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(size - 10); // escrita interrompida a meio
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            assertEquals("intacto", cache.get("ok").body());
+            assertNull(cache.get("partial"));
+            cache.put("new", "depois");
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            assertEquals("depois", cache.get("new").body());
+        }
+    }
+
+    @Test
+    void corruptedValueIsTreatedAsMiss() throws IOException {
+        Path file = dir.resolve("routes.cache");
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            cache.put("k", "valor original");
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] { 'X' }), Files.size(file) - 1);
+        }
+
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 20)) {
+            assertNull(cache.get("k"));
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    void oldestEntriesAreEvictedAndFileIsCompacted() throws IOException {
+        Path file = dir.resolve("routes.cache");
+        String value = "v".repeat(100_000);
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 500_000)) {
+            for (int i = 0; i < 30; i++) {
+                cache.put("k" + i, value);
+            }
+            // ~4 registos cabem no limite; os restantes foram descartados e compactados
+            assertTrue(cache.size() <= 5);
+            assertNull(cache.get("k0"));
+            assertEquals(value, cache.get("k29").body());
+            assertTrue(cache.getFileLength() < 2 * 500_000 + 200_000, "o segmento devia ter sido compactado");
+        }
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 500_000)) {
+            assertEquals(value, cache.get("k29").body());
+        }
+    }
+
+    @Test
+    void evictedEntriesStayRemovedAfterReopening() throws IOException {
+        Path file = dir.resolve("routes.cache");
+        String value = "v".repeat(100_000);
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 500_000)) {
+            // Abaixo do limiar de compactação: os registos descartados continuam no ficheiro
+            for (int i = 0; i < 8; i++) {
+                cache.put("k" + i, value);
+            }
+            assertNull(cache.get("k0"));
+        }
+
+        // Com um limite maior, só as lápides impedem os registos antigos de voltar
+        try (DiskResponseCache cache = new DiskResponseCache(file, Duration.ofHours(1), 1 << 24)) {
+            assertNull(cache.get("k0"));
+            assertNull(cache.get("k3"));
+            assertEquals(value, cache.get("k7").body());
+            assertTrue(cache.size() <= 5);
+        }
+    }
+}
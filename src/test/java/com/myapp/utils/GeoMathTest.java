@@ -0,0 +1,112 @@
+package com.myapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GeoMathTest {
+
+    // Haversine de referência, sem caminho rápido
+    private static double reference(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6_371_000.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // Passeio aleatório com troços curtos (até ~50 m) e, de vez em quando, longos (até ~50 km)
+    private static double[][] randomWalk(int count, long seed) {
+        Random random = new Random(seed);
+        double[] lat = new double[count];
+        double[] lon = new double[count];
+        lat[0] = 38.7;
+        lon[0] = -9.1;
+        for (int i = 1; i < count; i++) {
+            double step = random.nextInt(10) == 0 ? 0.5 : 0.0005;
+            lat[i] = Math.max(-80, Math.min(80, lat[i - 1] + (random.nextDouble() - 0.5) * step));
+            lon[i] = lon[i - 1] + (random.nextDouble() - 0.5) * step;
+        }
+        return new double[][] { lat, lon };
+    }
+
+    @Test
+    void haversineMatchesKnownDistances() {
+        assertEquals(111.195, GeoMath.haversineKm(0, 0, 0, 1), 1e-3);
+        assertEquals(reference(38.7223, -9.1393, 41.1579, -8.6291), GeoMath.haversineMeters(38.7223, -9.1393,
+                41.1579, -8.6291), 1e-6);
+        assertEquals(274.0, GeoMath.haversineKm(38.7223, -9.1393, 41.1579, -8.6291), 1.0);
+        assertEquals(0.0, GeoMath.haversineMeters(38.7, -9.1, 38.7, -9.1));
+        // Antípodas
+        assertEquals(Math.PI * GeoMath.EARTH_RADIUS_KM, GeoMath.haversineKm(0, 0, 0, 180), 1e-6);
+    }
+
+    @Test
+    void segmentsAgreeWithHaversineOnShortAndLongSteps() {
+        double[][] walk = randomWalk(5000, 7L);
+        double[] segments = new double[5000];
+        GeoMath.segmentMeters(walk[0], walk[1], 5000, segments);
+
+        assertEquals(0.0, segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            double expected = reference(walk[0][i - 1], walk[1][i - 1], walk[0][i], walk[1][i]);
+            assertEquals(expected, segments[i], Math.max(1e-9, expected * 1e-6), "troço " + i);
+        }
+    }
+
+    @Test
+    void equirectangularPathStaysAccurateAtHighLatitudes() {
+        // Troço de ~5 km (caminho rápido) a 70° N
+        double[] lat = { 70.0, 70.03 };
+        double[] lon = { 25.0, 25.05 };
+        double[] segments = new double[2];
+        GeoMath.segmentMeters(lat, lon, 2, segments);
+        double expected = reference(70.0, 25.0, 70.03, 25.05);
+        assertEquals(expected, segments[1], expected * 1e-6);
+    }
+
+    @Test
+    void cumulativeDistancesAreRunningSums() {
+        double[][] walk = randomWalk(1000, 3L);
+        double[] cumulative = GeoMath.cumulativeMeters(walk[0], walk[1], 1000);
+        double sum = 0;
+        for (int i = 1; i < 1000; i++) {
+            sum += reference(walk[0][i - 1], walk[1][i - 1], walk[0][i], walk[1][i]);
+            assertEquals(sum, cumulative[i], sum * 1e-6);
+        }
+        assertEquals(0, GeoMath.cumulativeMeters(new double[0], new double[0], 0).length);
+    }
+
+    @Test
+    void crossingTheAntimeridianIsAShortSegment() {
+        double[] segments = new double[2];
+        GeoMath.segmentMeters(new double[] { 0, 0 }, new double[] { 179.9995, -179.9995 }, 2, segments);
+        assertEquals(reference(0, 179.9995, 0, 180.0005), segments[1], 1e-6);
+        assertTrue(segments[1] < 200);
+    }
+
+    @Test
+    void rejectsCountLargerThanArrays() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoMath.segmentMeters(new double[2], new double[2], 3, new double[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoMath.segmentMeters(new double[2], new double[2], 2, new double[1]));
+    }
+
+    @Test
+    void vectorKernelMatchesScalar() {
+        // Só corre com o perfil vector e --add-modules jdk.incubator.vector
+        assumeTrue(GeoMath.isVectorized());
+        double[][] walk = randomWalk(10_001, 11L);
+        double[] vector = new double[10_001];
+        double[] scalar = new double[10_001];
+        GeoMath.segmentMeters(walk[0], walk[1], 10_001, vector);
+        GeoMath.segmentMetersScalar(walk[0], walk[1], 10_001, scalar);
+        for (int i = 0; i < scalar.length; i++) {
+            assertEquals(scalar[i], vector[i], Math.max(1e-9, scalar[i] * 1e-9), "troço " + i);
+        }
+    }
+}
@@ -5,30 +5,57 @@ import com.myapp.model.Point;
 import com.myapp.model.TransportMode;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class HistoryManagerTest {
+    private final List<HistoryManager> managers = new ArrayList<>();
     private Path tempFile;
 
     private HistoryManager newManager() throws IOException {
         tempFile = Files.createTempFile("history-", ".json");
         tempFile.toFile().deleteOnExit();
-        return new HistoryManager(tempFile.toString());
+        return open(tempFile.toString());
+    }
+
+    // Os gestores abertos são fechados no fim do teste, para terminar as threads de escrita
+    private HistoryManager open(String fileName) {
+        return track(new HistoryManager(fileName));
+    }
+
+    private HistoryManager open(String fileName, int maxEntries) {
+        return track(new HistoryManager(fileName, maxEntries));
+    }
+
+    private HistoryManager track(HistoryManager manager) {
+        managers.add(manager);
+        return manager;
     }
 
     @AfterEach
     void cleanup() throws IOException {
-        if (tempFile != null && Files.exists(tempFile)) {
+        managers.forEach(HistoryManager::close);
+        if (tempFile != null) {
             Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(indexFile());
         }
     }
 
+    private Path indexFile() {
+        return tempFile.resolveSibling(tempFile.getFileName() + ".idx");
+    }
+
     @Test
     void addAndPersistEntries() throws IOException {
         HistoryManager manager = newManager();
@@ -50,7 +77,7 @@ class HistoryManagerTest {
         assertSame(e1, history.get(1));
 
         // Reload from file and verify content is persisted
-        HistoryManager reloaded = new HistoryManager(tempFile.toString());
+        HistoryManager reloaded = open(tempFile.toString());
         List<HistoryEntry> reloadedHistory = reloaded.getHistory();
         assertEquals(2, reloadedHistory.size());
         assertEquals("Aveiro", reloadedHistory.get(0).getOrigin().getName());
@@ -68,7 +95,300 @@ class HistoryManagerTest {
         assertTrue(manager.getHistory().isEmpty());
 
         // Reload to ensure persisted empty state
-        HistoryManager reloaded = new HistoryManager(tempFile.toString());
+        HistoryManager reloaded = open(tempFile.toString());
         assertTrue(reloaded.getHistory().isEmpty());
     }
+
+    private static HistoryEntry entry(String origin) {
+        return new HistoryEntry(new Point(38.7, -9.1, origin), new Point(41.1, -8.6, "Porto"),
+                List.of(new Point(41.1, -8.6, "Porto")), TransportMode.CAR);
+    }
+
+    @Test
+    void addEntryAppendsOneLineWithoutRewritingTheFile() throws IOException {
+        HistoryManager manager = newManager();
+        for (int i = 0; i < 50; i++) {
+            manager.addEntry(entry("Origem " + i));
+        }
+        manager.flush();
+        byte[] before = Files.readAllBytes(tempFile);
+
+        manager.addEntry(entry("Última"));
+        manager.flush();
+        byte[] after = Files.readAllBytes(tempFile);
+
+        // O conteúdo anterior fica intacto; só há uma linha nova no fim
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+        String appended = new String(after, before.length, after.length - before.length, StandardCharsets.UTF_8);
+        assertTrue(appended.endsWith("\n"));
+        assertEquals(1, appended.split("\n").length);
+        assertTrue(appended.contains("Última"));
+    }
+
+    @Test
+    void retentionKeepsNewestEntriesAndCompactsJournal() throws IOException {
+        tempFile = Files.createTempFile("history-", ".ndjson");
+        HistoryManager manager = open(tempFile.toString(), 5);
+        for (int i = 0; i < 23; i++) {
+            manager.addEntry(entry("Origem " + i));
+        }
+
+        assertEquals(5, manager.getHistory().size());
+        assertEquals("Origem 22", manager.getHistory().get(0).getOrigin().getName());
+        assertEquals("Origem 18", manager.getHistory().get(4).getOrigin().getName());
+
+        manager.flush();
+        long lines = Files.readAllLines(tempFile, StandardCharsets.UTF_8).size();
+        assertTrue(lines >= 5 && lines <= 10, "Linhas no diário: " + lines);
+
+        HistoryManager reloaded = open(tempFile.toString(), 5);
+        assertEquals(5, reloaded.getHistory().size());
+        assertEquals("Origem 22", reloaded.getHistory().get(0).getOrigin().getName());
+    }
+
+    @Test
+    void migratesLegacyLatin1JsonArray() throws IOException {
+        tempFile = Files.createTempFile("history-", ".json");
+        // Formato antigo: array "pretty printed", mais recente primeiro, em ISO-8859-1
+        String legacy = "[\n  {\"origin\": {\"latitude\": 38.7, \"longitude\": -9.1, \"name\": \"Café\"},"
+                + " \"waypoints\": [], \"mode\": \"FOOT\"},\n"
+                + "  {\"origin\": {\"latitude\": 41.1, \"longitude\": -8.6, \"name\": \"Porto\"},"
+                + " \"waypoints\": [], \"mode\": \"CAR\"}\n]";
+        Files.write(tempFile, legacy.getBytes(StandardCharsets.ISO_8859_1));
+
+        HistoryManager manager = open(tempFile.toString());
+        assertEquals(2, manager.getHistory().size());
+        assertEquals("Café", manager.getHistory().get(0).getOrigin().getName());
+        assertEquals(TransportMode.CAR, manager.getHistory().get(1).getMode());
+
+        manager.flush();
+        List<String> lines = Files.readAllLines(tempFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("Porto"), "Diário da mais antiga para a mais recente");
+        assertTrue(lines.get(1).contains("Café"));
+    }
+
+    @Test
+    void skipsTornLastLine() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("A"));
+        manager.addEntry(entry("B"));
+        manager.flush();
+        Files.writeString(tempFile, "{\"origin\": {\"lati", StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.APPEND);
+
+        HistoryManager reloaded = open(tempFile.toString());
+        assertEquals(2, reloaded.getHistory().size());
+        assertEquals("B", reloaded.getHistory().get(0).getOrigin().getName());
+
+        // O diário é reparado: novas entradas ficam em linhas próprias
+        reloaded.addEntry(entry("C"));
+        HistoryManager again = open(tempFile.toString());
+        assertEquals(3, again.getHistory().size());
+        assertEquals("C", again.getHistory().get(0).getOrigin().getName());
+    }
+
+    @Test
+    void historyViewIsReadOnly() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("A"));
+        assertThrows(UnsupportedOperationException.class, () -> manager.getHistory().remove(0));
+    }
+
+    private static HistoryEntry entry(String origin, String destination, TransportMode mode) {
+        return new HistoryEntry(new Point(38.7, -9.1, origin), new Point(41.1, -8.6, destination), List.of(), mode);
+    }
+
+    private static String line(String origin, String timestamp, String mode) {
+        return "{\"origin\":{\"latitude\":38.7,\"longitude\":-9.1,\"name\":\"" + origin + "\"},"
+                + "\"destination\":{\"latitude\":41.1,\"longitude\":-8.6,\"name\":\"Porto\"},"
+                + "\"waypoints\":[],\"mode\":\"" + mode + "\",\"timestamp\":\"" + timestamp + "\"}\n";
+    }
+
+    @Test
+    void searchMatchesNamePrefixesIgnoringCaseAndAccents() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("São Paulo", "Évora", TransportMode.CAR));
+        manager.addEntry(entry("Lisboa", "Porto", TransportMode.CAR));
+        manager.addEntry(entry("Santarém", "Sintra", TransportMode.FOOT));
+
+        HistoryManager.Page page = manager.search(new HistoryManager.Query("sao", null, null, null), 0, 10);
+        assertEquals(1, page.totalMatches());
+        assertEquals("São Paulo", page.entries().get(0).getOrigin().getName());
+
+        assertEquals(1, manager.search(new HistoryManager.Query("EVO", null, null, null), 0, 10).totalMatches());
+        assertEquals(1, manager.search(new HistoryManager.Query("san", null, null, null), 0, 10).totalMatches());
+        assertEquals(1, manager.search(new HistoryManager.Query("Pôr", null, null, null), 0, 10).totalMatches());
+        // Todas as palavras têm de corresponder
+        assertEquals(1, manager.search(new HistoryManager.Query("sant sin", null, null, null), 0, 10).totalMatches());
+        assertEquals(0, manager.search(new HistoryManager.Query("sant porto", null, null, null), 0, 10).totalMatches());
+        assertEquals(3, manager.search(new HistoryManager.Query("  ", null, null, null), 0, 10).totalMatches());
+    }
+
+    @Test
+    void searchFiltersByModeAndPaginatesNewestFirst() throws IOException {
+        HistoryManager manager = newManager();
+        for (int i = 0; i < 25; i++) {
+            manager.addEntry(entry("Origem " + i, "Porto", i % 2 == 0 ? TransportMode.CAR : TransportMode.BIKE));
+        }
+
+        HistoryManager.Query cars = new HistoryManager.Query(null, TransportMode.CAR, null, null);
+        HistoryManager.Page first = manager.search(cars, 0, 5);
+        assertEquals(13, first.totalMatches());
+        assertEquals(3, first.pageCount());
+        assertEquals("Origem 24", first.entries().get(0).getOrigin().getName());
+        assertEquals("Origem 16", first.entries().get(4).getOrigin().getName());
+
+        HistoryManager.Page last = manager.search(cars, 2, 5);
+        assertEquals(3, last.entries().size());
+        assertEquals("Origem 0", last.entries().get(2).getOrigin().getName());
+        assertTrue(manager.search(cars, 3, 5).entries().isEmpty());
+        assertEquals(1, manager.search(new HistoryManager.Query("zzz", null, null, null), 0, 5).pageCount());
+    }
+
+    @Test
+    void reloadUsesIndexWithoutReparsingJournal() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("Lisboa", "Porto", TransportMode.CAR));
+        manager.addEntry(entry("Braga", "Faro", TransportMode.FOOT));
+        manager.flush();
+        assertTrue(Files.size(indexFile()) > 0);
+
+        // Troca um nome no diário por outro do mesmo tamanho: o índice não é
+        // reconstruído, por isso a pesquisa continua a usar o nome indexado
+        String journal = Files.readString(tempFile, StandardCharsets.UTF_8);
+        Files.writeString(tempFile, journal.replace("Lisboa", "Lisbon"), StandardCharsets.UTF_8);
+
+        HistoryManager reloaded = open(tempFile.toString());
+        assertEquals(2, reloaded.getHistory().size());
+        assertEquals(1, reloaded.search(new HistoryManager.Query("lisboa", null, null, null), 0, 10).totalMatches());
+        assertEquals(0, reloaded.search(new HistoryManager.Query("lisbon", null, null, null), 0, 10).totalMatches());
+        // As entradas em si são lidas do diário
+        assertEquals("Lisbon", reloaded.getHistory().get(1).getOrigin().getName());
+        assertEquals(TransportMode.FOOT, reloaded.getHistory().get(0).getMode());
+    }
+
+    @Test
+    void rebuildsMissingIndexAndIndexesUnindexedLines() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("Lisboa", "Porto", TransportMode.CAR));
+        manager.flush();
+        // Linha acrescentada sem registo no índice (ex.: versão anterior)
+        Files.writeString(tempFile, line("Coimbra", "01/02/2024 10:00", "BIKE"), StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.APPEND);
+
+        HistoryManager withTail = open(tempFile.toString());
+        assertEquals(2, withTail.getHistory().size());
+        assertEquals(1, withTail.search(new HistoryManager.Query("coim", null, null, null), 0, 10).totalMatches());
+
+        Files.delete(indexFile());
+        HistoryManager rebuilt = open(tempFile.toString());
+        assertEquals(2, rebuilt.getHistory().size());
+        assertEquals("Coimbra", rebuilt.getHistory().get(0).getOrigin().getName());
+        rebuilt.flush();
+        assertTrue(Files.exists(indexFile()), "O índice é regravado");
+
+        rebuilt.addEntry(entry("Faro", "Porto", TransportMode.FOOT));
+        HistoryManager again = open(tempFile.toString());
+        assertEquals(3, again.getHistory().size());
+        assertEquals(1, again.search(new HistoryManager.Query("faro", null, null, null), 0, 10).totalMatches());
+    }
+
+    @Test
+    void searchFiltersByTimeRange() throws IOException {
+        tempFile = Files.createTempFile("history-", ".ndjson");
+        Files.writeString(tempFile, line("A", "01/01/2024 09:00", "CAR") + line("B", "15/01/2024 18:30", "CAR")
+                + line("C", "01/02/2024 08:00", "FOOT") + line("D", "20/03/2024 12:00", "CAR"),
+                StandardCharsets.UTF_8);
+        HistoryManager manager = open(tempFile.toString());
+
+        HistoryManager.Page january = manager.search(new HistoryManager.Query(null, null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)), 0, 10);
+        assertEquals(2, january.totalMatches());
+        assertEquals("B", january.entries().get(0).getOrigin().getName());
+
+        HistoryManager.Page fromFebruary = manager.search(new HistoryManager.Query(null, TransportMode.CAR,
+                LocalDateTime.of(2024, 2, 1, 0, 0), null), 0, 10);
+        assertEquals(1, fromFebruary.totalMatches());
+        assertEquals("D", fromFebruary.entries().get(0).getOrigin().getName());
+    }
+
+    @Test
+    void writeFailureRebuildsStateFromJournal(@TempDir Path dir) throws IOException {
+        // Pasta inexistente: a thread de escrita falha e descarta a linha
+        Path missing = dir.resolve("missing");
+        HistoryManager manager = open(missing.resolve("history.ndjson").toString());
+        manager.addEntry(entry("Perdida"));
+        manager.flush();
+        assertTrue(manager.getHistory().isEmpty());
+
+        Files.createDirectories(missing);
+        manager.addEntry(entry("Guardada"));
+        manager.flush();
+        assertEquals(1, manager.getHistory().size());
+        assertEquals("Guardada", manager.search(HistoryManager.Query.all(), 0, 10).entries().get(0)
+                .getOrigin().getName());
+
+        // A nova linha ficou na posição 0 do diário, e o índice também
+        HistoryManager reloaded = open(missing.resolve("history.ndjson").toString());
+        assertEquals(1, reloaded.getHistory().size());
+        assertEquals("Guardada", reloaded.getHistory().get(0).getOrigin().getName());
+    }
+
+    @Test
+    void failedClearHistoryFailsCallerAndKeepsEntries() throws IOException {
+        HistoryManager manager = newManager();
+        manager.addEntry(entry("Lisboa"));
+        manager.addEntry(entry("Porto"));
+        manager.flush();
+        // O diário vazio é escrito em <ficheiro>.tmp antes da mudança de nome: uma pasta faz a escrita falhar
+        Path blocker = Files.createDirectory(tempFile.resolveSibling(tempFile.getFileName() + ".tmp"));
+        try {
+            assertThrows(UncheckedIOException.class, manager::clearHistory);
+            assertEquals(2, manager.getHistory().size());
+        } finally {
+            Files.delete(blocker);
+        }
+
+        manager.clearHistory();
+        assertTrue(manager.getHistory().isEmpty());
+        assertTrue(open(tempFile.toString()).getHistory().isEmpty());
+    }
+
+    @Test
+    void closingLastManagerStopsWriterThread() throws IOException {
+        long before = writerThreads();
+        HistoryManager first = newManager();
+        HistoryManager second = open(tempFile.toString());
+        assertEquals(before + 1, writerThreads(), "uma thread de escrita por ficheiro");
+
+        first.close();
+        second.addEntry(entry("Braga"));
+        assertThrows(IllegalStateException.class, () -> first.addEntry(entry("Faro")));
+        second.close();
+
+        assertEquals(before, writerThreads());
+        assertThrows(IllegalStateException.class, () -> second.addEntry(entry("Faro")));
+        // Escrita concluída ao fechar, e o histórico fechado ainda pode ser lido
+        assertEquals("Braga", second.getHistory().get(0).getOrigin().getName());
+        assertEquals(1, open(tempFile.toString()).getHistory().size());
+    }
+
+    private static long writerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("history-writer") && t.isAlive())
+                .count();
+    }
+
+    @Test
+    void entriesEvictedFromCacheBeforeBeingWrittenAreReadBack() throws IOException {
+        HistoryManager manager = newManager();
+        // Mais entradas do que a cache (256), sem flush: as mais antigas só existem no diário
+        for (int i = 0; i < 300; i++) {
+            manager.addEntry(entry("Origem " + i));
+        }
+        List<HistoryEntry> history = manager.getHistory();
+        assertEquals("Origem 0", history.get(299).getOrigin().getName());
+        assertEquals("Origem 299", history.get(0).getOrigin().getName());
+    }
 }
@@ -0,0 +1,91 @@
+package com.myapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    // Relógio controlado pelo teste.
+    static final class MutableClock extends Clock {
+        private long millis = 1_000_000L;
+
+        void advance(Duration d) {
+            millis += d.toMillis();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruCache<String, String> cache = new LruCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a")); // "b" passa a ser o menos usado
+        cache.put("c", "3");
+
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        MutableClock clock = new MutableClock();
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put("a", "1");
+        cache.putUntil("b", "2", clock.millis() + 5_000);
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        clock.advance(Duration.ofSeconds(25));
+        assertEquals(1, cache.purgeExpired());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LruCache<String, String> cache = new LruCache<>(4, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("x");
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(1, Duration.ZERO));
+    }
+}
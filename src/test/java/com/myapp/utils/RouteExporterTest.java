@@ -1,19 +1,34 @@
 package com.myapp.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.myapp.model.POI;
 import com.myapp.model.Point;
 import com.myapp.model.Route;
+import com.myapp.model.RouteGeometry;
 import com.myapp.model.TransportMode;
 
 public class RouteExporterTest {
@@ -72,4 +87,123 @@ public class RouteExporterTest {
         assertTrue(content.contains("<trkpt lat=\"41.157900\" lon=\"-8.629100\">"));
         assertTrue(content.contains("<trkpt lat=\"38.722300\" lon=\"-9.139300\">"));
     }
+
+    // Rota longa com coordenadas de 6 casas decimais (como a polyline6 da OSRM)
+    private Route longRoute(int points) {
+        double[] latLon = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            latLon[2 * i] = Math.round((38.7 + i * 0.000123) * 1e6) / 1e6;
+            latLon[2 * i + 1] = Math.round((-9.1 - i * 0.000077) * 1e6) / 1e6;
+        }
+        return new Route(RouteGeometry.ofInterleaved(latLon, points), 12.5, 900L, TransportMode.FOOT,
+                new ArrayList<>());
+    }
+
+    @Test
+    void exportToJson_writesExactCoordinatesAndEscapedStrings() throws IOException {
+        Route route = longRoute(5000);
+        route.getPois().add(new POI("Bar \"O Cantinho\"", "amenity:bar", new Point(38.70, -9.10, null)));
+        StringWriter out = new StringWriter();
+
+        RouteExporter.exportToJson(route, out);
+
+        JsonObject root = JsonParser.parseString(out.toString()).getAsJsonObject();
+        assertEquals(12.5, root.get("distance_km").getAsDouble());
+        assertEquals(900L, root.get("duration_sec").getAsLong());
+        assertEquals("FOOT", root.get("mode").getAsString());
+        JsonArray points = root.getAsJsonArray("route_points");
+        assertEquals(5000, points.size());
+        for (int i = 0; i < points.size(); i++) {
+            JsonObject p = points.get(i).getAsJsonObject();
+            assertEquals(route.getLatitude(i), p.get("lat").getAsDouble());
+            assertEquals(route.getLongitude(i), p.get("lon").getAsDouble());
+        }
+        assertEquals("Bar \"O Cantinho\"",
+                root.getAsJsonArray("pois").get(0).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    void exportToJson_isStrictJsonWithNestedPointsAndPois() throws IOException {
+        Route route = sampleRoute();
+        route.getPois().add(new POI("Linha\n\"2\"\t\\ \u0001", null, new Point(38.71, -9.14, null)));
+        StringWriter out = new StringWriter();
+
+        RouteExporter.exportToJson(route, out);
+
+        // TypeAdapter.fromJson(String) lê em modo estrito (JsonParser aceitaria JSON lenient)
+        JsonObject root = new Gson().getAdapter(JsonObject.class).fromJson(out.toString());
+        assertEquals(List.of("distance_km", "duration_sec", "mode", "route_points", "pois"),
+                new ArrayList<>(root.keySet()));
+        JsonArray points = root.getAsJsonArray("route_points");
+        assertEquals(2, points.size());
+        assertEquals(41.1579, points.get(0).getAsJsonObject().get("lat").getAsDouble());
+        assertEquals(-9.1393, points.get(1).getAsJsonObject().get("lon").getAsDouble());
+
+        JsonArray pois = root.getAsJsonArray("pois");
+        assertEquals(2, pois.size());
+        JsonObject cafe = pois.get(0).getAsJsonObject();
+        assertEquals("Café Central", cafe.get("name").getAsString());
+        assertEquals("amenity:cafe", cafe.get("category").getAsString());
+        assertEquals(41.15, cafe.get("lat").getAsDouble());
+        JsonObject other = pois.get(1).getAsJsonObject();
+        assertEquals("Linha\n\"2\"\t\\ \u0001", other.get("name").getAsString());
+        assertTrue(other.get("category").isJsonNull());
+        assertEquals(-9.14, other.get("lon").getAsDouble());
+    }
+
+    @Test
+    void exportToJson_writesNonFiniteCoordinatesAsNull() throws IOException {
+        List<Point> points = List.of(new Point(Double.NaN, -8.6291, null),
+                new Point(38.7223, Double.POSITIVE_INFINITY, null));
+        Route route = new Route(points, 313.0, 10800L, TransportMode.CAR, new ArrayList<>());
+        StringWriter out = new StringWriter();
+
+        RouteExporter.exportToJson(route, out);
+
+        JsonArray parsed = new Gson().getAdapter(JsonObject.class).fromJson(out.toString())
+                .getAsJsonArray("route_points");
+        assertTrue(parsed.get(0).getAsJsonObject().get("lat").isJsonNull());
+        assertEquals(-8.6291, parsed.get(0).getAsJsonObject().get("lon").getAsDouble());
+        assertTrue(parsed.get(1).getAsJsonObject().get("lon").isJsonNull());
+    }
+
+    @Test
+    void exportToGPX_isWellFormedXml() throws Exception {
+        Route route = longRoute(1000);
+        StringWriter out = new StringWriter();
+
+        RouteExporter.exportToGPX(route, out);
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)));
+        NodeList trkpts = doc.getElementsByTagName("trkpt");
+        assertEquals(1000, trkpts.getLength());
+        Element last = (Element) trkpts.item(999);
+        assertEquals(route.getLatitude(999), Double.parseDouble(last.getAttribute("lat")));
+        assertEquals(route.getLongitude(999), Double.parseDouble(last.getAttribute("lon")));
+    }
+
+    @Test
+    void export_gzSuffixWritesCompressedFile() throws IOException {
+        Route route = longRoute(2000);
+        Path plain = Files.createTempFile("route", ".gpx");
+        Path gz = Files.createTempFile("route", ".gpx.gz");
+        Path jsonGz = Files.createTempFile("route", ".json.gz");
+        tempFiles.addAll(List.of(plain, gz, jsonGz));
+
+        RouteExporter.exportToGPX(route, plain.toString());
+        RouteExporter.exportToGPX(route, gz.toString());
+        RouteExporter.exportToJson(route, jsonGz.toString());
+
+        assertTrue(Files.size(gz) < Files.size(plain));
+        assertEquals(Files.readString(plain, StandardCharsets.UTF_8), gunzip(gz));
+        assertEquals(2000, JsonParser.parseString(gunzip(jsonGz)).getAsJsonObject()
+                .getAsJsonArray("route_points").size());
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
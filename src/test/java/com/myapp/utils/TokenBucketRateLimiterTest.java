@@ -0,0 +1,94 @@
+package com.myapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsAvailableImmediately() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1.0, 3);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 100, "a rajada inicial não deve bloquear");
+    }
+
+    @Test
+    void acquireWaitsForRefillWhenEmpty() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10.0, 1);
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 80, "devia esperar ~100 ms pela ficha seguinte");
+    }
+
+    @Test
+    void tryAcquireFailsFastWhenTokenWouldArriveAfterTimeout() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.5, 1);
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire(100, TimeUnit.MILLISECONDS));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 50, "não deve esperar quando o prazo é insuficiente");
+    }
+
+    @Test
+    void interruptedAcquireReturnsReservedToken() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.5, 1);
+        assertDoesNotThrow(limiter::acquire);
+
+        // a espera de ~2 s pela ficha seguinte é interrompida logo no início
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, limiter::acquire);
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> limiter.tryAcquire(5, TimeUnit.SECONDS));
+
+        assertFalse(Thread.interrupted());
+        double available = limiter.availablePermits();
+        assertTrue(available > -0.5 && available < 0.5, "fichas disponíveis: " + available);
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0.0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(1.0, 0));
+    }
+
+    @Test
+    void asyncAcquireCompletesWhenTokenArrives() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10.0, 1);
+        assertTrue(limiter.acquireAsync().isDone(), "a primeira ficha está disponível");
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        assertFalse(second.isDone(), "não deve bloquear o chamador");
+        second.get(1, TimeUnit.SECONDS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 80, "devia completar após ~100 ms, foram " + elapsedMs);
+    }
+
+    @Test
+    void asyncTryAcquireFailsFastBeyondTimeout() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.5, 1);
+        assertTrue(limiter.tryAcquireAsync(0, TimeUnit.MILLISECONDS).get());
+
+        CompletableFuture<Boolean> denied = limiter.tryAcquireAsync(100, TimeUnit.MILLISECONDS);
+        assertTrue(denied.isDone());
+        assertFalse(denied.get());
+    }
+}
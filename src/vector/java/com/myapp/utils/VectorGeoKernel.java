@@ -0,0 +1,72 @@
+package com.myapp.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Versão de {@link GeoMath#segmentMeters} com a Vector API (módulo incubado
+ * {@code jdk.incubator.vector}).
+ *
+ * Só é compilada com o perfil Maven {@code vector} e só é carregada por
+ * {@link GeoMath} quando a JVM arranca com
+ * {@code --add-modules jdk.incubator.vector}; sem isso fica a versão escalar.
+ *
+ * Os cossenos das latitudes são calculados numa primeira passagem (um por
+ * ponto). Na segunda, cada bloco de troços calcula a aproximação
+ * equirectangular e só recorre à Haversine (senos e arco-seno vetoriais) se
+ * algum troço do bloco for longo; o resultado é o mesmo da versão escalar, a
+ * menos de arredondamentos.
+ */
+final class VectorGeoKernel implements GeoMath.SegmentKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    @Override
+    public void segmentMeters(double[] lat, double[] lon, int count, double[] out) {
+        if (count == 0) {
+            return;
+        }
+        double[] cos = new double[count];
+        int i = 0;
+        for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, lat, i).mul(DEG_TO_RAD).lanewise(VectorOperators.COS).intoArray(cos, i);
+        }
+        for (; i < count; i++) {
+            cos[i] = Math.cos(lat[i] * DEG_TO_RAD);
+        }
+
+        out[0] = 0.0;
+        i = 1;
+        for (int bound = 1 + SPECIES.loopBound(count - 1); i < bound; i += SPECIES.length()) {
+            DoubleVector dPhi = DoubleVector.fromArray(SPECIES, lat, i)
+                    .sub(DoubleVector.fromArray(SPECIES, lat, i - 1)).mul(DEG_TO_RAD);
+            DoubleVector dLambda = DoubleVector.fromArray(SPECIES, lon, i)
+                    .sub(DoubleVector.fromArray(SPECIES, lon, i - 1)).mul(DEG_TO_RAD);
+            dLambda = dLambda.sub(TWO_PI, dLambda.compare(VectorOperators.GT, Math.PI))
+                    .add(TWO_PI, dLambda.compare(VectorOperators.LT, -Math.PI));
+            DoubleVector cos1 = DoubleVector.fromArray(SPECIES, cos, i - 1);
+            DoubleVector cos2 = DoubleVector.fromArray(SPECIES, cos, i);
+
+            DoubleVector x = dLambda.mul(cos1.add(cos2)).mul(0.5);
+            DoubleVector d = x.fma(x, dPhi.mul(dPhi)).sqrt().mul(GeoMath.EARTH_RADIUS_M);
+
+            VectorMask<Double> longSegment = dPhi.abs().add(dLambda.abs())
+                    .compare(VectorOperators.GE, GeoMath.FAST_PATH_MAX_RAD);
+            if (longSegment.anyTrue()) {
+                DoubleVector sinPhi = dPhi.mul(0.5).lanewise(VectorOperators.SIN);
+                DoubleVector sinLambda = dLambda.mul(0.5).lanewise(VectorOperators.SIN);
+                DoubleVector a = cos1.mul(cos2).mul(sinLambda).fma(sinLambda, sinPhi.mul(sinPhi)).min(1.0);
+                DoubleVector h = a.sqrt().lanewise(VectorOperators.ASIN).mul(2 * GeoMath.EARTH_RADIUS_M);
+                d = d.blend(h, longSegment);
+            }
+            d.intoArray(out, i);
+        }
+        for (; i < count; i++) {
+            out[i] = GeoMath.segment((lat[i] - lat[i - 1]) * DEG_TO_RAD, (lon[i] - lon[i - 1]) * DEG_TO_RAD,
+                    cos[i - 1], cos[i]);
+        }
+    }
+}